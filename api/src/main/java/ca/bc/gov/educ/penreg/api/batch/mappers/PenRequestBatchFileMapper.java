@@ -66,6 +66,8 @@ public interface PenRequestBatchFileMapper {
   @Mapping(expression = "java( org.apache.commons.lang3.StringUtils.trim(file.getBatchFileTrailer().getProductID() ))", target = "sisProductID")
   @Mapping(expression = "java( org.apache.commons.lang3.StringUtils.trim(file.getBatchFileTrailer().getProductName() ))", target = "sisProductName")
   @Mapping(expression = "java( org.apache.commons.lang3.StringUtils.trim(file.getBatchFileTrailer().getVendorName() ))", target = "sisVendorName", nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
+  @Mapping(source = "file.fileCharset", target = "fileCharset")
+  @Mapping(source = "file.fileDigest", target = "fileDigest")
   PenRequestBatchEntity toPenReqBatchEntityLoaded(PENWebBlobEntity penWebBlobEntity, BatchFile file);
 
 
@@ -84,6 +86,7 @@ public interface PenRequestBatchFileMapper {
   @Mapping(target = "matchAlgorithmStatusCode", ignore = true)
   @Mapping(target = "infoRequest", ignore = true)
   @Mapping(target = "bestMatchPEN", ignore = true)
+  @Mapping(target = "repeatCheckFingerprint", ignore = true)
   @Mapping(target = "studentID", ignore = true)
   @Mapping(target = "penRequestBatchStudentStatusCode", ignore = true)
   @Mapping(target = "penRequestBatchStudentID", ignore = true)
@@ -140,6 +143,8 @@ public interface PenRequestBatchFileMapper {
   @Mapping(target = "updateUser", constant = PEN_REQUEST_BATCH_API)
   @Mapping(target = "updateDate", expression = "java(java.time.LocalDateTime.now() )")
   @Mapping(target = "createUser", constant = PEN_REQUEST_BATCH_API)
+  @Mapping(source = "batchFile.fileCharset", target = "fileCharset")
+  @Mapping(source = "batchFile.fileDigest", target = "fileDigest")
   @Mapping(target = "createDate", expression = "java(java.time.LocalDateTime.now() )")
   PenRequestBatchEntity toPenReqBatchEntityForBusinessException(PENWebBlobEntity penWebBlobEntity, String reason, PenRequestBatchStatusCodes penRequestBatchStatusCode, BatchFile batchFile, boolean persistStudentRecords);
 
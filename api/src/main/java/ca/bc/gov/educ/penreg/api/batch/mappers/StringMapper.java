@@ -7,6 +7,32 @@ import org.apache.commons.lang3.StringUtils;
  */
 public final class StringMapper {
 
+  /**
+   * The characters below this one are scrubbed through {@link #SCRUBBED_CHARACTERS}, it covers the latin, greek,
+   * cyrillic and latin extended additional blocks. Any other character falls back to the normalizer.
+   */
+  private static final char SCRUBBED_CHARACTERS_LIMIT = '\u1F00';
+
+  /**
+   * The scrubbed, upper cased value of each character below {@link #SCRUBBED_CHARACTERS_LIMIT}, empty for the
+   * combining diacritical marks. It is built with the normalizer, so both always give the same result.
+   */
+  private static final String[] SCRUBBED_CHARACTERS = new String[SCRUBBED_CHARACTERS_LIMIT];
+
+  /**
+   * The characters below {@link #SCRUBBED_CHARACTERS_LIMIT} which are kept as is, mostly the upper case ascii.
+   */
+  private static final boolean[] UNCHANGED_CHARACTERS = new boolean[SCRUBBED_CHARACTERS_LIMIT];
+
+  static {
+    for (char character = 0; character < SCRUBBED_CHARACTERS_LIMIT; character++) {
+      // surrounded by letters so that the character is neither trimmed nor seen as a blank value.
+      final String scrubbed = trimUppercaseAndScrubDiacriticalMarksWithNormalizer("A" + character + "A");
+      SCRUBBED_CHARACTERS[character] = scrubbed.substring(1, scrubbed.length() - 1).intern();
+      UNCHANGED_CHARACTERS[character] = SCRUBBED_CHARACTERS[character].equals(String.valueOf(character));
+    }
+  }
+
   private StringMapper() {
 
   }
@@ -24,11 +50,56 @@ public final class StringMapper {
     return value;
   }
 
-  public static String trimUppercaseAndScrubDiacriticalMarks(String value){
+  /**
+   * Trim, upper case and replace the characters with diacritical marks by their base character, any other non ascii
+   * character is replaced by `¿`.
+   * The value is scrubbed in a single pass, a value which is already trimmed, upper cased ascii is returned as is.
+   *
+   * @param value the value
+   * @return the scrubbed value
+   */
+  public static String trimUppercaseAndScrubDiacriticalMarks(final String value) {
+    if (StringUtils.isBlank(value)) {
+      return value;
+    }
+    int start = 0;
+    int end = value.length();
+    while (start < end && value.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && value.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    int index = start;
+    while (index < end && value.charAt(index) < SCRUBBED_CHARACTERS_LIMIT && UNCHANGED_CHARACTERS[value.charAt(index)]) {
+      index++;
+    }
+    if (index == end) {
+      return value.substring(start, end); // returns the value itself when nothing was trimmed.
+    }
+    final StringBuilder scrubbed = new StringBuilder(end - start).append(value, start, index);
+    for (; index < end; index++) {
+      final char character = value.charAt(index);
+      if (character >= SCRUBBED_CHARACTERS_LIMIT) {
+        return trimUppercaseAndScrubDiacriticalMarksWithNormalizer(value);
+      }
+      scrubbed.append(SCRUBBED_CHARACTERS[character]);
+    }
+    return scrubbed.toString();
+  }
+
+  /**
+   * Trim, upper case and scrub the diacritical marks with the unicode normalizer.
+   * It is the reference for {@link #trimUppercaseAndScrubDiacriticalMarks(String)} and is used for the characters
+   * which are not in its table.
+   *
+   * @param value the value
+   * @return the scrubbed value
+   */
+  static String trimUppercaseAndScrubDiacriticalMarksWithNormalizer(final String value) {
     if (StringUtils.isNotBlank(value)) {
       return StringUtils.stripAccents(StringUtils.trim(value)).replaceAll("[^\\p{ASCII}]", "¿").toUpperCase();
     }
     return value;
   }
-
 }
@@ -0,0 +1,94 @@
+package ca.bc.gov.educ.penreg.api.batch.parser;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decides the charset of a batch file from the first few KB of the file instead of running the charset detector over
+ * the whole file.
+ * The files are either UTF-8 or windows-1252, so a prefix which is valid UTF-8 (plain ascii included) is read as UTF-8
+ * and anything else as windows-1252. A UTF-8 file which turns out to be malformed after the prefix has to be read again
+ * with {@link #FALLBACK_CHARSET}.
+ *
+ * @author OM
+ */
+public final class BatchFileCharsetDetector {
+
+  /**
+   * The charset of the files which are not UTF-8.
+   */
+  public static final Charset FALLBACK_CHARSET = Charset.forName("windows-1252");
+
+  /**
+   * The number of bytes the decision is made from.
+   */
+  static final int PREFIX_LENGTH = 8 * 1024;
+
+  private BatchFileCharsetDetector() {
+
+  }
+
+  /**
+   * Detect the charset of a batch file from its first {@link #PREFIX_LENGTH} bytes.
+   *
+   * @param fileContents the file contents
+   * @return UTF-8 or windows-1252
+   */
+  public static Charset detect(final byte[] fileContents) {
+    return isUtf8Prefix(fileContents, Math.min(fileContents.length, PREFIX_LENGTH)) ? StandardCharsets.UTF_8 : FALLBACK_CHARSET;
+  }
+
+  /**
+   * Is the prefix valid UTF-8, a multi byte sequence cut at the end of the prefix is accepted as long as the bytes which
+   * are there are valid.
+   *
+   * @param bytes  the bytes
+   * @param length the length of the prefix
+   * @return the boolean
+   */
+  private static boolean isUtf8Prefix(final byte[] bytes, final int length) {
+    int index = 0;
+    while (index < length) {
+      final int lead = bytes[index] & 0xFF;
+      if (lead < 0x80) { // ascii, the fast path.
+        index++;
+        continue;
+      }
+      final int continuationBytes;
+      int minSecondByte = 0x80;
+      int maxSecondByte = 0xBF;
+      if (lead >= 0xC2 && lead <= 0xDF) {
+        continuationBytes = 1;
+      } else if (lead >= 0xE0 && lead <= 0xEF) {
+        continuationBytes = 2;
+        if (lead == 0xE0) {
+          minSecondByte = 0xA0; // overlong
+        } else if (lead == 0xED) {
+          maxSecondByte = 0x9F; // surrogates
+        }
+      } else if (lead >= 0xF0 && lead <= 0xF4) {
+        continuationBytes = 3;
+        if (lead == 0xF0) {
+          minSecondByte = 0x90; // overlong
+        } else if (lead == 0xF4) {
+          maxSecondByte = 0x8F; // above U+10FFFF
+        }
+      } else {
+        return false;
+      }
+      for (int continuation = 1; continuation <= continuationBytes; continuation++) {
+        if (index + continuation >= length) {
+          return true; // the sequence is cut by the end of the prefix.
+        }
+        final int value = bytes[index + continuation] & 0xFF;
+        final int min = continuation == 1 ? minSecondByte : 0x80;
+        final int max = continuation == 1 ? maxSecondByte : 0xBF;
+        if (value < min || value > max) {
+          return false;
+        }
+      }
+      index += continuationBytes + 1;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,101 @@
+package ca.bc.gov.educ.penreg.api.batch.parser;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The layout of one fixed length record (header, detail or trailer) as described by a RECORD element of mapper.xml.
+ * Column values follow the flatpack rules the batch files were always parsed with, leading whitespace is kept,
+ * trailing spaces and tabs are removed and empty values become null.
+ *
+ * @author OM
+ */
+public class FixedLengthRecordLayout {
+
+  /**
+   * The record id, `detail` for the columns which are not wrapped in a RECORD element.
+   */
+  @Getter
+  private final String id;
+  /**
+   * The indicator which identifies the record, null for the detail record.
+   */
+  private final String indicator;
+  /**
+   * The zero based position where the indicator starts.
+   */
+  private final int indicatorStartIndex;
+  /**
+   * The expected length of the record.
+   */
+  @Getter
+  private final int recordLength;
+  /**
+   * The start and end index of each column keyed by column name.
+   */
+  private final Map<String, int[]> columns;
+
+  /**
+   * Instantiates a new Fixed length record layout.
+   *
+   * @param id                  the id
+   * @param indicator           the indicator
+   * @param indicatorStartIndex the indicator start index
+   * @param columnLengths       the column lengths in the order they appear on the record
+   */
+  FixedLengthRecordLayout(final String id, final String indicator, final int indicatorStartIndex, final Map<String, Integer> columnLengths) {
+    this.id = id;
+    this.indicator = indicator;
+    this.indicatorStartIndex = indicatorStartIndex;
+    final Map<String, int[]> columnPositions = new LinkedHashMap<>();
+    var position = 0;
+    for (final var column : columnLengths.entrySet()) {
+      columnPositions.put(column.getKey(), new int[]{position, position + column.getValue()});
+      position += column.getValue();
+    }
+    this.columns = Collections.unmodifiableMap(columnPositions);
+    this.recordLength = position;
+  }
+
+  /**
+   * Is this the layout of the given line.
+   *
+   * @param line the line
+   * @return the boolean
+   */
+  public boolean isRecordOf(final String line) {
+    return this.indicator != null && line.startsWith(this.indicator, this.indicatorStartIndex);
+  }
+
+  /**
+   * Is the line the expected length for this layout.
+   *
+   * @param line the line
+   * @return the boolean
+   */
+  public boolean hasRecordLength(final String line) {
+    return line.length() == this.recordLength;
+  }
+
+  /**
+   * Gets the value of a column from a line which has the expected record length.
+   *
+   * @param line       the line
+   * @param columnName the column name
+   * @return the value, null when the column is blank
+   */
+  public String getValue(final String line, final String columnName) {
+    final int[] position = this.columns.get(columnName);
+    if (position == null) {
+      throw new IllegalArgumentException("Column " + columnName + " is not defined on record " + this.id);
+    }
+    var end = position[1];
+    while (end > position[0] && (line.charAt(end - 1) == ' ' || line.charAt(end - 1) == '\t')) {
+      end--;
+    }
+    return end == position[0] ? null : line.substring(position[0], end);
+  }
+}
@@ -0,0 +1,263 @@
+package ca.bc.gov.educ.penreg.api.batch.parser;
+
+import ca.bc.gov.educ.penreg.api.batch.mappers.StringMapper;
+import ca.bc.gov.educ.penreg.api.batch.struct.BatchFileHeader;
+import ca.bc.gov.educ.penreg.api.batch.struct.BatchFileTrailer;
+import ca.bc.gov.educ.penreg.api.batch.struct.ParsedBatchFile;
+import ca.bc.gov.educ.penreg.api.batch.struct.StudentDetails;
+import ca.bc.gov.educ.penreg.api.exception.PenRegAPIRuntimeException;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static ca.bc.gov.educ.penreg.api.batch.processor.PenRegBatchProcessor.TRANSACTION_CODE_STUDENT_DETAILS_RECORD;
+import static ca.bc.gov.educ.penreg.api.constants.BatchFileConstants.*;
+
+/**
+ * Streaming parser for the FFI/SRM/BTR fixed length batch file, driven by the record layouts in mapper.xml.
+ * The file is read once, line by line, so only the current record and the parsed student details are held in memory.
+ *
+ * @author OM
+ */
+@Component
+@Slf4j
+public class PenRequestBatchFileParser {
+
+  /**
+   * The record id flatpack uses for the columns which are not wrapped in a RECORD element.
+   */
+  public static final String DETAIL_RECORD_ID = "detail";
+  /**
+   * The mapper file.
+   */
+  private static final String MAPPER_FILE = "mapper.xml";
+  /**
+   * The Header layout.
+   */
+  private final FixedLengthRecordLayout headerLayout;
+  /**
+   * The Detail layout.
+   */
+  private final FixedLengthRecordLayout detailLayout;
+  /**
+   * The Trailer layout.
+   */
+  private final FixedLengthRecordLayout trailerLayout;
+
+  /**
+   * Instantiates a new Pen request batch file parser, the layouts are read once from mapper.xml on the classpath.
+   */
+  public PenRequestBatchFileParser() {
+    final Map<String, FixedLengthRecordLayout> layouts = loadLayouts();
+    this.headerLayout = Objects.requireNonNull(layouts.get(HEADER.getName()), "header record is missing in " + MAPPER_FILE);
+    this.detailLayout = Objects.requireNonNull(layouts.get(DETAIL_RECORD_ID), "detail columns are missing in " + MAPPER_FILE);
+    this.trailerLayout = Objects.requireNonNull(layouts.get(TRAILER.getName()), "trailer record is missing in " + MAPPER_FILE);
+  }
+
+  /**
+   * Parse the batch file in a single forward pass.
+   * Blank lines are skipped but still counted in the line numbers, exactly as flatpack did.
+   *
+   * @param reader the reader of the batch file, it is not closed by this method
+   * @return the parsed batch file
+   * @throws IOException the io exception
+   */
+  public ParsedBatchFile parse(@NonNull final Reader reader) throws IOException {
+    final var parsedBatchFile = new ParsedBatchFile();
+    final var bufferedReader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    long lineNumber = 0;
+    long recordIndex = 0; // index of the records which have the expected length, the header being 0.
+    String line;
+    while ((line = bufferedReader.readLine()) != null) {
+      lineNumber++;
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      if (parsedBatchFile.getFirstRecordRawData() == null) {
+        parsedBatchFile.setFirstRecordRawData(line);
+      }
+      parsedBatchFile.setLastRecordRawData(line);
+      final var layout = this.getLayout(line);
+      if (!layout.hasRecordLength(line)) {
+        this.recordLengthError(parsedBatchFile, layout, line, lineNumber);
+        continue;
+      }
+      if (layout == this.headerLayout) {
+        //Just set transactionCode because of different flavours of header
+        parsedBatchFile.setBatchFileHeader(BatchFileHeader.builder().transactionCode(layout.getValue(line, TRANSACTION_CODE.getName())).build());
+      } else if (layout == this.trailerLayout) {
+        parsedBatchFile.setBatchFileTrailer(this.getTrailer(line));
+      } else if (parsedBatchFile.getInvalidTransactionCodeRecordIndex() == null) {
+        this.addStudentDetails(parsedBatchFile, line, recordIndex);
+      }
+      recordIndex++;
+    }
+    return parsedBatchFile;
+  }
+
+  /**
+   * Gets the layout of a line, every line which is not a header or trailer is a detail line.
+   *
+   * @param line the line
+   * @return the layout
+   */
+  private FixedLengthRecordLayout getLayout(final String line) {
+    if (this.headerLayout.isRecordOf(line)) {
+      return this.headerLayout;
+    } else if (this.trailerLayout.isRecordOf(line)) {
+      return this.trailerLayout;
+    }
+    return this.detailLayout;
+  }
+
+  /**
+   * Record a line which does not have the expected record length.
+   *
+   * @param parsedBatchFile the parsed batch file
+   * @param layout          the layout
+   * @param line            the line
+   * @param lineNumber      the line number
+   */
+  private void recordLengthError(final ParsedBatchFile parsedBatchFile, final FixedLengthRecordLayout layout, final String line, final long lineNumber) {
+    parsedBatchFile.setLastErrorRawData(line);
+    if (layout == this.detailLayout && parsedBatchFile.getDetailRecordLengthError() == null) {
+      parsedBatchFile.setDetailRecordLengthError(new ParsedBatchFile.RecordLengthError(lineNumber, line.length(), layout.getRecordLength()));
+    }
+  }
+
+  /**
+   * Add the student details of a detail line, if the transaction code is invalid the position of the record is kept
+   * and no further student details are added.
+   *
+   * @param parsedBatchFile the parsed batch file
+   * @param line            the line
+   * @param recordIndex     the record index
+   */
+  private void addStudentDetails(final ParsedBatchFile parsedBatchFile, final String line, final long recordIndex) {
+    final var transactionCode = this.detailLayout.getValue(line, TRANSACTION_CODE.getName());
+    if (!TRANSACTION_CODE_STUDENT_DETAILS_RECORD.equals(transactionCode)) {
+      parsedBatchFile.setInvalidTransactionCodeRecordIndex(String.valueOf(recordIndex));
+      parsedBatchFile.setInvalidTransactionCodeLocalStudentID(this.detailLayout.getValue(line, LOCAL_STUDENT_ID.getName()));
+      return;
+    }
+    parsedBatchFile.getStudentDetails().add(StudentDetails.builder()
+      .birthDate(this.getScrubbedValue(line, BIRTH_DATE.getName()))
+      .enrolledGradeCode(this.getScrubbedValue(line, ENROLLED_GRADE_CODE.getName()))
+      .gender(this.getScrubbedValue(line, GENDER.getName()))
+      .legalGivenName(this.getScrubbedValue(line, LEGAL_GIVEN_NAME.getName()))
+      .legalMiddleName(this.getScrubbedValue(line, LEGAL_MIDDLE_NAME.getName()))
+      .legalSurname(this.getScrubbedValue(line, LEGAL_SURNAME.getName()))
+      .localStudentID(this.getScrubbedValue(line, LOCAL_STUDENT_ID.getName()))
+      .pen(this.detailLayout.getValue(line, PEN.getName()))
+      .postalCode(this.getScrubbedValue(line, POSTAL_CODE.getName()))
+      .transactionCode(transactionCode)
+      .unused(this.detailLayout.getValue(line, UNUSED.getName()))
+      .unusedSecond(this.detailLayout.getValue(line, UNUSED_SECOND.getName()))
+      .usualGivenName(this.getScrubbedValue(line, USUAL_GIVEN_NAME.getName()))
+      .usualMiddleName(this.getScrubbedValue(line, USUAL_MIDDLE_NAME.getName()))
+      .usualSurname(this.getScrubbedValue(line, USUAL_SURNAME.getName()))
+      .build());
+  }
+
+  /**
+   * Gets the trimmed, upper cased value of a detail column with the diacritical marks scrubbed.
+   *
+   * @param line       the line
+   * @param columnName the column name
+   * @return the scrubbed value
+   */
+  private String getScrubbedValue(final String line, final String columnName) {
+    return StringMapper.trimUppercaseAndScrubDiacriticalMarks(this.detailLayout.getValue(line, columnName));
+  }
+
+  /**
+   * Gets trailer.
+   *
+   * @param line the line
+   * @return the trailer
+   */
+  private BatchFileTrailer getTrailer(final String line) {
+    return BatchFileTrailer.builder()
+      .transactionCode(this.trailerLayout.getValue(line, TRANSACTION_CODE.getName()))
+      .productID(this.trailerLayout.getValue(line, PRODUCT_ID.getName()))
+      .productName(this.trailerLayout.getValue(line, PRODUCT_NAME.getName()))
+      .studentCount(this.trailerLayout.getValue(line, STUDENT_COUNT.getName()))
+      .vendorName(this.trailerLayout.getValue(line, VENDOR_NAME.getName()))
+      .build();
+  }
+
+  /**
+   * Load the record layouts from mapper.xml, the flatpack DTD is not loaded as the file is read with the DOM parser.
+   *
+   * @return the layouts keyed by record id
+   */
+  private static Map<String, FixedLengthRecordLayout> loadLayouts() {
+    try (final InputStream mapperStream = Objects.requireNonNull(PenRequestBatchFileParser.class.getClassLoader().getResourceAsStream(MAPPER_FILE), MAPPER_FILE + " not found")) {
+      final var factory = DocumentBuilderFactory.newInstance();
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+      final var root = factory.newDocumentBuilder().parse(mapperStream).getDocumentElement();
+      final Map<String, FixedLengthRecordLayout> layouts = new HashMap<>();
+      final Map<String, Integer> detailColumns = new LinkedHashMap<>();
+      for (var node = root.getFirstChild(); node != null; node = node.getNextSibling()) {
+        if (node.getNodeType() != Node.ELEMENT_NODE) {
+          continue;
+        }
+        final var element = (Element) node;
+        if ("RECORD".equals(element.getTagName())) {
+          final var startPosition = element.hasAttribute("startPosition") ? Integer.parseInt(element.getAttribute("startPosition")) : 1;
+          layouts.put(element.getAttribute("id"), new FixedLengthRecordLayout(element.getAttribute("id"), element.getAttribute("indicator"), startPosition - 1, getColumns(element)));
+        } else if ("COLUMN".equals(element.getTagName())) {
+          putColumn(detailColumns, element);
+        }
+      }
+      layouts.put(DETAIL_RECORD_ID, new FixedLengthRecordLayout(DETAIL_RECORD_ID, null, 0, detailColumns));
+      return layouts;
+    } catch (final IOException | ParserConfigurationException | SAXException e) {
+      log.error("Could not read the batch file layout from {}", MAPPER_FILE, e);
+      throw new PenRegAPIRuntimeException(e);
+    }
+  }
+
+  /**
+   * Gets the columns of a RECORD element.
+   *
+   * @param recordElement the record element
+   * @return the column lengths keyed by column name
+   */
+  private static Map<String, Integer> getColumns(final Element recordElement) {
+    final Map<String, Integer> columns = new LinkedHashMap<>();
+    for (var node = recordElement.getFirstChild(); node != null; node = node.getNextSibling()) {
+      if (node.getNodeType() == Node.ELEMENT_NODE && "COLUMN".equals(((Element) node).getTagName())) {
+        putColumn(columns, (Element) node);
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Put a COLUMN element, a column without length is one character long as in flatpack.
+   *
+   * @param columns       the columns
+   * @param columnElement the column element
+   */
+  private static void putColumn(final Map<String, Integer> columns, final Element columnElement) {
+    final var length = columnElement.hasAttribute("length") ? Integer.parseInt(columnElement.getAttribute("length")) : 1;
+    columns.put(columnElement.getAttribute("name"), length);
+  }
+}
@@ -3,13 +3,13 @@ package ca.bc.gov.educ.penreg.api.batch.processor;
 import ca.bc.gov.educ.penreg.api.batch.exception.FileError;
 import ca.bc.gov.educ.penreg.api.batch.exception.FileUnProcessableException;
 import ca.bc.gov.educ.penreg.api.batch.mappers.PenRequestBatchFileMapper;
-import ca.bc.gov.educ.penreg.api.batch.mappers.StringMapper;
+import ca.bc.gov.educ.penreg.api.batch.parser.BatchFileCharsetDetector;
+import ca.bc.gov.educ.penreg.api.batch.parser.PenRequestBatchFileParser;
 import ca.bc.gov.educ.penreg.api.batch.service.DuplicateFileCheckService;
 import ca.bc.gov.educ.penreg.api.batch.service.PenRequestBatchFileService;
 import ca.bc.gov.educ.penreg.api.batch.struct.BatchFile;
-import ca.bc.gov.educ.penreg.api.batch.struct.BatchFileHeader;
 import ca.bc.gov.educ.penreg.api.batch.struct.BatchFileTrailer;
-import ca.bc.gov.educ.penreg.api.batch.struct.StudentDetails;
+import ca.bc.gov.educ.penreg.api.batch.struct.ParsedBatchFile;
 import ca.bc.gov.educ.penreg.api.batch.validator.PenRequestBatchFileValidator;
 import ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStatusCodes;
 import ca.bc.gov.educ.penreg.api.constants.SchoolGroupCodes;
@@ -20,22 +20,21 @@ import ca.bc.gov.educ.penreg.api.rest.RestUtils;
 import ca.bc.gov.educ.penreg.api.service.NotificationService;
 import ca.bc.gov.educ.penreg.api.service.StudentRegistrationContactService;
 import ca.bc.gov.educ.penreg.api.struct.School;
+import ca.bc.gov.educ.penreg.api.util.DigestUtil;
 import com.google.common.base.Stopwatch;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import net.sf.flatpack.DataSet;
-import net.sf.flatpack.DefaultParserFactory;
 import org.apache.commons.lang3.StringUtils;
-import org.mozilla.universalchardet.UniversalDetector;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.*;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -45,7 +44,6 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ca.bc.gov.educ.penreg.api.batch.exception.FileError.*;
-import static ca.bc.gov.educ.penreg.api.constants.BatchFileConstants.*;
 import static lombok.AccessLevel.PRIVATE;
 
 /**
@@ -106,6 +104,10 @@ public class PenRegBatchProcessor {
    * The Pen request batch file validator.
    */
   private final PenRequestBatchFileValidator penRequestBatchFileValidator;
+  /**
+   * The Pen request batch file parser.
+   */
+  private final PenRequestBatchFileParser penRequestBatchFileParser;
 
   /**
    * Instantiates a new Pen reg batch processor.
@@ -117,9 +119,11 @@ public class PenRegBatchProcessor {
    * @param studentRegistrationContactService  the student registration contact service
    * @param duplicateFileCheckServiceList      the duplicate file check service list
    * @param penRequestBatchFileValidator       the pen request batch file validator
+   * @param penRequestBatchFileParser          the pen request batch file parser
+   * @param restUtils                          the rest utils
    */
   @Autowired
-  public PenRegBatchProcessor(final PenRegBatchStudentRecordsProcessor penRegBatchStudentRecordsProcessor, final PenRequestBatchFileService penRequestBatchFileService, final ApplicationProperties applicationProperties, final NotificationService notificationService, final StudentRegistrationContactService studentRegistrationContactService, final List<DuplicateFileCheckService> duplicateFileCheckServiceList, final PenRequestBatchFileValidator penRequestBatchFileValidator, final RestUtils restUtils) {
+  public PenRegBatchProcessor(final PenRegBatchStudentRecordsProcessor penRegBatchStudentRecordsProcessor, final PenRequestBatchFileService penRequestBatchFileService, final ApplicationProperties applicationProperties, final NotificationService notificationService, final StudentRegistrationContactService studentRegistrationContactService, final List<DuplicateFileCheckService> duplicateFileCheckServiceList, final PenRequestBatchFileValidator penRequestBatchFileValidator, final PenRequestBatchFileParser penRequestBatchFileParser, final RestUtils restUtils) {
     this.penRegBatchStudentRecordsProcessor = penRegBatchStudentRecordsProcessor;
     this.penRequestBatchFileService = penRequestBatchFileService;
     this.applicationProperties = applicationProperties;
@@ -127,6 +131,7 @@ public class PenRegBatchProcessor {
     this.studentRegistrationContactService = studentRegistrationContactService;
     this.duplicateFileCheckServiceMap = duplicateFileCheckServiceList.stream().collect(Collectors.toMap(DuplicateFileCheckService::getSchoolGroupCode, Function.identity()));
     this.penRequestBatchFileValidator = penRequestBatchFileValidator;
+    this.penRequestBatchFileParser = penRequestBatchFileParser;
     this.restUtils = restUtils;
   }
 
@@ -138,57 +143,82 @@ public class PenRegBatchProcessor {
    * @param penWebBlob the pen web blob entity
    */
   @Transactional
-  @Async("penWebBlobExtractor")
   public void processPenRegBatchFileFromPenWebBlob(@NonNull final PENWebBlobEntity penWebBlob) {
-    val penWebBlobEntity = this.penRequestBatchFileService.getPenWebBlob(penWebBlob.getPenWebBlobId()).orElseThrow(); // do a get to associate the object with current thread for lazy loading.
+    this.processPenRegBatchFileFromPenWebBlob(penWebBlob.getPenWebBlobId());
+  }
+
+  /**
+   * Process pen reg batch file from tsw, the row including its file contents is read here so only one file is held in memory at a time.
+   * A file which is extracted already is skipped, a file loaded by another pod while this one processed it is not saved again, see
+   * {@link PenRequestBatchFileService#markInitialLoadComplete(PenRequestBatchEntity, PENWebBlobEntity)}.
+   *
+   * @param penWebBlobId the pen web blob id
+   */
+  @Transactional
+  public void processPenRegBatchFileFromPenWebBlob(@NonNull final Long penWebBlobId) {
+    val penWebBlobEntity = this.penRequestBatchFileService.getPenWebBlob(penWebBlobId).orElseThrow(); // do a get to associate the object with current thread for lazy loading.
+    if (penWebBlobEntity.getExtractDateTime() != null) { // loaded by another pod since the ids of the school were read.
+      log.info("pen web blob id :: {} with submission number :: {} already extracted, skipping it", penWebBlobId, penWebBlobEntity.getSubmissionNumber());
+      return;
+    }
     val stopwatch = Stopwatch.createStarted();
     final var guid = UUID.randomUUID().toString(); // this guid will be used throughout the logs for easy tracking.
     log.info("Started processing row from Pen Web Blobs with submission Number :: {} and guid :: {}", penWebBlobEntity.getSubmissionNumber(), guid);
     val batchFile = new BatchFile();
-    Optional<Reader> batchFileReaderOptional = Optional.empty();
-    try (final Reader mapperReader = new FileReader(Objects.requireNonNull(this.getClass().getClassLoader().getResource("mapper.xml")).getFile())) {
-      var byteArrayOutputStream = new ByteArrayInputStream(penWebBlobEntity.getFileContents());
-      var encoding = UniversalDetector.detectCharset(byteArrayOutputStream);
-      byteArrayOutputStream.reset();
-      if(!StringUtils.isEmpty(encoding) && !encoding.equals("UTF-8")){
-        encoding = "windows-1252";
-      }
-
-      if(StringUtils.isEmpty(encoding)){
-        batchFileReaderOptional = Optional.of(new InputStreamReader(byteArrayOutputStream));
-      }else{
-        batchFileReaderOptional = Optional.of(new InputStreamReader(byteArrayOutputStream, Charset.forName(encoding).newDecoder()));
-      }
-      final DataSet ds = DefaultParserFactory.getInstance().newFixedLengthParser(mapperReader, batchFileReaderOptional.get()).setStoreRawDataToDataError(true).setStoreRawDataToDataSet(true).setNullEmptyStrings(true).parse();
-      this.penRequestBatchFileValidator.validateFileForFormatAndLength(guid, ds);
+    batchFile.setFileDigest(DigestUtil.sha256Hex(penWebBlobEntity.getFileContents())); // recorded on the batch even when the file fails to load, later files are checked against it.
+    try {
+      final ParsedBatchFile parsedBatchFile = this.parseBatchFile(guid, penWebBlobEntity, batchFile);
+      this.penRequestBatchFileValidator.validateFileForFormatAndLength(guid, parsedBatchFile);
       this.penRequestBatchFileValidator.validateMincode(guid, penWebBlobEntity.getMincode());
-      this.populateBatchFile(guid, ds, batchFile);
+      this.populateBatchFile(guid, parsedBatchFile, batchFile);
       this.penRequestBatchFileValidator.validateStudentCountForMismatchAndSize(guid, batchFile, penWebBlobEntity.getMincode());
-      this.checkForDuplicateFile(penWebBlobEntity, guid); // if all other validations passed check if it is a duplicate file from PSI.
+      this.checkForDuplicateFile(penWebBlobEntity, batchFile.getFileDigest(), guid); // if all other validations passed check if it is a duplicate file from PSI.
       this.processLoadedRecordsInBatchFile(guid, batchFile, penWebBlobEntity);
     } catch (final FileUnProcessableException fileUnProcessableException) { // system needs to persist the data in this case.
       this.processFileUnProcessableException(guid, penWebBlobEntity, fileUnProcessableException, batchFile);
     } catch (final Exception e) { // need to check what to do in case of general exception.
       log.error("Exception while processing the file with guid :: {} :: Exception :: {}", guid, e);
     } finally {
-      batchFileReaderOptional.ifPresent(this::closeBatchFileReader);
       stopwatch.stop();
       log.info("Time taken for batch processed is :: {} milli seconds", stopwatch.elapsed(TimeUnit.MILLISECONDS));
     }
   }
 
   /**
-   * Close batch file reader.
+   * Parse the batch file, the charset is the one the file was read with before if it was loaded already, otherwise it is
+   * detected from the start of the file.
+   * A file which looked like UTF-8 at the start but is not valid UTF-8 further on is read again as windows-1252.
+   * The charset used is set on the batch file, so that it is recorded on the batch.
    *
-   * @param reader the reader
+   * @param guid             the guid
+   * @param penWebBlobEntity the pen web blob entity
+   * @param batchFile        the batch file
+   * @return the parsed batch file
+   * @throws IOException the io exception
    */
-  private void closeBatchFileReader(final Reader reader) {
+  private ParsedBatchFile parseBatchFile(final String guid, final PENWebBlobEntity penWebBlobEntity, final BatchFile batchFile) throws IOException {
+    final byte[] fileContents = penWebBlobEntity.getFileContents();
+    final Charset charset = Optional.ofNullable(penWebBlobEntity.getSubmissionNumber())
+      .flatMap(this.penRequestBatchFileService::findFileCharset)
+      .filter(Charset::isSupported)
+      .map(Charset::forName)
+      .orElseGet(() -> BatchFileCharsetDetector.detect(fileContents));
     try {
-      if (reader != null) {
-        reader.close();
+      return this.parseBatchFile(fileContents, charset, batchFile);
+    } catch (final CharacterCodingException e) {
+      if (!StandardCharsets.UTF_8.equals(charset)) {
+        throw e;
       }
-    } catch (final IOException e) {
-      log.warn("Error closing the batch file :: ", e);
+      log.info("file with guid :: {} is not valid UTF-8 after its first bytes, reading it as {}", guid, BatchFileCharsetDetector.FALLBACK_CHARSET);
+      return this.parseBatchFile(fileContents, BatchFileCharsetDetector.FALLBACK_CHARSET, batchFile);
+    }
+  }
+
+  private ParsedBatchFile parseBatchFile(final byte[] fileContents, final Charset charset, final BatchFile batchFile) throws IOException {
+    try (final Reader reader = new InputStreamReader(new ByteArrayInputStream(fileContents), charset.newDecoder())) {
+      final ParsedBatchFile parsedBatchFile = this.penRequestBatchFileParser.parse(reader);
+      batchFile.setFileCharset(charset.name());
+      return parsedBatchFile;
     }
   }
 
@@ -197,12 +227,13 @@ public class PenRegBatchProcessor {
    * Check for duplicate file.
    *
    * @param penWebBlobEntity the pen web blob entity
+   * @param fileDigest       the SHA-256 of the file contents
    * @param guid             the guid
    * @throws FileUnProcessableException the file un processable exception
    */
-  private void checkForDuplicateFile(final PENWebBlobEntity penWebBlobEntity, final String guid) throws FileUnProcessableException {
+  private void checkForDuplicateFile(final PENWebBlobEntity penWebBlobEntity, final String fileDigest, final String guid) throws FileUnProcessableException {
     if (StringUtils.startsWith(penWebBlobEntity.getMincode(), "102")
-      && this.duplicateFileCheckServiceMap.get(SchoolGroupCodes.PSI).isBatchFileDuplicate(penWebBlobEntity)) {
+      && this.duplicateFileCheckServiceMap.get(SchoolGroupCodes.PSI).isBatchFileDuplicate(penWebBlobEntity, fileDigest)) {
       throw new FileUnProcessableException(DUPLICATE_BATCH_FILE_PSI, guid, PenRequestBatchStatusCodes.DUPLICATE);
     }
   }
@@ -327,30 +358,26 @@ public class PenRegBatchProcessor {
   /**
    * Populate batch file.
    *
-   * @param guid      the guid
-   * @param ds        the ds
-   * @param batchFile the batch file
+   * @param guid            the guid
+   * @param parsedBatchFile the parsed batch file
+   * @param batchFile       the batch file
    * @throws FileUnProcessableException the file un processable exception
    */
-  public void populateBatchFile(final String guid, final DataSet ds, final BatchFile batchFile) throws FileUnProcessableException {
-    long index = 0;
-    while (ds.next()) {
-      if (ds.isRecordID(HEADER.getName()) || ds.isRecordID(TRAILER.getName())) {
-        this.setHeaderOrTrailer(ds, batchFile);
-        index++;
-        continue;
-      }
-      batchFile.getStudentDetails().add(this.getStudentDetailRecordFromFile(ds, guid, index));
-      index++;
+  public void populateBatchFile(final String guid, final ParsedBatchFile parsedBatchFile, final BatchFile batchFile) throws FileUnProcessableException {
+    batchFile.setBatchFileHeader(parsedBatchFile.getBatchFileHeader());
+    batchFile.setStudentDetails(parsedBatchFile.getStudentDetails());
+    if (parsedBatchFile.getInvalidTransactionCodeRecordIndex() != null) {
+      throw new FileUnProcessableException(INVALID_TRANSACTION_CODE_STUDENT_DETAILS, guid, PenRequestBatchStatusCodes.LOAD_FAIL, parsedBatchFile.getInvalidTransactionCodeRecordIndex(), parsedBatchFile.getInvalidTransactionCodeLocalStudentID());
     }
+    batchFile.setBatchFileTrailer(parsedBatchFile.getBatchFileTrailer());
 
     if(batchFile.getBatchFileTrailer() == null) {
-      setManualTrailer(guid, ds, batchFile);
+      setManualTrailer(guid, parsedBatchFile, batchFile);
     }
   }
 
-  private void setManualTrailer(final String guid, final DataSet ds, final BatchFile batchFile) throws FileUnProcessableException {
-    String rawTrailer = ds.getErrors().get(ds.getErrors().size()-1).getRawData();
+  private void setManualTrailer(final String guid, final ParsedBatchFile parsedBatchFile, final BatchFile batchFile) throws FileUnProcessableException {
+    String rawTrailer = parsedBatchFile.getLastErrorRawData();
 
     if(rawTrailer == null || rawTrailer.length() < 9){
       throw new FileUnProcessableException(INVALID_TRAILER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
@@ -365,62 +392,5 @@ public class PenRegBatchProcessor {
     batchFile.setBatchFileTrailer(trailer);
   }
 
-  /**
-   * Gets student detail record from file.
-   *
-   * @param ds    the ds
-   * @param guid  the guid
-   * @param index the index
-   * @return the student detail record from file
-   * @throws FileUnProcessableException the file un processable exception
-   */
-  private StudentDetails getStudentDetailRecordFromFile(final DataSet ds, final String guid, final long index) throws FileUnProcessableException {
-    final var transactionCode = ds.getString(TRANSACTION_CODE.getName());
-    if (!TRANSACTION_CODE_STUDENT_DETAILS_RECORD.equals(transactionCode)) {
-      throw new FileUnProcessableException(INVALID_TRANSACTION_CODE_STUDENT_DETAILS, guid, PenRequestBatchStatusCodes.LOAD_FAIL, String.valueOf(index), ds.getString(LOCAL_STUDENT_ID.getName()));
-    }
-    return StudentDetails.builder()
-      .birthDate(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(BIRTH_DATE.getName())))
-      .enrolledGradeCode(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(ENROLLED_GRADE_CODE.getName())))
-      .gender(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(GENDER.getName())))
-      .legalGivenName(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(LEGAL_GIVEN_NAME.getName())))
-      .legalMiddleName(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(LEGAL_MIDDLE_NAME.getName())))
-      .legalSurname(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(LEGAL_SURNAME.getName())))
-      .localStudentID(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(LOCAL_STUDENT_ID.getName())))
-      .pen(ds.getString(PEN.getName()))
-      .postalCode(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(POSTAL_CODE.getName())))
-      .transactionCode(transactionCode)
-      .unused(ds.getString(UNUSED.getName()))
-      .unusedSecond(ds.getString(UNUSED_SECOND.getName()))
-      .usualGivenName(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(USUAL_GIVEN_NAME.getName())))
-      .usualMiddleName(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(USUAL_MIDDLE_NAME.getName())))
-      .usualSurname(StringMapper.trimUppercaseAndScrubDiacriticalMarks(ds.getString(USUAL_SURNAME.getName())))
-      .build();
-  }
-
-  /**
-   * Sets header or trailer.
-   *
-   * @param ds        the ds
-   * @param batchFile the batch file
-   */
-  private void setHeaderOrTrailer(final DataSet ds, final BatchFile batchFile) {
-    if (ds.isRecordID(HEADER.getName())) {
-      //Just set transactionCode because of different flavours of header
-      batchFile.setBatchFileHeader(BatchFileHeader.builder()
-        .transactionCode(ds.getString(TRANSACTION_CODE.getName()))
-        .build());
-    } else if (ds.isRecordID(TRAILER.getName())) {
-      final var transactionCode = ds.getString(TRANSACTION_CODE.getName());
-      batchFile.setBatchFileTrailer(BatchFileTrailer.builder()
-        .transactionCode(transactionCode)
-        .productID(ds.getString(PRODUCT_ID.getName()))
-        .productName(ds.getString(PRODUCT_NAME.getName()))
-        .studentCount(ds.getString(STUDENT_COUNT.getName()))
-        .vendorName(ds.getString(VENDOR_NAME.getName()))
-        .build());
-    }
-  }
-
 
 }
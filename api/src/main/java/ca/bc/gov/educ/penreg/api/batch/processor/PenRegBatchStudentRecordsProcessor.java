@@ -5,9 +5,11 @@ import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
 import ca.bc.gov.educ.penreg.api.constants.EventType;
 import ca.bc.gov.educ.penreg.api.messaging.MessagePublisher;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.struct.Event;
 import ca.bc.gov.educ.penreg.api.struct.PenRequestBatchStudentSagaData;
 import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import com.google.common.collect.Lists;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -17,6 +19,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -45,48 +48,59 @@ public class PenRegBatchStudentRecordsProcessor {
    */
   private final StringRedisTemplate stringRedisTemplate;
 
+  /**
+   * The Application properties.
+   */
+  @Getter(PRIVATE)
+  private final ApplicationProperties applicationProperties;
+
   /**
    * Instantiates a new Pen reg batch student records processor.
    *
    * @param messagePublisher           the message publisher
    * @param penRequestBatchFileService the pen request batch file service
+   * @param applicationProperties      the application properties
    */
   @Autowired
   public PenRegBatchStudentRecordsProcessor(final MessagePublisher messagePublisher,
                                             final PenRequestBatchFileService penRequestBatchFileService,
-                                            final RedisConnectionFactory redisConnectionFactory) {
+                                            final RedisConnectionFactory redisConnectionFactory,
+                                            final ApplicationProperties applicationProperties) {
     this.messagePublisher = messagePublisher;
     this.penRequestBatchFileService = penRequestBatchFileService;
     this.stringRedisTemplate = new StringRedisTemplate(redisConnectionFactory);
+    this.applicationProperties = applicationProperties;
   }
 
   /**
    * Publish unprocessed student records for processing.
    * this will publish messages to the topic which this api is listening to so that load is balanced as across pods
-   * as api is in queue group durable subscription.
+   * as api is in queue group durable subscription. The students are published in chunks, the sagas of a chunk are
+   * created in one transaction by the pod which receives it.
    *
    * @param batchStudentSagaDataSet the student entities
    */
   public void publishUnprocessedStudentRecordsForProcessing(final Set<PenRequestBatchStudentSagaData> batchStudentSagaDataSet) {
-    batchStudentSagaDataSet.forEach(this::sendIndividualStudentAsMessageToTopic);
+    Lists.partition(new ArrayList<>(batchStudentSagaDataSet), this.getApplicationProperties().getStudentProcessingSagaChunkSize())
+      .forEach(this::sendStudentsAsMessageToTopic);
   }
 
 
   /**
-   * Send individual student as message to topic consumer.
+   * Send a chunk of students as one message to topic consumer.
    */
-  private void sendIndividualStudentAsMessageToTopic(final PenRequestBatchStudentSagaData penRequestBatchStudentSagaData) {
-    final var eventPayload = JsonUtil.getJsonString(penRequestBatchStudentSagaData);
+  private void sendStudentsAsMessageToTopic(final List<PenRequestBatchStudentSagaData> penRequestBatchStudentSagaDataList) {
+    final var eventPayload = JsonUtil.getJsonString(penRequestBatchStudentSagaDataList);
     if (eventPayload.isPresent()) {
-      final Event event = Event.builder().eventType(EventType.READ_FROM_TOPIC).eventOutcome(EventOutcome.READ_FROM_TOPIC_SUCCESS).eventPayload(eventPayload.get()).build();
+      final Event event = Event.builder().eventType(EventType.READ_STUDENTS_FROM_TOPIC).eventOutcome(EventOutcome.READ_FROM_TOPIC_SUCCESS).eventPayload(eventPayload.get()).build();
       final var eventString = JsonUtil.getJsonString(event);
       if (eventString.isPresent()) {
         this.messagePublisher.dispatchMessage(PEN_REQUEST_BATCH_API_TOPIC.toString(), eventString.get().getBytes());
       } else {
-        log.error("Event Sting is empty, skipping the publish to topic :: {}", penRequestBatchStudentSagaData);
+        log.error("Event Sting is empty, skipping the publish to topic :: {}", penRequestBatchStudentSagaDataList);
       }
     } else {
-      log.error("Event payload is empty, skipping the publish to topic :: {}", penRequestBatchStudentSagaData);
+      log.error("Event payload is empty, skipping the publish to topic :: {}", penRequestBatchStudentSagaDataList);
     }
   }
 
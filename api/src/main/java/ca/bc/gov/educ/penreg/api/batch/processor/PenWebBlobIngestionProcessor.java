@@ -0,0 +1,78 @@
+package ca.bc.gov.educ.penreg.api.batch.processor;
+
+import ca.bc.gov.educ.penreg.api.batch.service.PenWebBlobClaimService;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * The Pen web blob ingestion processor.
+ * Processes the claimed pen web blobs of one school on the `penWebBlobExtractor` executor, the schools are processed in
+ * parallel and the files of a school one after the other.
+ *
+ * @author OM
+ */
+@Component
+@Slf4j
+public class PenWebBlobIngestionProcessor {
+
+  /**
+   * The Pen reg batch processor.
+   */
+  @Getter(PRIVATE)
+  private final PenRegBatchProcessor penRegBatchProcessor;
+
+  /**
+   * The Pen web blob claim service.
+   */
+  @Getter(PRIVATE)
+  private final PenWebBlobClaimService penWebBlobClaimService;
+
+  /**
+   * Instantiates a new Pen web blob ingestion processor.
+   *
+   * @param penRegBatchProcessor   the pen reg batch processor
+   * @param penWebBlobClaimService the pen web blob claim service
+   */
+  @Autowired
+  public PenWebBlobIngestionProcessor(final PenRegBatchProcessor penRegBatchProcessor, final PenWebBlobClaimService penWebBlobClaimService) {
+    this.penRegBatchProcessor = penRegBatchProcessor;
+    this.penWebBlobClaimService = penWebBlobClaimService;
+  }
+
+  /**
+   * Process the pen web blobs of a school which was claimed by this pod.
+   * The claim is renewed before each file, if it was lost the remaining files are left to the pod which took it over.
+   * If a file fails unexpectedly the claim is kept, so the remaining files are picked up again once it expires.
+   * A file which takes longer than the claim may be picked up by the pod which took the claim over, the file is loaded
+   * only once as its row is locked when it is marked extracted.
+   *
+   * @param mincode       the mincode
+   * @param penWebBlobIds the ids of the pen web blobs of the school, in the order they were submitted
+   */
+  @Async("penWebBlobExtractor")
+  public void processPenWebBlobsOfSchool(@NonNull final String mincode, @NonNull final List<Long> penWebBlobIds) {
+    for (final var penWebBlobId : penWebBlobIds) {
+      try {
+        if (!this.getPenWebBlobClaimService().renewClaim(mincode)) {
+          log.warn("claim on mincode :: {} was taken over by another pod, skipping the remaining files", mincode);
+          this.getPenWebBlobClaimService().abandonClaim(mincode);
+          return;
+        }
+        this.getPenRegBatchProcessor().processPenRegBatchFileFromPenWebBlob(penWebBlobId);
+      } catch (final Exception e) {
+        log.error("Exception while processing pen web blob id :: {} of mincode :: {}, the claim is kept until it expires", penWebBlobId, mincode, e);
+        this.getPenWebBlobClaimService().abandonClaim(mincode);
+        return;
+      }
+    }
+    this.getPenWebBlobClaimService().releaseClaim(mincode);
+  }
+}
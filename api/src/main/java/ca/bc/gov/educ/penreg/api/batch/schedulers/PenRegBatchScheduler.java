@@ -1,28 +1,24 @@
 package ca.bc.gov.educ.penreg.api.batch.schedulers;
 
-import ca.bc.gov.educ.penreg.api.batch.processor.PenRegBatchProcessor;
+import ca.bc.gov.educ.penreg.api.batch.processor.PenWebBlobIngestionProcessor;
 import ca.bc.gov.educ.penreg.api.batch.service.PenRequestBatchFileService;
-import ca.bc.gov.educ.penreg.api.model.v1.PENWebBlobEntity;
+import ca.bc.gov.educ.penreg.api.batch.service.PenWebBlobClaimService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import lombok.val;
-import net.javacrumbs.shedlock.core.LockAssert;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import static lombok.AccessLevel.PRIVATE;
 
 
 /**
  * The type Pen reg batch scheduler.
+ * The extract jobs run on every pod, the pods share the work by claiming the unextracted files school by school.
  */
 @Component
 @Slf4j
@@ -31,30 +27,43 @@ public class PenRegBatchScheduler {
    * The constant FILE_TYPE_PEN.
    */
   public static final String FILE_TYPE_PEN = "PEN";
-  private final StringRedisTemplate stringRedisTemplate;
   /**
-   * The Pen reg batch processor.
+   * The source application of the files extracted by the daytime PENWEB job.
+   */
+  private static final String SOURCE_APPLICATION_PENWEB = "PENWEB";
+  /**
+   * The number of schools read per page.
+   */
+  private static final int MINCODE_PAGE_SIZE = 100;
+  /**
+   * The Pen web blob ingestion processor.
    */
   @Getter(PRIVATE)
-  private final PenRegBatchProcessor penRegBatchProcessor;
+  private final PenWebBlobIngestionProcessor penWebBlobIngestionProcessor;
   /**
    * The Pen request batch file service.
    */
   @Getter(PRIVATE)
   private final PenRequestBatchFileService penRequestBatchFileService;
+  /**
+   * The Pen web blob claim service.
+   */
+  @Getter(PRIVATE)
+  private final PenWebBlobClaimService penWebBlobClaimService;
 
   /**
    * Instantiates a new Pen reg batch scheduler.
    *
-   * @param penRegBatchProcessor       the pen reg batch processor
-   * @param penRequestBatchFileService the pen request batch file service
+   * @param penWebBlobIngestionProcessor the pen web blob ingestion processor
+   * @param penRequestBatchFileService   the pen request batch file service
+   * @param penWebBlobClaimService       the pen web blob claim service
    */
   @Autowired
-  public PenRegBatchScheduler(final PenRegBatchProcessor penRegBatchProcessor,
-                              final PenRequestBatchFileService penRequestBatchFileService, final RedisConnectionFactory redisConnectionFactory) {
-    this.penRegBatchProcessor = penRegBatchProcessor;
+  public PenRegBatchScheduler(final PenWebBlobIngestionProcessor penWebBlobIngestionProcessor,
+                              final PenRequestBatchFileService penRequestBatchFileService, final PenWebBlobClaimService penWebBlobClaimService) {
+    this.penWebBlobIngestionProcessor = penWebBlobIngestionProcessor;
     this.penRequestBatchFileService = penRequestBatchFileService;
-    this.stringRedisTemplate = new StringRedisTemplate(redisConnectionFactory);
+    this.penWebBlobClaimService = penWebBlobClaimService;
   }
 
   /**
@@ -62,14 +71,9 @@ public class PenRegBatchScheduler {
    * this method will only extract the file or blob, processing will be done in processor.
    */
   @Scheduled(cron = "${scheduled.jobs.extract.unprocessed.pen.web.blobs.cron}")
-  @SchedulerLock(name = "EXTRACT_UNPROCESSED_PEN_WEB_BLOB",
-      lockAtLeastFor = "${scheduled.jobs.extract.unprocessed.pen.web.blobs.cron.lockAtLeastFor}",
-      lockAtMostFor = "${scheduled.jobs.extract.unprocessed.pen.web.blobs.cron.lockAtMostFor}")
   public void extractUnProcessedFilesFromPenWebBlobs() {
-    LockAssert.assertLocked();
     log.debug("Launching nighttime batch extract job");
-    final var unExtractedRecords = this.getPenRequestBatchFileService().getAllNotExtractedRecords(FILE_TYPE_PEN); // PEN is the file type based on which records will be filtered.
-    runBatchLoad(unExtractedRecords);
+    this.runBatchLoad(null);
   }
 
   /**
@@ -77,37 +81,51 @@ public class PenRegBatchScheduler {
    * this method will only extract the file or blob, processing will be done in processor.
    */
   @Scheduled(cron = "${scheduled.jobs.extract.unprocessed.penwebfiles.pen.web.blobs.cron}")
-  @SchedulerLock(name = "EXTRACT_UNPROCESSED_PENWEB_PEN_WEB_BLOB",
-    lockAtLeastFor = "${scheduled.jobs.extract.unprocessed.pen.web.blobs.cron.lockAtLeastFor}",
-    lockAtMostFor = "${scheduled.jobs.extract.unprocessed.pen.web.blobs.cron.lockAtMostFor}")
   public void extractUnProcessedPenWebFilesFromPenWebBlobs() {
-    LockAssert.assertLocked();
     log.debug("Launching daytime PENWEB batch extract job");
-    final var unExtractedRecords = this.getPenRequestBatchFileService().getAllPenWebNotExtractedRecords(FILE_TYPE_PEN); // PEN is the file type based on which records will be filtered.
-    runBatchLoad(unExtractedRecords);
+    this.runBatchLoad(SOURCE_APPLICATION_PENWEB);
   }
 
-  private void runBatchLoad(List<PENWebBlobEntity> unExtractedRecords){
-    if (!unExtractedRecords.isEmpty()) {
-      log.info("{} :: records found where extract date is null", unExtractedRecords.size());
-      for (final var penWebBlob : unExtractedRecords) {
-        final String redisKey = penWebBlob.getSubmissionNumber().concat(
-          "::extractUnProcessedFilesFromPenWebBlobs");
-        val valueFromRedis = this.stringRedisTemplate.opsForValue().get(redisKey);
-        if (StringUtils.isBlank(valueFromRedis)) { // skip if it is already in redis
-          // put it in redis for 5 minutes, it is expected the file processing wont take more than that and if the
-          // pod dies in between the scheduler will pick it up and process it again after the lock is released(5
-          // minutes).
-          this.stringRedisTemplate.opsForValue().set(redisKey, "true", 5, TimeUnit.MINUTES);
-          this.getPenRegBatchProcessor().processPenRegBatchFileFromPenWebBlob(penWebBlob);
-        } else {
-          log.debug("skipping {} record, as it is already processed or being processed.", redisKey);
-        }
-
+  /**
+   * Walk the schools which have unextracted files page by page and hand every school this pod could claim to the
+   * ingestion processor, with the ids of its files. Only mincodes and ids are read here, the file contents are read
+   * by the processor one file at a time.
+   * The schools of a page are visited in random order so that pods running at the same time mostly claim different schools.
+   *
+   * @param sourceApplication the source application of the files, null for all source applications
+   */
+  private void runBatchLoad(final String sourceApplication) {
+    String lastMincode = null;
+    List<String> mincodes;
+    do {
+      mincodes = new ArrayList<>(this.getPenRequestBatchFileService().getMincodesWithNotExtractedRecords(FILE_TYPE_PEN, sourceApplication, lastMincode, MINCODE_PAGE_SIZE)); // PEN is the file type based on which records will be filtered.
+      if (mincodes.isEmpty()) {
+        break;
       }
-    } else {
-      log.debug("No Records found to be processed.");
+      lastMincode = mincodes.get(mincodes.size() - 1);
+      log.info("{} :: schools found where extract date is null", mincodes.size());
+      Collections.shuffle(mincodes);
+      mincodes.forEach(mincode -> this.claimAndProcess(mincode, sourceApplication));
+    } while (mincodes.size() == MINCODE_PAGE_SIZE);
+  }
+
+  /**
+   * Claim the unextracted files of a school and process them.
+   *
+   * @param mincode           the mincode
+   * @param sourceApplication the source application of the files, null for all source applications
+   */
+  private void claimAndProcess(final String mincode, final String sourceApplication) {
+    if (!this.getPenWebBlobClaimService().claim(mincode)) {
+      log.debug("skipping mincode :: {}, as its files are being processed by this or another pod.", mincode);
+      return;
+    }
+    final var penWebBlobIds = this.getPenRequestBatchFileService().getNotExtractedRecordIDs(mincode, FILE_TYPE_PEN, sourceApplication);
+    if (penWebBlobIds.isEmpty()) { // processed by another pod since the page was read.
+      this.getPenWebBlobClaimService().releaseClaim(mincode);
+      return;
     }
+    this.getPenWebBlobIngestionProcessor().processPenWebBlobsOfSchool(mincode, penWebBlobIds);
   }
 
 }
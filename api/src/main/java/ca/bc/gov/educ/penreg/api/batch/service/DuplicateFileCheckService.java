@@ -6,7 +6,14 @@ import ca.bc.gov.educ.penreg.api.model.v1.PENWebBlobEntity;
 public interface DuplicateFileCheckService {
 
 
-  boolean isBatchFileDuplicate(PENWebBlobEntity penWebBlobEntity);
+  /**
+   * Is the file a duplicate of a file which was submitted before.
+   *
+   * @param penWebBlobEntity the file
+   * @param fileDigest       the SHA-256 of the file contents, see {@link ca.bc.gov.educ.penreg.api.util.DigestUtil}
+   * @return the boolean
+   */
+  boolean isBatchFileDuplicate(PENWebBlobEntity penWebBlobEntity, String fileDigest);
 
   SchoolGroupCodes getSchoolGroupCode();
 }
@@ -0,0 +1,137 @@
+package ca.bc.gov.educ.penreg.api.batch.service;
+
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Finds the student requests of a batch which are duplicates of an earlier request of the same batch.
+ * Two requests are duplicates when the ten fields in {@link #DUPLICATE_CHECK_FIELDS} are equal, a missing field only
+ * equals a missing field.
+ * The requests are kept in an open addressing table keyed by a 64 bit hash of these fields, so no key is built per
+ * request, a hash match is confirmed by comparing the fields.
+ *
+ * @author OM
+ */
+final class DuplicateStudentRequestIndex {
+
+  /**
+   * The fields which make a request a duplicate of another.
+   */
+  private static final List<Function<PenRequestBatchStudentEntity, String>> DUPLICATE_CHECK_FIELDS = List.of(
+    PenRequestBatchStudentEntity::getLegalLastName,
+    PenRequestBatchStudentEntity::getLegalFirstName,
+    PenRequestBatchStudentEntity::getLegalMiddleNames,
+    PenRequestBatchStudentEntity::getDob,
+    PenRequestBatchStudentEntity::getUsualFirstName,
+    PenRequestBatchStudentEntity::getUsualLastName,
+    PenRequestBatchStudentEntity::getUsualMiddleNames,
+    PenRequestBatchStudentEntity::getGenderCode,
+    PenRequestBatchStudentEntity::getGradeCode,
+    PenRequestBatchStudentEntity::getPostalCode);
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  /**
+   * The hash of the request in the same slot of {@link #requests}.
+   */
+  private long[] hashes;
+
+  /**
+   * The requests, null for an empty slot.
+   */
+  private PenRequestBatchStudentEntity[] requests;
+
+  private int size;
+
+  /**
+   * Instantiates a new index sized for the requests of a batch.
+   *
+   * @param expectedSize the number of requests in the batch
+   */
+  DuplicateStudentRequestIndex(final int expectedSize) {
+    final int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1; // load factor of at most 0.5
+    this.hashes = new long[capacity];
+    this.requests = new PenRequestBatchStudentEntity[capacity];
+  }
+
+  /**
+   * Add the request unless an earlier request with the same fields was added already.
+   *
+   * @param request the request
+   * @return the earlier request it is a duplicate of, null if it is not a duplicate
+   */
+  PenRequestBatchStudentEntity putIfAbsent(@NonNull final PenRequestBatchStudentEntity request) {
+    final long hash = hash(request);
+    final int mask = this.requests.length - 1;
+    int slot = spread(hash) & mask;
+    while (this.requests[slot] != null) {
+      if (this.hashes[slot] == hash && hasSameFields(this.requests[slot], request)) {
+        return this.requests[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    this.hashes[slot] = hash;
+    this.requests[slot] = request;
+    if (++this.size * 2 > this.requests.length) {
+      this.resize();
+    }
+    return null;
+  }
+
+  private void resize() {
+    final long[] oldHashes = this.hashes;
+    final PenRequestBatchStudentEntity[] oldRequests = this.requests;
+    this.hashes = new long[oldHashes.length * 2];
+    this.requests = new PenRequestBatchStudentEntity[oldRequests.length * 2];
+    final int mask = this.requests.length - 1;
+    for (int oldSlot = 0; oldSlot < oldRequests.length; oldSlot++) {
+      if (oldRequests[oldSlot] != null) {
+        int slot = spread(oldHashes[oldSlot]) & mask;
+        while (this.requests[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        this.hashes[slot] = oldHashes[oldSlot];
+        this.requests[slot] = oldRequests[oldSlot];
+      }
+    }
+  }
+
+  /**
+   * FNV-1a over the fields, each field is preceded by its length, -1 when it is missing, so that the values of the
+   * fields can not run into each other.
+   */
+  static long hash(final PenRequestBatchStudentEntity request) {
+    long hash = FNV_OFFSET_BASIS;
+    for (final var field : DUPLICATE_CHECK_FIELDS) {
+      final String value = field.apply(request);
+      if (value == null) {
+        hash = (hash ^ -1) * FNV_PRIME;
+        continue;
+      }
+      hash = (hash ^ value.length()) * FNV_PRIME;
+      for (int index = 0; index < value.length(); index++) {
+        hash = (hash ^ value.charAt(index)) * FNV_PRIME;
+      }
+    }
+    return hash;
+  }
+
+  private static boolean hasSameFields(final PenRequestBatchStudentEntity request, final PenRequestBatchStudentEntity otherRequest) {
+    for (final var field : DUPLICATE_CHECK_FIELDS) {
+      if (!Objects.equals(field.apply(request), field.apply(otherRequest))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int spread(final long hash) {
+    final long mixed = hash * 0x9E3779B97F4A7C15L;
+    return (int) (mixed >>> 32);
+  }
+}
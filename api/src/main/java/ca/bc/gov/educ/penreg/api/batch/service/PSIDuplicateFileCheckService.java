@@ -2,10 +2,12 @@ package ca.bc.gov.educ.penreg.api.batch.service;
 
 import ca.bc.gov.educ.penreg.api.constants.SchoolGroupCodes;
 import ca.bc.gov.educ.penreg.api.model.v1.PENWebBlobEntity;
+import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchRepository;
 import ca.bc.gov.educ.penreg.api.repository.PenWebBlobRepository;
 import com.google.common.base.Stopwatch;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -24,24 +26,36 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class PSIDuplicateFileCheckService implements DuplicateFileCheckService {
   private final PenWebBlobRepository penWebBlobRepository;
+  private final PenRequestBatchRepository penRequestBatchRepository;
 
 
-  public PSIDuplicateFileCheckService(final PenWebBlobRepository penWebBlobRepository) {
+  public PSIDuplicateFileCheckService(final PenWebBlobRepository penWebBlobRepository, final PenRequestBatchRepository penRequestBatchRepository) {
     this.penWebBlobRepository = penWebBlobRepository;
+    this.penRequestBatchRepository = penRequestBatchRepository;
   }
 
   /**
-   * find all the files that does not have the same submission number and determine if the contents are same.
+   * find a file that does not have the same submission number and has the same contents, by the digest of the file
+   * contents recorded on its batch.
+   * The files loaded before the digest was recorded are still compared by their contents.
    *
    * @param penWebBlobEntity the entity to process for duplication check.
+   * @param fileDigest       the SHA-256 of the file contents.
    * @return true or false o
    */
   @Override
-  public boolean isBatchFileDuplicate(final PENWebBlobEntity penWebBlobEntity) {
+  public boolean isBatchFileDuplicate(final PENWebBlobEntity penWebBlobEntity, final String fileDigest) {
     final Stopwatch stopwatch = Stopwatch.createStarted();
     final LocalDateTime dateTimeToCompare = LocalDateTime.now().minusHours(48);
-    val penWebBlobs = this.penWebBlobRepository.findAllByMincodeAndInsertDateTimeGreaterThanAndSubmissionNumberNotAndFileTypeAndExtractDateTimeIsNotNull(penWebBlobEntity.getMincode(), dateTimeToCompare, penWebBlobEntity.getSubmissionNumber(), "PEN");
-    final boolean result = penWebBlobs.stream().anyMatch(element -> Arrays.equals(element.getFileContents(), penWebBlobEntity.getFileContents()));
+    final String mincode = StringUtils.trim(penWebBlobEntity.getMincode());
+    final String submissionNumber = StringUtils.trim(penWebBlobEntity.getSubmissionNumber());
+    boolean result = this.penRequestBatchRepository.existsByMincodeAndFileDigestAndInsertDateGreaterThanAndSubmissionNumberNotAndFileType(mincode, fileDigest, dateTimeToCompare, submissionNumber, "PEN");
+    if (!result) {
+      val submissionNumbers = this.penWebBlobRepository.findSubmissionNumbersOfExtractedFilesWithoutFileDigest(penWebBlobEntity.getMincode(), dateTimeToCompare, penWebBlobEntity.getSubmissionNumber(), "PEN");
+      result = submissionNumbers.stream()
+        .flatMap(element -> this.penWebBlobRepository.findAllBySubmissionNumberAndFileType(element, "PEN").stream())
+        .anyMatch(element -> Arrays.equals(element.getFileContents(), penWebBlobEntity.getFileContents()));
+    }
     stopwatch.stop();
     log.info("Time taken for file duplicate check is :: {} milli seconds", stopwatch.elapsed(TimeUnit.MILLISECONDS));
     return result;
@@ -13,7 +13,9 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -71,6 +73,8 @@ public class PenRequestBatchFileService {
 
   /**
    * Save pen request batch entity pen request batch entity.
+   * The row of the pen web blob is locked first and nothing is saved if it is extracted already, see
+   * {@link PenWebBlobRepository#lockAndCheckExtracted(Long)}.
    *
    * @param penRequestBatchEntity the pen request batch entity
    * @param penWebBlobEntity      the pen web blob entity, <b> make sure the entity passed here is a hibernate attached entity</b>
@@ -78,10 +82,15 @@ public class PenRequestBatchFileService {
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   @Retryable(value = {Exception.class}, maxAttempts = 10, backoff = @Backoff(multiplier = 2, delay = 2000))
   public void markInitialLoadComplete(@NonNull final PenRequestBatchEntity penRequestBatchEntity, @NonNull final PENWebBlobEntity penWebBlobEntity) {
+    if (this.getPenWebBlobRepository().lockAndCheckExtracted(penWebBlobEntity.getPenWebBlobId()).filter(extracted -> extracted == 1).isPresent()) {
+      // another pod took over the school after the claim expired and loaded the file first.
+      log.warn("pen web blob id :: {} with submission number :: {} already extracted", penWebBlobEntity.getPenWebBlobId(), penRequestBatchEntity.getSubmissionNumber());
+      return;
+    }
     final var result = this.getPenRequestBatchService().findPenRequestBatchBySubmissionNumber(penRequestBatchEntity.getSubmissionNumber());
     val isFileAlreadyProcessed = result.stream().anyMatch(this::submissionProcessedPredicate);
     if (!isFileAlreadyProcessed) {
-      this.getPenRequestBatchService().savePenRequestBatch(penRequestBatchEntity);
+      this.getPenRequestBatchService().saveLoadedPenRequestBatch(penRequestBatchEntity);
       penWebBlobEntity.setExtractDateTime(LocalDateTime.now()); // update the entity extract date time to mark the batch job as complete , so that wont be polled from table in the next schedule.
       this.getPenWebBlobRepository().save(penWebBlobEntity);
     } else {
@@ -97,58 +106,51 @@ public class PenRequestBatchFileService {
   }
 
   /**
-   * Gets all not extracted records.
+   * Gets a page of the mincodes which have not extracted records.
    *
-   * @param fileType the file type
-   * @return the all not extracted records
+   * @param fileType          the file type
+   * @param sourceApplication the source application, null for all source applications
+   * @param lastMincode       the last mincode of the previous page, null for the first page
+   * @param pageSize          the page size
+   * @return the mincodes, ordered by mincode
    */
   @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
-  public List<PENWebBlobEntity> getAllNotExtractedRecords(@NonNull final String fileType) {
-    return this.getPenWebBlobRepository().findAllByExtractDateTimeIsNullAndFileType(fileType);
+  public List<String> getMincodesWithNotExtractedRecords(@NonNull final String fileType, final String sourceApplication, final String lastMincode, final int pageSize) {
+    return this.getPenWebBlobRepository().findMincodesWithExtractDateTimeIsNull(fileType, sourceApplication, lastMincode, PageRequest.of(0, pageSize));
   }
 
   /**
-   * Gets all not extracted records.
+   * Gets the ids of the not extracted records of a school, the file contents are loaded one file at a time when it is processed.
    *
-   * @param fileType the file type
-   * @return the all not extracted records
+   * @param mincode           the mincode
+   * @param fileType          the file type
+   * @param sourceApplication the source application, null for all source applications
+   * @return the pen web blob ids, in the order they were submitted
    */
   @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
-  public List<PENWebBlobEntity> getAllPenWebNotExtractedRecords(@NonNull final String fileType) {
-    return this.getPenWebBlobRepository().findAllByExtractDateTimeIsNullAndFileTypeAndSourceApplication(fileType, "PENWEB");
+  public List<Long> getNotExtractedRecordIDs(@NonNull final String mincode, @NonNull final String fileType, final String sourceApplication) {
+    return this.getPenWebBlobRepository().findPenWebBlobIdsWithExtractDateTimeIsNull(mincode, fileType, sourceApplication);
   }
 
   /**
-   * Check a set of pen request batch student entities for duplicates
+   * Check a set of pen request batch student entities for duplicates, in a single pass.
    *
    * @param studentEntities - the set of entities to check
    */
   private void checkBatchForDuplicateRequests(final Set<PenRequestBatchStudentEntity> studentEntities, final Set<PenRequestBatchStudentEntity> filteredStudentEntities) {
-    final Map<String, PenRequestBatchStudentEntity> entityMap = new HashMap<>();
+    final var duplicateStudentRequestIndex = new DuplicateStudentRequestIndex(studentEntities.size());
     studentEntities.forEach(entity -> {
-      final var hashKey = this.constructKeyForDuplicateEntity(entity);
-      val duplicateEntity = entityMap.get(hashKey);
+      val duplicateEntity = duplicateStudentRequestIndex.putIfAbsent(entity);
       if (duplicateEntity != null) {
         entity.setPenRequestBatchStudentStatusCode(PenRequestBatchStudentStatusCodes.DUPLICATE.getCode());
         filteredStudentEntities.remove(duplicateEntity); // if it is duplicate , remove the earlier record.
         duplicateEntity.setPenRequestBatchStudentStatusCode(PenRequestBatchStudentStatusCodes.DUPLICATE.getCode());
       } else {
-        entityMap.put(hashKey, entity);
         filteredStudentEntities.add(entity);
       }
     });
   }
 
-  /**
-   * Uses the logic for when a student request is a duplicate to construct a key for using in hash map
-   *
-   * @param entity - the entity
-   * @return - the key
-   */
-  private String constructKeyForDuplicateEntity(final PenRequestBatchStudentEntity entity) {
-    return entity.getLegalLastName() + entity.getLegalFirstName() + entity.getLegalMiddleNames() + entity.getDob() + entity.getUsualFirstName() + entity.getUsualLastName() + entity.getUsualMiddleNames() + entity.getGenderCode() + entity.getGradeCode() + entity.getPostalCode();
-  }
-
   private void checkBatchForRepeatRequests(String guid, PenRequestBatchEntity penRequestBatchEntity, Set<PenRequestBatchStudentEntity> studentEntities, Set<PenRequestBatchStudentEntity> filteredStudentEntities) {
     long numRepeats = 0;
     final Map<String, List<PenRequestBatchStudentEntity>> repeatCheckMap =
@@ -232,6 +234,16 @@ public class PenRequestBatchFileService {
     return this.getPenRequestBatchService().findById(penRequestBatchID);
   }
 
+  /**
+   * Find the charset a file with the submission number was read with before.
+   *
+   * @param submissionNumber the submission number
+   * @return the charset if it was recorded
+   */
+  public Optional<String> findFileCharset(@NonNull final String submissionNumber) {
+    return this.getPenRequestBatchService().findFileCharsetBySubmissionNumber(StringUtils.trim(submissionNumber));
+  }
+
   /**
    * this is used to associate the object with current thread as hibernate attached entity for lazy loading.
    *
@@ -0,0 +1,127 @@
+package ca.bc.gov.educ.penreg.api.batch.service;
+
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.repository.PenWebBlobClaimRepository;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * The type Pen web blob claim service.
+ * A pod claims the unextracted pen web blobs of a school before processing them, so that the files of one school are
+ * processed in order by a single thread while the files of different schools are spread over all the pods.
+ * The claim is a lease, if the pod dies while processing the files of a school, the claim can be taken over by another
+ * pod once it has expired.
+ *
+ * @author OM
+ */
+@Service
+@Slf4j
+public class PenWebBlobClaimService {
+
+  /**
+   * The Pen web blob claim repository.
+   */
+  @Getter(PRIVATE)
+  private final PenWebBlobClaimRepository penWebBlobClaimRepository;
+
+  /**
+   * The Application properties.
+   */
+  @Getter(PRIVATE)
+  private final ApplicationProperties applicationProperties;
+
+  /**
+   * The id this pod uses for its claims, unique for every start of the application.
+   */
+  @Getter
+  private final String claimedBy = StringUtils.defaultIfBlank(System.getenv("HOSTNAME"), ApplicationProperties.API_NAME) + "::" + UUID.randomUUID();
+
+  /**
+   * The mincodes claimed by this pod, which are queued or being processed.
+   */
+  private final Set<String> claimedMincodes = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Instantiates a new Pen web blob claim service.
+   *
+   * @param penWebBlobClaimRepository the pen web blob claim repository
+   * @param applicationProperties     the application properties
+   */
+  @Autowired
+  public PenWebBlobClaimService(final PenWebBlobClaimRepository penWebBlobClaimRepository, final ApplicationProperties applicationProperties) {
+    this.penWebBlobClaimRepository = penWebBlobClaimRepository;
+    this.applicationProperties = applicationProperties;
+  }
+
+  /**
+   * Claim the unextracted pen web blobs of a school.
+   *
+   * @param mincode the mincode
+   * @return true if the claim was acquired, false if the school is already claimed by this or another pod
+   */
+  public boolean claim(@NonNull final String mincode) {
+    if (!this.claimedMincodes.add(mincode)) {
+      return false;
+    }
+    final var now = LocalDateTime.now();
+    final var claimExpiryDate = this.getClaimExpiryDate(now);
+    try {
+      if (this.getPenWebBlobClaimRepository().updateExpiredClaim(mincode, this.claimedBy, claimExpiryDate, now) > 0
+        || this.getPenWebBlobClaimRepository().insertClaim(mincode, this.claimedBy, claimExpiryDate) > 0) {
+        return true;
+      }
+    } catch (final DataIntegrityViolationException e) {
+      log.debug("mincode :: {} is already claimed by another pod", mincode);
+    }
+    this.claimedMincodes.remove(mincode);
+    return false;
+  }
+
+  /**
+   * Extend the claim of a school before each file is processed.
+   *
+   * @param mincode the mincode
+   * @return true if the claim is still held by this pod
+   */
+  public boolean renewClaim(@NonNull final String mincode) {
+    return this.getPenWebBlobClaimRepository().extendClaim(mincode, this.claimedBy, this.getClaimExpiryDate(LocalDateTime.now())) > 0;
+  }
+
+  /**
+   * Release the claim of a school once all its files are processed.
+   *
+   * @param mincode the mincode
+   */
+  public void releaseClaim(@NonNull final String mincode) {
+    try {
+      this.getPenWebBlobClaimRepository().deleteClaim(mincode, this.claimedBy);
+    } finally {
+      this.claimedMincodes.remove(mincode);
+    }
+  }
+
+  /**
+   * Stop processing a school without releasing its claim, the files will be picked up again after the claim expires.
+   *
+   * @param mincode the mincode
+   */
+  public void abandonClaim(@NonNull final String mincode) {
+    this.claimedMincodes.remove(mincode);
+  }
+
+  private LocalDateTime getClaimExpiryDate(final LocalDateTime now) {
+    return now.plusMinutes(this.getApplicationProperties().getPenWebBlobClaimLeaseMinutes());
+  }
+}
@@ -24,6 +24,14 @@ public class BatchFile {
    * The Batch file trailer.
    */
   private BatchFileTrailer batchFileTrailer;
+  /**
+   * The charset the file was read with.
+   */
+  private String fileCharset;
+  /**
+   * The SHA-256 of the file contents.
+   */
+  private String fileDigest;
 
 
   /**
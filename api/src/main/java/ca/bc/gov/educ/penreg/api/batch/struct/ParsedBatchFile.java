@@ -0,0 +1,84 @@
+package ca.bc.gov.educ.penreg.api.batch.struct;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of a single forward pass over a batch file.
+ * it carries the parsed records and the facts the validator needs about the file, so that nothing else of the file
+ * has to be kept in memory.
+ *
+ * @author OM
+ */
+@Data
+public class ParsedBatchFile {
+  /**
+   * The raw data of the first non blank line.
+   */
+  private String firstRecordRawData;
+  /**
+   * The raw data of the last non blank line.
+   */
+  private String lastRecordRawData;
+  /**
+   * The raw data of the last line which did not have the expected record length.
+   */
+  private String lastErrorRawData;
+  /**
+   * The first detail line which did not have the expected record length.
+   */
+  private RecordLengthError detailRecordLengthError;
+  /**
+   * The Batch file header.
+   */
+  private BatchFileHeader batchFileHeader;
+  /**
+   * The Batch file trailer, null when the trailer did not have the expected record length.
+   */
+  private BatchFileTrailer batchFileTrailer;
+  /**
+   * The Student details, up to the first detail record with an invalid transaction code.
+   */
+  private List<StudentDetails> studentDetails = new ArrayList<>();
+  /**
+   * The index of the first detail record with an invalid transaction code.
+   */
+  private String invalidTransactionCodeRecordIndex;
+  /**
+   * The local student id of the first detail record with an invalid transaction code.
+   */
+  private String invalidTransactionCodeLocalStudentID;
+
+  /**
+   * The type Record length error.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static class RecordLengthError {
+    /**
+     * The line number, starting from 1 for the header.
+     */
+    private final long lineNumber;
+    /**
+     * The actual length of the line.
+     */
+    private final int actualLength;
+    /**
+     * The expected length of the line.
+     */
+    private final int expectedLength;
+
+    /**
+     * Is the line longer than expected.
+     *
+     * @return the boolean
+     */
+    public boolean isTooLong() {
+      return this.actualLength > this.expectedLength;
+    }
+  }
+}
@@ -3,13 +3,12 @@ package ca.bc.gov.educ.penreg.api.batch.validator;
 import ca.bc.gov.educ.penreg.api.batch.exception.FileError;
 import ca.bc.gov.educ.penreg.api.batch.exception.FileUnProcessableException;
 import ca.bc.gov.educ.penreg.api.batch.struct.BatchFile;
+import ca.bc.gov.educ.penreg.api.batch.struct.ParsedBatchFile;
 import ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStatusCodes;
 import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.rest.RestUtils;
 import ca.bc.gov.educ.penreg.api.struct.School;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.flatpack.DataError;
-import net.sf.flatpack.DataSet;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
@@ -31,10 +30,6 @@ public class PenRequestBatchFileValidator {
 
   public static final String HEADER_STARTS_WITH = "FFI";
   public static final String TRAILER_STARTS_WITH = "BTR";
-  /**
-   * The constant TOO_LONG.
-   */
-  public static final String TOO_LONG = "TOO LONG";
   private final RestUtils restUtils;
   private final ApplicationProperties applicationProperties;
 
@@ -44,106 +39,41 @@ public class PenRequestBatchFileValidator {
     this.applicationProperties = applicationProperties;
   }
 
-  public void validateFileForFormatAndLength(@NonNull final String guid, @NonNull final DataSet ds) throws FileUnProcessableException {
-    if (ds.getErrors() != null && !ds.getErrors().isEmpty()) {
-      this.validateHeaderWhenFileHasLengthErrors(guid, ds);
-      this.validateTrailerWhenFileHasLengthErrors(guid, ds);
-    } else {
-      this.validateHeaderTrailerWhenFileHasNoLengthErrors(guid, ds);
-    }
-    this.processDataSetForRowLengthErrors(guid, ds);
-  }
-
-  private void validateTrailerWhenFileHasLengthErrors(final String guid, final DataSet ds) throws FileUnProcessableException {
-    final int totalRecords = ds.getRowCount() + ds.getErrorCount();
-    final Optional<DataError> isErrorOnLastLineOptional = ds.getErrors().stream().filter(el -> el.getLineNo() == totalRecords).findFirst();
-    if (isErrorOnLastLineOptional.isPresent()) {
-      if (!StringUtils.startsWith(isErrorOnLastLineOptional.get().getRawData(), TRAILER_STARTS_WITH)) {
-        throw new FileUnProcessableException(FileError.INVALID_TRANSACTION_CODE_TRAILER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
-      }
-    } else {
-      ds.goBottom();
-      if (!StringUtils.startsWith(ds.getRawData(), TRAILER_STARTS_WITH)) {
-        throw new FileUnProcessableException(FileError.INVALID_TRANSACTION_CODE_TRAILER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
-      }
-      ds.goTop(); // reset and move the cursor to top as everything is fine.
-    }
-  }
-
-  private void validateHeaderWhenFileHasLengthErrors(final String guid, final DataSet ds) throws FileUnProcessableException {
-    final Optional<DataError> isErrorOnFirstLineOptional = ds.getErrors().stream().filter(el -> el.getLineNo() == 1).findFirst();
-    if (isErrorOnFirstLineOptional.isPresent()) {
-      if (!StringUtils.startsWith(isErrorOnFirstLineOptional.get().getRawData(), HEADER_STARTS_WITH)) {
-        throw new FileUnProcessableException(FileError.INVALID_TRANSACTION_CODE_HEADER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
-      }
-    } else {
-      ds.goTop();
-      ds.next();
-      if (!StringUtils.startsWith(ds.getRawData(), HEADER_STARTS_WITH)) {
-        throw new FileUnProcessableException(FileError.INVALID_TRANSACTION_CODE_HEADER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
-      }
-    }
-  }
-
-  private void validateHeaderTrailerWhenFileHasNoLengthErrors(final String guid, final DataSet ds) throws FileUnProcessableException {
-    ds.goTop();
-    ds.next();
-    if (!StringUtils.startsWith(ds.getRawData(), HEADER_STARTS_WITH)) {
-      throw new FileUnProcessableException(FileError.INVALID_TRANSACTION_CODE_HEADER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
-    }
-    ds.goBottom();
-    if (!StringUtils.startsWith(ds.getRawData(), TRAILER_STARTS_WITH)) {
-      throw new FileUnProcessableException(FileError.INVALID_TRANSACTION_CODE_TRAILER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
-    }
-    ds.goTop(); // reset and move the cursor to top as everything is fine.
-  }
-
   /**
-   * Process data set for row length errors.
+   * Validate the header, trailer and detail record lengths of the parsed file.
    *
-   * @param guid the guid
-   * @param ds   the ds
+   * @param guid            the guid
+   * @param parsedBatchFile the parsed batch file
    * @throws FileUnProcessableException the file un processable exception
    */
-  private void processDataSetForRowLengthErrors(@NonNull final String guid, @NonNull final DataSet ds) throws FileUnProcessableException {
-    if (ds.getErrors() != null && !ds.getErrors().isEmpty()) {
-      var message = "";
-      var firstErrorFound = false;
-      for (final DataError error : ds.getErrors()) {
-        // ignore the header error to allow all flavours of header
-        if (error.getErrorDesc() != null && error.getErrorDesc().contains("SHOULD BE 234")) { // Details Record should be 234 characters long.
-          message = this.getDetailRowLengthIncorrectMessage(message, error);
-          firstErrorFound = true;
-        }
-        // ignore the footer error to allow all flavours of footer
-        if (firstErrorFound) {
-          break; // if system found one error , system breaks the loop.
-        }
-      }
-      if(firstErrorFound) {
-        throw new FileUnProcessableException(INVALID_ROW_LENGTH, guid, PenRequestBatchStatusCodes.LOAD_FAIL, message);
-      }
+  public void validateFileForFormatAndLength(@NonNull final String guid, @NonNull final ParsedBatchFile parsedBatchFile) throws FileUnProcessableException {
+    if (!StringUtils.startsWith(parsedBatchFile.getFirstRecordRawData(), HEADER_STARTS_WITH)) {
+      throw new FileUnProcessableException(FileError.INVALID_TRANSACTION_CODE_HEADER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
+    }
+    if (!StringUtils.startsWith(parsedBatchFile.getLastRecordRawData(), TRAILER_STARTS_WITH)) {
+      throw new FileUnProcessableException(FileError.INVALID_TRANSACTION_CODE_TRAILER, guid, PenRequestBatchStatusCodes.LOAD_FAIL);
+    }
+    // header and trailer length errors are ignored to allow all flavours of header and footer, only the first detail record length error is reported.
+    final var recordLengthError = parsedBatchFile.getDetailRecordLengthError();
+    if (recordLengthError != null) {
+      throw new FileUnProcessableException(INVALID_ROW_LENGTH, guid, PenRequestBatchStatusCodes.LOAD_FAIL, this.getDetailRowLengthIncorrectMessage(recordLengthError));
     }
   }
 
-
   /**
    * Gets detail row length incorrect message.
    * here 1 is subtracted from the line number as line number starts from header record and here header record
    * needs to
    * be  discarded
    *
-   * @param message the message
-   * @param error   the error
+   * @param error the error
    * @return the detail row length incorrect message
    */
-  private String getDetailRowLengthIncorrectMessage(String message, final DataError error) {
-    if (error.getErrorDesc().contains(TOO_LONG)) {
-      message = message.concat("Detail record " + (error.getLineNo() - 1) + " has extraneous characters.");
-    } else {
-      message = message.concat("Detail record " + (error.getLineNo() - 1) + " is missing characters.");
+  private String getDetailRowLengthIncorrectMessage(final ParsedBatchFile.RecordLengthError error) {
+    if (error.isTooLong()) {
+      return "Detail record " + (error.getLineNumber() - 1) + " has extraneous characters.";
     }
-    return message;
+    return "Detail record " + (error.getLineNumber() - 1) + " is missing characters.";
   }
 
   /**
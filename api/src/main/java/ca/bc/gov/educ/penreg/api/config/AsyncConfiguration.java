@@ -42,14 +42,15 @@ public class AsyncConfiguration {
   }
 
   /**
-   * Controller task executor executor.
+   * Pen web blob extractor executor, each thread processes the files of one school.
    *
    * @return the executor
    */
   @Bean(name = "penWebBlobExtractor")
-  public Executor penWebBlobExtractorExecutor() {
+  @Autowired
+  public Executor penWebBlobExtractorExecutor(final ApplicationProperties applicationProperties) {
     return new EnhancedQueueExecutor.Builder()
         .setThreadFactory(new ThreadFactoryBuilder().withNameFormat("pen-web-blob-processor-%d").get())
-        .setCorePoolSize(1).setMaximumPoolSize(1).build();
+        .setCorePoolSize(applicationProperties.getPenWebBlobExtractorThreads()).setMaximumPoolSize(applicationProperties.getPenWebBlobExtractorThreads()).build();
   }
 }
@@ -20,6 +20,10 @@ public enum EventOutcome {
    * Pen match processed event outcome.
    */
   PEN_MATCH_PROCESSED,
+  /**
+   * Pen match batch processed event outcome, the payload is the list of the pen match events of the students.
+   */
+  PEN_MATCH_BATCH_PROCESSED,
   /**
    * Student found event outcome.
    */
@@ -8,10 +8,18 @@ public enum EventType {
    * Read from topic event type.
    */
   READ_FROM_TOPIC,
+  /**
+   * Read a chunk of student requests from topic event type.
+   */
+  READ_STUDENTS_FROM_TOPIC,
   /**
    * Process pen match event type.
    */
   PROCESS_PEN_MATCH,
+  /**
+   * Process the pen match of many students in one event type, the payload is the list of their pen match events.
+   */
+  PROCESS_PEN_MATCH_BATCH,
   /**
    * Initiated event type.
    */
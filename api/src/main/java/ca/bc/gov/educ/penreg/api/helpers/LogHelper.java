@@ -12,6 +12,7 @@ import org.springframework.lang.NonNull;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
@@ -83,6 +84,17 @@ public final class LogHelper {
     }
   }
 
+  /**
+   * the event is the utf-8 bytes of a json string, it is only decoded when it is logged.
+   *
+   * @param event the bytes of the json string
+   */
+  public static void logMessagingEventDetails(final byte[] event) {
+    if (log.isInfoEnabled()) {
+      logMessagingEventDetails(new String(event, StandardCharsets.UTF_8));
+    }
+  }
+
   public static void logSagaRetry(final Saga saga) {
     final Map<String, Object> retrySagaMap = new HashMap<>();
     try {
@@ -50,12 +50,16 @@ public interface PenRequestBatchMapper {
    * @return the pen request batch entity
    */
   @InheritInverseConfiguration
+  @Mapping(target = "fileCharset", ignore = true)
+  @Mapping(target = "fileDigest", ignore = true)
   PenRequestBatchEntity toModel(PenRequestBatch penRequestBatch);
 
   @Mapping(target = "updateDate", ignore = true)
   @Mapping(target = "createDate", ignore = true)
   @Mapping(target = "penRequestBatchStudentEntities", ignore = true)
   @Mapping(target = "penRequestBatchHistoryEntities", ignore = true)
+  @Mapping(target = "fileCharset", ignore = true)
+  @Mapping(target = "fileDigest", ignore = true)
   PenRequestBatchEntity toModel(PenRequestBatchSubmission penRequestBatchSubmission);
 
   @Mapping(target = "pen", ignore = true)
@@ -42,6 +42,7 @@ public interface PenRequestBatchStudentMapper {
    * @return the pen request batch student entity
    */
   @InheritInverseConfiguration
+  @Mapping(target = "repeatCheckFingerprint", ignore = true)
   PenRequestBatchStudentEntity toModel(PenRequestBatchStudent penRequestBatchStudent);
 
 
@@ -32,6 +32,11 @@ public interface SagaMapper {
    * @param struct the struct
    * @return the saga
    */
+  @Mapping(target = "replayLeaseExpiryDate", ignore = true)
+  @Mapping(target = "lastSagaEventID", ignore = true)
+  @Mapping(target = "lastSagaEventState", ignore = true)
+  @Mapping(target = "lastSagaEventOutcome", ignore = true)
+  @Mapping(target = "lastSagaStepNumber", ignore = true)
   Saga toModel(ca.bc.gov.educ.penreg.api.struct.v1.Saga struct);
 
   @Mapping(target = "sagaId", source = "saga.sagaId")
@@ -0,0 +1,180 @@
+package ca.bc.gov.educ.penreg.api.messaging;
+
+import ca.bc.gov.educ.penreg.api.util.ThreadFactoryBuilder;
+import io.nats.client.JetStreamApiException;
+import io.nats.client.JetStreamSubscription;
+import io.nats.client.Message;
+import io.nats.client.MessageHandler;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * Pulls the messages of a topic from its durable JetStream consumer, a batch at a time, and hands them to the message
+ * handler of the topic on a thread of its own. The handler waits when the dispatch stage of the topic is full, so no
+ * more messages are pulled than the stage can take. A message is acknowledged by the handler once it is handled, the
+ * messages which are not are redelivered by the server when their ack wait expires. A subscription which is no longer
+ * active, after the consumer was deleted or the connection was replaced, is subscribed again with a backoff, so the topic
+ * keeps being consumed without a restart of the pod.
+ */
+@Slf4j
+public class JetStreamPullConsumer implements Closeable {
+
+  /**
+   * How long a fetch waits for the messages of the batch when there are fewer pending.
+   */
+  private static final Duration FETCH_WAIT = Duration.ofSeconds(1);
+
+  /**
+   * The first and the longest wait before the topic is subscribed again, the wait doubles while the subscription fails.
+   */
+  private static final long MIN_RESUBSCRIBE_BACKOFF_MILLIS = 1000;
+
+  private static final long MAX_RESUBSCRIBE_BACKOFF_MILLIS = 60000;
+
+  /**
+   * Subscribes the pull consumer of the topic.
+   */
+  @FunctionalInterface
+  public interface PullSubscriber {
+    /**
+     * Subscribe the pull consumer.
+     *
+     * @return the pull subscription
+     * @throws IOException           if there is connectivity problem
+     * @throws JetStreamApiException if the consumer could not be looked up or created
+     */
+    JetStreamSubscription subscribe() throws IOException, JetStreamApiException;
+  }
+
+  @Getter(PRIVATE)
+  private final String topic;
+
+  @Getter(PRIVATE)
+  private final PullSubscriber pullSubscriber;
+
+  @Getter(PRIVATE)
+  private volatile JetStreamSubscription subscription;
+
+  @Getter(PRIVATE)
+  private final MessageHandler messageHandler;
+
+  @Getter(PRIVATE)
+  private final int fetchBatchSize;
+
+  @Getter(PRIVATE)
+  private final ExecutorService puller;
+
+  private volatile boolean closed;
+
+  /**
+   * Instantiates a new JetStream pull consumer.
+   *
+   * @param topic          the topic
+   * @param pullSubscriber subscribes the pull consumer of the durable consumer of the topic, at once and when the
+   *                       subscription is no longer active
+   * @param messageHandler the message handler of the topic
+   * @param fetchBatchSize the maximum number of messages pulled at a time
+   * @throws IOException           if there is connectivity problem
+   * @throws JetStreamApiException if the consumer could not be looked up or created
+   */
+  public JetStreamPullConsumer(final String topic, final PullSubscriber pullSubscriber, final MessageHandler messageHandler, final int fetchBatchSize) throws IOException, JetStreamApiException {
+    this.topic = topic;
+    this.pullSubscriber = pullSubscriber;
+    this.subscription = pullSubscriber.subscribe();
+    this.messageHandler = messageHandler;
+    this.fetchBatchSize = fetchBatchSize;
+    this.puller = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().withNameFormat("jetstream-" + topic.replace("_", "-").toLowerCase() + "-%d").get());
+  }
+
+  /**
+   * Start pulling the messages.
+   */
+  public void start() {
+    this.getPuller().execute(this::pull);
+  }
+
+  /**
+   * Fetch the next batch of messages and hand them to the message handler.
+   *
+   * @return the number of messages fetched
+   * @throws InterruptedException if the thread is interrupted while the handler waits
+   */
+  public int fetchAndHandle() throws InterruptedException {
+    final List<Message> messages = this.getSubscription().fetch(this.getFetchBatchSize(), FETCH_WAIT);
+    for (final Message message : messages) {
+      this.getMessageHandler().onMessage(message);
+    }
+    return messages.size();
+  }
+
+  private void pull() {
+    long backoffMillis = MIN_RESUBSCRIBE_BACKOFF_MILLIS;
+    while (!this.closed) {
+      try {
+        this.fetchAndHandle();
+        backoffMillis = MIN_RESUBSCRIBE_BACKOFF_MILLIS;
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (final IllegalStateException e) {
+        if (this.closed) { // the connection is closing.
+          return;
+        }
+        log.error("the pull subscription of topic :: {} is not active, it is subscribed again in {} ms", this.getTopic(), backoffMillis, e);
+        if (!this.resubscribe(backoffMillis)) {
+          return;
+        }
+        backoffMillis = Math.min(backoffMillis * 2, MAX_RESUBSCRIBE_BACKOFF_MILLIS);
+      } catch (final Exception e) {
+        log.error("Exception while pulling the messages of topic :: {}", this.getTopic(), e);
+      }
+    }
+  }
+
+  /**
+   * Wait for the backoff and subscribe the pull consumer again. When the subscription fails the next fetch fails again
+   * on the inactive subscription and it is retried after a longer backoff.
+   *
+   * @param backoffMillis the wait before the subscription
+   * @return false if the thread is interrupted while it waits
+   */
+  boolean resubscribe(final long backoffMillis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(backoffMillis);
+      this.subscription = this.getPullSubscriber().subscribe();
+      log.info("the pull consumer of topic :: {} is subscribed again", this.getTopic());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (final IOException | JetStreamApiException | IllegalStateException e) {
+      log.error("could not subscribe the pull consumer of topic :: {} again", this.getTopic(), e);
+    }
+    return true;
+  }
+
+  /**
+   * Stop pulling the messages, the messages pulled but not acknowledged are redelivered.
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+    this.getPuller().shutdownNow();
+    try {
+      if (!this.getPuller().awaitTermination(5, TimeUnit.SECONDS)) {
+        log.warn("the pull consumer of topic :: {} did not stop in time", this.getTopic());
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -2,19 +2,35 @@ package ca.bc.gov.educ.penreg.api.messaging;
 
 import ca.bc.gov.educ.penreg.api.helpers.LogHelper;
 import ca.bc.gov.educ.penreg.api.orchestrator.base.EventHandler;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.struct.Event;
 import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.nats.client.Connection;
+import io.nats.client.JetStreamApiException;
 import io.nats.client.Message;
 import io.nats.client.MessageHandler;
+import io.nats.client.PullSubscribeOptions;
+import io.nats.client.api.AckPolicy;
+import io.nats.client.api.ConsumerConfiguration;
+import io.nats.client.api.RetentionPolicy;
+import io.nats.client.api.StorageType;
+import io.nats.client.api.StreamConfiguration;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static lombok.AccessLevel.PRIVATE;
 
@@ -22,6 +38,16 @@ import static lombok.AccessLevel.PRIVATE;
 @Slf4j
 public class MessageSubscriber {
 
+  /**
+   * The error code of the JetStream api when the stream does not exist.
+   */
+  private static final long STREAM_NOT_FOUND = 10059;
+
+  /**
+   * How long the stream keeps a message which is never acknowledged.
+   */
+  private static final Duration STREAM_MAX_AGE = Duration.ofDays(7);
+
   /**
    * The Handlers.
    */
@@ -29,9 +55,34 @@ public class MessageSubscriber {
   private final Map<String, EventHandler> handlerMap = new HashMap<>();
   private final Connection connection;
 
+  /**
+   * The executor the events are handled on, off the NATS dispatcher threads.
+   */
+  @Getter(PRIVATE)
+  private final Executor subscriberExecutor;
+
+  @Getter(PRIVATE)
+  private final ApplicationProperties applicationProperties;
+
+  @Getter(PRIVATE)
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * The pull consumers of the topics, when the events are consumed from JetStream.
+   */
+  @Getter(PRIVATE)
+  private final List<JetStreamPullConsumer> pullConsumers = new ArrayList<>();
+
   @Autowired
-  public MessageSubscriber(final Connection con, final List<EventHandler> eventHandlers) {
+  public MessageSubscriber(final Connection con, final List<EventHandler> eventHandlers, @Qualifier("subscriberExecutor") final Executor subscriberExecutor,
+                           final ApplicationProperties applicationProperties, final MeterRegistry meterRegistry) throws IOException, JetStreamApiException {
     this.connection = con;
+    this.subscriberExecutor = subscriberExecutor;
+    this.applicationProperties = applicationProperties;
+    this.meterRegistry = meterRegistry;
+    if (this.isJetStreamEnabled() && !eventHandlers.isEmpty()) {
+      this.createStreamIfMissing(eventHandlers.stream().map(EventHandler::getTopicToSubscribe).distinct().toList());
+    }
     eventHandlers.forEach(handler -> {
       this.handlerMap.put(handler.getTopicToSubscribe(), handler);
       this.subscribe(handler.getTopicToSubscribe(), handler);
@@ -41,28 +92,166 @@ public class MessageSubscriber {
   public void subscribe(final String topic, final EventHandler eventHandler) {
     this.handlerMap.computeIfAbsent(topic, k -> eventHandler);
     final String queue = topic.replace("_", "-");
-    final var dispatcher = this.connection.createDispatcher(this.onMessage(eventHandler));
-    dispatcher.subscribe(topic, queue);
+    final var dispatchStage = new SubscriberDispatchStage(topic, this.getApplicationProperties().getSubscriberQueueDepth(), this.getSubscriberExecutor(), this.getMeterRegistry());
+    if (this.isJetStreamEnabled()) {
+      this.subscribeDurable(topic, queue, eventHandler, dispatchStage);
+    } else {
+      final var dispatcher = this.connection.createDispatcher(this.onMessage(eventHandler, dispatchStage));
+      dispatcher.setPendingLimits(this.getApplicationProperties().getSubscriberPendingLimitMessages(), this.getApplicationProperties().getSubscriberPendingLimitBytes());
+      dispatcher.subscribe(topic, queue);
+    }
+  }
+
+  /**
+   * Create the stream which captures the topics when it does not exist. The stream is a work queue, a message is removed
+   * once it is acknowledged. A stream which exists is left as it is, it may be managed or tuned by ops, a configuration
+   * which does not capture the topics as a work queue is only logged.
+   *
+   * @param topics the topics
+   * @throws IOException           if there is connectivity problem
+   * @throws JetStreamApiException if the stream could not be looked up or created
+   */
+  void createStreamIfMissing(final List<String> topics) throws IOException, JetStreamApiException {
+    final var streamName = this.getApplicationProperties().getJetStreamStreamName();
+    final var jetStreamManagement = this.connection.jetStreamManagement();
+    final StreamConfiguration existing;
+    try {
+      existing = jetStreamManagement.getStreamInfo(streamName).getConfiguration();
+    } catch (final JetStreamApiException e) {
+      if (e.getErrorCode() != STREAM_NOT_FOUND) {
+        throw e;
+      }
+      log.info("creating the stream :: {} for the topics :: {}", streamName, topics);
+      jetStreamManagement.addStream(StreamConfiguration.builder().name(streamName)
+        .subjects(topics).retentionPolicy(RetentionPolicy.WorkQueue).storageType(StorageType.File).maxAge(STREAM_MAX_AGE).build());
+      return;
+    }
+    final var missingTopics = topics.stream().filter(topic -> !existing.getSubjects().contains(topic)).toList();
+    if (!missingTopics.isEmpty() || existing.getRetentionPolicy() != RetentionPolicy.WorkQueue) {
+      log.warn("the stream :: {} does not match the configuration of the api and is left as it is, its subjects :: {} do not list the topics :: {}, its retention :: {}",
+        streamName, existing.getSubjects(), missingTopics, existing.getRetentionPolicy());
+    }
+  }
+
+  /**
+   * Subscribe to the topic through a durable pull consumer, shared by the pods like the queue group, and start pulling
+   * its messages.
+   *
+   * @param topic         the topic
+   * @param durable       the name of the durable consumer
+   * @param eventHandler  the event handler
+   * @param dispatchStage the dispatch stage of the topic
+   */
+  private void subscribeDurable(final String topic, final String durable, final EventHandler eventHandler, final SubscriberDispatchStage dispatchStage) {
+    final var consumerConfiguration = ConsumerConfiguration.builder().durable(durable).filterSubject(topic).ackPolicy(AckPolicy.Explicit)
+      .ackWait(Duration.ofSeconds(this.getApplicationProperties().getJetStreamAckWaitSeconds()))
+      .maxDeliver(this.getApplicationProperties().getJetStreamMaxDeliver()).build();
+    final var pullSubscribeOptions = PullSubscribeOptions.builder().stream(this.getApplicationProperties().getJetStreamStreamName())
+      .durable(durable).configuration(consumerConfiguration).build();
+    try {
+      final var pullConsumer = new JetStreamPullConsumer(topic, () -> this.connection.jetStream().subscribe(topic, pullSubscribeOptions),
+        this.onJetStreamMessage(eventHandler, dispatchStage), this.getApplicationProperties().getJetStreamFetchBatchSize());
+      this.pullConsumers.add(pullConsumer);
+      pullConsumer.start();
+    } catch (final IOException | JetStreamApiException e) {
+      throw new IllegalStateException("could not subscribe the durable consumer of topic " + topic, e);
+    }
   }
 
   /**
    * On message message handler.
+   * The event is handled on the subscriber executor through the dispatch stage of the topic, the dispatcher thread
+   * waits when the stage is full. The messages then wait in the pending buffer of the dispatcher, bounded by
+   * {@link ApplicationProperties#getSubscriberPendingLimitMessages()}, beyond it they are dropped and counted by
+   * {@link NatsErrorListener}.
    *
+   * @param eventHandler  the event handler
+   * @param dispatchStage the dispatch stage of the topic
    * @return the message handler
    */
-  public MessageHandler onMessage(final EventHandler eventHandler) {
+  public MessageHandler onMessage(final EventHandler eventHandler, final SubscriberDispatchStage dispatchStage) {
     return (Message message) -> {
       if (message != null) {
         log.info("Message received subject :: {},  replyTo :: {}, subscriptionID :: {}", message.getSubject(), message.getReplyTo(), message.getSID());
         try {
-          final var eventString = new String(message.getData());
-          LogHelper.logMessagingEventDetails(eventString);
-          final var event = JsonUtil.getJsonObjectFromString(Event.class, eventString);
-          eventHandler.handleEvent(event);
+          LogHelper.logMessagingEventDetails(message.getData());
+          final var event = JsonUtil.getEventFromByteArray(message.getData());
+          dispatchStage.dispatch(() -> this.handleEvent(eventHandler, event));
+        } catch (final InterruptedException e) {
+          log.error("InterruptedException while waiting to dispatch the message of subject :: {}", message.getSubject(), e);
+          Thread.currentThread().interrupt();
+        } catch (final RejectedExecutionException e) {
+          log.error("the subscriber executor rejected the message of subject :: {}", message.getSubject(), e);
         } catch (final Exception e) {
           log.error("Exception ", e);
         }
       }
     };
   }
+
+  /**
+   * On message message handler of the durable consumer of a topic.
+   * The message is acknowledged once the event is handled, the transaction of the handler is committed by then. A
+   * message which is not acknowledged, because the handler failed or the pod stopped, is redelivered when its ack wait
+   * expires. A message which is not an event is never redelivered.
+   *
+   * @param eventHandler  the event handler
+   * @param dispatchStage the dispatch stage of the topic
+   * @return the message handler
+   */
+  public MessageHandler onJetStreamMessage(final EventHandler eventHandler, final SubscriberDispatchStage dispatchStage) {
+    return (Message message) -> {
+      log.info("Message received subject :: {}, delivered :: {} times", message.getSubject(), message.metaData().deliveredCount());
+      final Event event;
+      try {
+        LogHelper.logMessagingEventDetails(message.getData());
+        event = JsonUtil.getEventFromByteArray(message.getData());
+      } catch (final Exception e) {
+        log.error("the message of subject :: {} is not an event, it is not redelivered", message.getSubject(), e);
+        message.term();
+        return;
+      }
+      try {
+        dispatchStage.dispatch(() -> {
+          if (this.handleEvent(eventHandler, event)) {
+            message.ack();
+          }
+        });
+      } catch (final RejectedExecutionException e) {
+        log.error("the subscriber executor rejected the message of subject :: {}, it is redelivered", message.getSubject(), e);
+      }
+    };
+  }
+
+  /**
+   * Handle the event, logging the failure.
+   *
+   * @param eventHandler the event handler
+   * @param event        the event
+   * @return true if the event is handled
+   */
+  private boolean handleEvent(final EventHandler eventHandler, final Event event) {
+    try {
+      eventHandler.handleEvent(event);
+      return true;
+    } catch (final InterruptedException e) {
+      log.error("InterruptedException while handling event :: {}", event, e);
+      Thread.currentThread().interrupt();
+    } catch (final Exception e) {
+      log.error("Exception ", e);
+    }
+    return false;
+  }
+
+  private boolean isJetStreamEnabled() {
+    return Boolean.TRUE.equals(this.getApplicationProperties().getJetStreamEnabled());
+  }
+
+  /**
+   * Stop pulling the messages of the durable consumers.
+   */
+  @PreDestroy
+  public void close() {
+    this.getPullConsumers().forEach(JetStreamPullConsumer::close);
+  }
 }
@@ -2,8 +2,10 @@ package ca.bc.gov.educ.penreg.api.messaging;
 
 import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.nats.client.Connection;
 import io.nats.client.ConnectionListener;
+import io.nats.client.ErrorListener;
 import io.nats.client.Nats;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -29,17 +31,19 @@ public class NatsConnection implements Closeable {
    * Instantiates a new Nats connection.
    *
    * @param applicationProperties the application properties
+   * @param meterRegistry         the meter registry, the slow consumers are counted in it
    * @throws IOException          the io exception
    * @throws InterruptedException the interrupted exception
    */
   @Autowired
-  public NatsConnection(final ApplicationProperties applicationProperties) throws IOException, InterruptedException {
-    this.natsCon = connectToNats(applicationProperties.getServer(), applicationProperties.getMaxReconnect(), applicationProperties.getConnectionName());
+  public NatsConnection(final ApplicationProperties applicationProperties, final MeterRegistry meterRegistry) throws IOException, InterruptedException {
+    this.natsCon = connectToNats(applicationProperties.getServer(), applicationProperties.getMaxReconnect(), applicationProperties.getConnectionName(), new NatsErrorListener(meterRegistry));
   }
 
-  private Connection connectToNats(String serverUrl, int maxReconnect, String connectionName) throws IOException, InterruptedException {
+  private Connection connectToNats(String serverUrl, int maxReconnect, String connectionName, ErrorListener errorListener) throws IOException, InterruptedException {
     io.nats.client.Options natsOptions = new io.nats.client.Options.Builder()
         .connectionListener(this::connectionListener)
+        .errorListener(errorListener)
         .maxPingsOut(5)
         .pingInterval(Duration.ofSeconds(2))
         .connectionName(connectionName)
@@ -0,0 +1,52 @@
+package ca.bc.gov.educ.penreg.api.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.nats.client.Connection;
+import io.nats.client.Consumer;
+import io.nats.client.ErrorListener;
+import io.nats.client.Message;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs the errors of the NATS connection and counts the slow consumers and the messages they drop. Core NATS drops the
+ * messages of a subscription whose pending buffer is full without telling the publisher, the counters show it.
+ */
+@Slf4j
+public class NatsErrorListener implements ErrorListener {
+
+  private final Counter slowConsumers;
+
+  private final Counter discardedMessages;
+
+  public NatsErrorListener(final MeterRegistry meterRegistry) {
+    this.slowConsumers = Counter.builder("penreg.nats.slow.consumers")
+      .description("The times a subscription became a slow consumer, its pending buffer was full").register(meterRegistry);
+    this.discardedMessages = Counter.builder("penreg.nats.messages.discarded")
+      .description("The messages dropped because the pending buffer of their subscription was full").register(meterRegistry);
+  }
+
+  @Override
+  public void errorOccurred(final Connection connection, final String error) {
+    log.error("NATS error :: {}", error);
+  }
+
+  @Override
+  public void exceptionOccurred(final Connection connection, final Exception exp) {
+    log.error("NATS exception", exp);
+  }
+
+  @Override
+  public void slowConsumerDetected(final Connection connection, final Consumer consumer) {
+    this.slowConsumers.increment();
+    log.error("NATS slow consumer, its messages are dropped :: pending {} of {} messages, {} of {} bytes, dropped {}",
+      consumer.getPendingMessageCount(), consumer.getPendingMessageLimit(), consumer.getPendingByteCount(), consumer.getPendingByteLimit(),
+      consumer.getDroppedCount());
+  }
+
+  @Override
+  public void messageDiscarded(final Connection connection, final Message message) {
+    this.discardedMessages.increment();
+    log.warn("NATS message of subject :: {} dropped by a slow consumer", message.getSubject());
+  }
+}
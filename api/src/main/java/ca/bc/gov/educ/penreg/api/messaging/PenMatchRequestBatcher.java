@@ -0,0 +1,161 @@
+package ca.bc.gov.educ.penreg.api.messaging;
+
+import ca.bc.gov.educ.penreg.api.exception.PenRegAPIRuntimeException;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.struct.Event;
+import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import ca.bc.gov.educ.penreg.api.util.MicroBatcher;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.nats.client.Message;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static ca.bc.gov.educ.penreg.api.constants.EventOutcome.PEN_MATCH_BATCH_PROCESSED;
+import static ca.bc.gov.educ.penreg.api.constants.EventType.PROCESS_PEN_MATCH_BATCH;
+import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.PEN_MATCH_API_TOPIC;
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * Sends the pen match requests of concurrent sagas and pen requests to the pen match api together. The requests are
+ * taken by a single sender thread, up to {@link ApplicationProperties#getPenMatchBatchMaxSize()} of them in one
+ * {@code PROCESS_PEN_MATCH_BATCH} event, whose payload is the list of their {@code PROCESS_PEN_MATCH} events, instead of
+ * a round trip per request. The sender does not wait for the reply of a batch, many batches can be in flight. The reply
+ * holds the pen match event of each request, it is matched to its request by the saga id. The sender is only started
+ * when {@link ApplicationProperties#getPenMatchBatchEnabled()} is set.
+ */
+@Component
+@Slf4j
+public class PenMatchRequestBatcher {
+
+  /**
+   * The time the pen match api has to reply to a batch.
+   */
+  private static final long REPLY_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  @Getter(PRIVATE)
+  private final MessagePublisher messagePublisher;
+
+  @Getter
+  private final boolean enabled;
+
+  private final MicroBatcher<PenMatchRequest> sender;
+
+  /**
+   * The number of batches sent, to compare with the number of requests.
+   */
+  private final LongAdder batches = new LongAdder();
+
+  public PenMatchRequestBatcher(final MessagePublisher messagePublisher, final ApplicationProperties applicationProperties) {
+    this.messagePublisher = messagePublisher;
+    this.enabled = Boolean.TRUE.equals(applicationProperties.getPenMatchBatchEnabled());
+    this.sender = new MicroBatcher<>("pen-match-batcher", applicationProperties.getPenMatchBatchMaxSize(), applicationProperties.getPenMatchBatchLingerMillis(),
+      PenMatchRequest::getReply, batch -> this.sendBatch(List.copyOf(batch)));
+    if (this.enabled) {
+      this.sender.start();
+    }
+  }
+
+  /**
+   * Request the pen match of a student, it is sent with the requests submitted around the same time.
+   *
+   * @param penMatchEvent the {@code PROCESS_PEN_MATCH} event, its saga id identifies the request in the batch
+   * @return the pen match event of the student, completed exceptionally when the batcher is not enabled, the batch could
+   * not be sent, the reply does not hold it or the pen match api does not reply in time
+   */
+  public CompletableFuture<Event> request(final Event penMatchEvent) {
+    final var penMatchRequest = new PenMatchRequest(penMatchEvent, new CompletableFuture<>());
+    this.sender.submit(penMatchRequest);
+    return penMatchRequest.getReply();
+  }
+
+  /**
+   * The number of batches sent.
+   *
+   * @return the number of batches
+   */
+  public long getBatches() {
+    return this.batches.sum();
+  }
+
+  /**
+   * Stop the sender once the requests submitted before are sent.
+   *
+   * @throws InterruptedException if the thread is interrupted while it waits for the sender
+   */
+  @PreDestroy
+  public void close() throws InterruptedException {
+    this.sender.close();
+  }
+
+  /**
+   * Send the batch and hand each pen match event of the reply to its request once it arrives.
+   */
+  private void sendBatch(final List<PenMatchRequest> batch) {
+    final var penMatchEvents = batch.stream().map(PenMatchRequest::getPenMatchEvent).collect(Collectors.toList());
+    final var batchEvent = Event.builder().sagaId(UUID.randomUUID()).eventType(PROCESS_PEN_MATCH_BATCH)
+      .eventPayload(JsonUtil.getJsonString(penMatchEvents).orElseThrow()).build();
+    log.debug("sending {} pen match requests in batch :: {}", batch.size(), batchEvent.getSagaId());
+    this.getMessagePublisher().requestMessage(PEN_MATCH_API_TOPIC.toString(), JsonUtil.getJsonString(batchEvent).orElseThrow().getBytes(StandardCharsets.UTF_8))
+      .orTimeout(REPLY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+      .whenComplete((message, e) -> {
+        if (e != null) {
+          log.error("the pen match batch :: {} of {} requests failed", batchEvent.getSagaId(), batch.size(), e);
+          batch.forEach(penMatchRequest -> penMatchRequest.getReply().completeExceptionally(e));
+        } else {
+          this.completeRequests(batchEvent.getSagaId(), batch, message);
+        }
+      });
+    this.batches.increment();
+  }
+
+  private void completeRequests(final UUID batchID, final List<PenMatchRequest> batch, final Message message) {
+    final Map<UUID, Event> replies;
+    try {
+      final var replyEvent = JsonUtil.getEventFromByteArray(message.getData());
+      if (replyEvent.getEventOutcome() != PEN_MATCH_BATCH_PROCESSED) {
+        throw new PenRegAPIRuntimeException("unexpected outcome of pen match batch " + batchID + " :: " + replyEvent.getEventOutcome());
+      }
+      final List<Event> penMatchEvents = JsonUtil.mapper.readValue(replyEvent.getEventPayload(), new TypeReference<>() {
+      });
+      replies = penMatchEvents.stream().collect(Collectors.toMap(Event::getSagaId, penMatchEvent -> penMatchEvent, (first, duplicate) -> first));
+    } catch (final Exception e) {
+      log.error("the reply to pen match batch :: {} could not be read", batchID, e);
+      batch.forEach(penMatchRequest -> penMatchRequest.getReply().completeExceptionally(e));
+      return;
+    }
+    for (final PenMatchRequest penMatchRequest : batch) {
+      final var sagaID = penMatchRequest.getPenMatchEvent().getSagaId();
+      final var reply = replies.get(sagaID);
+      if (reply != null) {
+        penMatchRequest.getReply().complete(reply);
+      } else {
+        penMatchRequest.getReply().completeExceptionally(new PenRegAPIRuntimeException("the reply to pen match batch " + batchID + " has no result for " + sagaID));
+      }
+    }
+  }
+
+  /**
+   * A pen match request and the future of its reply.
+   */
+  @Getter
+  private static final class PenMatchRequest {
+    private final Event penMatchEvent;
+    private final CompletableFuture<Event> reply;
+
+    private PenMatchRequest(final Event penMatchEvent, final CompletableFuture<Event> reply) {
+      this.penMatchEvent = penMatchEvent;
+      this.reply = reply;
+    }
+  }
+}
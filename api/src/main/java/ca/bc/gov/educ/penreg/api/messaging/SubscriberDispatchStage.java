@@ -0,0 +1,94 @@
+package ca.bc.gov.educ.penreg.api.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * A bounded stage between the NATS dispatcher of a topic and the subscriber executor. At most max depth events of the
+ * topic are queued or being handled at a time. When the stage is full the dispatcher thread waits for a free slot, so
+ * the messages pile up in the pending buffer of the NATS subscription, which is bounded by its pending limits, instead
+ * of in the unbounded queue of the executor on the heap.
+ * The depth of the stage, the time an event waits in it before it is handled and the time the dispatcher waits for a
+ * free slot are published as metrics, tagged with the topic.
+ */
+public class SubscriberDispatchStage {
+
+  @Getter(PRIVATE)
+  private final Semaphore slots;
+
+  @Getter
+  private final int maxDepth;
+
+  @Getter(PRIVATE)
+  private final Executor executor;
+
+  @Getter(PRIVATE)
+  private final Timer queueWaitTimer;
+
+  @Getter(PRIVATE)
+  private final Timer dispatcherWaitTimer;
+
+  /**
+   * Instantiates a new subscriber dispatch stage and registers its metrics.
+   *
+   * @param topic         the topic, the tag of the metrics
+   * @param maxDepth      the maximum number of events queued or being handled
+   * @param executor      the executor which handles the events
+   * @param meterRegistry the meter registry
+   */
+  public SubscriberDispatchStage(final String topic, final int maxDepth, final Executor executor, final MeterRegistry meterRegistry) {
+    this.slots = new Semaphore(maxDepth);
+    this.maxDepth = maxDepth;
+    this.executor = executor;
+    Gauge.builder("penreg.subscriber.queue.depth", this, SubscriberDispatchStage::getDepth).tag("topic", topic)
+      .description("The events of the topic queued or being handled").register(meterRegistry);
+    this.queueWaitTimer = Timer.builder("penreg.subscriber.queue.wait").tag("topic", topic)
+      .description("The time an event of the topic waits before it is handled").register(meterRegistry);
+    this.dispatcherWaitTimer = Timer.builder("penreg.subscriber.dispatcher.wait").tag("topic", topic)
+      .description("The time the NATS dispatcher of the topic waits for a free slot").register(meterRegistry);
+  }
+
+  /**
+   * Queue the handling of an event, waiting for a free slot when the stage is full.
+   *
+   * @param handler the handling of the event
+   * @throws InterruptedException if the thread is interrupted while it waits, the event is not queued
+   */
+  public void dispatch(final Runnable handler) throws InterruptedException {
+    final long dispatchedAt = System.nanoTime();
+    this.getSlots().acquire();
+    final long queuedAt = System.nanoTime();
+    this.getDispatcherWaitTimer().record(queuedAt - dispatchedAt, TimeUnit.NANOSECONDS);
+    try {
+      this.getExecutor().execute(() -> {
+        this.getQueueWaitTimer().record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+        try {
+          handler.run();
+        } finally {
+          this.getSlots().release();
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      this.getSlots().release();
+      throw e;
+    }
+  }
+
+  /**
+   * The number of events queued or being handled.
+   *
+   * @return the depth
+   */
+  public int getDepth() {
+    return this.maxDepth - this.getSlots().availablePermits();
+  }
+}
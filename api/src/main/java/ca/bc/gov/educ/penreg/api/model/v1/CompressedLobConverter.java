@@ -0,0 +1,33 @@
+package ca.bc.gov.educ.penreg.api.model.v1;
+
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.util.LobCompressionUtil;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores a json LOB compressed, see {@link LobCompressionUtil}, when {@link ApplicationProperties#getLobCompressionEnabled()}
+ * is on. The values are always read in both formats, so the rows written by a pod with the compression on can be read
+ * by every pod once the compression is switched on after a rollout. The jdbc statements which write these columns
+ * without hibernate compress the value themselves. Hibernate gets the converter from the spring context.
+ */
+@Converter
+public class CompressedLobConverter implements AttributeConverter<byte[], byte[]> {
+
+  private final ApplicationProperties applicationProperties;
+
+  public CompressedLobConverter(final ApplicationProperties applicationProperties) {
+    this.applicationProperties = applicationProperties;
+  }
+
+  @Override
+  public byte[] convertToDatabaseColumn(final byte[] attribute) {
+    return Boolean.TRUE.equals(this.applicationProperties.getLobCompressionEnabled()) ? LobCompressionUtil.compress(attribute) : attribute;
+  }
+
+  @Override
+  public byte[] convertToEntityAttribute(final byte[] dbData) {
+    return LobCompressionUtil.decompress(dbData);
+  }
+}
@@ -199,6 +199,16 @@ public class PenRequestBatchEntity {
    */
   @Column(name = "PEN_REQUEST_BATCH_PROCESS_TYPE_CODE", updatable = false, nullable = false, length = 10)
   String penRequestBatchProcessTypeCode;
+  /**
+   * The charset the file was read with, so the file can be read again without detecting it.
+   */
+  @Column(name = "FILE_CHARSET", updatable = false, length = 20)
+  String fileCharset;
+  /**
+   * The SHA-256 of the file contents, the duplicate file check finds an earlier file with the same contents by it.
+   */
+  @Column(name = "FILE_DIGEST", updatable = false, length = 64)
+  String fileDigest;
 
   /**
    * The Create user.
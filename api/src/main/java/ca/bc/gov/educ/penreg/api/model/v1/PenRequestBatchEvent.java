@@ -32,6 +32,7 @@ public class PenRequestBatchEvent {
 
   @NotNull(message = "eventPayload cannot be null")
   @Lob
+  @Convert(converter = CompressedLobConverter.class)
   @Column(name = "EVENT_PAYLOAD")
   private byte[] eventPayloadBytes;
 
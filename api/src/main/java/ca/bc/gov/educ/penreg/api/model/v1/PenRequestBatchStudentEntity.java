@@ -1,6 +1,7 @@
 package ca.bc.gov.educ.penreg.api.model.v1;
 
 import ca.bc.gov.educ.penreg.api.struct.v1.PenRequestIDs;
+import ca.bc.gov.educ.penreg.api.util.RepeatCheckFingerprintUtil;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -229,6 +230,12 @@ public class PenRequestBatchStudentEntity {
   @Column(name = "BEST_MATCH_PEN", length = 9)
   String bestMatchPEN;
 
+  /**
+   * The fingerprint of the fields this request is found as a repeat by, see {@link RepeatCheckFingerprintUtil}.
+   */
+  @Column(name = "REPEAT_CHECK_FINGERPRINT", length = 64)
+  String repeatCheckFingerprint;
+
   /**
    * The Pen request batch student validation issue entities.
    */
@@ -248,4 +255,13 @@ public class PenRequestBatchStudentEntity {
     }
     return this.penRequestBatchStudentValidationIssueEntities;
   }
+
+  /**
+   * Keep the repeat check fingerprint in line with the fields it is computed from.
+   */
+  @PrePersist
+  @PreUpdate
+  void updateRepeatCheckFingerprint() {
+    this.repeatCheckFingerprint = RepeatCheckFingerprintUtil.fingerprint(this);
+  }
 }
@@ -0,0 +1,42 @@
+package ca.bc.gov.educ.penreg.api.model.v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * The claim a pod holds on the unextracted pen web blobs of a school.
+ */
+@Entity
+@Table(name = "PEN_WEB_BLOB_CLAIM")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PenWebBlobClaimEntity {
+  /**
+   * The Min code.
+   */
+  @Id
+  @Column(name = "MINCODE", length = 8, nullable = false, updatable = false)
+  private String mincode;
+
+  /**
+   * The pod which holds the claim.
+   */
+  @Column(name = "CLAIMED_BY", nullable = false)
+  private String claimedBy;
+
+  /**
+   * The Claim expiry date.
+   */
+  @Column(name = "CLAIM_EXPIRY_DATE", nullable = false)
+  private LocalDateTime claimExpiryDate;
+}
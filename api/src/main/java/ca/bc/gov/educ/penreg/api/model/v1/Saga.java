@@ -67,6 +67,7 @@ public class Saga {
    */
   @NotNull(message = "payload cannot be null")
   @Lob
+  @Convert(converter = CompressedLobConverter.class)
   @Column(name = "PAYLOAD")
   byte[] payloadBytes;
 
@@ -110,6 +111,37 @@ public class Saga {
   @Column(name = "RETRY_COUNT")
   private Integer retryCount;
 
+  /**
+   * The saga is not replayed again by the scheduler before this date, it is set when a pod claims the saga for replay.
+   */
+  @Column(name = "REPLAY_LEASE_EXPIRY_DATE")
+  private LocalDateTime replayLeaseExpiryDate;
+
+  /**
+   * The checkpoint of the saga, the last event recorded for it. The response of the event is read through its id only
+   * when the saga is replayed.
+   */
+  @Column(name = "LAST_SAGA_EVENT_ID", columnDefinition = "BINARY(16)")
+  private UUID lastSagaEventID;
+
+  /**
+   * The state of the last event recorded for the saga.
+   */
+  @Column(name = "LAST_SAGA_EVENT_STATE")
+  private String lastSagaEventState;
+
+  /**
+   * The outcome of the last event recorded for the saga.
+   */
+  @Column(name = "LAST_SAGA_EVENT_OUTCOME")
+  private String lastSagaEventOutcome;
+
+  /**
+   * The step number of the last event recorded for the saga, null when the saga has no checkpoint.
+   */
+  @Column(name = "LAST_SAGA_STEP_NUMBER")
+  private Integer lastSagaStepNumber;
+
   public String getPayload() {
     return new String(this.getPayloadBytes(), StandardCharsets.UTF_8);
   }
@@ -69,6 +69,7 @@ public class SagaEvent {
    * The Saga event response.
    */
   @Lob
+  @Convert(converter = CompressedLobConverter.class)
   @Column(name = "SAGA_EVENT_RESPONSE")
   byte[] sagaEventResponseBytes;
 
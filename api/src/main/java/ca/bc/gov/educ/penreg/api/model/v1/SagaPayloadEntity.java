@@ -0,0 +1,49 @@
+package ca.bc.gov.educ.penreg.api.model.v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A large section of a saga payload, stored apart from the saga under the digest of its json.
+ */
+@Entity
+@Table(name = "PEN_REQUEST_BATCH_SAGA_PAYLOAD")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SagaPayloadEntity {
+  /**
+   * The SHA-256 of the payload.
+   */
+  @Id
+  @Column(name = "PAYLOAD_DIGEST", length = 64, nullable = false, updatable = false)
+  private String payloadDigest;
+
+  /**
+   * The json of the section.
+   */
+  @ToString.Exclude
+  @Lob
+  @Convert(converter = CompressedLobConverter.class)
+  @Column(name = "PAYLOAD", nullable = false, updatable = false)
+  private byte[] payload;
+
+  /**
+   * The Create date.
+   */
+  @Column(name = "CREATE_DATE", nullable = false, updatable = false)
+  private LocalDateTime createDate;
+
+  /**
+   * The last time a saga stored the section.
+   */
+  @Column(name = "UPDATE_DATE", nullable = false)
+  private LocalDateTime updateDate;
+}
@@ -20,7 +20,9 @@ import ca.bc.gov.educ.penreg.api.struct.v1.*;
 import ca.bc.gov.educ.penreg.api.util.JsonUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.util.*;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -63,6 +65,8 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
   private final RestUtils restUtils;
   @Getter(PROTECTED)
   private final DataManagementUnitProperties dataManagementUnitProperties;
+  @Getter(PROTECTED)
+  private final SagaPayloadService sagaPayloadService;
 
   /**
    * Instantiates a new Base orchestrator.
@@ -75,6 +79,7 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
    * @param penRequestBatchService   the pen request batch service
    * @param studentRegistrationContactService    the student registration contact service
    * @param dataManagementUnitProperties the data mangement unit properties
+   * @param sagaPayloadService       the saga payload service
    */
   protected BaseReturnFilesOrchestrator(final SagaService sagaService, final MessagePublisher messagePublisher,
                                         final Class<T> clazz, final String sagaName, final String topicToSubscribe,
@@ -83,7 +88,8 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
                                         final DataManagementUnitProperties dataManagementUnitProperties,
                                         final ResponseFileGeneratorService responseFileGeneratorService,
                                         final PenRequestBatchStudentValidationIssueService penRequestBatchStudentValidationIssueService,
-                                        final RestUtils restUtils) {
+                                        final RestUtils restUtils,
+                                        final SagaPayloadService sagaPayloadService) {
     super(sagaService, messagePublisher, clazz, sagaName, topicToSubscribe);
     this.penRequestBatchService = penRequestBatchService;
     this.studentRegistrationContactService = studentRegistrationContactService;
@@ -91,6 +97,88 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
     this.responseFileGeneratorService = responseFileGeneratorService;
     this.penRequestBatchStudentValidationIssueService = penRequestBatchStudentValidationIssueService;
     this.restUtils = restUtils;
+    this.sagaPayloadService = sagaPayloadService;
+  }
+
+  /**
+   * Write the saga data as the payload of the saga. The student requests, their validation issues and the students are
+   * stored apart from the payload when they are large, the payload then holds their digest instead. A section which is
+   * not loaded keeps its digest, see {@link #loadPayloadSections(Event, BasePenRequestBatchReturnFilesSagaData)}.
+   *
+   * @param saga     the saga
+   * @param sagaData the saga data
+   * @throws JsonProcessingException if the saga data can not be written as json
+   */
+  protected void setSagaPayload(final Saga saga, final BasePenRequestBatchReturnFilesSagaData sagaData) throws JsonProcessingException {
+    final ObjectNode payload = JsonUtil.mapper.valueToTree(sagaData);
+    sagaData.setPenRequestBatchStudentsDigest(this.storeSectionIfLarge(payload, "penRequestBatchStudents", "penRequestBatchStudentsDigest"));
+    sagaData.setPenRequestBatchStudentValidationIssuesDigest(this.storeSectionIfLarge(payload, "penRequestBatchStudentValidationIssues", "penRequestBatchStudentValidationIssuesDigest"));
+    sagaData.setStudentsDigest(this.storeSectionIfLarge(payload, "students", "studentsDigest"));
+    saga.setPayload(JsonUtil.mapper.writeValueAsString(payload));
+  }
+
+  private String storeSectionIfLarge(final ObjectNode payload, final String sectionName, final String digestName) throws JsonProcessingException {
+    final JsonNode section = payload.get(sectionName);
+    if (section == null || section.isNull()) {
+      return payload.path(digestName).textValue();
+    }
+    final Optional<String> digest = this.getSagaPayloadService().storeIfLarge(section);
+    if (digest.isPresent()) {
+      payload.putNull(sectionName);
+      payload.put(digestName, digest.get());
+    } else {
+      payload.putNull(digestName);
+    }
+    return digest.orElse(null);
+  }
+
+  /**
+   * Load the sections of the saga data which are stored apart from the saga payload, before a step which needs all of them.
+   *
+   * @param event    the current event
+   * @param sagaData the saga data
+   */
+  protected void loadPayloadSections(final Event event, final BasePenRequestBatchReturnFilesSagaData sagaData) {
+    this.loadPenRequestBatchStudents(sagaData);
+    if (sagaData.getPenRequestBatchStudentValidationIssues() == null && sagaData.getPenRequestBatchStudentValidationIssuesDigest() != null) {
+      sagaData.setPenRequestBatchStudentValidationIssues(this.getSagaPayloadService().load(sagaData.getPenRequestBatchStudentValidationIssuesDigest(), new TypeReference<>() {
+      }));
+    }
+    if (sagaData.getStudents() == null && sagaData.getStudentsDigest() != null) {
+      sagaData.setStudents(event, this.getSagaPayloadService().load(sagaData.getStudentsDigest(), new TypeReference<>() {
+      }));
+    }
+  }
+
+  /**
+   * Load the student requests of the saga data, if they are stored apart from the saga payload.
+   *
+   * @param sagaData the saga data
+   * @return the student requests
+   */
+  protected List<PenRequestBatchStudent> loadPenRequestBatchStudents(final BasePenRequestBatchReturnFilesSagaData sagaData) {
+    if (sagaData.getPenRequestBatchStudents() == null && sagaData.getPenRequestBatchStudentsDigest() != null) {
+      sagaData.setPenRequestBatchStudents(this.getSagaPayloadService().load(sagaData.getPenRequestBatchStudentsDigest(), new TypeReference<>() {
+      }));
+    }
+    return sagaData.getPenRequestBatchStudents();
+  }
+
+  /**
+   * The saga data is not cached once a section stored apart from the payload is loaded, the cache is bounded by the size
+   * of the payload, which then holds only the digest of the section.
+   *
+   * @param sagaData the saga data the step was executed with
+   * @return true if no section stored apart from the payload is loaded
+   */
+  @Override
+  protected boolean isSagaDataCacheable(final T sagaData) {
+    if (sagaData instanceof BasePenRequestBatchReturnFilesSagaData returnFilesSagaData) {
+      return (returnFilesSagaData.getPenRequestBatchStudentsDigest() == null || returnFilesSagaData.getPenRequestBatchStudents() == null)
+        && (returnFilesSagaData.getPenRequestBatchStudentValidationIssuesDigest() == null || returnFilesSagaData.getPenRequestBatchStudentValidationIssues() == null)
+        && (returnFilesSagaData.getStudentsDigest() == null || returnFilesSagaData.getStudents() == null);
+    }
+    return true;
   }
 
   protected void gatherReportData(final Event event, final Saga saga, final BasePenRequestBatchReturnFilesSagaData penRequestBatchReturnFilesSagaData) throws IOException, InterruptedException, TimeoutException {
@@ -111,7 +199,7 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
       penRequestBatchReturnFilesSagaData.setTelephone(this.dataManagementUnitProperties.getTelephone());
       penRequestBatchReturnFilesSagaData.setFacsimile(this.dataManagementUnitProperties.getFacsimile());
       penRequestBatchReturnFilesSagaData.setMailingAddress(this.dataManagementUnitProperties.getMailingAddress());
-      saga.setPayload(JsonUtil.getJsonStringFromObject(penRequestBatchReturnFilesSagaData)); // save the updated payload to DB...
+      this.setSagaPayload(saga, penRequestBatchReturnFilesSagaData); // save the updated payload to DB...
       this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
       nextEvent.setEventOutcome(REPORT_DATA_GATHERED);
     } else {
@@ -151,7 +239,7 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
     this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
 
     val nextEvent = Event.builder().sagaId(saga.getSagaId()).eventType(EventType.GET_STUDENTS).replyTo(this.getTopicToSubscribe()).build();
-    if (penRequestBatchReturnFilesSagaData.getPenRequestBatchStudents() == null) {
+    if (this.loadPenRequestBatchStudents(penRequestBatchReturnFilesSagaData) == null) {
       throw new PenRegAPIRuntimeException("penRequestBatchReturnFilesSagaData.getPenRequestBatchStudents() is null which is not expected in this flow for batch id :: " + penRequestBatchReturnFilesSagaData.getPenRequestBatchID());
     }
     final List<String> studentIDs = penRequestBatchReturnFilesSagaData.getPenRequestBatchStudents().stream()
@@ -172,6 +260,7 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
     final SagaEvent eventStates = this.createEventState(saga, event.getEventType(), event.getEventOutcome(), event.getEventPayload());
     saga.setSagaState(SAVE_REPORTS.toString());
     this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
+    this.loadPayloadSections(event, penRequestBatchReturnFilesSagaData);
     if (penRequestBatchReturnFilesSagaData.getStudents() == null) {
       log.info("students in saga data is null or empty for batch id :: {} and saga id :: {}, setting it from event states table", penRequestBatchReturnFilesSagaData.getPenRequestBatchID(), saga.getSagaId());
       SagaEvent sagaEvent = SagaEvent.builder().sagaEventState(GET_STUDENTS.toString()).sagaEventOutcome(STUDENTS_FOUND.toString()).sagaStepNumber(3).build();
@@ -201,6 +290,7 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
     final SagaEvent eventStates = this.createEventState(saga, event.getEventType(), event.getEventOutcome(), event.getEventPayload());
     saga.setSagaState(eventType.toString());
     this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
+    this.loadPenRequestBatchStudents(penRequestBatchReturnFilesSagaData);
     val prbStudentStatusCodeMap = penRequestBatchReturnFilesSagaData.getPenRequestBatchStudents() == null ? new HashMap<String, Long>() : penRequestBatchReturnFilesSagaData.getPenRequestBatchStudents().stream().collect(groupingBy(PenRequestBatchStudent::getPenRequestBatchStudentStatusCode, counting()));
     log.debug("PRBStudent status code map :: {}", prbStudentStatusCodeMap);
     final PendingRecords pendingRecords;
@@ -268,10 +358,13 @@ public abstract class BaseReturnFilesOrchestrator<T> extends BaseOrchestrator<T>
     if (penRequestBatchReturnFilesSagaData.getPenRequestBatch() == null || penRequestBatchReturnFilesSagaData.getPenRequestBatch().getMincode() == null) {
       return true;
     }
-    return PenRegBatchHelper.getSchoolTypeCodeFromMincode(penRequestBatchReturnFilesSagaData.getPenRequestBatch().getMincode()) == SchoolTypeCode.SFAS ||
-      (penRequestBatchReturnFilesSagaData.getPenRequestBatchStudents() != null
-        && !penRequestBatchReturnFilesSagaData.getPenRequestBatchStudents().isEmpty()
-        && penRequestBatchReturnFilesSagaData.getPenRequestBatchStudents().size() > this.restUtils.getProps().getBlockPdfGenerationThreshold());
+    if (PenRegBatchHelper.getSchoolTypeCodeFromMincode(penRequestBatchReturnFilesSagaData.getPenRequestBatch().getMincode()) == SchoolTypeCode.SFAS) {
+      return true;
+    }
+    final var penRequestBatchStudents = this.loadPenRequestBatchStudents(penRequestBatchReturnFilesSagaData);
+    return penRequestBatchStudents != null
+      && !penRequestBatchStudents.isEmpty()
+      && penRequestBatchStudents.size() > this.restUtils.getProps().getBlockPdfGenerationThreshold();
   }
 
   protected void sendHasNoStudentRegistrationContactEmail(final Event event, final Saga saga, final BasePenRequestBatchReturnFilesSagaData penRequestBatchReturnFilesSagaData) throws JsonProcessingException {
@@ -4,6 +4,7 @@ import ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStudentStatusCodes;
 import ca.bc.gov.educ.penreg.api.mappers.PenMatchSagaMapper;
 import ca.bc.gov.educ.penreg.api.mappers.PenStudentDemogValidationMapper;
 import ca.bc.gov.educ.penreg.api.messaging.MessagePublisher;
+import ca.bc.gov.educ.penreg.api.messaging.PenMatchRequestBatcher;
 import ca.bc.gov.educ.penreg.api.model.v1.Saga;
 import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
 import ca.bc.gov.educ.penreg.api.orchestrator.base.BaseOrchestrator;
@@ -60,6 +61,11 @@ public class PenReqBatchStudentOrchestrator extends BaseOrchestrator<PenRequestB
    */
   @Getter(PRIVATE)
   private final PenRequestBatchStudentOrchestratorService penRequestBatchStudentOrchestratorService;
+  /**
+   * The pen match request batcher, used when the pen match requests are sent in batches.
+   */
+  @Getter(PRIVATE)
+  private final PenMatchRequestBatcher penMatchRequestBatcher;
 
   /**
    * Instantiates a new Pen req batch student orchestrator.
@@ -68,15 +74,18 @@ public class PenReqBatchStudentOrchestrator extends BaseOrchestrator<PenRequestB
    * @param messagePublisher                          the message publisher
    * @param applicationProperties                     the application properties
    * @param penRequestBatchStudentOrchestratorService the pen request batch student orchestrator service
+   * @param penMatchRequestBatcher                    the pen match request batcher
    */
   @Autowired
   public PenReqBatchStudentOrchestrator(final SagaService sagaService, final MessagePublisher messagePublisher,
-                                        final ApplicationProperties applicationProperties, final PenRequestBatchStudentOrchestratorService penRequestBatchStudentOrchestratorService) {
+                                        final ApplicationProperties applicationProperties, final PenRequestBatchStudentOrchestratorService penRequestBatchStudentOrchestratorService,
+                                        final PenMatchRequestBatcher penMatchRequestBatcher) {
     super(sagaService, messagePublisher, PenRequestBatchStudentSagaData.class,
         PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), PEN_REQUEST_BATCH_STUDENT_PROCESSING_TOPIC.toString());
     this.applicationProperties = applicationProperties;
     this.setShouldSendNotificationEvent(true);
     this.penRequestBatchStudentOrchestratorService = penRequestBatchStudentOrchestratorService;
+    this.penMatchRequestBatcher = penMatchRequestBatcher;
   }
 
   /**
@@ -175,6 +184,9 @@ public class PenReqBatchStudentOrchestrator extends BaseOrchestrator<PenRequestB
 
   /**
    * Process pen match.
+   * When the pen match requests are sent in batches, the pen match event of the student is posted to the topic of this
+   * saga once the reply to its batch arrives, as if the pen match api had replied to the student alone. When the batch
+   * fails the saga is replayed like a saga whose reply was lost.
    *
    * @param event                          the event
    * @param saga                           the saga
@@ -193,8 +205,19 @@ public class PenReqBatchStudentOrchestrator extends BaseOrchestrator<PenRequestB
           .replyTo(this.getTopicToSubscribe())
           .eventPayload(eventPayload.get())
           .build();
-      this.postMessageToTopic(PEN_MATCH_API_TOPIC.toString(), nextEvent);
-      log.info("message sent to PEN_MATCH_API_TOPIC for PROCESS_PEN_MATCH Event. :: {}", saga.getSagaId());
+      if (this.getPenMatchRequestBatcher().isEnabled()) {
+        this.getPenMatchRequestBatcher().request(nextEvent).whenComplete((penMatchEvent, e) -> {
+          if (e != null) {
+            log.error("the pen match request failed, the saga will be replayed :: {}", saga.getSagaId(), e);
+          } else {
+            this.postMessageToTopic(this.getTopicToSubscribe(), penMatchEvent);
+          }
+        });
+        log.info("request added to the pen match batch for PROCESS_PEN_MATCH Event. :: {}", saga.getSagaId());
+      } else {
+        this.postMessageToTopic(PEN_MATCH_API_TOPIC.toString(), nextEvent);
+        log.info("message sent to PEN_MATCH_API_TOPIC for PROCESS_PEN_MATCH Event. :: {}", saga.getSagaId());
+      }
     } else {
       log.error("event payload is not present this should not have happened. :: {}", saga.getSagaId());
     }
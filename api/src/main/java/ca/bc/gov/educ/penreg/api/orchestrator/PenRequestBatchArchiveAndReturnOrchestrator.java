@@ -51,11 +51,12 @@ public class PenRequestBatchArchiveAndReturnOrchestrator extends BaseReturnFiles
                                                        DataManagementUnitProperties dataManagementUnitProperties,
                                                        ResponseFileGeneratorService responseFileGeneratorService,
                                                        PenRequestBatchStudentValidationIssueService penRequestBatchStudentValidationIssueService,
-                                                       RestUtils restUtils) {
+                                                       RestUtils restUtils,
+                                                       SagaPayloadService sagaPayloadService) {
         super(sagaService, messagePublisher, PenRequestBatchArchiveAndReturnSagaData.class,
           PEN_REQUEST_BATCH_ARCHIVE_AND_RETURN_SAGA.toString(), PEN_REQUEST_BATCH_ARCHIVE_AND_RETURN_TOPIC.toString(),
           penRequestBatchService, studentRegistrationContactService, dataManagementUnitProperties, responseFileGeneratorService,
-          penRequestBatchStudentValidationIssueService, restUtils);
+          penRequestBatchStudentValidationIssueService, restUtils, sagaPayloadService);
     }
 
     /**
@@ -88,7 +89,7 @@ public class PenRequestBatchArchiveAndReturnOrchestrator extends BaseReturnFiles
         saga.setSagaState(ARCHIVE_PEN_REQUEST_BATCH.toString());
         List<Student> students = obMapper.readValue(event.getEventPayload(), new TypeReference<>(){});
         penRequestBatchArchiveAndReturnSagaData.setStudents(event,students);
-        saga.setPayload(JsonUtil.getJsonStringFromObject(penRequestBatchArchiveAndReturnSagaData)); // save the updated payload to DB...
+        this.setSagaPayload(saga, penRequestBatchArchiveAndReturnSagaData); // save the updated payload to DB...
         this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
 
         var penRequestBatchArchive = PenRequestBatchArchive.builder()
@@ -109,8 +110,9 @@ public class PenRequestBatchArchiveAndReturnOrchestrator extends BaseReturnFiles
         SagaEvent eventStates = this.createEventState(saga, event.getEventType(), event.getEventOutcome(), event.getEventPayload());
         saga.setSagaState(GENERATE_PEN_REQUEST_BATCH_REPORTS.toString());
         penRequestBatchArchiveAndReturnSagaData.setPenRequestBatch(JsonUtil.getJsonObjectFromString(PenRequestBatch.class, event.getEventPayload()));
-        saga.setPayload(JsonUtil.getJsonStringFromObject(penRequestBatchArchiveAndReturnSagaData)); // save the updated payload to DB...
+        this.setSagaPayload(saga, penRequestBatchArchiveAndReturnSagaData); // save the updated payload to DB...
         this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
+        this.loadPayloadSections(event, penRequestBatchArchiveAndReturnSagaData);
         if(penRequestBatchArchiveAndReturnSagaData.getStudents() == null){
           log.info("students in saga data is null or empty for batch id :: {} and saga id :: {}, setting it from event states table", penRequestBatchArchiveAndReturnSagaData.getPenRequestBatchID(), saga.getSagaId());
           SagaEvent sagaEvent = SagaEvent.builder().sagaEventState(GET_STUDENTS.toString()).sagaEventOutcome(STUDENTS_FOUND.toString()).sagaStepNumber(3).build();
@@ -142,8 +144,9 @@ public class PenRequestBatchArchiveAndReturnOrchestrator extends BaseReturnFiles
         SagaEvent eventStates = this.createEventState(saga, event.getEventType(), event.getEventOutcome(), event.getEventPayload());
         saga.setSagaState(SAVE_REPORTS.toString());
         penRequestBatchArchiveAndReturnSagaData.setPenRequestBatch(JsonUtil.getJsonObjectFromString(PenRequestBatch.class, event.getEventPayload()));
-        saga.setPayload(JsonUtil.getJsonStringFromObject(penRequestBatchArchiveAndReturnSagaData)); // save the updated payload to DB...
+        this.setSagaPayload(saga, penRequestBatchArchiveAndReturnSagaData); // save the updated payload to DB...
         this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
+        this.loadPayloadSections(event, penRequestBatchArchiveAndReturnSagaData);
         if(penRequestBatchArchiveAndReturnSagaData.getStudents() == null){
           log.info("students in saga data is null or empty for batch id :: {} and saga id :: {}, setting it from event states table", penRequestBatchArchiveAndReturnSagaData.getPenRequestBatchID(), saga.getSagaId());
           SagaEvent sagaEvent = SagaEvent.builder().sagaEventState(GET_STUDENTS.toString()).sagaEventOutcome(STUDENTS_FOUND.toString()).sagaStepNumber(3).build();
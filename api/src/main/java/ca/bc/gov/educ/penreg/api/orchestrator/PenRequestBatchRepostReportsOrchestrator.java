@@ -45,11 +45,12 @@ public class PenRequestBatchRepostReportsOrchestrator extends BaseReturnFilesOrc
                                                     DataManagementUnitProperties dataManagementUnitProperties,
                                                     ResponseFileGeneratorService responseFileGeneratorService,
                                                     PenRequestBatchStudentValidationIssueService penRequestBatchStudentValidationIssueService,
-                                                    RestUtils restUtils) {
+                                                    RestUtils restUtils,
+                                                    SagaPayloadService sagaPayloadService) {
         super(sagaService, messagePublisher, PenRequestBatchRepostReportsFilesSagaData.class,
           PEN_REQUEST_BATCH_REPOST_REPORTS_SAGA.toString(), PEN_REQUEST_BATCH_REPOST_REPORTS_TOPIC.toString(),
           penRequestBatchService, studentRegistrationContactService, dataManagementUnitProperties, responseFileGeneratorService,
-          penRequestBatchStudentValidationIssueService, restUtils);
+          penRequestBatchStudentValidationIssueService, restUtils, sagaPayloadService);
     }
 
     /**
@@ -79,8 +80,9 @@ public class PenRequestBatchRepostReportsOrchestrator extends BaseReturnFilesOrc
     saga.setSagaState(GENERATE_PEN_REQUEST_BATCH_REPORTS.toString());
     List<Student> students = obMapper.readValue(event.getEventPayload(), new TypeReference<>(){});
     penRequestBatchRepostReportsFilesSagaData.setStudents(event,students);
-    saga.setPayload(JsonUtil.getJsonStringFromObject(penRequestBatchRepostReportsFilesSagaData)); // save the updated payload to DB...
+    this.setSagaPayload(saga, penRequestBatchRepostReportsFilesSagaData); // save the updated payload to DB...
     this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
+    this.loadPayloadSections(event, penRequestBatchRepostReportsFilesSagaData);
 
     Event nextEvent = Event.builder().sagaId(saga.getSagaId())
       .eventType(GENERATE_PEN_REQUEST_BATCH_REPORTS)
@@ -102,8 +104,9 @@ public class PenRequestBatchRepostReportsOrchestrator extends BaseReturnFilesOrc
     saga.setSagaState(SAVE_REPORTS.toString());
     List<Student> students = obMapper.readValue(event.getEventPayload(), new TypeReference<>(){});
     penRequestBatchRepostReportsFilesSagaData.setStudents(event,students);
-    saga.setPayload(JsonUtil.getJsonStringFromObject(penRequestBatchRepostReportsFilesSagaData)); // save the updated payload to DB...
+    this.setSagaPayload(saga, penRequestBatchRepostReportsFilesSagaData); // save the updated payload to DB...
     this.getSagaService().updateAttachedSagaWithEvents(saga, eventStates);
+    this.loadPayloadSections(event, penRequestBatchRepostReportsFilesSagaData);
 
     this.getResponseFileGeneratorService().saveReports(mapper.toModel(penRequestBatchRepostReportsFilesSagaData.getPenRequestBatch()),
       penRequestBatchRepostReportsFilesSagaData.getPenRequestBatchStudents(),
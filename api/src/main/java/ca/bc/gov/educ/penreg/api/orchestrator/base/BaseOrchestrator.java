@@ -10,6 +10,9 @@ import ca.bc.gov.educ.penreg.api.service.SagaService;
 import ca.bc.gov.educ.penreg.api.struct.Event;
 import ca.bc.gov.educ.penreg.api.struct.NotificationEvent;
 import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -22,7 +25,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
@@ -54,6 +59,10 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    * The constant SELF
    */
   protected static final String SELF = "SELF";
+  /**
+   * The number of payload bytes the saga data cache of an orchestrator holds at most.
+   */
+  private static final long SAGA_DATA_CACHE_MAX_PAYLOAD_BYTES = 4_000_000L;
   /**
    * The flag to indicate whether t
    */
@@ -64,9 +73,30 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    */
   protected final Class<T> clazz;
   /**
-   * The Next steps to execute.
+   * The Next steps to execute, as registered by {@link #populateStepsToExecuteMap()}.
    */
   protected final Map<EventType, List<SagaEventState<T>>> nextStepsToExecute = new LinkedHashMap<>();
+  /**
+   * The transition table compiled from {@link #nextStepsToExecute} once the steps are registered, the next steps of
+   * an event by its outcome, in the order they were registered.
+   */
+  private final EnumMap<EventType, EnumMap<EventOutcome, List<SagaEventState<T>>>> transitionTable = new EnumMap<>(EventType.class);
+  /**
+   * The position of an event in the steps registered, by the ordinal of the event, -1 for an event which is not
+   * registered.
+   */
+  private final int[] eventPositions = new int[EventType.values().length];
+  /**
+   * The saga data deserialized from the payload of a saga, by saga id, together with the version of the saga it was
+   * deserialized from, so that a saga which takes several steps on this pod parses its payload once rather than for
+   * every event. An entry is only used while the saga is still at the same version and is taken out of the cache while
+   * a step runs with it, see {@link #getSagaData(Saga)}.
+   */
+  private final Cache<UUID, CachedSagaData<T>> sagaDataCache = CacheBuilder.newBuilder()
+    .maximumWeight(SAGA_DATA_CACHE_MAX_PAYLOAD_BYTES)
+    .weigher((UUID sagaId, CachedSagaData<T> cachedSagaData) -> cachedSagaData.payloadLength)
+    .expireAfterAccess(Duration.ofMinutes(10))
+    .build();
   /**
    * The Saga service.
    */
@@ -106,6 +136,25 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
     this.sagaName = sagaName;
     this.topicToSubscribe = topicToSubscribe;
     this.populateStepsToExecuteMap();
+    this.compileTransitionTable();
+  }
+
+  /**
+   * Compile the steps registered into the transition table and the positions of the events, so that finding the next
+   * step of an event does not scan or allocate.
+   */
+  private void compileTransitionTable() {
+    Arrays.fill(this.eventPositions, -1);
+    int position = 0;
+    for (final var entry : this.nextStepsToExecute.entrySet()) {
+      this.eventPositions[entry.getKey().ordinal()] = position++;
+      final EnumMap<EventOutcome, List<SagaEventState<T>>> statesByOutcome = new EnumMap<>(EventOutcome.class);
+      for (final var sagaEventState : entry.getValue()) {
+        statesByOutcome.computeIfAbsent(sagaEventState.getCurrentEventOutcome(), outcome -> new ArrayList<>()).add(sagaEventState);
+      }
+      statesByOutcome.replaceAll((outcome, states) -> List.copyOf(states));
+      this.transitionTable.put(entry.getKey(), statesByOutcome);
+    }
   }
 
   /**
@@ -255,15 +304,11 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    *
    * @param currentEventType current event.
    * @param saga             the model object.
-   * @param eventTypes       event types stored in the hashmap
    * @return true or false based on whether the current event with outcome received from the queue is already processed or not.
    */
-  protected boolean isNotProcessedEvent(final EventType currentEventType, final Saga saga, final Set<EventType> eventTypes) {
+  protected boolean isNotProcessedEvent(final EventType currentEventType, final Saga saga) {
     val eventTypeInDB = EventType.valueOf(saga.getSagaState());
-    val events = new LinkedList<>(eventTypes);
-    val dbEventIndex = events.indexOf(eventTypeInDB);
-    val currentEventIndex = events.indexOf(currentEventType);
-    return currentEventIndex >= dbEventIndex;
+    return this.eventPositions[currentEventType.ordinal()] >= this.eventPositions[eventTypeInDB.ordinal()];
   }
 
   /**
@@ -328,8 +373,7 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    * @return step number that was calculated.
    */
   private int calculateStep(final Saga saga) {
-    val sagaStates = this.getSagaService().findAllSagaStates(saga);
-    return (sagaStates.size() + 1);
+    return this.getSagaService().findNextSagaStepNumber(saga);
   }
 
   /**
@@ -347,19 +391,10 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
     }
   }
 
-  /**
-   * it finds the last event that was processed successfully for this saga.
-   *
-   * @param eventStates event states corresponding to the Saga.
-   * @return {@link SagaEvent} if found else null.
-   */
-  protected Optional<SagaEvent> findTheLastEventOccurred(final List<SagaEvent> eventStates) {
-    final int step = eventStates.stream().map(SagaEvent::getSagaStepNumber).mapToInt(x -> x).max().orElse(0);
-    return eventStates.stream().filter(element -> element.getSagaStepNumber() == step).findFirst();
-  }
-
   /**
    * this method is called from the cron job , which will replay the saga process based on its current state.
+   * The current state is read from the checkpoint of the saga, sagas which were last updated before it was recorded
+   * fall back to their last event.
    *
    * @param saga the model object.
    * @throws IOException          if there is connectivity problem
@@ -370,42 +405,46 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
   @Async("taskExecutor")
   @Transactional
   public void replaySaga(final Saga saga) throws IOException, InterruptedException, TimeoutException {
-    final var eventStates = this.getSagaService().findAllSagaStates(saga);
-    final var t = JsonUtil.getJsonObjectFromString(this.clazz, saga.getPayload());
-    if (eventStates.isEmpty()) { //process did not start last time, lets start from beginning.
+    final var t = this.getSagaData(saga);
+    if (saga.getLastSagaStepNumber() != null) {
+      final var eventPayload = this.getSagaService().findLastSagaEventResponse(saga);
+      if (eventPayload.isPresent()) {
+        this.replayFromLastEvent(saga, EventType.valueOf(saga.getLastSagaEventState()), EventOutcome.valueOf(saga.getLastSagaEventOutcome()), eventPayload.get(), t);
+        return;
+      }
+    }
+    final var lastSagaEvent = this.getSagaService().findLastSagaState(saga);
+    if (lastSagaEvent.isEmpty()) { //process did not start last time, lets start from beginning.
       this.replayFromBeginning(saga, t);
     } else {
-      this.replayFromLastEvent(saga, eventStates, t);
+      final var sagaEvent = lastSagaEvent.get();
+      log.trace(sagaEvent.toString());
+      this.replayFromLastEvent(saga, EventType.valueOf(sagaEvent.getSagaEventState()), EventOutcome.valueOf(sagaEvent.getSagaEventOutcome()), sagaEvent.getSagaEventResponse(), t);
     }
   }
 
   /**
    * This method will restart the saga process from where it was left the last time. which could occur due to various reasons
    *
-   * @param saga        the model object.
-   * @param eventStates the event states corresponding to the saga
-   * @param t           the payload string as an object
+   * @param saga         the model object.
+   * @param currentEvent the state of the last event that was processed for the saga
+   * @param eventOutcome the outcome of the last event that was processed for the saga
+   * @param eventPayload the response of the last event that was processed for the saga
+   * @param t            the payload string as an object
    * @throws InterruptedException if thread is interrupted.
    * @throws TimeoutException     if connection to messaging system times out.
    * @throws IOException          if there is connectivity problem
    */
-  private void replayFromLastEvent(final Saga saga, final List<SagaEvent> eventStates, final T t) throws InterruptedException, TimeoutException, IOException {
-    val sagaEventOptional = this.findTheLastEventOccurred(eventStates);
-    if (sagaEventOptional.isPresent()) {
-      val sagaEvent = sagaEventOptional.get();
-      log.trace(sagaEventOptional.toString());
-      final EventType currentEvent = EventType.valueOf(sagaEvent.getSagaEventState());
-      final EventOutcome eventOutcome = EventOutcome.valueOf(sagaEvent.getSagaEventOutcome());
-      final Event event = Event.builder()
-          .eventOutcome(eventOutcome)
-          .eventType(currentEvent)
-          .eventPayload(sagaEvent.getSagaEventResponse())
-          .build();
-      final Optional<SagaEventState<T>> sagaEventState = this.findNextSagaEventState(currentEvent, eventOutcome, t);
-      if (sagaEventState.isPresent()) {
-        log.trace(SYSTEM_IS_GOING_TO_EXECUTE_NEXT_EVENT_FOR_CURRENT_EVENT, sagaEventState.get().getNextEventType(), event.toString(), saga.getSagaId());
-        this.invokeNextEvent(event, saga, t, sagaEventState.get());
-      }
+  private void replayFromLastEvent(final Saga saga, final EventType currentEvent, final EventOutcome eventOutcome, final String eventPayload, final T t) throws InterruptedException, TimeoutException, IOException {
+    final Event event = Event.builder()
+        .eventOutcome(eventOutcome)
+        .eventType(currentEvent)
+        .eventPayload(eventPayload)
+        .build();
+    final Optional<SagaEventState<T>> sagaEventState = this.findNextSagaEventState(currentEvent, eventOutcome, t);
+    if (sagaEventState.isPresent()) {
+      log.trace(SYSTEM_IS_GOING_TO_EXECUTE_NEXT_EVENT_FOR_CURRENT_EVENT, sagaEventState.get().getNextEventType(), event.toString(), saga.getSagaId());
+      this.invokeNextEvent(event, saga, t, sagaEventState.get());
     }
   }
 
@@ -439,7 +478,6 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    * @throws TimeoutException     if connection to messaging system times out.
    */
   @Override
-  @Async("subscriberExecutor")
   @Transactional
   public void handleEvent(@NotNull final Event event) throws InterruptedException, IOException, TimeoutException {
     log.info("executing saga event {}", event.getEventType());
@@ -454,7 +492,7 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
     if (sagaOptional.isPresent()) {
       val saga = sagaOptional.get();
       if (!COMPLETED.toString().equalsIgnoreCase(sagaOptional.get().getStatus())) {//possible duplicate message or force stop scenario check
-        final T sagaData = JsonUtil.getJsonObjectFromString(this.clazz, saga.getPayload());
+        final T sagaData = this.getSagaData(saga);
         final var sagaEventState = this.findNextSagaEventState(event.getEventType(), event.getEventOutcome(), sagaData);
         log.trace("found next event as {}", sagaEventState);
         if (sagaEventState.isPresent()) {
@@ -560,10 +598,17 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    * @return {@link Optional<SagaEventState>}
    */
   protected Optional<SagaEventState<T>> findNextSagaEventState(final EventType currentEvent, final EventOutcome eventOutcome, final T sagaData) {
-    val sagaEventStates = this.nextStepsToExecute.get(currentEvent);
-    return sagaEventStates == null ? Optional.empty() : sagaEventStates.stream().filter(el ->
-        el.getCurrentEventOutcome() == eventOutcome && el.nextStepPredicate.test(sagaData)
-    ).findFirst();
+    val sagaEventStatesByOutcome = this.transitionTable.get(currentEvent);
+    val sagaEventStates = sagaEventStatesByOutcome == null ? null : sagaEventStatesByOutcome.get(eventOutcome);
+    if (sagaEventStates != null) {
+      for (int index = 0; index < sagaEventStates.size(); index++) { // indexed, the steps of an event are few and this runs for every message.
+        final var sagaEventState = sagaEventStates.get(index);
+        if (sagaEventState.nextStepPredicate.test(sagaData)) {
+          return Optional.of(sagaEventState);
+        }
+      }
+    }
+    return Optional.empty();
   }
 
   /**
@@ -578,7 +623,7 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    */
   protected void process(@NotNull final Event event, final Saga saga, final T sagaData, final SagaEventState<T> sagaEventState) throws InterruptedException, TimeoutException, IOException {
     if (!saga.getSagaState().equalsIgnoreCase(COMPLETED.toString())
-        && this.isNotProcessedEvent(event.getEventType(), saga, this.nextStepsToExecute.keySet())) {
+        && this.isNotProcessedEvent(event.getEventType(), saga)) {
       log.info(SYSTEM_IS_GOING_TO_EXECUTE_NEXT_EVENT_FOR_CURRENT_EVENT, sagaEventState.getNextEventType(), event.getEventType(), saga.getSagaId());
       log.trace("Full event for SAGA_ID :: {} is :: {}", saga.getSagaId(), event.toString());
       this.invokeNextEvent(event, saga, sagaData, sagaEventState);
@@ -600,7 +645,63 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    */
   protected void invokeNextEvent(final Event event, final Saga saga, final T sagaData, final SagaEventState<T> sagaEventState) throws InterruptedException, TimeoutException, IOException {
     final SagaStep<T> stepToExecute = sagaEventState.getStepToExecute();
-    stepToExecute.apply(event, saga, sagaData);
+    final byte[] payloadBytes = saga.getPayloadBytes();
+    try {
+      stepToExecute.apply(event, saga, sagaData);
+    } catch (final InterruptedException | TimeoutException | IOException | RuntimeException e) {
+      this.sagaDataCache.invalidate(saga.getSagaId());
+      throw e;
+    }
+    this.updateSagaDataCache(saga, payloadBytes, sagaData);
+  }
+
+  /**
+   * Get the saga data of the saga, from the saga data cache when the saga is at the version the cached saga data was
+   * deserialized from, see {@link CachedSagaData#isVersionOf(Saga)}, which costs nothing next to deserializing the payload.
+   * The saga data is taken out of the cache, so that a duplicate message handled at the same time deserializes its own
+   * saga data rather than sharing it, the step puts it back once it saved the saga data.
+   *
+   * @param saga the saga
+   * @return the saga data
+   * @throws JsonProcessingException the json processing exception
+   */
+  protected T getSagaData(final Saga saga) throws JsonProcessingException {
+    final var cachedSagaData = this.sagaDataCache.asMap().remove(saga.getSagaId());
+    if (cachedSagaData != null && cachedSagaData.isVersionOf(saga)) {
+      return cachedSagaData.sagaData;
+    }
+    return JsonUtil.getJsonObjectFromString(this.clazz, saga.getPayload());
+  }
+
+  /**
+   * Keep the saga data for the next step of the saga when the step saved the saga data as the new payload of the saga.
+   * A step which did not save the payload may have changed the saga data without saving it, so the saga data is not
+   * kept then, nor is saga data larger than its payload, see {@link #isSagaDataCacheable(Object)}. A step which handled the next event itself has cached the saga data of that event already.
+   *
+   * @param saga               the saga after the step
+   * @param payloadBytesBefore the payload of the saga before the step, a step which saves the saga data sets a new one
+   * @param sagaData           the saga data the step was executed with
+   */
+  private void updateSagaDataCache(final Saga saga, final byte[] payloadBytesBefore, final T sagaData) {
+    final var cachedSagaData = this.sagaDataCache.getIfPresent(saga.getSagaId());
+    if (COMPLETED.toString().equalsIgnoreCase(saga.getStatus()) || payloadBytesBefore == saga.getPayloadBytes()) {
+      this.sagaDataCache.invalidate(saga.getSagaId());
+    } else if (!this.isSagaDataCacheable(sagaData)) {
+      this.sagaDataCache.invalidate(saga.getSagaId());
+    } else if (cachedSagaData == null || !cachedSagaData.isVersionOf(saga)) {
+      this.sagaDataCache.put(saga.getSagaId(), new CachedSagaData<>(saga, sagaData));
+    }
+  }
+
+  /**
+   * Whether the saga data can be kept in the saga data cache, which is bounded by the size of the payloads. Saga data
+   * which holds more than its payload, parts stored apart from the payload and loaded by a step, is not kept.
+   *
+   * @param sagaData the saga data the step was executed with
+   * @return true if the saga data is no larger than its payload
+   */
+  protected boolean isSagaDataCacheable(final T sagaData) {
+    return true;
   }
 
   /**
@@ -608,4 +709,38 @@ public abstract class BaseOrchestrator<T> implements EventHandler, Orchestrator
    */
   public abstract void populateStepsToExecuteMap();
 
+  /**
+   * The saga data of the saga data cache and the version of the saga it was deserialized from. Every step which saves
+   * the payload records its event, which moves the checkpoint of the saga to the step, and the payload is updated
+   * outside of a step only through the saga api, which sets the update date. The update date is compared to the second
+   * as it is stored, and the length of the payload guards a payload updated in the same second as the step.
+   *
+   * @param <T> the type of the saga data
+   */
+  private static final class CachedSagaData<T> {
+    private final Integer lastSagaStepNumber;
+
+    private final LocalDateTime updateDate;
+
+    private final int payloadLength;
+
+    private final T sagaData;
+
+    private CachedSagaData(final Saga saga, final T sagaData) {
+      this.lastSagaStepNumber = saga.getLastSagaStepNumber();
+      this.updateDate = truncateToSeconds(saga.getUpdateDate());
+      this.payloadLength = saga.getPayloadBytes().length;
+      this.sagaData = sagaData;
+    }
+
+    private boolean isVersionOf(final Saga saga) {
+      return this.payloadLength == saga.getPayloadBytes().length && Objects.equals(this.lastSagaStepNumber, saga.getLastSagaStepNumber())
+        && Objects.equals(this.updateDate, truncateToSeconds(saga.getUpdateDate()));
+    }
+
+    private static LocalDateTime truncateToSeconds(final LocalDateTime dateTime) {
+      return dateTime == null ? null : dateTime.truncatedTo(ChronoUnit.SECONDS);
+    }
+  }
+
 }
@@ -72,6 +72,33 @@ public class ApplicationProperties {
   @Value("${nats.connectionName}")
   private String connectionName;
 
+  /**
+   * Whether the orchestrators and the api topic consume their events from durable JetStream consumers, acknowledged
+   * once handled, instead of from core NATS queue groups.
+   */
+  @Value("${nats.jetstream.enabled}")
+  private Boolean jetStreamEnabled;
+  /**
+   * The stream which captures the subscribed topics.
+   */
+  @Value("${nats.jetstream.stream.name}")
+  private String jetStreamStreamName;
+  /**
+   * The maximum number of messages pulled from the consumer of a topic at a time.
+   */
+  @Value("${nats.jetstream.fetch.batch.size}")
+  private Integer jetStreamFetchBatchSize;
+  /**
+   * The seconds a pulled message is not acknowledged before it is redelivered.
+   */
+  @Value("${nats.jetstream.ack.wait.seconds}")
+  private Integer jetStreamAckWaitSeconds;
+  /**
+   * The maximum number of times a message is delivered.
+   */
+  @Value("${nats.jetstream.max.deliver}")
+  private Integer jetStreamMaxDeliver;
+
   @Value("${number.records.for.batch.hold}")
   private int numRecordsForBatchHold;
 
@@ -82,8 +109,95 @@ public class ApplicationProperties {
   private Integer minSubscriberThreads;
   @Value("${threads.max.subscriber}")
   private Integer maxSubscriberThreads;
+  /**
+   * The maximum number of events of a topic queued or being handled, the NATS dispatcher of the topic waits beyond it.
+   */
+  @Value("${threads.subscriber.queue.depth}")
+  private Integer subscriberQueueDepth;
+  /**
+   * The maximum number of messages, and of their bytes, of a topic received and waiting for the dispatch stage of the
+   * topic. Core NATS drops the messages beyond them as a slow consumer, see {@link ca.bc.gov.educ.penreg.api.messaging.NatsErrorListener}.
+   */
+  @Value("${nats.subscriber.pending.limit.messages}")
+  private Long subscriberPendingLimitMessages;
+  @Value("${nats.subscriber.pending.limit.bytes}")
+  private Long subscriberPendingLimitBytes;
   @Value("${sagas.max.pending}")
   private Integer maxPendingSagas;
   @Value("${sagas.max.parallel}")
   private Integer maxParallelSagas;
+  /**
+   * Number of student requests published in one message for processing, their sagas are created together.
+   */
+  @Value("${sagas.student.processing.chunk.size}")
+  private Integer studentProcessingSagaChunkSize;
+  /**
+   * Minutes an uncompleted saga claimed by a pod is not replayed again, doubled for every earlier retry of the saga.
+   */
+  @Value("${sagas.replay.lease.minutes}")
+  private Integer sagaReplayLeaseMinutes;
+  /**
+   * The maximum minutes an uncompleted saga claimed by a pod is not replayed again.
+   */
+  @Value("${sagas.replay.lease.max.minutes}")
+  private Integer sagaReplayMaxLeaseMinutes;
+  /**
+   * The minutes an uncompleted saga is not updated before it is replayed when the events are consumed from JetStream,
+   * the lost steps are redelivered long before, so only the sagas whose redeliveries ran out are replayed.
+   */
+  @Value("${sagas.replay.jetstream.after.minutes}")
+  private Integer sagaReplayJetStreamAfterMinutes;
+  /**
+   * A section of a saga payload, such as the student requests of a batch, whose json is larger than this many bytes is
+   * stored apart from the saga, which then only holds its digest.
+   */
+  @Value("${sagas.payload.section.max.inline.bytes}")
+  private Integer sagaPayloadSectionMaxInlineBytes;
+  /**
+   * The maximum number of saga steps written in one transaction by the saga journal.
+   */
+  @Value("${sagas.journal.max.batch.size}")
+  private Integer sagaJournalMaxBatchSize;
+  /**
+   * Milliseconds the saga journal waits for the steps of other sagas before it writes the steps it has.
+   */
+  @Value("${sagas.journal.linger.millis}")
+  private Integer sagaJournalLingerMillis;
+  /**
+   * Seconds a saga step may wait to be taken by the writer of the saga journal, also the timeout of its transaction. A step
+   * which times out before it is taken is not written, it fails and is retried.
+   */
+  @Value("${sagas.journal.timeout.seconds}")
+  private Integer sagaJournalTimeoutSeconds;
+  /**
+   * Whether the saga, saga event and batch event json LOBs are written compressed. They are read in both formats either
+   * way, it is switched on once no pod of an earlier version, which can only read them uncompressed, is running.
+   */
+  @Value("${lob.compression.enabled}")
+  private Boolean lobCompressionEnabled;
+  /**
+   * Whether the pen match requests of concurrent sagas and pen requests are sent to the pen match api together, in
+   * batches of up to max size requests, waiting at most linger millis for more requests.
+   */
+  @Value("${pen.match.batch.enabled}")
+  private Boolean penMatchBatchEnabled;
+  @Value("${pen.match.batch.max.size}")
+  private Integer penMatchBatchMaxSize;
+  @Value("${pen.match.batch.linger.millis}")
+  private Integer penMatchBatchLingerMillis;
+  /**
+   * Number of pen web blobs, each of a different school, which are processed in parallel by a pod.
+   */
+  @Value("${threads.pen.web.blob.extractor}")
+  private Integer penWebBlobExtractorThreads;
+  /**
+   * Minutes a pod holds the claim on the pen web blobs of a school before another pod can take it over.
+   */
+  @Value("${pen.web.blob.claim.lease.minutes}")
+  private Integer penWebBlobClaimLeaseMinutes;
+  /**
+   * Number of student requests written per jdbc batch when a batch file is loaded.
+   */
+  @Value("${pen.request.batch.student.insert.batch.size}")
+  private Integer penRequestBatchStudentInsertBatchSize;
 }
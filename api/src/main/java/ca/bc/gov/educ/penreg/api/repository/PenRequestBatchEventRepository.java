@@ -18,8 +18,15 @@ public interface PenRequestBatchEventRepository extends CrudRepository<PenReques
 
   List<PenRequestBatchEvent> findByEventStatus(String eventStatus);
 
+  /**
+   * Delete up to the max rows of the events created before the date, in a transaction of its own.
+   *
+   * @param createDate the create date
+   * @param maxRows    the maximum number of rows to delete
+   * @return the number of deleted rows, less than the max rows when none is left
+   */
   @Transactional
   @Modifying
-  @Query("delete from PenRequestBatchEvent where createDate <= :createDate")
-  void deleteByCreateDateBefore(LocalDateTime createDate);
+  @Query(value = "delete from PEN_REQUEST_BATCH_EVENT where CREATE_DATE < :createDate and ROWNUM <= :maxRows", nativeQuery = true)
+  int deleteByCreateDateBefore(LocalDateTime createDate, int maxRows);
 }
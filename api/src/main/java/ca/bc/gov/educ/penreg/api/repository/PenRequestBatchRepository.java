@@ -26,6 +26,28 @@ public interface PenRequestBatchRepository extends JpaRepository<PenRequestBatch
    */
   List<PenRequestBatchEntity> findBySubmissionNumber(String submissionNumber);
 
+  /**
+   * Find the charsets the files with the submission number were read with.
+   *
+   * @param submissionNumber the submission number
+   * @return the charsets
+   */
+  @Query("select distinct b.fileCharset from PenRequestBatchEntity b where b.submissionNumber = :submissionNumber and b.fileCharset is not null")
+  List<String> findFileCharsetsBySubmissionNumber(@Param("submissionNumber") String submissionNumber);
+
+  /**
+   * Is there a file of the mincode, other than the given submission, inserted after the given date with the same
+   * contents.
+   *
+   * @param mincode          the mincode
+   * @param fileDigest       the SHA-256 of the file contents
+   * @param insertDate       the insert date the files are inserted after
+   * @param submissionNumber the submission number of the file itself
+   * @param fileType         the file type, such as `PEN`
+   * @return the boolean
+   */
+  boolean existsByMincodeAndFileDigestAndInsertDateGreaterThanAndSubmissionNumberNotAndFileType(String mincode, String fileDigest, LocalDateTime insertDate, String submissionNumber, String fileType);
+
   /**
    * Find by pen request batch status code list.
    *
@@ -68,9 +68,20 @@ public interface PenRequestBatchStudentRepository extends JpaRepository<PenReque
    */
   List<PenRequestBatchStudentEntity> findAllByPenRequestBatchEntityAndPenRequestBatchStudentStatusCodeIsInAndLocalIDNotNull(PenRequestBatchEntity penRequestBatchEntity, List<String> penRequestBatchStudentStatusCodes);
 
-  @Query("select t from PenRequestBatchStudentEntity t WHERE t.penRequestBatchEntity IN (select s from PenRequestBatchEntity s WHERE s.mincode = :mincode AND s.penRequestBatchStatusCode = :penRequestBatchStatusCode AND s.processDate >= :startDate) AND t.penRequestBatchStudentStatusCode NOT IN :penRequestBatchStudentStatusCodes")
-  List<PenRequestBatchStudentEntity> findAllPenRequestBatchStudentsForGivenCriteria(@Param("mincode") String mincode,
-                                                                                    @Param("penRequestBatchStatusCode") String penRequestBatchStatusCode, @Param("startDate") LocalDateTime startDate, List<String> penRequestBatchStudentStatusCodes);
+  /**
+   * Find the student requests of the earlier batches of the mincode which have the repeat check fingerprint of one of
+   * the student requests of the given batch, the candidate repeats of its requests.
+   *
+   * @param penRequestBatchEntity             the pen request batch entity whose requests are checked
+   * @param mincode                           the mincode of the earlier pen request batch entities
+   * @param penRequestBatchStatusCode         the penRequestBatchStatusCode of the earlier pen request batch entities
+   * @param startDate                         the earliest process date of the earlier pen request batch entities
+   * @param penRequestBatchStudentStatusCodes the excluded penRequestBatchStudentStatusCodes
+   * @return the list
+   */
+  @Query("select t from PenRequestBatchStudentEntity t join fetch t.penRequestBatchEntity s WHERE s.mincode = :mincode AND s.penRequestBatchStatusCode = :penRequestBatchStatusCode AND s.processDate >= :startDate AND t.penRequestBatchStudentStatusCode NOT IN :penRequestBatchStudentStatusCodes AND t.repeatCheckFingerprint IN (select n.repeatCheckFingerprint from PenRequestBatchStudentEntity n WHERE n.penRequestBatchEntity = :penRequestBatchEntity)")
+  List<PenRequestBatchStudentEntity> findAllRepeatCandidatesOfBatch(@Param("penRequestBatchEntity") PenRequestBatchEntity penRequestBatchEntity, @Param("mincode") String mincode,
+                                                                    @Param("penRequestBatchStatusCode") String penRequestBatchStatusCode, @Param("startDate") LocalDateTime startDate, List<String> penRequestBatchStudentStatusCodes);
 
 
   @Query(value = "SELECT PenRequestBatchEntity.SUBMISSION_NO as submissionNumber FROM PEN_REQUEST_BATCH PenRequestBatchEntity WHERE EXISTS(\n" +
@@ -1,5 +1,7 @@
 package ca.bc.gov.educ.penreg.api.repository;
 
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
 import ca.bc.gov.educ.penreg.api.struct.v1.PenRequestIDs;
 
 import java.util.List;
@@ -19,4 +21,15 @@ public interface PenRequestBatchStudentRepositoryCustom {
   List<PenRequestIDs> getAllPenRequestBatchStudentIDs(List<UUID> penRequestBatchIDs,
                                                       List<String> penRequestBatchStudentStatusCodes,
                                                       Map<String,String> searchCriteria);
+
+  /**
+   * Insert the student requests of a newly loaded batch with jdbc batch inserts, instead of one insert per student
+   * through hibernate. The pending changes are flushed first so that the batch row exists, and the batch is then
+   * detached so that hibernate does not try to write the students again.
+   * The ids of the students are generated here, their validation issues are not written.
+   *
+   * @param penRequestBatchEntity          the saved pen request batch entity
+   * @param penRequestBatchStudentEntities the student requests of the batch
+   */
+  void insertStudentsOfLoadedBatch(PenRequestBatchEntity penRequestBatchEntity, List<PenRequestBatchStudentEntity> penRequestBatchStudentEntities);
 }
@@ -0,0 +1,69 @@
+package ca.bc.gov.educ.penreg.api.repository;
+
+import ca.bc.gov.educ.penreg.api.model.v1.PenWebBlobClaimEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * The interface Pen web blob claim repository.
+ * The claims are only changed through conditional statements, so that two pods can never hold the same claim.
+ */
+@Repository
+public interface PenWebBlobClaimRepository extends JpaRepository<PenWebBlobClaimEntity, String> {
+
+  /**
+   * Insert a new claim, fails with a constraint violation when the mincode is already claimed.
+   *
+   * @param mincode         the mincode
+   * @param claimedBy       the pod which claims the mincode
+   * @param claimExpiryDate the claim expiry date
+   * @return the number of inserted rows
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "INSERT INTO PEN_WEB_BLOB_CLAIM (MINCODE, CLAIMED_BY, CLAIM_EXPIRY_DATE) VALUES (:mincode, :claimedBy, :claimExpiryDate)", nativeQuery = true)
+  int insertClaim(String mincode, String claimedBy, LocalDateTime claimExpiryDate);
+
+  /**
+   * Take over the claim of a mincode, only if it has expired.
+   *
+   * @param mincode         the mincode
+   * @param claimedBy       the pod which claims the mincode
+   * @param claimExpiryDate the claim expiry date
+   * @param now             the current time
+   * @return the number of updated rows, 0 when the claim is held by another pod
+   */
+  @Transactional
+  @Modifying
+  @Query("update PenWebBlobClaimEntity set claimedBy = :claimedBy, claimExpiryDate = :claimExpiryDate where mincode = :mincode and claimExpiryDate < :now")
+  int updateExpiredClaim(String mincode, String claimedBy, LocalDateTime claimExpiryDate, LocalDateTime now);
+
+  /**
+   * Extend the claim of a mincode, only if it is still held by the given pod.
+   *
+   * @param mincode         the mincode
+   * @param claimedBy       the pod which holds the claim
+   * @param claimExpiryDate the new claim expiry date
+   * @return the number of updated rows, 0 when the claim was taken over by another pod
+   */
+  @Transactional
+  @Modifying
+  @Query("update PenWebBlobClaimEntity set claimExpiryDate = :claimExpiryDate where mincode = :mincode and claimedBy = :claimedBy")
+  int extendClaim(String mincode, String claimedBy, LocalDateTime claimExpiryDate);
+
+  /**
+   * Release the claim of a mincode held by the given pod.
+   *
+   * @param mincode   the mincode
+   * @param claimedBy the pod which holds the claim
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from PenWebBlobClaimEntity where mincode = :mincode and claimedBy = :claimedBy")
+  void deleteClaim(String mincode, String claimedBy);
+}
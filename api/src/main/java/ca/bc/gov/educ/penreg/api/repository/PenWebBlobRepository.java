@@ -1,11 +1,14 @@
 package ca.bc.gov.educ.penreg.api.repository;
 
 import ca.bc.gov.educ.penreg.api.model.v1.PENWebBlobEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * The interface Pen web blob repository.
@@ -13,20 +16,38 @@ import java.util.List;
 @Repository
 public interface PenWebBlobRepository extends JpaRepository<PENWebBlobEntity, Long> {
   /**
-   * Find all by extract date time is null list.
+   * Find a page of the mincodes which have files with extract date time null, ordered by mincode.
+   * Only the mincode column is read, the next page starts after the last mincode of the previous one.
    *
-   * @param fileType the file type
-   * @return the list
+   * @param fileType          the file type
+   * @param sourceApplication the source application, null for all source applications
+   * @param lastMincode       the last mincode of the previous page, null for the first page
+   * @param pageable          the page size
+   * @return the mincodes
    */
-  List<PENWebBlobEntity> findAllByExtractDateTimeIsNullAndFileType(String fileType);
+  @Query("select distinct b.mincode from PENWebBlobEntity b where b.extractDateTime is null and b.fileType = :fileType and (:sourceApplication is null or b.sourceApplication = :sourceApplication) and (:lastMincode is null or b.mincode > :lastMincode) order by b.mincode")
+  List<String> findMincodesWithExtractDateTimeIsNull(String fileType, String sourceApplication, String lastMincode, Pageable pageable);
 
   /**
-   * Find all Pen Web files by extract date time is null list.
+   * Find the ids of the files of a school with extract date time null, in the order they were submitted.
    *
-   * @param fileType the file type
-   * @return the list
+   * @param mincode           the mincode
+   * @param fileType          the file type
+   * @param sourceApplication the source application, null for all source applications
+   * @return the pen web blob ids
+   */
+  @Query("select b.penWebBlobId from PENWebBlobEntity b where b.mincode = :mincode and b.extractDateTime is null and b.fileType = :fileType and (:sourceApplication is null or b.sourceApplication = :sourceApplication) order by b.penWebBlobId")
+  List<Long> findPenWebBlobIdsWithExtractDateTimeIsNull(String mincode, String fileType, String sourceApplication);
+
+  /**
+   * Lock the row of the file until the end of the transaction. The file is marked extracted in the same transaction, so
+   * a file processed by two pods at once is only loaded by the first to lock it.
+   *
+   * @param penWebBlobId the pen web blob id
+   * @return 1 if the file is extracted already, 0 if not, empty if the row is not found
    */
-  List<PENWebBlobEntity> findAllByExtractDateTimeIsNullAndFileTypeAndSourceApplication(String fileType, String sourceApplication);
+  @Query(value = "SELECT CASE WHEN EXTRACT_DATE_TIME IS NULL THEN 0 ELSE 1 END FROM TSW_PENWEB_BLOBS WHERE PENWEB_BLOBS_IDX = :penWebBlobId FOR UPDATE", nativeQuery = true)
+  Optional<Integer> lockAndCheckExtracted(Long penWebBlobId);
 
   /**
    * Find all by submission number and file type.
@@ -45,5 +66,17 @@ public interface PenWebBlobRepository extends JpaRepository<PENWebBlobEntity, Lo
    */
   List<PENWebBlobEntity> findAllBySubmissionNumber(String submissionNumber);
 
-  List<PENWebBlobEntity> findAllByMincodeAndInsertDateTimeGreaterThanAndSubmissionNumberNotAndFileTypeAndExtractDateTimeIsNotNull(String mincode, LocalDateTime insertDateTime, String submissionNumber, String fileType);
+  /**
+   * Find the submission numbers of the extracted files of the mincode, other than the given submission, inserted after
+   * the given date, whose batch has no file digest, the files loaded before the digest was recorded.
+   * Only the submission number column is read.
+   *
+   * @param mincode          the mincode
+   * @param insertDateTime   the insert date time the files are inserted after
+   * @param submissionNumber the submission number of the file itself
+   * @param fileType         the file type, such as `PEN`
+   * @return the submission numbers
+   */
+  @Query("select b.submissionNumber from PENWebBlobEntity b where b.mincode = :mincode and b.insertDateTime > :insertDateTime and b.submissionNumber <> :submissionNumber and b.fileType = :fileType and b.extractDateTime is not null and not exists (select p.penRequestBatchID from PenRequestBatchEntity p where p.submissionNumber = b.submissionNumber and p.fileDigest is not null)")
+  List<String> findSubmissionNumbersOfExtractedFilesWithoutFileDigest(String mincode, LocalDateTime insertDateTime, String submissionNumber, String fileType);
 }
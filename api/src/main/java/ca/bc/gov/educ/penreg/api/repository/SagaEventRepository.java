@@ -26,6 +26,32 @@ public interface SagaEventRepository extends CrudRepository<SagaEvent, UUID> {
    */
   List<SagaEvent> findBySaga(Saga saga);
 
+  /**
+   * Find the highest step number of the saga, read from the index on saga id and step number.
+   *
+   * @param saga the saga
+   * @return the highest step number, empty if the saga has no events
+   */
+  @Query("select max(e.sagaStepNumber) from SagaEvent e where e.saga = :saga")
+  Optional<Integer> findMaxSagaStepNumberBySaga(Saga saga);
+
+  /**
+   * Find the event of the saga with the highest step number.
+   *
+   * @param saga the saga
+   * @return the optional
+   */
+  Optional<SagaEvent> findFirstBySagaOrderBySagaStepNumberDesc(Saga saga);
+
+  /**
+   * Find the response of an event, without loading the event and its saga.
+   *
+   * @param sagaEventId the saga event id
+   * @return the response, empty if the event does not exist
+   */
+  @Query("select e.sagaEventResponseBytes from SagaEvent e where e.sagaEventId = :sagaEventId")
+  Optional<byte[]> findSagaEventResponseBytesBySagaEventId(UUID sagaEventId);
+
   /**
    * Find by saga and saga event outcome and saga event state and saga step number optional.
    *
@@ -47,8 +73,15 @@ public interface SagaEventRepository extends CrudRepository<SagaEvent, UUID> {
    */
   Optional<SagaEvent> findBySagaAndSagaEventStateAndSagaStepNumber(Saga saga, String eventState, int stepNumber);
 
+  /**
+   * Delete up to the max rows of the events of the sagas created before the date, in a transaction of its own.
+   *
+   * @param createDate the create date of the sagas
+   * @param maxRows    the maximum number of rows to delete
+   * @return the number of deleted rows, less than the max rows when none is left
+   */
   @Transactional
   @Modifying
-  @Query(value = "delete from PEN_REQUEST_BATCH_SAGA_EVENT_STATES e where exists(select 1 from PEN_REQUEST_BATCH_SAGA s where s.SAGA_ID = e.SAGA_ID and s.CREATE_DATE <= :createDate)", nativeQuery = true)
-  void deleteBySagaCreateDateBefore(LocalDateTime createDate);
+  @Query(value = "delete from PEN_REQUEST_BATCH_SAGA_EVENT_STATES e where exists(select 1 from PEN_REQUEST_BATCH_SAGA s where s.SAGA_ID = e.SAGA_ID and s.CREATE_DATE < :createDate) and ROWNUM <= :maxRows", nativeQuery = true)
+  int deleteBySagaCreateDateBefore(LocalDateTime createDate, int maxRows);
 }
@@ -0,0 +1,57 @@
+package ca.bc.gov.educ.penreg.api.repository;
+
+import ca.bc.gov.educ.penreg.api.model.v1.SagaPayloadEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * The interface Saga payload repository.
+ * A payload is never changed once stored, it is only touched when another saga stores it again.
+ */
+@Repository
+public interface SagaPayloadRepository extends JpaRepository<SagaPayloadEntity, String> {
+
+  /**
+   * Insert a new payload, fails with a constraint violation when the payload is already stored.
+   * It runs in its own transaction, so that the violation does not roll back the saga which stores the payload.
+   *
+   * @param payloadDigest the payload digest
+   * @param payload       the payload as it is stored, compressed by the caller since the converter of the column is not applied to a native query
+   * @param createDate    the create date
+   * @return the number of inserted rows
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Modifying
+  @Query(value = "INSERT INTO PEN_REQUEST_BATCH_SAGA_PAYLOAD (PAYLOAD_DIGEST, PAYLOAD, CREATE_DATE, UPDATE_DATE) VALUES (:payloadDigest, :payload, :createDate, :createDate)", nativeQuery = true)
+  int insertPayload(String payloadDigest, byte[] payload, LocalDateTime createDate);
+
+  /**
+   * Move the update date of a stored payload, so that it is not purged before the saga which stores it again.
+   *
+   * @param payloadDigest the payload digest
+   * @param updateDate    the update date
+   * @return the number of updated rows, 0 when the payload is not stored
+   */
+  @Transactional
+  @Modifying
+  @Query("update SagaPayloadEntity set updateDate = :updateDate where payloadDigest = :payloadDigest")
+  int touchPayload(String payloadDigest, LocalDateTime updateDate);
+
+  /**
+   * Delete a chunk of the payloads no saga stored since the date.
+   *
+   * @param updateDate the update date
+   * @param maxRows    the maximum number of rows to delete
+   * @return the number of deleted rows
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "delete from PEN_REQUEST_BATCH_SAGA_PAYLOAD where UPDATE_DATE < :updateDate and ROWNUM <= :maxRows", nativeQuery = true)
+  int deleteByUpdateDateBefore(LocalDateTime updateDate, int maxRows);
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,7 +17,7 @@ import java.util.UUID;
  * The interface Saga repository.
  */
 @Repository
-public interface SagaRepository extends JpaRepository<Saga, UUID>, JpaSpecificationExecutor<Saga> {
+public interface SagaRepository extends JpaRepository<Saga, UUID>, JpaSpecificationExecutor<Saga>, SagaRepositoryCustom {
   /**
    * Find all by status in list.
    *
@@ -72,11 +73,28 @@ public interface SagaRepository extends JpaRepository<Saga, UUID>, JpaSpecificat
   List<Saga> findAllByCreateDateBefore(LocalDateTime createDate);
   long countAllByStatusIn(List<String> statuses);
   long countAllByPenRequestBatchIDAndSagaNameAndStatus(UUID penRequestBatchID, String sagaName, String status);
-  List<Saga> findTop100ByStatusInOrderByCreateDate(List<String> statuses);
   long countAllByPenRequestBatchIDAndSagaName(UUID penRequestBatchID, String sagaName);
 
+  /**
+   * Find which of the student requests already have a saga with the name, in a single query.
+   *
+   * @param sagaName                  the saga name
+   * @param penRequestBatchStudentIDs the pen request batch student ids
+   * @return the ids of the student requests which have a saga
+   */
+  @Query("select s.penRequestBatchStudentID from Saga s where s.sagaName = :sagaName and s.penRequestBatchStudentID in :penRequestBatchStudentIDs")
+  List<UUID> findPenRequestBatchStudentIDsWithSaga(String sagaName, Collection<UUID> penRequestBatchStudentIDs);
+
+  /**
+   * Delete up to the max rows of the sagas created before the date, in a transaction of its own. Their events must be
+   * deleted first.
+   *
+   * @param createDate the create date
+   * @param maxRows    the maximum number of rows to delete
+   * @return the number of deleted rows, less than the max rows when none is left
+   */
   @Transactional
   @Modifying
-  @Query("delete from Saga where createDate <= :createDate")
-  void deleteByCreateDateBefore(LocalDateTime createDate);
+  @Query(value = "delete from PEN_REQUEST_BATCH_SAGA where CREATE_DATE < :createDate and ROWNUM <= :maxRows", nativeQuery = true)
+  int deleteByCreateDateBefore(LocalDateTime createDate, int maxRows);
 }
@@ -0,0 +1,80 @@
+package ca.bc.gov.educ.penreg.api.repository;
+
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The interface Saga repository custom, the saga queries written with jdbc instead of hibernate.
+ */
+public interface SagaRepositoryCustom {
+
+  /**
+   * Insert new sagas with a single jdbc batch, instead of one insert per saga through hibernate.
+   * The ids of the sagas are generated here, the sagas are not attached to the persistence context.
+   *
+   * @param sagas the new sagas
+   */
+  void insertSagas(List<Saga> sagas);
+
+  /**
+   * Claim uncompleted sagas for replay, so that the pods replaying sagas at the same time each get different sagas.
+   * A saga is claimed when it is in one of the statuses, has not been updated since the given date and its replay
+   * lease has expired. The rows are locked with skip locked, a row locked by another pod is skipped instead of waited on.
+   * Each claimed saga gets a new replay lease, which doubles with its retry count, and its retry count is incremented.
+   *
+   * @param statuses          the statuses of uncompleted sagas
+   * @param updateDateBefore  only sagas not updated since this date are claimed
+   * @param maxSagas          the maximum number of sagas to claim
+   * @param leaseMinutes      the minutes of the lease of a saga which was not retried yet
+   * @param maxLeaseMinutes   the maximum minutes of the lease
+   * @return the ids of the claimed sagas
+   */
+  List<UUID> claimSagasForReplay(List<String> statuses, LocalDateTime updateDateBefore, int maxSagas, int leaseMinutes, int maxLeaseMinutes);
+
+  /**
+   * Record the events of the steps of sagas and update their sagas, with jdbc batches in the current transaction.
+   * An event which repeats the previous step of its saga, with the same state and outcome, is a replayed step, and an
+   * event which repeats the step itself is a duplicate delivery, neither is recorded again, its saga is still updated,
+   * as is the saga of an event which was already recorded and has its id. Each event is recorded with a single merge
+   * which inserts it unless it repeats a recorded step, the unique key of the steps backs it.
+   * The events are applied in the order of the list, the saga of each recorded event gets the event as its checkpoint
+   * and the ids of the recorded events are generated here.
+   *
+   * @param sagaEvents the events, each with its saga
+   */
+  void recordSagaEvents(List<SagaEvent> sagaEvents);
+
+  /**
+   * Whether the table is partitioned, see tools/db/partition-saga-tables.sql. Oracle only.
+   *
+   * @param tableName the table name
+   * @return true if the table is partitioned
+   */
+  boolean isPartitioned(String tableName);
+
+  /**
+   * Find the partitions of a table partitioned by range of create date which only hold rows created before the date,
+   * those whose upper bound is not after it, in the order of their bounds. Oracle only.
+   *
+   * @param tableName  the table name
+   * @param createDate the create date
+   * @return the names of the partitions with their upper bounds
+   */
+  List<Pair<String, LocalDateTime>> findPartitionsBefore(String tableName, LocalDateTime createDate);
+
+  /**
+   * Drop the partition, its rows are gone without the undo a delete generates. A table which is referenced by a foreign
+   * key is refused, the key would have to be disabled while the api writes the tables. The drop waits up to a minute for
+   * the transactions which write the table. The first partition of an interval partitioned table can not be dropped, it
+   * is truncated. The global indexes are maintained. Oracle only, the statements are ddl and commit on their own.
+   *
+   * @param tableName     the table name
+   * @param partitionName the partition name
+   */
+  void dropPartition(String tableName, String partitionName);
+}
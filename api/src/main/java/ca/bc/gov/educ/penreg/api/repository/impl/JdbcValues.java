@@ -0,0 +1,48 @@
+package ca.bc.gov.educ.penreg.api.repository.impl;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The values the jdbc batch inserts bind, written the way hibernate writes them.
+ */
+final class JdbcValues {
+
+  private JdbcValues() {
+  }
+
+  /**
+   * The uuid as it is stored by hibernate in a RAW(16) column.
+   */
+  static byte[] toBytes(final UUID uuid) {
+    if (uuid == null) {
+      return null;
+    }
+    return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+  }
+
+  static UUID toUUID(final byte[] bytes) {
+    if (bytes == null) {
+      return null;
+    }
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+
+  static Timestamp toTimestamp(final LocalDateTime localDateTime) {
+    return localDateTime == null ? null : Timestamp.valueOf(localDateTime);
+  }
+
+  static void setInteger(final PreparedStatement ps, final int index, final Integer value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.INTEGER);
+    } else {
+      ps.setInt(index, value);
+    }
+  }
+}
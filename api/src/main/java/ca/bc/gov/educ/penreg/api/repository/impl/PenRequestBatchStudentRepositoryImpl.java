@@ -1,12 +1,18 @@
 package ca.bc.gov.educ.penreg.api.repository.impl;
 
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchStudentRepositoryCustom;
 import ca.bc.gov.educ.penreg.api.struct.v1.PenRequestIDs;
+import ca.bc.gov.educ.penreg.api.util.RepeatCheckFingerprintUtil;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.id.uuid.CustomVersionOneStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -15,21 +21,47 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static ca.bc.gov.educ.penreg.api.repository.impl.JdbcValues.setInteger;
+import static ca.bc.gov.educ.penreg.api.repository.impl.JdbcValues.toBytes;
+import static ca.bc.gov.educ.penreg.api.repository.impl.JdbcValues.toTimestamp;
+
 @Slf4j
 @Repository
 public class PenRequestBatchStudentRepositoryImpl implements PenRequestBatchStudentRepositoryCustom {
 
+  private static final String INSERT_STUDENT_SQL = "INSERT INTO PEN_REQUEST_BATCH_STUDENT (PEN_REQUEST_BATCH_STUDENT_ID, PEN_REQUEST_BATCH_ID," +
+    " PEN_REQUEST_BATCH_STUDENT_STATUS_CODE, REPEAT_REQUEST_SEQUENCE_NUMBER, REPEAT_REQUEST_ORIGINAL_ID, LOCAL_ID, SUBMITTED_PEN," +
+    " LEGAL_FIRST_NAME, LEGAL_MIDDLE_NAMES, LEGAL_LAST_NAME, USUAL_FIRST_NAME, USUAL_MIDDLE_NAMES, USUAL_LAST_NAME, DOB," +
+    " GENDER_CODE, GRADE_CODE, POSTAL_CODE, ASSIGNED_PEN, STUDENT_ID, CREATE_USER, CREATE_DATE, UPDATE_USER, UPDATE_DATE," +
+    " MATCH_ALGORITHM_STATUS_CODE, QUESTIONABLE_MATCH_STUDENT_ID, INFO_REQUEST, RECORD_NUMBER, BEST_MATCH_PEN, REPEAT_CHECK_FINGERPRINT)" +
+    " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  /**
+   * The same strategy hibernate uses to generate the ids of the student requests.
+   */
+  private static final CustomVersionOneStrategy UUID_STRATEGY = new CustomVersionOneStrategy();
+
   @Getter(AccessLevel.PRIVATE)
   private final EntityManager entityManager;
 
+  @Getter(AccessLevel.PRIVATE)
+  private final JdbcTemplate jdbcTemplate;
+
+  @Getter(AccessLevel.PRIVATE)
+  private final ApplicationProperties applicationProperties;
+
   /**
    * Instantiates a new pen request batch student repository custom.
    *
-   * @param em the entity manager
+   * @param em                    the entity manager
+   * @param jdbcTemplate          the jdbc template, it takes part in the jpa transaction
+   * @param applicationProperties the application properties
    */
   @Autowired
-  PenRequestBatchStudentRepositoryImpl(final EntityManager em) {
+  PenRequestBatchStudentRepositoryImpl(final EntityManager em, final JdbcTemplate jdbcTemplate, final ApplicationProperties applicationProperties) {
     this.entityManager = em;
+    this.jdbcTemplate = jdbcTemplate;
+    this.applicationProperties = applicationProperties;
   }
 
 
@@ -109,4 +141,48 @@ public class PenRequestBatchStudentRepositoryImpl implements PenRequestBatchStud
 
     return q.getResultList();
   }
+
+  @Override
+  public void insertStudentsOfLoadedBatch(final PenRequestBatchEntity penRequestBatchEntity, final List<PenRequestBatchStudentEntity> penRequestBatchStudentEntities) {
+    this.getEntityManager().flush();
+    this.getEntityManager().detach(penRequestBatchEntity);
+    for (final var penRequestBatchStudentEntity : penRequestBatchStudentEntities) {
+      penRequestBatchStudentEntity.setPenRequestBatchStudentID(UUID_STRATEGY.generateUUID(null));
+      penRequestBatchStudentEntity.setPenRequestBatchEntity(penRequestBatchEntity);
+      penRequestBatchStudentEntity.setRepeatCheckFingerprint(RepeatCheckFingerprintUtil.fingerprint(penRequestBatchStudentEntity));
+    }
+    this.getJdbcTemplate().batchUpdate(INSERT_STUDENT_SQL, penRequestBatchStudentEntities, this.getApplicationProperties().getPenRequestBatchStudentInsertBatchSize(),
+      (ps, student) -> {
+        int index = 1;
+        ps.setBytes(index++, toBytes(student.getPenRequestBatchStudentID()));
+        ps.setBytes(index++, toBytes(penRequestBatchEntity.getPenRequestBatchID()));
+        ps.setString(index++, student.getPenRequestBatchStudentStatusCode());
+        setInteger(ps, index++, student.getRepeatRequestSequenceNumber());
+        ps.setBytes(index++, toBytes(student.getRepeatRequestOriginalID()));
+        ps.setString(index++, student.getLocalID());
+        ps.setString(index++, student.getSubmittedPen());
+        ps.setString(index++, student.getLegalFirstName());
+        ps.setString(index++, student.getLegalMiddleNames());
+        ps.setString(index++, student.getLegalLastName());
+        ps.setString(index++, student.getUsualFirstName());
+        ps.setString(index++, student.getUsualMiddleNames());
+        ps.setString(index++, student.getUsualLastName());
+        ps.setString(index++, student.getDob());
+        ps.setString(index++, student.getGenderCode());
+        ps.setString(index++, student.getGradeCode());
+        ps.setString(index++, student.getPostalCode());
+        ps.setString(index++, student.getAssignedPEN());
+        ps.setBytes(index++, toBytes(student.getStudentID()));
+        ps.setString(index++, student.getCreateUser());
+        ps.setTimestamp(index++, toTimestamp(student.getCreateDate()));
+        ps.setString(index++, student.getUpdateUser());
+        ps.setTimestamp(index++, toTimestamp(student.getUpdateDate()));
+        ps.setString(index++, student.getMatchAlgorithmStatusCode());
+        ps.setBytes(index++, toBytes(student.getQuestionableMatchStudentId()));
+        ps.setString(index++, student.getInfoRequest());
+        setInteger(ps, index++, student.getRecordNumber());
+        ps.setString(index++, student.getBestMatchPEN());
+        ps.setString(index, student.getRepeatCheckFingerprint());
+      });
+  }
 }
@@ -0,0 +1,301 @@
+package ca.bc.gov.educ.penreg.api.repository.impl;
+
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.repository.SagaRepositoryCustom;
+import ca.bc.gov.educ.penreg.api.util.LobCompressionUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.uuid.CustomVersionOneStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static ca.bc.gov.educ.penreg.api.repository.impl.JdbcValues.setInteger;
+import static ca.bc.gov.educ.penreg.api.repository.impl.JdbcValues.toBytes;
+import static ca.bc.gov.educ.penreg.api.repository.impl.JdbcValues.toTimestamp;
+import static ca.bc.gov.educ.penreg.api.repository.impl.JdbcValues.toUUID;
+
+@Repository
+public class SagaRepositoryImpl implements SagaRepositoryCustom {
+
+  private static final String INSERT_SAGA_SQL = "INSERT INTO PEN_REQUEST_BATCH_SAGA (SAGA_ID, PEN_REQUEST_BATCH_STUDENT_ID, PEN_REQUEST_BATCH_ID," +
+    " SAGA_NAME, SAGA_STATE, PAYLOAD, STATUS, CREATE_USER, CREATE_DATE, UPDATE_USER, UPDATE_DATE, RETRY_COUNT)" +
+    " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  /**
+   * There is no order by, oracle would lock every matching row when the statement is executed to sort them, without it
+   * the rows are locked as they are fetched and the fetch stops at the max rows of the statement.
+   * The lock clause is appended from the dialect, skip locked on oracle.
+   */
+  private static final String SELECT_SAGAS_FOR_REPLAY_SQL = "SELECT SAGA_ID, RETRY_COUNT FROM PEN_REQUEST_BATCH_SAGA" +
+    " WHERE STATUS IN (%s) AND UPDATE_DATE < ? AND (REPLAY_LEASE_EXPIRY_DATE IS NULL OR REPLAY_LEASE_EXPIRY_DATE < ?)";
+
+  private static final String UPDATE_SAGA_REPLAY_LEASE_SQL = "UPDATE PEN_REQUEST_BATCH_SAGA SET REPLAY_LEASE_EXPIRY_DATE = ?, RETRY_COUNT = ?" +
+    " WHERE SAGA_ID = ?";
+
+  /**
+   * Inserts the event unless the step, or the previous step of the saga, was recorded with the same state and outcome.
+   * The unique constraint SI_SES_SEO_SSN_UK on the saga id, state, outcome and step number (V1.0.34) serves the lookup and
+   * rejects the same step inserted by a concurrent transaction.
+   */
+  private static final String MERGE_SAGA_EVENT_SQL = "MERGE INTO PEN_REQUEST_BATCH_SAGA_EVENT_STATES E USING DUAL" +
+    " ON (E.SAGA_ID = ? AND E.SAGA_EVENT_STATE = ? AND E.SAGA_EVENT_OUTCOME = ? AND E.SAGA_STEP_NUMBER IN (?, ?))" +
+    " WHEN NOT MATCHED THEN INSERT (SAGA_EVENT_ID, SAGA_ID, SAGA_EVENT_STATE, SAGA_EVENT_OUTCOME, SAGA_STEP_NUMBER, SAGA_EVENT_RESPONSE," +
+    " CREATE_USER, CREATE_DATE, UPDATE_USER, UPDATE_DATE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String UPDATE_SAGA_STEP_SQL = "UPDATE PEN_REQUEST_BATCH_SAGA SET SAGA_STATE = ?, PAYLOAD = ?, STATUS = ?, UPDATE_USER = ?," +
+    " UPDATE_DATE = ?, LAST_SAGA_EVENT_ID = ?, LAST_SAGA_EVENT_STATE = ?, LAST_SAGA_EVENT_OUTCOME = ?, LAST_SAGA_STEP_NUMBER = ? WHERE SAGA_ID = ?";
+
+  private static final String SELECT_PART_TABLE_SQL = "SELECT COUNT(*) FROM USER_PART_TABLES WHERE TABLE_NAME = ?";
+
+  private static final String SELECT_PARTITIONS_SQL = "SELECT PARTITION_NAME, HIGH_VALUE FROM USER_TAB_PARTITIONS WHERE TABLE_NAME = ?" +
+    " ORDER BY PARTITION_POSITION";
+
+  private static final String SELECT_REFERENCING_FOREIGN_KEYS_SQL = "SELECT COUNT(*) FROM USER_CONSTRAINTS C" +
+    " JOIN USER_CONSTRAINTS P ON P.CONSTRAINT_NAME = C.R_CONSTRAINT_NAME WHERE C.CONSTRAINT_TYPE = 'R' AND P.TABLE_NAME = ?";
+
+  /**
+   * Seconds the drop of a partition waits for the transactions which write the table, instead of failing with ORA-00054
+   * right away.
+   */
+  private static final int DDL_LOCK_TIMEOUT_SECONDS = 60;
+
+  /**
+   * The date in the high value of a range partition, TO_DATE(' 2024-02-01 00:00:00', ...) for a date column and
+   * TIMESTAMP' 2024-02-01 00:00:00' for a timestamp column.
+   */
+  private static final Pattern PARTITION_BOUND_PATTERN = Pattern.compile("(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2})");
+
+  /**
+   * ORA-14758, the last partition in the range section of an interval partitioned table can not be dropped.
+   */
+  private static final int LAST_RANGE_PARTITION_ERROR_CODE = 14758;
+
+  /**
+   * The same strategy hibernate uses to generate the ids of the sagas.
+   */
+  private static final CustomVersionOneStrategy UUID_STRATEGY = new CustomVersionOneStrategy();
+
+  @Getter(AccessLevel.PRIVATE)
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * The lock clause which skips the rows locked by another transaction, a plain for update where the database has none.
+   */
+  @Getter(AccessLevel.PRIVATE)
+  private final String forUpdateSkipLocked;
+
+  /**
+   * The application properties, they tell whether the json LOBs are written compressed, see {@link ca.bc.gov.educ.penreg.api.model.v1.CompressedLobConverter}.
+   */
+  @Getter(AccessLevel.PRIVATE)
+  private final ApplicationProperties applicationProperties;
+
+  /**
+   * Instantiates a new saga repository custom.
+   *
+   * @param jdbcTemplate         the jdbc template, it takes part in the jpa transaction
+   * @param entityManagerFactory the entity manager factory, its dialect renders the lock clause
+   * @param applicationProperties the application properties
+   */
+  @Autowired
+  SagaRepositoryImpl(final JdbcTemplate jdbcTemplate, final EntityManagerFactory entityManagerFactory, final ApplicationProperties applicationProperties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.forUpdateSkipLocked = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect().getForUpdateSkipLockedString();
+    this.applicationProperties = applicationProperties;
+  }
+
+  @Override
+  public void insertSagas(final List<Saga> sagas) {
+    if (sagas.isEmpty()) {
+      return;
+    }
+    sagas.forEach(saga -> saga.setSagaId(UUID_STRATEGY.generateUUID(null)));
+    this.getJdbcTemplate().batchUpdate(INSERT_SAGA_SQL, sagas, sagas.size(),
+      (ps, saga) -> {
+        int index = 1;
+        ps.setBytes(index++, toBytes(saga.getSagaId()));
+        ps.setBytes(index++, toBytes(saga.getPenRequestBatchStudentID()));
+        ps.setBytes(index++, toBytes(saga.getPenRequestBatchID()));
+        ps.setString(index++, saga.getSagaName());
+        ps.setString(index++, saga.getSagaState());
+        ps.setBytes(index++, this.compressLob(saga.getPayloadBytes()));
+        ps.setString(index++, saga.getStatus());
+        ps.setString(index++, saga.getCreateUser());
+        ps.setTimestamp(index++, toTimestamp(saga.getCreateDate()));
+        ps.setString(index++, saga.getUpdateUser());
+        ps.setTimestamp(index++, toTimestamp(saga.getUpdateDate()));
+        setInteger(ps, index, saga.getRetryCount());
+      });
+  }
+
+  @Override
+  public void recordSagaEvents(final List<SagaEvent> sagaEvents) {
+    if (sagaEvents.isEmpty()) {
+      return;
+    }
+    // an event with an id is appended again to update its saga.
+    final List<SagaEvent> newSagaEvents = sagaEvents.stream().filter(sagaEvent -> sagaEvent.getSagaEventId() == null).collect(Collectors.toList());
+    newSagaEvents.forEach(sagaEvent -> sagaEvent.setSagaEventId(UUID_STRATEGY.generateUUID(null)));
+    final int[][] mergedRows = this.getJdbcTemplate().batchUpdate(MERGE_SAGA_EVENT_SQL, newSagaEvents, newSagaEvents.size(),
+      (ps, sagaEvent) -> {
+        int index = 1;
+        ps.setBytes(index++, toBytes(sagaEvent.getSaga().getSagaId()));
+        ps.setString(index++, sagaEvent.getSagaEventState());
+        ps.setString(index++, sagaEvent.getSagaEventOutcome());
+        ps.setInt(index++, sagaEvent.getSagaStepNumber() - 1);
+        ps.setInt(index++, sagaEvent.getSagaStepNumber());
+        ps.setBytes(index++, toBytes(sagaEvent.getSagaEventId()));
+        ps.setBytes(index++, toBytes(sagaEvent.getSaga().getSagaId()));
+        ps.setString(index++, sagaEvent.getSagaEventState());
+        ps.setString(index++, sagaEvent.getSagaEventOutcome());
+        ps.setInt(index++, sagaEvent.getSagaStepNumber());
+        ps.setBytes(index++, this.compressLob(sagaEvent.getSagaEventResponseBytes()));
+        ps.setString(index++, sagaEvent.getCreateUser());
+        ps.setTimestamp(index++, toTimestamp(sagaEvent.getCreateDate()));
+        ps.setString(index++, sagaEvent.getUpdateUser());
+        ps.setTimestamp(index, toTimestamp(sagaEvent.getUpdateDate()));
+      });
+    int merged = 0;
+    for (final int[] rows : mergedRows) { // one row count per event, ojdbc reports the count of each statement of a batch.
+      for (final int row : rows) {
+        final SagaEvent sagaEvent = newSagaEvents.get(merged++);
+        if (row > 0) {
+          final Saga saga = sagaEvent.getSaga();
+          saga.setLastSagaEventID(sagaEvent.getSagaEventId());
+          saga.setLastSagaEventState(sagaEvent.getSagaEventState());
+          saga.setLastSagaEventOutcome(sagaEvent.getSagaEventOutcome());
+          saga.setLastSagaStepNumber(sagaEvent.getSagaStepNumber());
+        } else {
+          sagaEvent.setSagaEventId(null); // a repeated step, it was not recorded.
+        }
+      }
+    }
+    // every saga is updated in the order of its steps, a saga with several steps in the list ends up with the last one.
+    this.getJdbcTemplate().batchUpdate(UPDATE_SAGA_STEP_SQL, sagaEvents, sagaEvents.size(),
+      (ps, sagaEvent) -> {
+        final Saga saga = sagaEvent.getSaga();
+        int index = 1;
+        ps.setString(index++, saga.getSagaState());
+        ps.setBytes(index++, this.compressLob(saga.getPayloadBytes()));
+        ps.setString(index++, saga.getStatus());
+        ps.setString(index++, saga.getUpdateUser());
+        ps.setTimestamp(index++, toTimestamp(saga.getUpdateDate()));
+        ps.setBytes(index++, toBytes(saga.getLastSagaEventID()));
+        ps.setString(index++, saga.getLastSagaEventState());
+        ps.setString(index++, saga.getLastSagaEventOutcome());
+        setInteger(ps, index++, saga.getLastSagaStepNumber());
+        ps.setBytes(index, toBytes(saga.getSagaId()));
+      });
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public List<UUID> claimSagasForReplay(final List<String> statuses, final LocalDateTime updateDateBefore, final int maxSagas,
+                                        final int leaseMinutes, final int maxLeaseMinutes) {
+    if (statuses.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final LocalDateTime now = LocalDateTime.now();
+    final String sql = String.format(SELECT_SAGAS_FOR_REPLAY_SQL, String.join(", ", Collections.nCopies(statuses.size(), "?"))) + this.getForUpdateSkipLocked();
+    final List<Pair<UUID, Integer>> sagas = this.getJdbcTemplate().query(connection -> {
+        final var ps = connection.prepareStatement(sql);
+        ps.setMaxRows(maxSagas);
+        int index = 1;
+        for (final String status : statuses) {
+          ps.setString(index++, status);
+        }
+        ps.setTimestamp(index++, toTimestamp(updateDateBefore));
+        ps.setTimestamp(index, toTimestamp(now));
+        return ps;
+      },
+      (rs, rowNum) -> Pair.of(toUUID(rs.getBytes(1)), rs.getInt(2))); // a null retry count is read as 0.
+    if (sagas.isEmpty()) {
+      return Collections.emptyList();
+    }
+    this.getJdbcTemplate().batchUpdate(UPDATE_SAGA_REPLAY_LEASE_SQL, sagas, sagas.size(),
+      (ps, saga) -> {
+        final int retryCount = saga.getRight();
+        final long minutes = Math.min((long) leaseMinutes << Math.min(retryCount, 30), maxLeaseMinutes);
+        ps.setTimestamp(1, toTimestamp(now.plusMinutes(minutes)));
+        ps.setInt(2, retryCount + 1);
+        ps.setBytes(3, toBytes(saga.getLeft()));
+      });
+    return sagas.stream().map(Pair::getLeft).collect(Collectors.toList());
+  }
+
+  @Override
+  public boolean isPartitioned(final String tableName) {
+    final Integer tables = this.getJdbcTemplate().queryForObject(SELECT_PART_TABLE_SQL, Integer.class, tableName);
+    return tables != null && tables > 0;
+  }
+
+  @Override
+  public List<Pair<String, LocalDateTime>> findPartitionsBefore(final String tableName, final LocalDateTime createDate) {
+    final List<Pair<String, LocalDateTime>> partitions = this.getJdbcTemplate().query(SELECT_PARTITIONS_SQL,
+      (rs, rowNum) -> Pair.of(rs.getString(1), this.toPartitionBound(rs.getString(2))), tableName); // the high value is a LONG, read as text.
+    final List<Pair<String, LocalDateTime>> partitionsBefore = new ArrayList<>();
+    for (final Pair<String, LocalDateTime> partition : partitions) {
+      if (partition.getRight() == null || partition.getRight().isAfter(createDate)) {
+        break; // the partitions are in the order of their bounds, MAXVALUE has none.
+      }
+      partitionsBefore.add(partition);
+    }
+    return partitionsBefore;
+  }
+
+  @Override
+  public void dropPartition(final String tableName, final String partitionName) {
+    final Integer foreignKeys = this.getJdbcTemplate().queryForObject(SELECT_REFERENCING_FOREIGN_KEYS_SQL, Integer.class, tableName);
+    if (foreignKeys != null && foreignKeys > 0) {
+      throw new IllegalStateException("the partitions of " + tableName + " can not be dropped, " + foreignKeys + " foreign keys reference it");
+    }
+    // the session setting and the ddl must run on the same connection, the purge is not in a transaction.
+    this.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+      try (final Statement statement = connection.createStatement()) {
+        statement.execute("ALTER SESSION SET DDL_LOCK_TIMEOUT = " + DDL_LOCK_TIMEOUT_SECONDS);
+        try {
+          statement.execute("ALTER TABLE " + tableName + " DROP PARTITION \"" + partitionName + "\" UPDATE INDEXES");
+        } catch (final SQLException e) {
+          if (e.getErrorCode() != LAST_RANGE_PARTITION_ERROR_CODE) {
+            throw e;
+          }
+          statement.execute("ALTER TABLE " + tableName + " TRUNCATE PARTITION \"" + partitionName + "\" UPDATE INDEXES");
+        } finally {
+          statement.execute("ALTER SESSION SET DDL_LOCK_TIMEOUT = 0"); // the connection goes back to the pool.
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * The value of a json LOB to write, the converter of the column is not applied to the jdbc statements.
+   */
+  private byte[] compressLob(final byte[] value) {
+    return Boolean.TRUE.equals(this.getApplicationProperties().getLobCompressionEnabled()) ? LobCompressionUtil.compress(value) : value;
+  }
+
+  private LocalDateTime toPartitionBound(final String highValue) {
+    final var matcher = PARTITION_BOUND_PATTERN.matcher(highValue == null ? "" : highValue);
+    return matcher.find() ? LocalDateTime.parse(matcher.group(1).replace(' ', 'T')) : null;
+  }
+}
@@ -14,6 +14,7 @@ import ca.bc.gov.educ.penreg.api.util.JsonUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Sets;
+import io.nats.client.Message;
 import java.time.*;
 import java.time.format.*;
 import lombok.Getter;
@@ -30,9 +31,11 @@ import reactor.core.publisher.Mono;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -54,6 +57,10 @@ import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.*;
 public class RestUtils {
   public static final String GRADE_CODES = "gradeCodes";
   private static final String CONTENT_TYPE = "Content-Type";
+  /**
+   * The time an api has to reply to a request via NATS, unless the caller gives its own.
+   */
+  public static final Duration NATS_REQUEST_TIMEOUT = Duration.ofSeconds(30);
   private final ObjectMapper obMapper = new ObjectMapper();
   /**
    * The Props.
@@ -301,14 +308,16 @@ public class RestUtils {
     val getStudentByPenEvent = Event.builder().eventType(EventType.GET_STUDENT).eventPayload(pen).sagaId(UUID.randomUUID()).build();
     try {
       log.info("calling getStudentByPEN :: {} via NATS for pen :: {}", STUDENT_API_TOPIC, pen);
-      val eventResponse = this.messagePublisher.requestMessage(STUDENT_API_TOPIC.toString(), JsonUtil.getJsonString(getStudentByPenEvent).orElseThrow().getBytes(StandardCharsets.UTF_8)).get(30, TimeUnit.SECONDS).getData();
+      val eventResponse = this.requestMessage(STUDENT_API_TOPIC, getStudentByPenEvent, NATS_REQUEST_TIMEOUT).get();
       log.info("got response from NATS for pen :: {}, student found :: {}", pen, eventResponse.length > 0);
       if (eventResponse.length > 0) {
-        return Optional.of(JsonUtil.getJsonObjectFromByteArray(Student.class, eventResponse));
+        return Optional.of(this.readValue(Student.class, eventResponse));
       }
-    } catch (final InterruptedException | ExecutionException | TimeoutException | IOException e) {
+    } catch (final InterruptedException e) {
       Thread.currentThread().interrupt();
       log.error("Exception while get student by pen", e);
+    } catch (final ExecutionException | UncheckedIOException e) {
+      log.error("Exception while get student by pen", e);
     }
     return Optional.empty();
   }
@@ -368,8 +377,17 @@ public class RestUtils {
    */
   public List<Student> getStudentsByStudentIDs(final List<UUID> studentIDs) throws IOException, ExecutionException, InterruptedException, TimeoutException {
     final var event = Event.builder().sagaId(UUID.randomUUID()).eventType(EventType.GET_STUDENTS).eventPayload(JsonUtil.getJsonStringFromObject(studentIDs)).build();
-    val responseEvent = JsonUtil.getJsonObjectFromByteArray(Event.class,
-            this.messagePublisher.requestMessage(STUDENT_API_TOPIC.toString(), JsonUtil.getJsonString(event).orElseThrow().getBytes(StandardCharsets.UTF_8)).get(30, TimeUnit.SECONDS).getData());
+    final Event responseEvent;
+    try {
+      responseEvent = this.requestEvent(STUDENT_API_TOPIC, event, NATS_REQUEST_TIMEOUT).get();
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof TimeoutException timeoutException) {
+        throw timeoutException;
+      } else if (e.getCause() instanceof UncheckedIOException ioException) {
+        throw ioException.getCause();
+      }
+      throw e;
+    }
     if (responseEvent.getEventOutcome() == EventOutcome.STUDENT_NOT_FOUND) {
       return Collections.emptyList();
     }
@@ -430,23 +448,72 @@ public class RestUtils {
     return this.requestEventResponseFromAPI(event, STUDENT_API_TOPIC, "Exception while calling student api via nats");
   }
 
+  public CompletableFuture<Event> requestEventResponseFromServicesAPIAsync(final Event event, final Duration timeout) {
+    return this.requestEvent(PEN_SERVICES_API_TOPIC, event, timeout);
+  }
+
+  public CompletableFuture<Event> requestEventResponseFromMatchAPIAsync(final Event event, final Duration timeout) {
+    return this.requestEvent(PEN_MATCH_API_TOPIC, event, timeout);
+  }
+
   /**
    * This is a synchronous req/reply pattern call via NATS
    */
   private Optional<Event> requestEventResponseFromAPI(final Event event, final SagaTopicsEnum topic, final String exceptionMessage) {
     try {
-      log.info("calling :: {} via NATS", topic);
-      val response = JsonUtil.getJsonObjectFromByteArray(Event.class,
-              this.messagePublisher.requestMessage(topic.toString(), JsonUtil.getJsonString(event).orElseThrow().getBytes(StandardCharsets.UTF_8)).get(30, TimeUnit.SECONDS).getData());
-      log.info("got response from NATS :: {}", response.getEventOutcome());
-      return Optional.of(response);
-    } catch (final Exception e) {
+      return Optional.of(this.requestEvent(topic, event, NATS_REQUEST_TIMEOUT).get());
+    } catch (final InterruptedException e) {
       Thread.currentThread().interrupt();
       log.error(exceptionMessage, e);
+    } catch (final ExecutionException e) {
+      log.error(exceptionMessage, e);
     }
     return Optional.empty();
   }
 
+  /**
+   * This is an asynchronous req/reply pattern call via NATS, the calling thread does not wait for the reply, so many
+   * requests can be in flight at a time.
+   *
+   * @param topic   the topic of the api
+   * @param event   the request event
+   * @param timeout the time the api has to reply
+   * @return the response event, completed exceptionally with a {@link TimeoutException} when the api does not reply in time
+   */
+  public CompletableFuture<Event> requestEvent(final SagaTopicsEnum topic, final Event event, final Duration timeout) {
+    log.info("calling :: {} via NATS", topic);
+    return this.requestMessage(topic, event, timeout).thenApply(data -> {
+      final Event response = this.readEvent(data);
+      log.info("got response from NATS :: {}", response.getEventOutcome());
+      return response;
+    });
+  }
+
+  private CompletableFuture<byte[]> requestMessage(final SagaTopicsEnum topic, final Event event, final Duration timeout) {
+    try {
+      return this.messagePublisher.requestMessage(topic.toString(), JsonUtil.getJsonString(event).orElseThrow().getBytes(StandardCharsets.UTF_8))
+        .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).thenApply(Message::getData);
+    } catch (final RuntimeException e) { // the connection is closed or the event could not be serialized.
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private Event readEvent(final byte[] data) {
+    try {
+      return JsonUtil.getEventFromByteArray(data);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private <T> T readValue(final Class<T> clazz, final byte[] data) {
+    try {
+      return JsonUtil.getJsonObjectFromByteArray(clazz, data);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   /**
    * This is used by RestUtilsTest to clear out schoolMap
    */
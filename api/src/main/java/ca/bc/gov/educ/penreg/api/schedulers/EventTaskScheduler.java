@@ -37,13 +37,10 @@ public class EventTaskScheduler {
 
   /**
    * Run the job every minute to check how many records are in IN_PROGRESS or STARTED status and has not been updated in last 5 minutes.
+   * It is not locked, it runs on every pod and each pod claims different sagas to replay.
    */
   @Scheduled(cron = "${scheduled.jobs.extract.uncompleted.sagas.cron}") // 1 * * * * *
-  @SchedulerLock(name = "EXTRACT_UNCOMPLETED_SAGAS",
-      lockAtLeastFor = "${scheduled.jobs.extract.uncompleted.sagas.cron.lockAtLeastFor}", lockAtMostFor = "${scheduled.jobs.extract.uncompleted.sagas.cron.lockAtMostFor}")
-  @Transactional
   public void findAndProcessPendingSagaEvents() {
-    LockAssert.assertLocked();
     this.getTaskSchedulerAsyncService().findAndProcessUncompletedSagas();
   }
 
@@ -2,24 +2,30 @@ package ca.bc.gov.educ.penreg.api.schedulers;
 
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchEventRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaEventRepository;
+import ca.bc.gov.educ.penreg.api.repository.SagaPayloadRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.javacrumbs.shedlock.core.LockAssert;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
 
 import static lombok.AccessLevel.PRIVATE;
 
 @Component
 @Slf4j
 public class PurgeOldSagaRecordsScheduler {
+  private static final String SAGA_EVENT_TABLE = "PEN_REQUEST_BATCH_SAGA_EVENT_STATES";
+  private static final String PEN_REQUEST_BATCH_EVENT_TABLE = "PEN_REQUEST_BATCH_EVENT";
+
   @Getter(PRIVATE)
   private final SagaRepository sagaRepository;
 
@@ -29,34 +35,116 @@ public class PurgeOldSagaRecordsScheduler {
   @Getter(PRIVATE)
   private final PenRequestBatchEventRepository penRequestBatchEventRepository;
 
+  @Getter(PRIVATE)
+  private final SagaPayloadRepository sagaPayloadRepository;
+
   @Value("${purge.records.saga.after.days}")
   @Setter
   @Getter
   Integer sagaRecordStaleInDays;
 
-  public PurgeOldSagaRecordsScheduler(final SagaRepository sagaRepository, final SagaEventRepository sagaEventRepository, final PenRequestBatchEventRepository penRequestBatchEventRepository) {
+  /**
+   * Whether the event tables are partitioned by create date, see tools/db/partition-saga-tables.sql. The expired
+   * partitions are dropped instead of their rows deleted, a table which is not partitioned is still purged with deletes.
+   */
+  @Value("${purge.records.saga.partitioned}")
+  @Setter
+  @Getter
+  Boolean sagaTablesPartitioned;
+
+  /**
+   * The maximum number of rows a delete removes, each chunk is committed before the next one is deleted, so that the
+   * purge holds the locks and the undo of one chunk at a time. A size below one is purged one row at a time.
+   */
+  @Value("${purge.records.saga.delete.chunk.size}")
+  @Setter
+  @Getter
+  Integer deleteChunkSize;
+
+  public PurgeOldSagaRecordsScheduler(final SagaRepository sagaRepository, final SagaEventRepository sagaEventRepository, final PenRequestBatchEventRepository penRequestBatchEventRepository,
+                                      final SagaPayloadRepository sagaPayloadRepository) {
     this.sagaRepository = sagaRepository;
     this.sagaEventRepository = sagaEventRepository;
     this.penRequestBatchEventRepository = penRequestBatchEventRepository;
+    this.sagaPayloadRepository = sagaPayloadRepository;
   }
 
 
   /**
    * run the job based on configured scheduler(a cron expression) and purge old records from DB.
+   * It is not a single transaction, the rows are deleted in chunks, each committed on its own, and the partitions are
+   * dropped with ddl. A purge which stops halfway is completed by the next run, the events are always purged before
+   * their sagas.
    */
   @Scheduled(cron = "${scheduled.jobs.purge.old.saga.records.cron}")
   @SchedulerLock(name = "PurgeOldSagaRecordsLock",
       lockAtLeastFor = "PT1H", lockAtMostFor = "PT1H") //midnight job so lock for an hour
-  @Transactional
   public void purgeOldRecords() {
     LockAssert.assertLocked();
     final LocalDateTime createDateToCompare = this.calculateCreateDateBasedOnStaleSagaRecordInDays();
-    this.sagaEventRepository.deleteBySagaCreateDateBefore(createDateToCompare);
-    this.penRequestBatchEventRepository.deleteByCreateDateBefore(createDateToCompare);
-    this.sagaRepository.deleteByCreateDateBefore(createDateToCompare);
+    if (Boolean.TRUE.equals(this.getSagaTablesPartitioned())) {
+      this.purgeOldPartitions(createDateToCompare);
+    } else {
+      this.purgeOldRows(createDateToCompare);
+    }
+    final long sagaPayloads = this.deleteInChunks(maxRows -> this.getSagaPayloadRepository().deleteByUpdateDateBefore(createDateToCompare, maxRows)); // a payload stored again by a newer saga was touched by it.
+    log.info("Deleted {} saga payloads not stored since {}", sagaPayloads, createDateToCompare);
     log.info("Purged old saga and event records");
   }
 
+  private void purgeOldRows(final LocalDateTime createDateToCompare) {
+    final long sagaEvents = this.deleteInChunks(maxRows -> this.getSagaEventRepository().deleteBySagaCreateDateBefore(createDateToCompare, maxRows));
+    final long penRequestBatchEvents = this.deleteInChunks(maxRows -> this.getPenRequestBatchEventRepository().deleteByCreateDateBefore(createDateToCompare, maxRows));
+    final long sagas = this.deleteInChunks(maxRows -> this.getSagaRepository().deleteByCreateDateBefore(createDateToCompare, maxRows));
+    log.info("Deleted {} saga events, {} pen request batch events and {} sagas created before {}", sagaEvents, penRequestBatchEvents, sagas, createDateToCompare);
+  }
+
+  /**
+   * The events of a saga are created after the saga, so an expired partition of the saga events only holds events of
+   * expired sagas and is dropped first. The events of the expired sagas which were created after the date are then
+   * deleted, before the sagas. The sagas are always deleted in chunks, dropping a partition of the saga table would
+   * need the foreign key of the saga events disabled while the api writes them.
+   */
+  private void purgeOldPartitions(final LocalDateTime createDateToCompare) {
+    if (this.getSagaRepository().isPartitioned(SAGA_EVENT_TABLE)) {
+      this.dropPartitions(SAGA_EVENT_TABLE, this.getSagaRepository().findPartitionsBefore(SAGA_EVENT_TABLE, createDateToCompare));
+    }
+    this.deleteInChunks(maxRows -> this.getSagaEventRepository().deleteBySagaCreateDateBefore(createDateToCompare, maxRows));
+    this.deleteInChunks(maxRows -> this.getSagaRepository().deleteByCreateDateBefore(createDateToCompare, maxRows));
+    if (this.getSagaRepository().isPartitioned(PEN_REQUEST_BATCH_EVENT_TABLE)) {
+      this.dropPartitions(PEN_REQUEST_BATCH_EVENT_TABLE, this.getSagaRepository().findPartitionsBefore(PEN_REQUEST_BATCH_EVENT_TABLE, createDateToCompare));
+    } else {
+      this.deleteInChunks(maxRows -> this.getPenRequestBatchEventRepository().deleteByCreateDateBefore(createDateToCompare, maxRows));
+    }
+  }
+
+  private void dropPartitions(final String tableName, final List<Pair<String, LocalDateTime>> partitions) {
+    for (final Pair<String, LocalDateTime> partition : partitions) {
+      this.getSagaRepository().dropPartition(tableName, partition.getLeft());
+      log.info("Dropped partition {} of {}, the rows created before {}", partition.getLeft(), tableName, partition.getRight());
+    }
+  }
+
+  /**
+   * Run the delete until it removes less than a chunk.
+   *
+   * @param delete the delete, it gets the max rows and returns the number of deleted rows
+   * @return the number of deleted rows
+   */
+  private long deleteInChunks(final IntUnaryOperator delete) {
+    final int chunkSize = Math.max(1, this.getDeleteChunkSize()); // a delete of no rows would never remove less than a chunk.
+    if (chunkSize != this.getDeleteChunkSize()) {
+      log.warn("purge.records.saga.delete.chunk.size is {}, deleting one row per chunk", this.getDeleteChunkSize());
+    }
+    long deletedRows = 0;
+    int chunkRows;
+    do {
+      chunkRows = delete.applyAsInt(chunkSize);
+      deletedRows += chunkRows;
+    } while (chunkRows >= chunkSize);
+    return deletedRows;
+  }
+
   private LocalDateTime calculateCreateDateBasedOnStaleSagaRecordInDays() {
     final LocalDateTime currentTime = LocalDateTime.now();
     return currentTime.minusDays(this.getSagaRecordStaleInDays());
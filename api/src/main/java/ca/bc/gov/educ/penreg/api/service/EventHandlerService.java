@@ -11,13 +11,14 @@ import ca.bc.gov.educ.penreg.api.struct.Event;
 import ca.bc.gov.educ.penreg.api.struct.PenRequestBatchStudentSagaData;
 import ca.bc.gov.educ.penreg.api.util.JsonUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 
 import static ca.bc.gov.educ.penreg.api.constants.SagaEnum.PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA;
@@ -88,36 +89,40 @@ public class EventHandlerService implements EventHandler {
   }
 
   /**
-   * Handle event.
+   * Handle event. A failure is thrown to the subscriber, so the message of the event is not acknowledged and is
+   * redelivered when it is consumed from JetStream.
    *
    * @param event the event
+   * @throws IOException          the io exception
+   * @throws InterruptedException the interrupted exception
+   * @throws TimeoutException     the timeout exception
    */
   @Override
-  @Async("subscriberExecutor")
-  public void handleEvent(final Event event) {
-    try {
-      switch (event.getEventType()) {
-        case READ_FROM_TOPIC:
-          log.info("received read from topic event :: ");
-          log.trace(PAYLOAD_LOG, event.getEventPayload());
-          this.handleReadFromTopicEvent(event);
-          break;
-        case UPDATE_PEN_REQUEST_BATCH_STUDENT:
-          log.info("received update pen request batch student event :: ");
-          log.trace(PAYLOAD_LOG, event.getEventPayload());
-          this.handleUpdatePrbStudentEvent(event);
-          break;
-        case ARCHIVE_PEN_REQUEST_BATCH:
-          log.info("received archive pen request batch event :: ");
-          log.trace(PAYLOAD_LOG, event.getEventPayload());
-          this.handleArchivePenRequestBatchEvent(event);
-          break;
-        default:
-          log.info("silently ignoring other events.");
-          break;
-      }
-    } catch (final Exception e) {
-      log.error("Exception", e);
+  public void handleEvent(final Event event) throws IOException, InterruptedException, TimeoutException {
+    switch (event.getEventType()) {
+      case READ_FROM_TOPIC:
+        log.info("received read from topic event :: ");
+        log.trace(PAYLOAD_LOG, event.getEventPayload());
+        this.handleReadFromTopicEvent(event);
+        break;
+      case READ_STUDENTS_FROM_TOPIC:
+        log.info("received read students from topic event :: ");
+        log.trace(PAYLOAD_LOG, event.getEventPayload());
+        this.handleReadStudentsFromTopicEvent(event);
+        break;
+      case UPDATE_PEN_REQUEST_BATCH_STUDENT:
+        log.info("received update pen request batch student event :: ");
+        log.trace(PAYLOAD_LOG, event.getEventPayload());
+        this.handleUpdatePrbStudentEvent(event);
+        break;
+      case ARCHIVE_PEN_REQUEST_BATCH:
+        log.info("received archive pen request batch event :: ");
+        log.trace(PAYLOAD_LOG, event.getEventPayload());
+        this.handleArchivePenRequestBatchEvent(event);
+        break;
+      default:
+        log.info("silently ignoring other events.");
+        break;
     }
   }
 
@@ -155,9 +160,29 @@ public class EventHandlerService implements EventHandler {
     }
   }
 
+  /**
+   * Create the sagas of a chunk of student requests in one transaction and start them, the sagas are started on the
+   * bounded subscriber executor. The student requests which already have a saga are skipped, possible duplicate message.
+   *
+   * @param event containing the saga data of the student requests.
+   * @throws JsonProcessingException the json processing exception
+   */
+  private void handleReadStudentsFromTopicEvent(final Event event) throws JsonProcessingException {
+    if (event.getEventOutcome() == EventOutcome.READ_FROM_TOPIC_SUCCESS) {
+      final List<PenRequestBatchStudentSagaData> sagaDataList = JsonUtil.mapper.readValue(event.getEventPayload(), new TypeReference<>() {
+      });
+      final var sagas = this.getSagaService().createStudentSagaRecordsInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), ApplicationProperties.API_NAME, sagaDataList);
+      if (sagas.size() < sagaDataList.size()) {
+        log.trace("Execution is not required for {} of the student requests, returning EVENT is :: {}", sagaDataList.size() - sagas.size(), event);
+      }
+      sagas.forEach(this.getPenReqBatchStudentOrchestrator()::startSaga);
+    }
+  }
+
 
   /**
-   * Send event immediately after update PrbStudent. The scheduler will resend it if failed.
+   * Send event immediately after update PrbStudent. If the sending fails the message is redelivered, the update is
+   * found by its saga id and its event is sent again.
    * Make sure that the PrbStudent update and event sending are in different transactions,
    * so the failure to send event would not affect PrbStudent update.
    *
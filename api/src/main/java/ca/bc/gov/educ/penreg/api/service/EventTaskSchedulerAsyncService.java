@@ -12,7 +12,6 @@ import ca.bc.gov.educ.penreg.api.mappers.v1.PenRequestBatchHistoryMapper;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchHistoryEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchMultiplePen;
-import ca.bc.gov.educ.penreg.api.model.v1.Saga;
 import ca.bc.gov.educ.penreg.api.orchestrator.base.Orchestrator;
 import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchEventRepository;
@@ -59,6 +58,10 @@ public class EventTaskSchedulerAsyncService {
    * The constant mapper.
    */
   private static final PenRequestBatchHistoryMapper historyMapper = PenRequestBatchHistoryMapper.mapper;
+  /**
+   * The maximum number of uncompleted sagas a pod claims for replay in one run of the job.
+   */
+  private static final int MAX_SAGAS_TO_REPLAY = 100;
   /**
    * The String redis template.
    */
@@ -248,18 +251,21 @@ public class EventTaskSchedulerAsyncService {
 
   /**
    * no need of REDIS here as sagas are idempotent and they have there own checks.
-   * Find and process uncompleted sagas.
+   * Find and process uncompleted sagas, which have not been updated in last 5 minutes, or longer when the events are
+   * consumed from JetStream, which redelivers the steps lost on the way.
+   * The sagas are claimed for replay first, so that the pods running this job at the same time replay different sagas,
+   * a replayed saga is not claimed again until its lease, which grows with its retry count, expires.
    */
   @Async("taskExecutor")
   @Transactional
   public void findAndProcessUncompletedSagas() {
-    final var sagas = this.getSagaRepository().findTop100ByStatusInOrderByCreateDate(this.getStatusFilters());
-    if (!sagas.isEmpty()) {
-      for (val saga : sagas) {
-        if (saga.getCreateDate().isBefore(LocalDateTime.now().minusMinutes(5))
-          && this.getSagaOrchestrators().containsKey(saga.getSagaName())) {
+    final var sagaIDs = this.getSagaRepository().claimSagasForReplay(this.getStatusFilters(), LocalDateTime.now().minusMinutes(this.getReplayAfterMinutes()),
+      MAX_SAGAS_TO_REPLAY, this.applicationProperties.getSagaReplayLeaseMinutes(), this.applicationProperties.getSagaReplayMaxLeaseMinutes());
+    if (!sagaIDs.isEmpty()) {
+      for (val saga : this.getSagaRepository().findAllById(sagaIDs)) {
+        if (this.getSagaOrchestrators().containsKey(saga.getSagaName())) {
           try {
-            this.setRetryCountAndLog(saga);
+            LogHelper.logSagaRetry(saga);
             this.getSagaOrchestrators().get(saga.getSagaName()).replaySaga(saga);
           } catch (final InterruptedException ex) {
             Thread.currentThread().interrupt();
@@ -272,6 +278,10 @@ public class EventTaskSchedulerAsyncService {
     }
   }
 
+  private long getReplayAfterMinutes() {
+    return Boolean.TRUE.equals(this.applicationProperties.getJetStreamEnabled()) ? this.applicationProperties.getSagaReplayJetStreamAfterMinutes() : 5;
+  }
+
   /**
    * Publish unprocessed student records.
    */
@@ -348,16 +358,4 @@ public class EventTaskSchedulerAsyncService {
       return statuses;
     }
   }
-
-  private void setRetryCountAndLog(final Saga saga) {
-    Integer retryCount = saga.getRetryCount();
-    if (retryCount == null || retryCount == 0) {
-      retryCount = 1;
-    } else {
-      retryCount += 1;
-    }
-    saga.setRetryCount(retryCount);
-    this.getSagaRepository().save(saga);
-    LogHelper.logSagaRetry(saga);
-  }
 }
@@ -8,6 +8,7 @@ import ca.bc.gov.educ.penreg.api.exception.PenRegAPIRuntimeException;
 import ca.bc.gov.educ.penreg.api.mappers.PenStudentDemogValidationMapper;
 import ca.bc.gov.educ.penreg.api.mappers.v1.PenRequestBatchHistoryMapper;
 import ca.bc.gov.educ.penreg.api.mappers.v1.PenRequestBatchMapper;
+import ca.bc.gov.educ.penreg.api.messaging.PenMatchRequestBatcher;
 import ca.bc.gov.educ.penreg.api.model.v1.PENWebBlobEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchHistoryEntity;
@@ -109,6 +110,12 @@ public class PenRequestBatchService {
    */
   private final PenMatchResultProcessingService<PenRequestPenMatchProcessingPayload, org.apache.commons.lang3.tuple.Pair<Integer, Optional<PenRequestResult>>> processingService;
 
+  /**
+   * The pen match request batcher, used when the pen match requests are sent in batches.
+   */
+  @Getter(PRIVATE)
+  private final PenMatchRequestBatcher penMatchRequestBatcher;
+
   /**
    * Instantiates a new Pen reg batch service.
    *
@@ -118,6 +125,7 @@ public class PenRequestBatchService {
    * @param responseFileGeneratorService           the response file generator service
    * @param restUtils                              the rest utils
    * @param processingService                      the processing service
+   * @param penMatchRequestBatcher                 the pen match request batcher
    */
   @Autowired
   public PenRequestBatchService(final PenRequestBatchRepository repository,
@@ -126,13 +134,15 @@ public class PenRequestBatchService {
                                 final ResponseFileGeneratorService responseFileGeneratorService,
                                 final RestUtils restUtils,
                                 @Qualifier("penRequestPenMatchResultProcessingService") final PenMatchResultProcessingService<PenRequestPenMatchProcessingPayload,
-                                  org.apache.commons.lang3.tuple.Pair<Integer, Optional<PenRequestResult>>> processingService) {
+                                  org.apache.commons.lang3.tuple.Pair<Integer, Optional<PenRequestResult>>> processingService,
+                                final PenMatchRequestBatcher penMatchRequestBatcher) {
     this.repository = repository;
     this.penWebBlobRepository = penWebBlobRepository;
     this.penRequestBatchStudentRepositoryCustom = penRequestBatchStudentRepositoryCustom;
     this.responseFileGeneratorService = responseFileGeneratorService;
     this.restUtils = restUtils;
     this.processingService = processingService;
+    this.penMatchRequestBatcher = penMatchRequestBatcher;
   }
 
   /**
@@ -201,6 +211,26 @@ public class PenRequestBatchService {
     return this.getRepository().save(penRequestBatchEntity);
   }
 
+  /**
+   * Save a newly loaded pen request batch. Its student requests are written with jdbc batch inserts rather than cascaded
+   * by hibernate one insert at a time, a file can have many thousands of them.
+   * The batch is detached once it is written and comes back with the ids of the batch and of its students set.
+   *
+   * @param penRequestBatchEntity the pen request batch entity
+   * @return the pen request batch entity
+   */
+  public PenRequestBatchEntity saveLoadedPenRequestBatch(final PenRequestBatchEntity penRequestBatchEntity) {
+    final var penRequestBatchStudentEntities = new ArrayList<>(penRequestBatchEntity.getPenRequestBatchStudentEntities());
+    penRequestBatchEntity.getPenRequestBatchStudentEntities().clear();
+    try {
+      final var savedEntity = this.savePenRequestBatch(penRequestBatchEntity);
+      this.getPenRequestBatchStudentRepositoryCustom().insertStudentsOfLoadedBatch(savedEntity, penRequestBatchStudentEntities);
+      return savedEntity;
+    } finally {
+      penRequestBatchEntity.getPenRequestBatchStudentEntities().addAll(penRequestBatchStudentEntities); // the ids changed, so they are added back only now.
+    }
+  }
+
 
   /**
    * Update pen request batch pen request batch entity.
@@ -215,7 +245,7 @@ public class PenRequestBatchService {
     return penRequestBatchEntityOptional.map(penRequestBatchEntityDB -> {
       this.checkAndPopulateStatusCode(penRequestBatchEntity, penRequestBatchEntityDB);
       BeanUtils.copyProperties(penRequestBatchEntity, penRequestBatchEntityDB,
-        "penRequestBatchStudentEntities", "penRequestBatchHistoryEntities", "createUser", "createDate");
+        "penRequestBatchStudentEntities", "penRequestBatchHistoryEntities", "createUser", "createDate", "fileCharset", "fileDigest");
       penRequestBatchEntityDB.setPenRequestBatchID(penRequestBatchID);
       final PenRequestBatchHistoryEntity penRequestBatchHistory = historyMapper.toModelFromBatch(penRequestBatchEntity, PenRequestBatchEventCodes.STATUS_CHANGED.getCode());
       penRequestBatchEntityDB.getPenRequestBatchHistoryEntities().add(penRequestBatchHistory);
@@ -234,6 +264,17 @@ public class PenRequestBatchService {
     return this.getRepository().findBySubmissionNumber(submissionNumber);
   }
 
+  /**
+   * Find the charset a file with the submission number was read with before.
+   *
+   * @param submissionNumber the submission number
+   * @return the charset, empty if the file was not read before or the charset was not recorded
+   */
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+  public Optional<String> findFileCharsetBySubmissionNumber(@NonNull final String submissionNumber) {
+    return this.getRepository().findFileCharsetsBySubmissionNumber(submissionNumber).stream().findFirst();
+  }
+
   /**
    * Find pen web blobs by submission number and file type.
    *
@@ -416,7 +457,10 @@ public class PenRequestBatchService {
     penValidationPayload.setTransactionID(transactionID.toString());
     val penRequestResult = PenRequestBatchMapper.mapper.toPenRequestResult(penRequest);
     val validationEvent = Event.builder().eventPayload(JsonUtil.getJsonStringFromObject(penValidationPayload)).eventType(EventType.VALIDATE_STUDENT_DEMOGRAPHICS).build();
-    val validationResponseEvent = this.restUtils.requestEventResponseFromServicesAPI(validationEvent);
+    val penMatchPayload = JsonUtil.getJsonStringFromObject(PenRequestBatchMapper.mapper.toPenMatch(penRequest));
+    val penMatchEvent = Event.builder().sagaId(transactionID).eventType(EventType.PROCESS_PEN_MATCH).eventPayload(penMatchPayload).build();
+    val validationResponse = this.restUtils.requestEventResponseFromServicesAPIAsync(validationEvent, RestUtils.NATS_REQUEST_TIMEOUT);
+    val validationResponseEvent = this.awaitResponse(validationResponse, "Exception while calling services api via nats");
     if (validationResponseEvent.isEmpty()) {
       return org.apache.commons.lang3.tuple.Pair.of(HttpStatus.INTERNAL_SERVER_ERROR.value(), Optional.empty());
     }
@@ -435,9 +479,10 @@ public class PenRequestBatchService {
     }else{
       penRequestResult.setValidationIssues(new ArrayList<>());
     }
-    val penMatchPayload = JsonUtil.getJsonStringFromObject(PenRequestBatchMapper.mapper.toPenMatch(penRequest));
-    val penMatchEvent = Event.builder().sagaId(transactionID).eventType(EventType.PROCESS_PEN_MATCH).eventPayload(penMatchPayload).build();
-    val penMatchResponseEvent = this.restUtils.requestEventResponseFromMatchAPI(penMatchEvent);
+    // the pen match is only requested once the validation passed.
+    val penMatchResponse = this.getPenMatchRequestBatcher().isEnabled() ? this.getPenMatchRequestBatcher().request(penMatchEvent)
+      : this.restUtils.requestEventResponseFromMatchAPIAsync(penMatchEvent, RestUtils.NATS_REQUEST_TIMEOUT);
+    val penMatchResponseEvent = this.awaitResponse(penMatchResponse, "Exception while calling match api via nats");
     if (penMatchResponseEvent.isEmpty() || StringUtils.isBlank(penMatchResponseEvent.get().getEventPayload())) {
       return org.apache.commons.lang3.tuple.Pair.of(HttpStatus.INTERNAL_SERVER_ERROR.value(), Optional.empty());
     }
@@ -445,6 +490,25 @@ public class PenRequestBatchService {
     return this.processingService.processPenMatchResults(PenRequestPenMatchProcessingPayload.builder().transactionID(transactionID).penRequest(penRequest).penRequestResult(penRequestResult).penMatchResult(penMatchResult).build());
   }
 
+  /**
+   * Wait for the response of a request via NATS.
+   *
+   * @param response         the response
+   * @param exceptionMessage the message logged when the request failed
+   * @return the response event, empty when the request failed
+   */
+  private Optional<Event> awaitResponse(final CompletableFuture<Event> response, final String exceptionMessage) {
+    try {
+      return Optional.of(response.get());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.error(exceptionMessage, e);
+    } catch (final ExecutionException e) {
+      log.error(exceptionMessage, e);
+    }
+    return Optional.empty();
+  }
+
   public List<PenRequestBatchEntity> findAllByBatchIds(final List<UUID> penReqBatchIds) {
     return this.repository.findAllById(penReqBatchIds);
   }
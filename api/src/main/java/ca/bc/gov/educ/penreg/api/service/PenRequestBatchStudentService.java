@@ -13,6 +13,7 @@ import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchRepository;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchStudentRepository;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchStudentStatusCodeRepository;
+import ca.bc.gov.educ.penreg.api.util.RepeatCheckFingerprintUtil;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -42,6 +43,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 import static ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStudentStatusCodes.*;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static lombok.AccessLevel.PRIVATE;
 
@@ -339,8 +341,14 @@ public class PenRequestBatchStudentService {
     return this.getRepository().findById(penRequestBatchStudentID);
   }
 
+  /**
+   * Find the candidate repeats of the student requests of the batch in the database, the requests of the earlier
+   * batches of the mincode in the repeat time window with the same repeat check fingerprint.
+   *
+   * @param penRequestBatchEntity the pen request batch entity, its student requests are already saved
+   * @return the candidate repeats by their repeat check key, see {@link #constructKeyGivenBatchStudent(PenRequestBatchStudentEntity)}
+   */
   public Map<String, List<PenRequestBatchStudentEntity>> populateRepeatCheckMap(@NonNull final PenRequestBatchEntity penRequestBatchEntity) {
-    final Map<String, List<PenRequestBatchStudentEntity>> repeatedEntityMap = new HashMap<>();
     final int repeatTimeWindow;
     if (penRequestBatchEntity.getSchoolGroupCode().equals(SchoolGroupCodes.PSI.getCode())) {
       repeatTimeWindow = this.getApplicationProperties().getRepeatTimeWindowPSI();
@@ -348,29 +356,23 @@ public class PenRequestBatchStudentService {
       repeatTimeWindow = this.getApplicationProperties().getRepeatTimeWindowK12();
     }
     final LocalDateTime startDate = LocalDateTime.now().minusDays(repeatTimeWindow);
-    val result = this.repository.findAllPenRequestBatchStudentsForGivenCriteria(penRequestBatchEntity.getMincode(),
+    val result = this.repository.findAllRepeatCandidatesOfBatch(penRequestBatchEntity, penRequestBatchEntity.getMincode(),
       PenRequestBatchStatusCodes.ARCHIVED.getCode(), startDate,
       Arrays.asList(FIXABLE.getCode(), ERROR.getCode(), LOADED.getCode(), INFOREQ.getCode()));
     if (result.isEmpty()) {
       return Collections.emptyMap();
     }
-    for (val prbStudentEntity : result) {
-      final String key = this.constructKeyGivenBatchStudent(prbStudentEntity);
-      if (repeatedEntityMap.containsKey(key)) {
-        val entries = repeatedEntityMap.get(key);
-        entries.add(prbStudentEntity);
-        repeatedEntityMap.put(key, entries);
-      } else {
-        val entries = new ArrayList<PenRequestBatchStudentEntity>();
-        entries.add(prbStudentEntity);
-        repeatedEntityMap.put(key, entries);
-      }
-    }
-    return repeatedEntityMap;
+    return result.stream().collect(groupingBy(PenRequestBatchStudentEntity::getRepeatCheckFingerprint));
   }
 
+  /**
+   * The key the repeats of a student request are found by in the map of {@link #populateRepeatCheckMap(PenRequestBatchEntity)}.
+   *
+   * @param prbsEntity the student request
+   * @return the repeat check fingerprint of the request
+   */
   public String constructKeyGivenBatchStudent(@NonNull final PenRequestBatchStudentEntity prbsEntity) {
-    return prbsEntity.getLocalID() + prbsEntity.getSubmittedPen() + prbsEntity.getLegalFirstName() + prbsEntity.getLegalMiddleNames() + prbsEntity.getLegalLastName() + prbsEntity.getUsualFirstName() + prbsEntity.getUsualMiddleNames() + prbsEntity.getUsualLastName() + prbsEntity.getDob() + prbsEntity.getGenderCode() + prbsEntity.getGradeCode() + prbsEntity.getPostalCode();
+    return RepeatCheckFingerprintUtil.fingerprint(prbsEntity);
   }
 
   @Transactional(propagation = Propagation.REQUIRES_NEW)
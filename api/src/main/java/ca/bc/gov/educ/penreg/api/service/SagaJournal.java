@@ -0,0 +1,208 @@
+package ca.bc.gov.educ.penreg.api.service;
+
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
+import ca.bc.gov.educ.penreg.api.util.MicroBatcher;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * Writes the steps of sagas, each event with the update of its saga, with group commit. The steps appended by the
+ * threads processing different sagas at the same time are written by a single writer thread, up to
+ * {@link ApplicationProperties#getSagaJournalMaxBatchSize()} of them in one transaction, instead of a transaction and
+ * three round trips per step. The steps are written in the order they are appended, so the steps of a saga stay in order.
+ * The future of a step completes once the transaction which wrote it is committed.
+ * <p>
+ * The single writer writes the steps of every saga on the pod, a transaction which waits on a row lock or commits slowly
+ * stalls the steps of all sagas until it times out after {@link ApplicationProperties#getSagaJournalTimeoutSeconds()}.
+ * A step which the writer did not take within the same time fails with a timeout and is not written, its caller writes
+ * it again. A step the writer has taken never times out, its caller waits for the outcome of the transaction, so a step
+ * is not written twice and the checkpoint of its saga is only restored while the caller waits.
+ */
+@Component
+@Slf4j
+public class SagaJournal {
+
+  @Getter(PRIVATE)
+  private final SagaRepository sagaRepository;
+
+  @Getter(PRIVATE)
+  private final TransactionTemplate transactionTemplate;
+
+  @Getter(PRIVATE)
+  private final int timeoutSeconds;
+
+  private final MicroBatcher<SagaStep> writer;
+
+  /**
+   * The number of transactions the journal committed, to compare with the number of steps it wrote.
+   */
+  private final LongAdder commits = new LongAdder();
+
+  public SagaJournal(final SagaRepository sagaRepository, final PlatformTransactionManager transactionManager, final ApplicationProperties applicationProperties) {
+    this.sagaRepository = sagaRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.timeoutSeconds = applicationProperties.getSagaJournalTimeoutSeconds();
+    this.transactionTemplate.setTimeout(this.timeoutSeconds);
+    this.writer = new MicroBatcher<>("saga-journal", applicationProperties.getSagaJournalMaxBatchSize(), applicationProperties.getSagaJournalLingerMillis(),
+      SagaStep::getCommitted, this::writeBatch);
+    this.writer.start();
+  }
+
+  /**
+   * Append the step of a saga, the event is recorded and its saga, which the event holds, is updated.
+   * The saga and the event must not be changed until the returned future completes.
+   *
+   * @param sagaEvent the event of the step, with its saga
+   * @return the future which completes when the step is committed, exceptionally when it could not be written or was not
+   * taken by the writer in time, a step which timed out is not written
+   */
+  public CompletableFuture<Void> append(final SagaEvent sagaEvent) {
+    final var sagaStep = new SagaStep(sagaEvent);
+    if (this.writer.submit(sagaStep)) {
+      CompletableFuture.delayedExecutor(this.getTimeoutSeconds(), TimeUnit.SECONDS).execute(sagaStep::timeOut);
+    }
+    return sagaStep.getCommitted();
+  }
+
+  /**
+   * The number of transactions the journal committed.
+   *
+   * @return the number of commits
+   */
+  public long getCommits() {
+    return this.commits.sum();
+  }
+
+  /**
+   * Stop the writer once the steps appended before are written.
+   *
+   * @throws InterruptedException if the thread is interrupted while it waits for the writer
+   */
+  @PreDestroy
+  public void close() throws InterruptedException {
+    this.writer.close();
+  }
+
+  /**
+   * Write the batch in one transaction. When it fails each step is written in its own transaction, so that a step which
+   * can not be written does not fail the steps of the other sagas.
+   */
+  private void writeBatch(final List<SagaStep> batch) {
+    batch.removeIf(sagaStep -> !sagaStep.take()); // timed out while it waited, the caller writes it again.
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      this.writeInTransaction(batch);
+      batch.forEach(sagaStep -> sagaStep.getCommitted().complete(null));
+    } catch (final Exception batchException) {
+      if (batch.size() == 1) {
+        batch.get(0).getCommitted().completeExceptionally(batchException);
+        return;
+      }
+      log.warn("writing {} saga steps together failed, writing them one by one :: {}", batch.size(), batchException.getMessage());
+      for (final SagaStep sagaStep : batch) {
+        try {
+          this.writeInTransaction(List.of(sagaStep));
+          sagaStep.getCommitted().complete(null);
+        } catch (final Exception e) {
+          sagaStep.getCommitted().completeExceptionally(e);
+        }
+      }
+    }
+  }
+
+  private void writeInTransaction(final List<SagaStep> batch) {
+    final List<SagaEvent> sagaEvents = batch.stream().map(SagaStep::getSagaEvent).collect(Collectors.toList());
+    final List<UUID> sagaEventIds = sagaEvents.stream().map(SagaEvent::getSagaEventId).collect(Collectors.toList());
+    final List<SagaCheckpoint> sagaCheckpoints = sagaEvents.stream().map(sagaEvent -> new SagaCheckpoint(sagaEvent.getSaga())).collect(Collectors.toList());
+    try {
+      this.getTransactionTemplate().executeWithoutResult(status -> this.getSagaRepository().recordSagaEvents(sagaEvents));
+    } catch (final RuntimeException e) {
+      // the events were not recorded, they get new ids when they are written again and their sagas keep the checkpoint
+      // of the last committed step. in reverse, so a saga with several steps in the batch ends up with its first snapshot.
+      for (int i = sagaEvents.size() - 1; i >= 0; i--) {
+        sagaEvents.get(i).setSagaEventId(sagaEventIds.get(i));
+        sagaCheckpoints.get(i).restore();
+      }
+      throw e;
+    }
+    this.commits.increment();
+  }
+
+  /**
+   * The checkpoint of a saga before a batch is written, restored when the transaction is rolled back.
+   */
+  private static final class SagaCheckpoint {
+    private final Saga saga;
+    private final UUID lastSagaEventID;
+    private final String lastSagaEventState;
+    private final String lastSagaEventOutcome;
+    private final Integer lastSagaStepNumber;
+
+    private SagaCheckpoint(final Saga saga) {
+      this.saga = saga;
+      this.lastSagaEventID = saga.getLastSagaEventID();
+      this.lastSagaEventState = saga.getLastSagaEventState();
+      this.lastSagaEventOutcome = saga.getLastSagaEventOutcome();
+      this.lastSagaStepNumber = saga.getLastSagaStepNumber();
+    }
+
+    private void restore() {
+      this.saga.setLastSagaEventID(this.lastSagaEventID);
+      this.saga.setLastSagaEventState(this.lastSagaEventState);
+      this.saga.setLastSagaEventOutcome(this.lastSagaEventOutcome);
+      this.saga.setLastSagaStepNumber(this.lastSagaStepNumber);
+    }
+  }
+
+  /**
+   * A step appended to the journal and the future of its commit. It is either taken by the writer or timed out, never both.
+   */
+  private static final class SagaStep {
+    @Getter
+    private final SagaEvent sagaEvent;
+    @Getter
+    private final CompletableFuture<Void> committed = new CompletableFuture<>();
+    private final AtomicBoolean taken = new AtomicBoolean();
+
+    private SagaStep(final SagaEvent sagaEvent) {
+      this.sagaEvent = sagaEvent;
+    }
+
+    /**
+     * Take the step to write it.
+     *
+     * @return false if the step already timed out
+     */
+    private boolean take() {
+      return this.taken.compareAndSet(false, true);
+    }
+
+    private void timeOut() {
+      if (this.take()) {
+        this.committed.completeExceptionally(new TimeoutException("the saga step was not written by the saga journal in time"));
+      }
+    }
+  }
+}
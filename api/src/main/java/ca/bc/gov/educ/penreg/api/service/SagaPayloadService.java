@@ -0,0 +1,93 @@
+package ca.bc.gov.educ.penreg.api.service;
+
+import ca.bc.gov.educ.penreg.api.exception.SagaRuntimeException;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.repository.SagaPayloadRepository;
+import ca.bc.gov.educ.penreg.api.util.DigestUtil;
+import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import ca.bc.gov.educ.penreg.api.util.LobCompressionUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * Stores the large sections of saga payloads apart from the sagas, content addressed by the SHA-256 of their json, so
+ * that the payload of a saga only holds the digest of such a section and a step loads the section only when it needs it.
+ */
+@Service
+@Slf4j
+public class SagaPayloadService {
+
+  @Getter(PRIVATE)
+  private final SagaPayloadRepository sagaPayloadRepository;
+
+  /**
+   * A section whose json is longer than this many bytes is stored apart from the saga payload.
+   */
+  @Getter(PRIVATE)
+  private final int maxInlineBytes;
+
+  /**
+   * The application properties, they tell whether the sections are stored compressed, see {@link ca.bc.gov.educ.penreg.api.model.v1.CompressedLobConverter}.
+   */
+  @Getter(PRIVATE)
+  private final ApplicationProperties applicationProperties;
+
+  public SagaPayloadService(final SagaPayloadRepository sagaPayloadRepository, final ApplicationProperties applicationProperties) {
+    this.sagaPayloadRepository = sagaPayloadRepository;
+    this.maxInlineBytes = applicationProperties.getSagaPayloadSectionMaxInlineBytes();
+    this.applicationProperties = applicationProperties;
+  }
+
+  /**
+   * Store the section apart from the saga payload when its json is larger than the threshold.
+   *
+   * @param section the section of the saga payload
+   * @return the digest the section is stored under, empty when the section is small enough to stay in the saga payload
+   * @throws JsonProcessingException if the section can not be written as json
+   */
+  public Optional<String> storeIfLarge(final Object section) throws JsonProcessingException {
+    final byte[] payload = JsonUtil.mapper.writeValueAsBytes(section);
+    if (payload.length <= this.getMaxInlineBytes()) {
+      return Optional.empty();
+    }
+    final String payloadDigest = DigestUtil.sha256Hex(payload);
+    final LocalDateTime now = LocalDateTime.now();
+    if (this.getSagaPayloadRepository().touchPayload(payloadDigest, now) == 0) {
+      try {
+        this.getSagaPayloadRepository().insertPayload(payloadDigest, Boolean.TRUE.equals(this.getApplicationProperties().getLobCompressionEnabled()) ? LobCompressionUtil.compress(payload) : payload, now);
+      } catch (final DataIntegrityViolationException e) {
+        log.debug("saga payload :: {} was stored by another saga at the same time", payloadDigest);
+      }
+    }
+    return Optional.of(payloadDigest);
+  }
+
+  /**
+   * Load a section of a saga payload stored by {@link #storeIfLarge(Object)}.
+   *
+   * @param <V>           the type of the section
+   * @param payloadDigest the digest the section is stored under
+   * @param type          the type of the section
+   * @return the section
+   */
+  public <V> V load(final String payloadDigest, final TypeReference<V> type) {
+    final var sagaPayload = this.getSagaPayloadRepository().findById(payloadDigest)
+      .orElseThrow(() -> new SagaRuntimeException("saga payload not found :: " + payloadDigest));
+    try {
+      return JsonUtil.mapper.readValue(sagaPayload.getPayload(), type);
+    } catch (final IOException e) {
+      log.error("IOException while reading saga payload :: {}", payloadDigest, e);
+      throw new SagaRuntimeException(e);
+    }
+  }
+}
@@ -7,8 +7,11 @@ import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchStudentRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaEventRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
+import ca.bc.gov.educ.penreg.api.struct.PenRequestBatchStudentSagaData;
 import ca.bc.gov.educ.penreg.api.struct.v1.PenRequestBatchArchiveAndReturnAllSagaData;
 import ca.bc.gov.educ.penreg.api.struct.v1.PenRequestBatchArchiveAndReturnSagaData;
+import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -23,9 +26,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -56,6 +62,11 @@ public class SagaService {
    * The Pen request batch student repository.
    */
   private final PenRequestBatchStudentRepository penRequestBatchStudentRepository;
+  /**
+   * The Saga journal, it writes the steps of the sagas.
+   */
+  @Getter(PRIVATE)
+  private final SagaJournal sagaJournal;
 
   /**
    * Instantiates a new Saga service.
@@ -63,12 +74,14 @@ public class SagaService {
    * @param sagaRepository                   the saga repository
    * @param sagaEventRepository              the saga event repository
    * @param penRequestBatchStudentRepository the pen request batch student repository
+   * @param sagaJournal                      the saga journal
    */
   @Autowired
-  public SagaService(final SagaRepository sagaRepository, final SagaEventRepository sagaEventRepository, final PenRequestBatchStudentRepository penRequestBatchStudentRepository) {
+  public SagaService(final SagaRepository sagaRepository, final SagaEventRepository sagaEventRepository, final PenRequestBatchStudentRepository penRequestBatchStudentRepository, final SagaJournal sagaJournal) {
     this.sagaRepository = sagaRepository;
     this.sagaEventRepository = sagaEventRepository;
     this.penRequestBatchStudentRepository = penRequestBatchStudentRepository;
+    this.sagaJournal = sagaJournal;
   }
 
 
@@ -84,29 +97,40 @@ public class SagaService {
 
   /**
    * no need to do a get here as it is an attached entity
-   * first find the child record, if exist do not add. this scenario may occur in replay process,
-   * so dont remove this check. removing this check will lead to duplicate records in the child table.
+   * the saga journal merges the event, it is not inserted when the saga already has an event with the same state and
+   * outcome at this or the previous step number. this scenario may occur in replay process, so dont remove this check.
+   * removing this check will lead to duplicate records in the child table.
+   * The checkpoint of the saga is moved to the event in the same transaction the event is saved in.
+   * It waits until the step is committed by the saga journal, together with the steps of other sagas. A step which the
+   * journal did not take in time fails with a timeout without being written and is retried.
    *
    * @param saga      the saga object.
    * @param sagaEvent the saga event
    */
   @Retryable(value = {Exception.class}, maxAttempts = 5, backoff = @Backoff(multiplier = 2, delay = 2000))
-  @Transactional(propagation = Propagation.REQUIRES_NEW)
   public void updateAttachedSagaWithEvents(final Saga saga, final SagaEvent sagaEvent) {
     try {
-      saga.setUpdateDate(LocalDateTime.now());
-      this.getSagaRepository().save(saga);
-      val result = this.getSagaEventRepository()
-          .findBySagaAndSagaEventOutcomeAndSagaEventStateAndSagaStepNumber(saga, sagaEvent.getSagaEventOutcome(), sagaEvent.getSagaEventState(), sagaEvent.getSagaStepNumber() - 1); //check if the previous step was same and had same outcome, and it is due to replay.
-      if (result.isEmpty()) {
-        this.getSagaEventRepository().save(sagaEvent);
-      }
-    } catch (Exception e) {
-      log.error("updateAttachedSagaWithEvents failed for PenRequestBatchId :: {}, SagaId :: {}, SagaEventState :: {}, Error :: {}", saga.getPenRequestBatchID(), saga.getSagaId(), sagaEvent.getSagaEventState(), e);
-      throw new PenRegAPIRuntimeException(e);
+      this.appendSagaEvent(saga, sagaEvent).join();
+    } catch (final CompletionException e) {
+      log.error("updateAttachedSagaWithEvents failed for PenRequestBatchId :: {}, SagaId :: {}, SagaEventState :: {}, Error :: {}", saga.getPenRequestBatchID(), saga.getSagaId(), sagaEvent.getSagaEventState(), e.getCause());
+      throw new PenRegAPIRuntimeException(e.getCause());
     }
   }
 
+  /**
+   * Append the step to the saga journal, the event is recorded and the saga is updated, see
+   * {@link #updateAttachedSagaWithEvents(Saga, SagaEvent)}.
+   *
+   * @param saga      the saga object.
+   * @param sagaEvent the saga event
+   * @return the future which completes when the step is committed
+   */
+  public CompletableFuture<Void> appendSagaEvent(final Saga saga, final SagaEvent sagaEvent) {
+    saga.setUpdateDate(LocalDateTime.now());
+    sagaEvent.setSaga(saga);
+    return this.getSagaJournal().append(sagaEvent);
+  }
+
   /**
    * Find saga by id optional.
    *
@@ -128,6 +152,40 @@ public class SagaService {
   }
 
 
+  /**
+   * Find the step number the next event of the saga is recorded with, from the checkpoint of the saga when it has one.
+   *
+   * @param saga the saga
+   * @return the next step number
+   */
+  public int findNextSagaStepNumber(final Saga saga) {
+    if (saga.getLastSagaStepNumber() != null) {
+      return saga.getLastSagaStepNumber() + 1;
+    }
+    return this.getSagaEventRepository().findMaxSagaStepNumberBySaga(saga).orElse(0) + 1;
+  }
+
+  /**
+   * Find the response of the last event recorded for the saga, through the checkpoint of the saga.
+   *
+   * @param saga the saga with a checkpoint
+   * @return the response, empty if the event no longer exists
+   */
+  public Optional<String> findLastSagaEventResponse(final Saga saga) {
+    return this.getSagaEventRepository().findSagaEventResponseBytesBySagaEventId(saga.getLastSagaEventID())
+        .map(bytes -> new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Find the last event recorded for the saga.
+   *
+   * @param saga the saga
+   * @return the optional
+   */
+  public Optional<SagaEvent> findLastSagaState(final Saga saga) {
+    return this.getSagaEventRepository().findFirstBySagaOrderBySagaStepNumberDesc(saga);
+  }
+
   /**
    * Update saga record.
    *
@@ -239,6 +297,41 @@ public class SagaService {
     return this.getSagaRepository().saveAll(sagas);
   }
 
+  /**
+   * Create the sagas of a chunk of student requests in one transaction, with a single query for the student requests
+   * which already have a saga, a possible duplicate message, and a single jdbc batch for the new sagas.
+   *
+   * @param sagaName     the saga name
+   * @param userName     the user name
+   * @param sagaDataList the saga data of the student requests
+   * @return the new sagas, the student requests which already have a saga are left out
+   * @throws JsonProcessingException the json processing exception
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public List<Saga> createStudentSagaRecordsInDB(final String sagaName, final String userName, final List<PenRequestBatchStudentSagaData> sagaDataList) throws JsonProcessingException {
+    final Map<UUID, PenRequestBatchStudentSagaData> sagaDataByStudentID = new LinkedHashMap<>();
+    sagaDataList.forEach(sagaData -> sagaDataByStudentID.putIfAbsent(sagaData.getPenRequestBatchStudentID(), sagaData));
+    this.getSagaRepository().findPenRequestBatchStudentIDsWithSaga(sagaName, sagaDataByStudentID.keySet()).forEach(sagaDataByStudentID::remove);
+    final List<Saga> sagas = new ArrayList<>(sagaDataByStudentID.size());
+    for (final var sagaData : sagaDataByStudentID.values()) {
+      sagas.add(Saga
+        .builder()
+        .payload(JsonUtil.getJsonStringFromObject(sagaData))
+        .penRequestBatchStudentID(sagaData.getPenRequestBatchStudentID())
+        .penRequestBatchID(sagaData.getPenRequestBatchID())
+        .sagaName(sagaName)
+        .status(STARTED.toString())
+        .sagaState(INITIATED.toString())
+        .createDate(LocalDateTime.now())
+        .createUser(userName)
+        .updateUser(userName)
+        .updateDate(LocalDateTime.now())
+        .build());
+    }
+    this.getSagaRepository().insertSagas(sagas);
+    return sagas;
+  }
+
   /**
    * Find all completable future.
    *
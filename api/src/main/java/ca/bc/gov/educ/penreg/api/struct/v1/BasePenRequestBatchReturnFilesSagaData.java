@@ -55,4 +55,12 @@ public class BasePenRequestBatchReturnFilesSagaData extends BaseRequest {
     String telephone;
     String facsimile;
     String mailingAddress;
+
+    /**
+     * The digests the large sections are stored under apart from the saga payload, the section itself is then not in
+     * the payload.
+     */
+    String penRequestBatchStudentsDigest;
+    String penRequestBatchStudentValidationIssuesDigest;
+    String studentsDigest;
 }
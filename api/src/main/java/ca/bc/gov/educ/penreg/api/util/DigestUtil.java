@@ -0,0 +1,30 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import lombok.NonNull;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * The SHA-256 digests the api stores to find equal contents with an indexed lookup.
+ */
+public final class DigestUtil {
+
+  private DigestUtil() {
+  }
+
+  /**
+   * The SHA-256 of the bytes.
+   *
+   * @param bytes the bytes
+   * @return the digest, 64 lower case hex characters
+   */
+  public static String sha256Hex(@NonNull final byte[] bytes) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e); // every jvm has it.
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package ca.bc.gov.educ.penreg.api.util;
 
+import ca.bc.gov.educ.penreg.api.struct.Event;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
@@ -15,6 +17,11 @@ import java.util.Optional;
 @Slf4j
 public class JsonUtil {
   public static final ObjectMapper mapper = new ObjectMapper();
+  /**
+   * The reader of the events received from NATS, it resolves the deserializer of the event once instead of on every
+   * message.
+   */
+  private static final ObjectReader eventReader = mapper.readerFor(Event.class);
   /**
    * Instantiates a new Json util.
    */
@@ -58,6 +65,19 @@ public class JsonUtil {
     return mapper.readValue(payload, clazz);
   }
 
+  /**
+   * Gets the event from the bytes of a NATS message, parsing the utf-8 bytes as they are instead of decoding them to a
+   * string first. The event payload is a json string inside the event, it is only copied out here, the handlers parse it
+   * when they need it.
+   *
+   * @param payload the bytes of the message
+   * @return the event
+   * @throws IOException the io exception
+   */
+  public static Event getEventFromByteArray(final byte[] payload) throws IOException {
+    return eventReader.readValue(payload);
+  }
+
   /**
    * Get json string optional.
    *
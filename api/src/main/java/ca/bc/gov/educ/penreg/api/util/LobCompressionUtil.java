@@ -0,0 +1,78 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Compresses the json the api stores in LOB columns with zstd.
+ * A compressed value is a single zstd frame, which starts with the zstd magic number, that is the format marker. Json
+ * written as UTF-8 never starts with those bytes, so the rows written before the compression and the values too small
+ * to be worth compressing are stored and read as they are.
+ */
+public final class LobCompressionUtil {
+
+  /**
+   * The zstd magic number, the first four bytes of a frame, little endian.
+   */
+  private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD};
+
+  /**
+   * A value shorter than this many bytes is stored uncompressed, the frame header would take most of what is saved.
+   */
+  private static final int MIN_COMPRESSED_BYTES = 128;
+
+  /**
+   * The zstd default level, the higher levels cost more cpu on every saga step than the bytes they save are worth.
+   */
+  private static final int COMPRESSION_LEVEL = 3;
+
+  private LobCompressionUtil() {
+  }
+
+  /**
+   * Compress the value to be stored, unless it is too small to be worth it.
+   *
+   * @param value the value
+   * @return the zstd frame of the value, or the value itself
+   */
+  public static byte[] compress(final byte[] value) {
+    if (value == null || value.length < MIN_COMPRESSED_BYTES) {
+      return value;
+    }
+    return Zstd.compress(value, COMPRESSION_LEVEL); // the native context is freed before it returns, nothing is held per thread.
+  }
+
+  /**
+   * Decompress the stored value, a value which is not a zstd frame is returned as it is.
+   *
+   * @param stored the stored value
+   * @return the value
+   */
+  public static byte[] decompress(final byte[] stored) {
+    if (!isCompressed(stored)) {
+      return stored;
+    }
+    final long size = Zstd.getFrameContentSize(stored);
+    if (size < 0 || size > Integer.MAX_VALUE) {
+      throw new IllegalStateException("the size of the compressed value is not known :: " + size); // compress always writes it.
+    }
+    return Zstd.decompress(stored, (int) size);
+  }
+
+  /**
+   * Whether the stored value is a zstd frame.
+   *
+   * @param stored the stored value
+   * @return true if the value starts with the zstd magic number
+   */
+  public static boolean isCompressed(final byte[] stored) {
+    if (stored == null || stored.length < ZSTD_MAGIC.length) {
+      return false;
+    }
+    for (int i = 0; i < ZSTD_MAGIC.length; i++) {
+      if (stored[i] != ZSTD_MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
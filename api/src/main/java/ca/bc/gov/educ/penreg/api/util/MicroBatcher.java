@@ -0,0 +1,167 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import ca.bc.gov.educ.penreg.api.exception.PenRegAPIRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Hands the items submitted by many threads to a single thread in batches. The thread waits for the next item and takes
+ * the items submitted until the batch holds the max batch size or the linger time after its first item has passed, the
+ * items submitted while the previous batch was handled are taken right away. The items are handed over in the order
+ * they are submitted.
+ * <p>
+ * Each item holds the future its submitter waits for. An item submitted before {@link #start()} or after
+ * {@link #close()}, or whose batch handler throws, fails with the exception, the handler completes the others.
+ *
+ * @param <T> the type of the items
+ */
+@Slf4j
+public final class MicroBatcher<T> {
+
+  /**
+   * Submitted by {@link #close()}, the thread stops once it reaches it.
+   */
+  private static final Object CLOSED = new Object();
+
+  private final String name;
+
+  private final int maxBatchSize;
+
+  private final long lingerNanos;
+
+  private final Function<T, CompletableFuture<?>> futureOfItem;
+
+  private final Consumer<List<T>> batchHandler;
+
+  private final LinkedBlockingQueue<Object> items = new LinkedBlockingQueue<>();
+
+  private ExecutorService worker;
+
+  private volatile boolean running;
+
+  /**
+   * @param name         the name of the batcher, its thread is named after it
+   * @param maxBatchSize the maximum number of items in a batch
+   * @param lingerMillis milliseconds the thread waits for more items before it hands over the batch it has
+   * @param futureOfItem the future the submitter of an item waits for
+   * @param batchHandler handles a batch on the thread of the batcher, the list is cleared once it returns
+   */
+  public MicroBatcher(final String name, final int maxBatchSize, final long lingerMillis, final Function<T, CompletableFuture<?>> futureOfItem,
+                      final Consumer<List<T>> batchHandler) {
+    this.name = name;
+    this.maxBatchSize = maxBatchSize;
+    this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+    this.futureOfItem = futureOfItem;
+    this.batchHandler = batchHandler;
+  }
+
+  /**
+   * Start the thread which takes the batches.
+   */
+  public synchronized void start() {
+    if (this.worker == null) {
+      this.worker = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().withNameFormat(this.name + "-%d").withDaemon(true).get());
+      this.running = true;
+      this.worker.execute(this::run);
+    }
+  }
+
+  /**
+   * Submit an item, it is handed over with the items submitted around the same time.
+   *
+   * @param item the item
+   * @return false if the batcher is not running, the future of the item then already failed
+   */
+  public boolean submit(final T item) {
+    if (!this.running) {
+      this.futureOfItem.apply(item).completeExceptionally(new PenRegAPIRuntimeException(this.name + " is not running"));
+      return false;
+    }
+    this.items.add(item);
+    return true;
+  }
+
+  /**
+   * Stop the thread once the items submitted before are handed over.
+   *
+   * @throws InterruptedException if the thread is interrupted while it waits for the thread of the batcher
+   */
+  public synchronized void close() throws InterruptedException {
+    this.running = false;
+    if (this.worker != null) {
+      this.items.add(CLOSED);
+      this.worker.shutdown();
+      if (!this.worker.awaitTermination(30, TimeUnit.SECONDS)) {
+        log.warn("{} did not handle the remaining items in time", this.name);
+      }
+    }
+    this.failRemainingItems(); // the items submitted while it was closed.
+  }
+
+  private void run() {
+    final List<T> batch = new ArrayList<>(this.maxBatchSize);
+    boolean open = true;
+    while (open) {
+      try {
+        open = this.takeBatch(batch);
+        if (!batch.isEmpty()) {
+          this.batchHandler.accept(batch);
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        open = false;
+      } catch (final Exception e) {
+        log.error("Exception while {} handled a batch", this.name, e);
+        batch.forEach(item -> this.futureOfItem.apply(item).completeExceptionally(e));
+      } finally {
+        batch.clear();
+      }
+    }
+    this.failRemainingItems();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void failRemainingItems() {
+    Object item;
+    while ((item = this.items.poll()) != null) {
+      if (item != CLOSED) {
+        this.futureOfItem.apply((T) item).completeExceptionally(new PenRegAPIRuntimeException(this.name + " is closed"));
+      }
+    }
+  }
+
+  /**
+   * Wait for the next item and take the items submitted until the batch is full or the linger time has passed.
+   *
+   * @return false if the batcher is closed
+   */
+  @SuppressWarnings("unchecked")
+  private boolean takeBatch(final List<T> batch) throws InterruptedException {
+    Object item = this.items.take();
+    final long deadline = System.nanoTime() + this.lingerNanos;
+    while (item != null) {
+      if (item == CLOSED) {
+        return false;
+      }
+      batch.add((T) item);
+      if (batch.size() >= this.maxBatchSize) {
+        return true;
+      }
+      item = this.items.poll(); // the items submitted while the previous batch was handled are taken right away.
+      if (item == null) {
+        final long remainingNanos = deadline - System.nanoTime();
+        item = remainingNanos > 0 ? this.items.poll(remainingNanos, TimeUnit.NANOSECONDS) : null;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,57 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The fingerprint a student request is found as a repeat of an earlier request by, it is stored in the
+ * REPEAT_CHECK_FINGERPRINT column of the request.
+ * It is the lower case hex SHA-256 of the {@link #REPEAT_CHECK_FIELDS}, each field written as its length, a colon and
+ * its value, a missing or empty field as `-1:`. The migration which added the column computes the same value in the
+ * database, so both have to be changed together.
+ */
+public final class RepeatCheckFingerprintUtil {
+
+  /**
+   * The fields which make a request a repeat of an earlier request, in the order they are hashed.
+   */
+  private static final List<Function<PenRequestBatchStudentEntity, String>> REPEAT_CHECK_FIELDS = List.of(
+    PenRequestBatchStudentEntity::getLocalID,
+    PenRequestBatchStudentEntity::getSubmittedPen,
+    PenRequestBatchStudentEntity::getLegalFirstName,
+    PenRequestBatchStudentEntity::getLegalMiddleNames,
+    PenRequestBatchStudentEntity::getLegalLastName,
+    PenRequestBatchStudentEntity::getUsualFirstName,
+    PenRequestBatchStudentEntity::getUsualMiddleNames,
+    PenRequestBatchStudentEntity::getUsualLastName,
+    PenRequestBatchStudentEntity::getDob,
+    PenRequestBatchStudentEntity::getGenderCode,
+    PenRequestBatchStudentEntity::getGradeCode,
+    PenRequestBatchStudentEntity::getPostalCode);
+
+  private RepeatCheckFingerprintUtil() {
+  }
+
+  /**
+   * Compute the repeat check fingerprint of a student request.
+   *
+   * @param penRequestBatchStudentEntity the student request
+   * @return the fingerprint, 64 hex characters
+   */
+  public static String fingerprint(@NonNull final PenRequestBatchStudentEntity penRequestBatchStudentEntity) {
+    final StringBuilder encoded = new StringBuilder(128);
+    for (final var field : REPEAT_CHECK_FIELDS) {
+      final String value = field.apply(penRequestBatchStudentEntity);
+      if (value == null || value.isEmpty()) { // oracle stores an empty string as null.
+        encoded.append("-1:");
+      } else {
+        encoded.append(value.codePointCount(0, value.length())).append(':').append(value);
+      }
+    }
+    return DigestUtil.sha256Hex(encoded.toString().getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,13 @@
+CREATE TABLE PEN_WEB_BLOB_CLAIM
+(
+    MINCODE           VARCHAR2(8)   NOT NULL,
+    CLAIMED_BY        VARCHAR2(255) NOT NULL,
+    CLAIM_EXPIRY_DATE TIMESTAMP     NOT NULL,
+    CONSTRAINT PEN_WEB_BLOB_CLAIM_PK PRIMARY KEY (MINCODE)
+);
+COMMENT ON TABLE PEN_WEB_BLOB_CLAIM IS 'This table is used to claim the unextracted pen web blobs of a school between pods, so that the files of a school are processed by one pod at a time.';
+COMMENT ON COLUMN PEN_WEB_BLOB_CLAIM.MINCODE IS 'The mincode of the school whose pen web blobs are claimed.';
+COMMENT ON COLUMN PEN_WEB_BLOB_CLAIM.CLAIMED_BY IS 'The pod which holds the claim.';
+COMMENT ON COLUMN PEN_WEB_BLOB_CLAIM.CLAIM_EXPIRY_DATE IS 'The claim can be taken over by another pod after this time, in case the pod which holds it died.';
+
+GRANT SELECT ON PEN_WEB_BLOB_CLAIM TO PEN_READONLY;
@@ -0,0 +1,4 @@
+ALTER TABLE PEN_REQUEST_BATCH
+    ADD FILE_CHARSET VARCHAR2(20);
+
+COMMENT ON COLUMN PEN_REQUEST_BATCH.FILE_CHARSET IS 'The charset the file was read with, a file which is loaded again is read with the same charset instead of detecting it.';
@@ -0,0 +1,24 @@
+ALTER TABLE PEN_REQUEST_BATCH_STUDENT
+    ADD REPEAT_CHECK_FINGERPRINT VARCHAR2(64);
+
+COMMENT ON COLUMN PEN_REQUEST_BATCH_STUDENT.REPEAT_CHECK_FINGERPRINT IS 'SHA-256 of the fields a request is found as a repeat of an earlier request by, computed by the API when the request is saved.';
+
+-- the same encoding as RepeatCheckFingerprintUtil, each field as its length, a colon and its value, a null field as -1:
+UPDATE PEN_REQUEST_BATCH_STUDENT
+SET REPEAT_CHECK_FINGERPRINT = LOWER(RAWTOHEX(STANDARD_HASH(
+        NVL2(LOCAL_ID, LENGTH(LOCAL_ID) || ':' || LOCAL_ID, '-1:') ||
+        NVL2(SUBMITTED_PEN, LENGTH(SUBMITTED_PEN) || ':' || SUBMITTED_PEN, '-1:') ||
+        NVL2(LEGAL_FIRST_NAME, LENGTH(LEGAL_FIRST_NAME) || ':' || LEGAL_FIRST_NAME, '-1:') ||
+        NVL2(LEGAL_MIDDLE_NAMES, LENGTH(LEGAL_MIDDLE_NAMES) || ':' || LEGAL_MIDDLE_NAMES, '-1:') ||
+        NVL2(LEGAL_LAST_NAME, LENGTH(LEGAL_LAST_NAME) || ':' || LEGAL_LAST_NAME, '-1:') ||
+        NVL2(USUAL_FIRST_NAME, LENGTH(USUAL_FIRST_NAME) || ':' || USUAL_FIRST_NAME, '-1:') ||
+        NVL2(USUAL_MIDDLE_NAMES, LENGTH(USUAL_MIDDLE_NAMES) || ':' || USUAL_MIDDLE_NAMES, '-1:') ||
+        NVL2(USUAL_LAST_NAME, LENGTH(USUAL_LAST_NAME) || ':' || USUAL_LAST_NAME, '-1:') ||
+        NVL2(DOB, LENGTH(DOB) || ':' || DOB, '-1:') ||
+        NVL2(GENDER_CODE, LENGTH(GENDER_CODE) || ':' || GENDER_CODE, '-1:') ||
+        NVL2(GRADE_CODE, LENGTH(GRADE_CODE) || ':' || GRADE_CODE, '-1:') ||
+        NVL2(POSTAL_CODE, LENGTH(POSTAL_CODE) || ':' || POSTAL_CODE, '-1:'), 'SHA256')));
+
+CREATE INDEX PRB_STUDENT_REPEAT_CHECK_IDX ON API_PEN_REQUEST_BATCH.PEN_REQUEST_BATCH_STUDENT (REPEAT_CHECK_FINGERPRINT, PEN_REQUEST_BATCH_ID) TABLESPACE API_PEN_IDX;
+
+CREATE INDEX PRB_MINCODE_PROCESS_DATE_IDX ON API_PEN_REQUEST_BATCH.PEN_REQUEST_BATCH (MINCODE, PEN_REQUEST_BATCH_STATUS_CODE, PROCESS_DATE) TABLESPACE API_PEN_IDX;
@@ -0,0 +1,6 @@
+ALTER TABLE PEN_REQUEST_BATCH
+    ADD FILE_DIGEST VARCHAR2(64);
+
+COMMENT ON COLUMN PEN_REQUEST_BATCH.FILE_DIGEST IS 'SHA-256 of the file contents, a PSI file with the same contents as an earlier file of the school is held as a duplicate.';
+
+CREATE INDEX PRB_FILE_DIGEST_IDX ON API_PEN_REQUEST_BATCH.PEN_REQUEST_BATCH (FILE_DIGEST, MINCODE) TABLESPACE API_PEN_IDX;
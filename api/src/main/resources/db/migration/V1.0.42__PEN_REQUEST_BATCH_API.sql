@@ -0,0 +1 @@
+CREATE INDEX PRB_SAGA_EVENT_SAGA_STEP_IDX ON API_PEN_REQUEST_BATCH.PEN_REQUEST_BATCH_SAGA_EVENT_STATES (SAGA_ID, SAGA_STEP_NUMBER) TABLESPACE API_PEN_IDX;
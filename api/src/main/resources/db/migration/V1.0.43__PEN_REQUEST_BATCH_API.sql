@@ -0,0 +1,2 @@
+ALTER TABLE API_PEN_REQUEST_BATCH.PEN_REQUEST_BATCH_SAGA ADD REPLAY_LEASE_EXPIRY_DATE DATE;
+CREATE INDEX PRB_SAGA_STATUS_UPD_DATE_IDX ON API_PEN_REQUEST_BATCH.PEN_REQUEST_BATCH_SAGA (STATUS, UPDATE_DATE) TABLESPACE API_PEN_IDX;
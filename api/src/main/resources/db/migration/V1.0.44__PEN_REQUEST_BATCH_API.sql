@@ -0,0 +1 @@
+ALTER TABLE API_PEN_REQUEST_BATCH.PEN_REQUEST_BATCH_SAGA ADD (LAST_SAGA_EVENT_ID RAW(16), LAST_SAGA_EVENT_STATE VARCHAR2(100), LAST_SAGA_EVENT_OUTCOME VARCHAR2(100), LAST_SAGA_STEP_NUMBER NUMBER(4));
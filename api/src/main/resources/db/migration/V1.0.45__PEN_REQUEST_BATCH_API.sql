@@ -0,0 +1,14 @@
+CREATE TABLE PEN_REQUEST_BATCH_SAGA_PAYLOAD
+(
+    PAYLOAD_DIGEST VARCHAR2(64) NOT NULL,
+    PAYLOAD        BLOB         NOT NULL,
+    CREATE_DATE    DATE         NOT NULL,
+    UPDATE_DATE    DATE         NOT NULL,
+    CONSTRAINT PRB_SAGA_PAYLOAD_PK PRIMARY KEY (PAYLOAD_DIGEST)
+) LOB (PAYLOAD) STORE AS PRB_SAGA_PAYLOAD_BLOB (TABLESPACE API_PENRQSTB_BLOB_DATA);
+COMMENT ON TABLE PEN_REQUEST_BATCH_SAGA_PAYLOAD IS 'This table stores the large sections of saga payloads, the payload of the saga holds the digest of the section instead of the section.';
+COMMENT ON COLUMN PEN_REQUEST_BATCH_SAGA_PAYLOAD.PAYLOAD_DIGEST IS 'The lower case hex SHA-256 of the section, equal sections of different sagas are stored once.';
+COMMENT ON COLUMN PEN_REQUEST_BATCH_SAGA_PAYLOAD.PAYLOAD IS 'The json of the section.';
+COMMENT ON COLUMN PEN_REQUEST_BATCH_SAGA_PAYLOAD.UPDATE_DATE IS 'The last time a saga stored the section, it is purged with the sagas created before it.';
+
+GRANT SELECT ON PEN_REQUEST_BATCH_SAGA_PAYLOAD TO PEN_READONLY;
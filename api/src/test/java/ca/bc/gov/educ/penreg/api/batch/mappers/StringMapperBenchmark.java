@@ -0,0 +1,63 @@
+package ca.bc.gov.educ.penreg.api.batch.mappers;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the table driven scrubbing of {@link StringMapper} with the normalizer it replaced, over the name fields of
+ * an SRM record. Run it with `mvn test-compile` and then the main method, with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringMapperBenchmark {
+
+  /**
+   * The fields of a record, as they come from the fixed length file.
+   */
+  @Param({"ascii", "mixedCase", "accented"})
+  public String names;
+
+  private String[] values;
+
+  @Setup
+  public void setUp() {
+    switch (this.names) {
+      case "ascii":
+        this.values = new String[]{"SMITH", "JOHN", "PAUL", "O'BRIEN-JONES", "MARY", "ANNE", "V8N1H8", "000000000001", "12", "M"};
+        break;
+      case "mixedCase":
+        this.values = new String[]{"Smith", "John", "Paul", "O'Brien-Jones", "Mary", "anne", "v8n1h8", "000000000001", "12", "m"};
+        break;
+      default:
+        this.values = new String[]{"Côté", "Zoë", "François", "Nguyễn", "Müller", "Łukasz", "v8n 1h8", "000000000001", "Ōkawa", "José"};
+        break;
+    }
+  }
+
+  @Benchmark
+  public void table(final Blackhole blackhole) {
+    for (final String value : this.values) {
+      blackhole.consume(StringMapper.trimUppercaseAndScrubDiacriticalMarks(value));
+    }
+  }
+
+  @Benchmark
+  public void normalizer(final Blackhole blackhole) {
+    for (final String value : this.values) {
+      blackhole.consume(StringMapper.trimUppercaseAndScrubDiacriticalMarksWithNormalizer(value));
+    }
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(StringMapperBenchmark.class.getSimpleName()).build()).run();
+  }
+}
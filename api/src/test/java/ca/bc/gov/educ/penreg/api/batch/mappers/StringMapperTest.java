@@ -0,0 +1,47 @@
+package ca.bc.gov.educ.penreg.api.batch.mappers;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringMapperTest {
+
+  @Test
+  public void testTrimUppercaseAndScrubDiacriticalMarks_givenNames_shouldScrubThem() {
+    assertThat(StringMapper.trimUppercaseAndScrubDiacriticalMarks("  José ")).isEqualTo("JOSE");
+    assertThat(StringMapper.trimUppercaseAndScrubDiacriticalMarks("Łukasz Nguyễn")).isEqualTo("LUKASZ NGUYEN");
+    assertThat(StringMapper.trimUppercaseAndScrubDiacriticalMarks("Æsa 李")).isEqualTo("¿SA ¿");
+    assertThat(StringMapper.trimUppercaseAndScrubDiacriticalMarks("   ")).isEqualTo("   ");
+    assertThat(StringMapper.trimUppercaseAndScrubDiacriticalMarks(null)).isNull();
+  }
+
+  @Test
+  public void testTrimUppercaseAndScrubDiacriticalMarks_givenTrimmedUppercaseAscii_shouldReturnSameInstance() {
+    final String value = "O'BRIEN-SMITH";
+    assertThat(StringMapper.trimUppercaseAndScrubDiacriticalMarks(value)).isSameAs(value);
+  }
+
+  @Test
+  public void testTrimUppercaseAndScrubDiacriticalMarks_givenEveryCharacter_shouldMatchNormalizer() {
+    for (int character = Character.MIN_VALUE; character <= Character.MAX_VALUE; character++) {
+      final String value = "a" + (char) character + "b";
+      assertThat(StringMapper.trimUppercaseAndScrubDiacriticalMarks(value)).as("character %04x", character).isEqualTo(StringMapper.trimUppercaseAndScrubDiacriticalMarksWithNormalizer(value));
+    }
+  }
+
+  @Test
+  public void testTrimUppercaseAndScrubDiacriticalMarks_givenRandomValues_shouldMatchNormalizer() {
+    final Random random = new Random(42);
+    final char[] alphabet = " \t\u0001azAZ09'-éÉèüÿßæłŁøĳǅ̧֑̀́  ṩễἀÅ😀李".toCharArray();
+    for (int i = 0; i < 100_000; i++) {
+      final char[] value = new char[random.nextInt(12)];
+      for (int j = 0; j < value.length; j++) {
+        value[j] = alphabet[random.nextInt(alphabet.length)];
+      }
+      final String string = new String(value);
+      assertThat(StringMapper.trimUppercaseAndScrubDiacriticalMarks(string)).as(string).isEqualTo(StringMapper.trimUppercaseAndScrubDiacriticalMarksWithNormalizer(string));
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package ca.bc.gov.educ.penreg.api.batch.parser;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchFileCharsetDetectorTest {
+
+  @Test
+  public void testDetect_givenAsciiOrEmptyFile_shouldReturnUTF8() {
+    assertThat(BatchFileCharsetDetector.detect(new byte[0])).isEqualTo(StandardCharsets.UTF_8);
+    assertThat(BatchFileCharsetDetector.detect("FFI10200001 SCHOOL".getBytes(StandardCharsets.US_ASCII))).isEqualTo(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testDetect_givenUTF8File_shouldReturnUTF8() {
+    assertThat(BatchFileCharsetDetector.detect("SRM BÉLANGER Zoë 𝄞".getBytes(StandardCharsets.UTF_8))).isEqualTo(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testDetect_givenWindows1252File_shouldReturnWindows1252() {
+    assertThat(BatchFileCharsetDetector.detect("SRM BÉLANGER".getBytes(BatchFileCharsetDetector.FALLBACK_CHARSET))).isEqualTo(BatchFileCharsetDetector.FALLBACK_CHARSET);
+    // overlong encoding and encoded surrogate are not valid UTF-8.
+    assertThat(BatchFileCharsetDetector.detect(new byte[]{(byte) 0xC0, (byte) 0xAF})).isEqualTo(BatchFileCharsetDetector.FALLBACK_CHARSET);
+    assertThat(BatchFileCharsetDetector.detect(new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80})).isEqualTo(BatchFileCharsetDetector.FALLBACK_CHARSET);
+  }
+
+  @Test
+  public void testDetect_givenFileWhichIsOnlyWindows1252AfterThePrefix_shouldDecideFromThePrefix() {
+    final byte[] fileContents = new byte[BatchFileCharsetDetector.PREFIX_LENGTH + 10];
+    Arrays.fill(fileContents, (byte) 'A');
+    fileContents[BatchFileCharsetDetector.PREFIX_LENGTH + 5] = (byte) 0xC9;
+    assertThat(BatchFileCharsetDetector.detect(fileContents)).isEqualTo(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testDetect_givenUTF8CharacterCutByThePrefix_shouldReturnUTF8() {
+    final byte[] fileContents = new byte[BatchFileCharsetDetector.PREFIX_LENGTH + 10];
+    Arrays.fill(fileContents, (byte) 'A');
+    final byte[] character = "É".getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(character, 0, fileContents, BatchFileCharsetDetector.PREFIX_LENGTH - 1, character.length);
+    assertThat(BatchFileCharsetDetector.detect(fileContents)).isEqualTo(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,69 @@
+package ca.bc.gov.educ.penreg.api.batch.parser;
+
+import ca.bc.gov.educ.penreg.api.batch.struct.ParsedBatchFile;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PenRequestBatchFileParserTest {
+
+  private final PenRequestBatchFileParser penRequestBatchFileParser = new PenRequestBatchFileParser();
+
+  @Test
+  public void testParse_givenValidFile_shouldReturnHeaderStudentsAndTrailer() throws IOException {
+    final ParsedBatchFile parsedBatchFile = this.parse("sample_5_K12_OK.txt");
+    assertThat(parsedBatchFile.getBatchFileHeader().getTransactionCode()).isEqualTo("FFI");
+    assertThat(parsedBatchFile.getBatchFileTrailer().getStudentCount()).isEqualTo("05");
+    assertThat(parsedBatchFile.getStudentDetails()).hasSize(5).allMatch(studentDetails -> "SRM".equals(studentDetails.getTransactionCode()));
+    assertThat(parsedBatchFile.getDetailRecordLengthError()).isNull();
+    assertThat(parsedBatchFile.getInvalidTransactionCodeRecordIndex()).isNull();
+  }
+
+  @Test
+  public void testParse_givenDetailRecordWithWrongLength_shouldRecordFirstLengthError() throws IOException {
+    final ParsedBatchFile parsedBatchFile = this.parse("sample_wrong_details_record_length_at_position_2.txt");
+    assertThat(parsedBatchFile.getDetailRecordLengthError()).isNotNull();
+    assertThat(parsedBatchFile.getDetailRecordLengthError().getLineNumber()).isEqualTo(3);
+    assertThat(parsedBatchFile.getDetailRecordLengthError().isTooLong()).isFalse();
+  }
+
+  @Test
+  public void testParse_givenDetailRecordWithInvalidTransactionCode_shouldStopAddingStudents() throws IOException {
+    final ParsedBatchFile parsedBatchFile = this.parse("sample_10_records_student_does_not_start_with_SRM_mismatch.txt");
+    assertThat(parsedBatchFile.getInvalidTransactionCodeRecordIndex()).isEqualTo("6");
+    assertThat(parsedBatchFile.getStudentDetails()).hasSize(5);
+  }
+
+  @Test
+  public void testParse_givenShortTrailer_shouldKeepRawTrailer() throws IOException {
+    final ParsedBatchFile parsedBatchFile = this.parse("sample_10_records_Trailer_Shorter_length.txt");
+    assertThat(parsedBatchFile.getBatchFileTrailer()).isNull();
+    assertThat(parsedBatchFile.getLastErrorRawData()).startsWith("BTR").isEqualTo(parsedBatchFile.getLastRecordRawData());
+  }
+
+  @Test
+  public void testParse_givenBlankLinesAndTrailingWhitespace_shouldSkipLinesAndTrimValues() throws IOException {
+    final String header = String.format("%-211s", "FFI10200001");
+    final String detail = String.format("%-234s", String.format("%-3s%-12s%-10s%-25s", "SRM", "  12345", "123456789", "Smith \t"));
+    final String trailer = String.format("%-224s", "BTR000001");
+    final ParsedBatchFile parsedBatchFile = this.penRequestBatchFileParser.parse(new StringReader(header + "\r\n\r\n" + detail + "\n   \n" + trailer + "\n"));
+    assertThat(parsedBatchFile.getStudentDetails()).hasSize(1);
+    assertThat(parsedBatchFile.getStudentDetails().get(0).getLocalStudentID()).isEqualTo("12345");
+    assertThat(parsedBatchFile.getStudentDetails().get(0).getPen()).isEqualTo("123456789");
+    assertThat(parsedBatchFile.getStudentDetails().get(0).getLegalSurname()).isEqualTo("SMITH");
+    assertThat(parsedBatchFile.getStudentDetails().get(0).getUnused()).isNull();
+    assertThat(parsedBatchFile.getStudentDetails().get(0).getLegalGivenName()).isNull();
+    assertThat(parsedBatchFile.getBatchFileTrailer().getStudentCount()).isEqualTo("000001");
+  }
+
+  private ParsedBatchFile parse(final String fileName) throws IOException {
+    final File file = new File(Objects.requireNonNull(this.getClass().getClassLoader().getResource(fileName)).getFile());
+    try (final Reader reader = new InputStreamReader(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+      return this.penRequestBatchFileParser.parse(reader);
+    }
+  }
+}
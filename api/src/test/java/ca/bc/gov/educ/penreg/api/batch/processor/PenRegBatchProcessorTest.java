@@ -1,10 +1,13 @@
 package ca.bc.gov.educ.penreg.api.batch.processor;
 
 import ca.bc.gov.educ.penreg.api.BasePenRegAPITest;
+import ca.bc.gov.educ.penreg.api.batch.service.PenRequestBatchFileService;
 import ca.bc.gov.educ.penreg.api.compare.PenRequestBatchHistoryComparator;
+import ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStatusCodes;
 import ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStudentStatusCodes;
 import ca.bc.gov.educ.penreg.api.messaging.MessagePublisher;
 import ca.bc.gov.educ.penreg.api.model.v1.PENWebBlobEntity;
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchHistoryEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
 import ca.bc.gov.educ.penreg.api.repository.*;
@@ -28,6 +31,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -78,6 +82,9 @@ public class PenRegBatchProcessorTest extends BasePenRegAPITest {
 
   @Autowired
   private PenRequestBatchTestUtils penRequestBatchTestUtils;
+
+  @Autowired
+  private PenRequestBatchFileService penRequestBatchFileService;
   /**
    * The Faker.
    */
@@ -206,6 +213,31 @@ public class PenRegBatchProcessorTest extends BasePenRegAPITest {
     assertThat(entity.getPenRequestBatchStatusCode()).isEqualTo(REPEATS_CHECKED.getCode());
   }
 
+  /**
+   * Test a file loaded by another pod after this pod read the ids of the school, the claim of the school expired while it was processed.
+   *
+   * @throws IOException the io exception
+   */
+  @Test
+  public void testProcessPenRegBatchFileFromTSW_GivenFileLoadedByAnotherPod_ShouldNotCreateAnotherBatch() throws IOException {
+    when(this.restUtils.getSchoolByMincode(anyString())).thenReturn(Optional.of(this.createMockSchool()));
+    final File file = new File(Objects.requireNonNull(this.getClass().getClassLoader().getResource("sample_30_records_OK.txt")).getFile());
+    final byte[] bFile = Files.readAllBytes(file.toPath());
+    final var randomNum = (new Random().nextLong() * (MAX - MIN + 1) + MIN);
+    var tsw = PENWebBlobEntity.builder().penWebBlobId(1L).mincode("66510518").sourceApplication("MYED").tswAccount((randomNum + "").substring(0, 8)).fileName("sample_30_records_OK").fileType("PEN").fileContents(bFile).insertDateTime(LocalDateTime.now()).submissionNumber(("T" + randomNum).substring(0, 8)).build();
+    tsw = this.penRequestBatchTestUtils.savePenWebBlob(tsw);
+    this.penRegBatchProcessor.processPenRegBatchFileFromPenWebBlob(tsw);
+    assertThat(this.repository.findAll()).hasSize(1);
+
+    this.penRegBatchProcessor.processPenRegBatchFileFromPenWebBlob(tsw.getPenWebBlobId());
+    final var penRequestBatchOfOtherPod = new PenRequestBatchEntity();
+    penRequestBatchOfOtherPod.setSubmissionNumber("T0000000");
+    this.penRequestBatchFileService.markInitialLoadComplete(penRequestBatchOfOtherPod, tsw); // tsw is not marked extracted.
+
+    assertThat(tsw.getExtractDateTime()).isNull();
+    assertThat(this.repository.findAll()).hasSize(1);
+  }
+
   /**
    * Test process pen reg batch file from tsw given 30 row valid file should create records in db.
    *
@@ -262,6 +294,7 @@ public class PenRegBatchProcessorTest extends BasePenRegAPITest {
     this.penRegBatchProcessor.processPenRegBatchFileFromPenWebBlob(tsw);
     final var result = this.repository.findAll();
     assertThat(result.size()).isEqualTo(1);
+    assertThat(result.get(0).getFileCharset()).isEqualTo("windows-1252");
   }
 
   /**
@@ -281,6 +314,25 @@ public class PenRegBatchProcessorTest extends BasePenRegAPITest {
     this.penRegBatchProcessor.processPenRegBatchFileFromPenWebBlob(tsw);
     final var result = this.repository.findAll();
     assertThat(result.size()).isEqualTo(1);
+    assertThat(result.get(0).getFileCharset()).isEqualTo("UTF-8");
+  }
+
+  @Test
+  @Transactional
+  public void testProcessPenRegBatchFileFromTSW_Given1000RowFileWithANSICharacterAfterFirstBytes_ShouldReadItAsANSI() throws IOException {
+    when(this.restUtils.getSchoolByMincode(anyString())).thenReturn(Optional.of(this.createMockSchool()));
+    final File file = new File(Objects.requireNonNull(this.getClass().getClassLoader().getResource("sample_1000_records_OK.txt")).getFile());
+    final byte[] bFile = Files.readAllBytes(file.toPath());
+    final int legalSurnameIndex = new String(bFile, StandardCharsets.ISO_8859_1).indexOf("SRM000000000499          Harvey") + 25;
+    bFile[legalSurnameIndex + 1] = (byte) 0xE9; // é in windows-1252, not valid UTF-8.
+    final var randomNum = (new Random().nextLong() * (MAX - MIN + 1) + MIN);
+    var tsw = PENWebBlobEntity.builder().penWebBlobId(1L).mincode("66510518").sourceApplication("MYED").tswAccount((randomNum + "").substring(0, 8)).fileName("sample_1000_records_OK").fileType("PEN").fileContents(bFile).insertDateTime(LocalDateTime.now()).submissionNumber(("T" + randomNum).substring(0, 8)).build();
+    tsw = this.penRequestBatchTestUtils.savePenWebBlob(tsw);
+    this.penRegBatchProcessor.processPenRegBatchFileFromPenWebBlob(tsw);
+    final var result = this.repository.findAll();
+    assertThat(result.size()).isEqualTo(1);
+    assertThat(result.get(0).getFileCharset()).isEqualTo("windows-1252");
+    assertThat(result.get(0).getPenRequestBatchStudentEntities()).extracting(PenRequestBatchStudentEntity::getLegalLastName).contains("HERVEY");
   }
 
   @Test
@@ -583,6 +635,27 @@ public class PenRegBatchProcessorTest extends BasePenRegAPITest {
     assertThat(students.size()).isZero();
   }
 
+  @Test
+  @Transactional
+  public void testProcessPenRegBatchFileFromTSW_GivenPSIFileWithSameContentsAsEarlierFile_ShouldCreateRecordDUPLICATEInDB() throws IOException {
+    when(this.restUtils.getSchoolByMincode(anyString())).thenReturn(Optional.of(this.createMockSchool()));
+    final File file = new File(Objects.requireNonNull(this.getClass().getClassLoader().getResource("sample_5_PSI_OK.txt")).getFile());
+    final byte[] bFile = Files.readAllBytes(file.toPath());
+    for (final String submissionNumber : List.of("T1000001", "T1000002")) {
+      var tsw = PENWebBlobEntity.builder().penWebBlobId(1L).mincode("10210518").sourceApplication("MYED").tswAccount("12345678").fileName("sample_5_PSI_OK").fileType("PEN").fileContents(bFile).insertDateTime(LocalDateTime.now()).submissionNumber(submissionNumber).build();
+      tsw = this.penRequestBatchTestUtils.savePenWebBlob(tsw);
+      this.penRegBatchProcessor.processPenRegBatchFileFromPenWebBlob(tsw);
+    }
+    final var earlierFile = this.repository.findBySubmissionNumber("T1000001");
+    assertThat(earlierFile).hasSize(1);
+    assertThat(earlierFile.get(0).getPenRequestBatchStatusCode()).isEqualTo(REPEATS_CHECKED.getCode());
+    assertThat(earlierFile.get(0).getFileDigest()).hasSize(64);
+    final var duplicateFile = this.repository.findBySubmissionNumber("T1000002");
+    assertThat(duplicateFile).hasSize(1);
+    assertThat(duplicateFile.get(0).getPenRequestBatchStatusCode()).isEqualTo(PenRequestBatchStatusCodes.DUPLICATE.getCode());
+    assertThat(duplicateFile.get(0).getFileDigest()).isEqualTo(earlierFile.get(0).getFileDigest());
+  }
+
   /**
    * Test process pen reg batch file from tsw given min code starts with 102 should create record loaded in db.
    *
@@ -3,9 +3,11 @@ package ca.bc.gov.educ.penreg.api.batch.schedulers;
 import ca.bc.gov.educ.penreg.api.BasePenRegAPITest;
 import ca.bc.gov.educ.penreg.api.constants.SchoolGroupCodes;
 import ca.bc.gov.educ.penreg.api.model.v1.PENWebBlobEntity;
+import ca.bc.gov.educ.penreg.api.model.v1.PenWebBlobClaimEntity;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchHistoryRepository;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchRepository;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchStudentRepository;
+import ca.bc.gov.educ.penreg.api.repository.PenWebBlobClaimRepository;
 import ca.bc.gov.educ.penreg.api.repository.PenWebBlobRepository;
 import ca.bc.gov.educ.penreg.api.rest.RestUtils;
 import ca.bc.gov.educ.penreg.api.struct.School;
@@ -69,6 +71,9 @@ public class PenRegBatchSchedulerTest extends BasePenRegAPITest {
   @Autowired
   private PenWebBlobRepository penWebBlobRepository;
 
+  @Autowired
+  private PenWebBlobClaimRepository penWebBlobClaimRepository;
+
   @Autowired
   private PenRequestBatchTestUtils penRequestBatchTestUtils;
 
@@ -131,6 +136,7 @@ public class PenRegBatchSchedulerTest extends BasePenRegAPITest {
     this.studentRepository.deleteAll();
     this.penRequestBatchHistoryRepository.deleteAll();
     this.penWebBlobRepository.deleteAll();
+    this.penWebBlobClaimRepository.deleteAll();
     this.repository.deleteAll();
   }
 
@@ -147,6 +153,15 @@ public class PenRegBatchSchedulerTest extends BasePenRegAPITest {
     assertThat(this.studentRepository.findAll().size()).isEqualTo(5);
   }
 
+  @Test
+  @Transactional
+  public void testExtractUnProcessedFilesFromTSW_GivenSchoolClaimedByAnotherPod_ShouldNotBeProcessed() {
+    this.penWebBlobClaimRepository.save(PenWebBlobClaimEntity.builder().mincode("66510518").claimedBy("other-pod").claimExpiryDate(LocalDateTime.now().plusMinutes(5)).build());
+    this.penRegBatchScheduler.extractUnProcessedFilesFromPenWebBlobs();
+    assertThat(this.repository.findAll()).isEmpty();
+    assertThat(this.penWebBlobRepository.findAll()).allMatch(penWebBlob -> penWebBlob.getExtractDateTime() == null);
+  }
+
   @Test
   @Transactional
   public void testExtractUnProcessedFilesFromTSW_GivenMultipleRowsInTSWithSameFileButDifferentSubmissionNumber_ShouldBeProcessedAndMarkedAsDuplicate() throws InterruptedException, IOException {
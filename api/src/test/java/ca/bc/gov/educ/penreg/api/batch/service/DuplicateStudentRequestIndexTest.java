@@ -0,0 +1,54 @@
+package ca.bc.gov.educ.penreg.api.batch.service;
+
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DuplicateStudentRequestIndexTest {
+
+  @Test
+  public void testPutIfAbsent_givenRequestsWithSameFields_shouldReturnTheFirstRequest() {
+    final var index = new DuplicateStudentRequestIndex(2);
+    final var request = this.createRequest("SMITH", "JOHN", null);
+    final var duplicateRequest = this.createRequest("SMITH", "JOHN", null);
+    duplicateRequest.setLocalID("another local id");
+
+    assertThat(index.putIfAbsent(request)).isNull();
+    assertThat(index.putIfAbsent(duplicateRequest)).isSameAs(request);
+    assertThat(index.putIfAbsent(this.createRequest("SMITH", "JOHN", null))).isSameAs(request);
+  }
+
+  @Test
+  public void testPutIfAbsent_givenFieldsWhichOnlyMatchOnceConcatenated_shouldNotBeDuplicates() {
+    final var index = new DuplicateStudentRequestIndex(3);
+
+    assertThat(index.putIfAbsent(this.createRequest("SMITH", "JOHN", null))).isNull();
+    assertThat(index.putIfAbsent(this.createRequest("SMIT", "HJOHN", null))).isNull();
+    assertThat(index.putIfAbsent(this.createRequest("SMITH", "JOHN", "null"))).isNull();
+    assertThat(index.putIfAbsent(this.createRequest("SMITH", "JOHN", ""))).isNull();
+  }
+
+  @Test
+  public void testPutIfAbsent_givenManyRequests_shouldFindEveryDuplicate() {
+    final var index = new DuplicateStudentRequestIndex(10);
+    for (int i = 0; i < 20_000; i++) {
+      assertThat(index.putIfAbsent(this.createRequest("SURNAME" + i, "GIVEN", null))).isNull();
+    }
+    for (int i = 0; i < 20_000; i++) {
+      assertThat(index.putIfAbsent(this.createRequest("SURNAME" + i, "GIVEN", null))).isNotNull().extracting(PenRequestBatchStudentEntity::getLegalLastName).isEqualTo("SURNAME" + i);
+    }
+  }
+
+  private PenRequestBatchStudentEntity createRequest(final String legalLastName, final String legalFirstName, final String legalMiddleNames) {
+    final var request = new PenRequestBatchStudentEntity();
+    request.setLegalLastName(legalLastName);
+    request.setLegalFirstName(legalFirstName);
+    request.setLegalMiddleNames(legalMiddleNames);
+    request.setDob("20000101");
+    request.setGenderCode("M");
+    request.setGradeCode("12");
+    request.setPostalCode("V8N1H8");
+    return request;
+  }
+}
@@ -3,6 +3,7 @@ package ca.bc.gov.educ.penreg.api.batch.service;
 import ca.bc.gov.educ.penreg.api.BasePenRegAPITest;
 import ca.bc.gov.educ.penreg.api.batch.exception.FileUnProcessableException;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchRepository;
+import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchStudentRepository;
 import ca.bc.gov.educ.penreg.api.rest.RestUtils;
 import ca.bc.gov.educ.penreg.api.struct.School;
 import ca.bc.gov.educ.penreg.api.support.PenRequestBatchTestUtils;
@@ -34,6 +35,8 @@ public class PenRequestBatchFileServiceTest extends BasePenRegAPITest {
    * The Student repository.
    */
   @Autowired
+  private PenRequestBatchStudentRepository studentRepository;
+  @Autowired
   private PenRequestBatchTestUtils penRequestBatchTestUtils;
   @Autowired
   private PenRequestBatchFileService penRequestBatchFileService;
@@ -105,6 +108,30 @@ public class PenRequestBatchFileServiceTest extends BasePenRegAPITest {
   }
 
 
+  @Test
+  public void testFilterDuplicatesAndRepeatRequests_givenArchivedStudentUpdatedAfterLoad_shouldNotFindItAsRepeat() throws IOException, FileUnProcessableException {
+    when(this.restUtils.getSchoolByMincode(anyString())).thenReturn(Optional.of(this.createMockSchool()));
+    final String submissionNumber = this.penRequestBatchTestUtils.createBatchStudentsFromFile("sample_5000_records_OK" +
+      ".txt", ARCHIVED.getCode());
+    final String submissionNumber2 = this.penRequestBatchTestUtils.createBatchStudentsFromFile("sample_5000_records_OK" +
+      ".txt", LOADED.getCode());
+    val previousBatch = this.repository.findBySubmissionNumber(submissionNumber);
+    assertThat(previousBatch).isNotEmpty();
+    val prvbatchEntity = previousBatch.get(0);
+    prvbatchEntity.setPenRequestBatchStatusCode(ARCHIVED.getCode());
+    prvbatchEntity.setProcessDate(LocalDateTime.now().minusDays(2));
+    this.penRequestBatchTestUtils.updateBatchInNewTransaction(prvbatchEntity);
+    val updatedStudent = this.studentRepository.findAllByPenRequestBatchEntity(prvbatchEntity).get(0);
+    updatedStudent.setLegalFirstName(updatedStudent.getLegalFirstName() + "X");
+    this.studentRepository.save(updatedStudent); // the fingerprint follows the changed field.
+    final var result = this.repository.findBySubmissionNumber(submissionNumber2);
+    assertThat(result).isNotEmpty();
+    val filteredSet = this.penRequestBatchFileService.filterDuplicatesAndRepeatRequests(UUID.randomUUID().toString(),
+      result.get(0));
+    assertThat(filteredSet).hasSize(1);
+    assertThat(filteredSet.iterator().next().getRecordNumber()).isEqualTo(updatedStudent.getRecordNumber());
+  }
+
   private School createMockSchool() {
     final School school = new School();
     school.setDisplayNameNoSpecialChars("Marco's school");
@@ -0,0 +1,55 @@
+package ca.bc.gov.educ.penreg.api.batch.service;
+
+import ca.bc.gov.educ.penreg.api.BasePenRegAPITest;
+import ca.bc.gov.educ.penreg.api.model.v1.PenWebBlobClaimEntity;
+import ca.bc.gov.educ.penreg.api.repository.PenWebBlobClaimRepository;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PenWebBlobClaimServiceTest extends BasePenRegAPITest {
+  private static final String MINCODE = "10200001";
+  private static final String OTHER_POD = "other-pod";
+
+  @Autowired
+  private PenWebBlobClaimService penWebBlobClaimService;
+
+  @Autowired
+  private PenWebBlobClaimRepository penWebBlobClaimRepository;
+
+  @Test
+  public void testClaim_givenUnclaimedMincode_shouldClaimItOnlyOnce() {
+    assertThat(this.penWebBlobClaimService.claim(MINCODE)).isTrue();
+    assertThat(this.penWebBlobClaimService.claim(MINCODE)).isFalse();
+    assertThat(this.penWebBlobClaimRepository.findById(MINCODE)).get().extracting(PenWebBlobClaimEntity::getClaimedBy).isEqualTo(this.penWebBlobClaimService.getClaimedBy());
+
+    this.penWebBlobClaimService.releaseClaim(MINCODE);
+    assertThat(this.penWebBlobClaimRepository.findById(MINCODE)).isEmpty();
+    assertThat(this.penWebBlobClaimService.claim(MINCODE)).isTrue();
+    this.penWebBlobClaimService.releaseClaim(MINCODE);
+  }
+
+  @Test
+  public void testClaim_givenMincodeClaimedByAnotherPod_shouldNotClaimItUntilTheClaimExpires() {
+    this.penWebBlobClaimRepository.save(PenWebBlobClaimEntity.builder().mincode(MINCODE).claimedBy(OTHER_POD).claimExpiryDate(LocalDateTime.now().plusMinutes(5)).build());
+    assertThat(this.penWebBlobClaimService.claim(MINCODE)).isFalse();
+
+    this.penWebBlobClaimRepository.save(PenWebBlobClaimEntity.builder().mincode(MINCODE).claimedBy(OTHER_POD).claimExpiryDate(LocalDateTime.now().minusMinutes(1)).build());
+    assertThat(this.penWebBlobClaimService.claim(MINCODE)).isTrue();
+    assertThat(this.penWebBlobClaimRepository.findById(MINCODE)).get().extracting(PenWebBlobClaimEntity::getClaimedBy).isEqualTo(this.penWebBlobClaimService.getClaimedBy());
+    this.penWebBlobClaimService.releaseClaim(MINCODE);
+  }
+
+  @Test
+  public void testRenewClaim_givenClaimTakenOverByAnotherPod_shouldReturnFalse() {
+    assertThat(this.penWebBlobClaimService.claim(MINCODE)).isTrue();
+    assertThat(this.penWebBlobClaimService.renewClaim(MINCODE)).isTrue();
+
+    this.penWebBlobClaimRepository.save(PenWebBlobClaimEntity.builder().mincode(MINCODE).claimedBy(OTHER_POD).claimExpiryDate(LocalDateTime.now().plusMinutes(5)).build());
+    assertThat(this.penWebBlobClaimService.renewClaim(MINCODE)).isFalse();
+    this.penWebBlobClaimService.abandonClaim(MINCODE);
+  }
+}
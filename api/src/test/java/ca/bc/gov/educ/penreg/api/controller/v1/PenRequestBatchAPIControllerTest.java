@@ -43,6 +43,7 @@ import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static ca.bc.gov.educ.penreg.api.constants.SagaEnum.PEN_REQUEST_BATCH_USER_MATCH_PROCESSING_SAGA;
@@ -920,11 +921,11 @@ public class PenRequestBatchAPIControllerTest extends BasePenRegAPITest {
 
   @Test
   public void testPostPenRequest_GivenValidStudentData_ShouldReturnMatchedStudentPen() throws Exception {
-    Mockito.when(this.restUtils.requestEventResponseFromServicesAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING).build()));
+    Mockito.when(this.restUtils.requestEventResponseFromServicesAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(Event.builder().eventOutcome(EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING).build()));
     val matchList = new ArrayList<PenMatchRecord>(1);
     matchList.add(PenMatchRecord.builder().matchingPEN("123456789").studentID("studentID").build());
     final PenMatchResult penMatchResult = PenMatchResult.builder().penStatus("D1").matchingRecords(matchList).build();
-    Mockito.when(this.restUtils.requestEventResponseFromMatchAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build()));
+    Mockito.when(this.restUtils.requestEventResponseFromMatchAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(Event.builder().eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build()));
     Mockito.when(this.restUtils.getStudentByPEN("123456789")).thenReturn(Optional.of(Student.builder().studentID("studentID").pen("123456789").build()));
     this.mockMvc
       .perform(post("/api/v1/pen-request-batch/pen-request")
@@ -949,11 +950,11 @@ public class PenRequestBatchAPIControllerTest extends BasePenRegAPITest {
 
   @Test
   public void testPostPenRequest_GivenValidStudentDataPenMatchReturnsMultipleMatch_ShouldReturn300() throws Exception {
-    Mockito.when(this.restUtils.requestEventResponseFromServicesAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING).build()));
+    Mockito.when(this.restUtils.requestEventResponseFromServicesAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(Event.builder().eventOutcome(EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING).build()));
     val matchList = new ArrayList<PenMatchRecord>(1);
     matchList.add(PenMatchRecord.builder().matchingPEN("123456789").studentID("studentID").build());
     final PenMatchResult penMatchResult = PenMatchResult.builder().penStatus("BM").matchingRecords(matchList).build();
-    Mockito.when(this.restUtils.requestEventResponseFromMatchAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build()));
+    Mockito.when(this.restUtils.requestEventResponseFromMatchAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(Event.builder().eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build()));
     this.mockMvc
       .perform(post("/api/v1/pen-request-batch/pen-request")
         .with(jwt().jwt((jwt) -> jwt.claim("scope", "WRITE_PEN_REQUEST_BATCH")))
@@ -977,11 +978,11 @@ public class PenRequestBatchAPIControllerTest extends BasePenRegAPITest {
 
   @Test
   public void testPostPenRequest_GivenValidStudentDataPenMatchReturnsNoMatch_ShouldReturn201() throws Exception {
-    Mockito.when(this.restUtils.requestEventResponseFromServicesAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING).build()));
+    Mockito.when(this.restUtils.requestEventResponseFromServicesAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(Event.builder().eventOutcome(EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING).build()));
     val matchList = new ArrayList<PenMatchRecord>(1);
     matchList.add(PenMatchRecord.builder().matchingPEN("123456789").studentID("studentID").build());
     final PenMatchResult penMatchResult = PenMatchResult.builder().penStatus("D0").matchingRecords(matchList).build();
-    Mockito.when(this.restUtils.requestEventResponseFromMatchAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build()));
+    Mockito.when(this.restUtils.requestEventResponseFromMatchAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(Event.builder().eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build()));
     Mockito.when(this.restUtils.getNextPenNumberFromPenServiceAPI(ArgumentMatchers.any())).thenReturn("123456788");
     Mockito.when(this.restUtils.getStudentByPEN(ArgumentMatchers.any())).thenReturn(Optional.of(Student.builder().studentID("studentID").pen("123456788").build()));
     Mockito.when(this.restUtils.requestEventResponseFromStudentAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.STUDENT_CREATED).build()));
@@ -1008,7 +1009,8 @@ public class PenRequestBatchAPIControllerTest extends BasePenRegAPITest {
 
   @Test
   public void testPostPenRequest_GivenStudentDataWithValidationErrors_ShouldReturnValidationIssues() throws Exception {
-    Mockito.when(this.restUtils.requestEventResponseFromServicesAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.VALIDATION_SUCCESS_WITH_ERROR).eventPayload(" [\n" +
+    Mockito.clearInvocations(this.restUtils);
+    Mockito.when(this.restUtils.requestEventResponseFromServicesAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(Event.builder().eventOutcome(EventOutcome.VALIDATION_SUCCESS_WITH_ERROR).eventPayload(" [\n" +
       "    {\n" +
       "      \"penRequestBatchStudentValidationIssueId\": null,\n" +
       "      \"penRequestBatchValidationIssueSeverityCode\": \"ERROR\",\n" +
@@ -1025,7 +1027,7 @@ public class PenRequestBatchAPIControllerTest extends BasePenRegAPITest {
     val matchList = new ArrayList<PenMatchRecord>(1);
     matchList.add(PenMatchRecord.builder().matchingPEN("123456789").studentID("studentID").build());
     final PenMatchResult penMatchResult = PenMatchResult.builder().penStatus("D1").matchingRecords(matchList).build();
-    Mockito.when(this.restUtils.requestEventResponseFromMatchAPI(ArgumentMatchers.any())).thenReturn(Optional.of(Event.builder().eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build()));
+    Mockito.when(this.restUtils.requestEventResponseFromMatchAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(Event.builder().eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build()));
     this.mockMvc
       .perform(post("/api/v1/pen-request-batch/pen-request")
         .with(jwt().jwt((jwt) -> jwt.claim("scope", "WRITE_PEN_REQUEST_BATCH")))
@@ -1046,6 +1048,7 @@ public class PenRequestBatchAPIControllerTest extends BasePenRegAPITest {
       .andExpect(status().isOk())
       .andExpect(jsonPath("$.validationIssues", hasSize(greaterThan(0))))
       .andExpect(jsonPath("$.pen", is(emptyOrNullString())));
+    Mockito.verify(this.restUtils, Mockito.never()).requestEventResponseFromMatchAPIAsync(ArgumentMatchers.any(), ArgumentMatchers.any());
   }
 
   @Test
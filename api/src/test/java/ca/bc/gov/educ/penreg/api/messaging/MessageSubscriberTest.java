@@ -0,0 +1,192 @@
+package ca.bc.gov.educ.penreg.api.messaging;
+
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.orchestrator.base.EventHandler;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.struct.Event;
+import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.nats.client.Connection;
+import io.nats.client.Dispatcher;
+import io.nats.client.JetStreamApiException;
+import io.nats.client.JetStreamManagement;
+import io.nats.client.JetStreamSubscription;
+import io.nats.client.Message;
+import io.nats.client.MessageHandler;
+import io.nats.client.api.RetentionPolicy;
+import io.nats.client.api.StorageType;
+import io.nats.client.api.StreamConfiguration;
+import io.nats.client.api.StreamInfo;
+import io.nats.client.impl.NatsJetStreamMetaData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MessageSubscriberTest {
+
+  private final EventHandler eventHandler = mock(EventHandler.class);
+
+  private SubscriberDispatchStage dispatchStage;
+
+  private final Connection connection = mock(Connection.class);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private MessageSubscriber messageSubscriber;
+
+  @Before
+  public void before() throws Exception {
+    final var applicationProperties = new ApplicationProperties();
+    applicationProperties.setSubscriberQueueDepth(10);
+    applicationProperties.setSubscriberPendingLimitMessages(100L);
+    applicationProperties.setSubscriberPendingLimitBytes(1000L);
+    applicationProperties.setJetStreamEnabled(false);
+    applicationProperties.setJetStreamStreamName("TEST_STREAM");
+    this.messageSubscriber = new MessageSubscriber(this.connection, List.of(), Runnable::run, applicationProperties, this.meterRegistry);
+    this.dispatchStage = new SubscriberDispatchStage("TEST_DISPATCH_TOPIC", 10, Runnable::run, this.meterRegistry);
+  }
+
+  @Test
+  public void testOnJetStreamMessage_givenEventHandled_shouldAckTheMessage() throws Exception {
+    final var event = this.createEvent();
+    final var message = this.createMessage(JsonUtil.getJsonStringFromObject(event).getBytes());
+
+    this.messageSubscriber.onJetStreamMessage(this.eventHandler, this.dispatchStage).onMessage(message);
+
+    verify(this.eventHandler).handleEvent(event);
+    verify(message).ack();
+    assertThat(this.dispatchStage.getDepth()).isZero();
+  }
+
+  @Test
+  public void testOnJetStreamMessage_givenHandlerFails_shouldLeaveTheMessageToBeRedelivered() throws Exception {
+    doThrow(new IllegalStateException("test")).when(this.eventHandler).handleEvent(any(Event.class));
+    final var message = this.createMessage(JsonUtil.getJsonStringFromObject(this.createEvent()).getBytes());
+
+    this.messageSubscriber.onJetStreamMessage(this.eventHandler, this.dispatchStage).onMessage(message);
+
+    verify(message, never()).ack();
+    verify(message, never()).term();
+    assertThat(this.dispatchStage.getDepth()).isZero();
+  }
+
+  @Test
+  public void testOnJetStreamMessage_givenMessageIsNotAnEvent_shouldTerminateIt() throws Exception {
+    final var message = this.createMessage("not an event".getBytes());
+
+    this.messageSubscriber.onJetStreamMessage(this.eventHandler, this.dispatchStage).onMessage(message);
+
+    verify(message).term();
+    verify(this.eventHandler, never()).handleEvent(any(Event.class));
+  }
+
+  @Test
+  public void testFetchAndHandle_givenPendingMessages_shouldHandleTheFetchedBatch() throws Exception {
+    final var subscription = mock(JetStreamSubscription.class);
+    final var messages = List.of(this.createMessage(new byte[0]), this.createMessage(new byte[0]));
+    when(subscription.fetch(eq(2), any(Duration.class))).thenReturn(messages);
+    final var messageHandler = mock(MessageHandler.class);
+    final var pullConsumer = new JetStreamPullConsumer("TEST_TOPIC", () -> subscription, messageHandler, 2);
+
+    assertThat(pullConsumer.fetchAndHandle()).isEqualTo(2);
+
+    verify(messageHandler).onMessage(messages.get(0));
+    verify(messageHandler).onMessage(messages.get(1));
+    pullConsumer.close();
+  }
+
+  @Test
+  public void testPull_givenSubscriptionNotActive_shouldSubscribeAgainAndKeepPulling() throws Exception {
+    final var inactiveSubscription = mock(JetStreamSubscription.class);
+    when(inactiveSubscription.fetch(eq(2), any(Duration.class))).thenThrow(new IllegalStateException("Consumer is inactive"));
+    final var subscription = mock(JetStreamSubscription.class);
+    final var message = this.createMessage(new byte[0]);
+    when(subscription.fetch(eq(2), any(Duration.class))).thenReturn(List.of(message), List.of());
+    final var pullSubscriber = mock(JetStreamPullConsumer.PullSubscriber.class);
+    when(pullSubscriber.subscribe()).thenReturn(inactiveSubscription, subscription);
+    final var messageHandler = mock(MessageHandler.class);
+    final var pullConsumer = new JetStreamPullConsumer("TEST_TOPIC", pullSubscriber, messageHandler, 2);
+
+    pullConsumer.start();
+
+    verify(messageHandler, timeout(5000)).onMessage(message);
+    verify(pullSubscriber, times(2)).subscribe();
+    pullConsumer.close();
+  }
+
+  @Test
+  public void testSubscribe_givenCoreNats_shouldBoundThePendingMessagesOfTheDispatcher() {
+    final var dispatcher = mock(Dispatcher.class);
+    when(this.connection.createDispatcher(any())).thenReturn(dispatcher);
+
+    this.messageSubscriber.subscribe("TEST_TOPIC", this.eventHandler);
+
+    verify(dispatcher).setPendingLimits(100L, 1000L);
+    verify(dispatcher).subscribe("TEST_TOPIC", "TEST-TOPIC");
+  }
+
+  @Test
+  public void testNatsErrorListener_givenSlowConsumer_shouldCountItAndTheDroppedMessages() {
+    final var errorListener = new NatsErrorListener(this.meterRegistry);
+    final var message = this.createMessage(new byte[0]);
+
+    errorListener.slowConsumerDetected(this.connection, mock(Dispatcher.class));
+    errorListener.messageDiscarded(this.connection, message);
+    errorListener.messageDiscarded(this.connection, message);
+
+    assertThat(this.meterRegistry.counter("penreg.nats.slow.consumers").count()).isEqualTo(1);
+    assertThat(this.meterRegistry.counter("penreg.nats.messages.discarded").count()).isEqualTo(2);
+  }
+
+  @Test
+  public void testCreateStreamIfMissing_givenNoStream_shouldCreateIt() throws Exception {
+    final var jetStreamManagement = mock(JetStreamManagement.class);
+    when(this.connection.jetStreamManagement()).thenReturn(jetStreamManagement);
+    final var streamNotFound = mock(JetStreamApiException.class);
+    when(streamNotFound.getErrorCode()).thenReturn(10059L);
+    when(jetStreamManagement.getStreamInfo("TEST_STREAM")).thenThrow(streamNotFound);
+
+    this.messageSubscriber.createStreamIfMissing(List.of("TEST_TOPIC"));
+
+    verify(jetStreamManagement).addStream(argThat(streamConfiguration -> streamConfiguration.getName().equals("TEST_STREAM")
+      && streamConfiguration.getSubjects().equals(List.of("TEST_TOPIC")) && streamConfiguration.getRetentionPolicy() == RetentionPolicy.WorkQueue));
+  }
+
+  @Test
+  public void testCreateStreamIfMissing_givenStreamManagedByOps_shouldLeaveItAsItIs() throws Exception {
+    final var jetStreamManagement = mock(JetStreamManagement.class);
+    when(this.connection.jetStreamManagement()).thenReturn(jetStreamManagement);
+    final var streamInfo = mock(StreamInfo.class);
+    when(streamInfo.getConfiguration()).thenReturn(StreamConfiguration.builder().name("TEST_STREAM").subjects("OTHER_TOPIC")
+      .retentionPolicy(RetentionPolicy.Limits).storageType(StorageType.Memory).build());
+    when(jetStreamManagement.getStreamInfo("TEST_STREAM")).thenReturn(streamInfo);
+
+    this.messageSubscriber.createStreamIfMissing(List.of("TEST_TOPIC"));
+
+    verify(jetStreamManagement, never()).addStream(any());
+    verify(jetStreamManagement, never()).updateStream(any());
+  }
+
+  private Event createEvent() {
+    return Event.builder().sagaId(UUID.randomUUID()).eventType(EventType.INITIATED).eventPayload("{}").build();
+  }
+
+  private Message createMessage(final byte[] data) {
+    final var message = mock(Message.class);
+    final var metaData = mock(NatsJetStreamMetaData.class);
+    when(message.getSubject()).thenReturn("TEST_TOPIC");
+    when(message.getData()).thenReturn(data);
+    when(message.metaData()).thenReturn(metaData);
+    when(metaData.deliveredCount()).thenReturn(1L);
+    return message;
+  }
+}
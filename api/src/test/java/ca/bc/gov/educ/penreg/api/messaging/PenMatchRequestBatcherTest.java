@@ -0,0 +1,117 @@
+package ca.bc.gov.educ.penreg.api.messaging;
+
+import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.struct.Event;
+import ca.bc.gov.educ.penreg.api.struct.PenMatchResult;
+import ca.bc.gov.educ.penreg.api.support.PenMatchBatchStubResponder;
+import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.PEN_MATCH_API_TOPIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PenMatchRequestBatcherTest {
+
+  private final MessagePublisher messagePublisher = mock(MessagePublisher.class);
+
+  private final PenMatchBatchStubResponder stubResponder = new PenMatchBatchStubResponder(20);
+
+  private PenMatchRequestBatcher penMatchRequestBatcher;
+
+  @Before
+  public void before() {
+    when(this.messagePublisher.requestMessage(eq(PEN_MATCH_API_TOPIC.toString()), any())).thenAnswer(this.stubResponder);
+    final var applicationProperties = new ApplicationProperties();
+    applicationProperties.setPenMatchBatchEnabled(true);
+    applicationProperties.setPenMatchBatchMaxSize(10);
+    applicationProperties.setPenMatchBatchLingerMillis(50);
+    this.penMatchRequestBatcher = new PenMatchRequestBatcher(this.messagePublisher, applicationProperties);
+  }
+
+  @After
+  public void after() throws InterruptedException {
+    this.penMatchRequestBatcher.close();
+  }
+
+  @Test
+  public void testRequest_givenConcurrentSagas_shouldSendThemInBatchesAndReplyToEach() throws Exception {
+    final ExecutorService sagas = Executors.newFixedThreadPool(8);
+    final List<UUID> sagaIDs = new ArrayList<>();
+    final List<CompletableFuture<Event>> replies = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      final var sagaID = UUID.randomUUID();
+      sagaIDs.add(sagaID);
+      replies.add(CompletableFuture.supplyAsync(() -> this.penMatchRequestBatcher.request(this.createPenMatchEvent(sagaID)), sagas).thenCompose(reply -> reply));
+    }
+    CompletableFuture.allOf(replies.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+    sagas.shutdown();
+
+    for (int i = 0; i < sagaIDs.size(); i++) {
+      final var reply = replies.get(i).get();
+      assertThat(reply.getSagaId()).isEqualTo(sagaIDs.get(i));
+      assertThat(reply.getEventOutcome()).isEqualTo(EventOutcome.PEN_MATCH_PROCESSED);
+      final var penMatchResult = JsonUtil.getJsonObjectFromString(PenMatchResult.class, reply.getEventPayload());
+      assertThat(penMatchResult.getMatchingRecords().get(0).getMatchingPEN()).isEqualTo(PenMatchBatchStubResponder.matchingPEN(sagaIDs.get(i)));
+    }
+    assertThat(this.stubResponder.getBatchSizes()).allMatch(batchSize -> batchSize <= 10);
+    assertThat(this.stubResponder.getBatchSizes().stream().mapToInt(Integer::intValue).sum()).isEqualTo(25);
+    assertThat(this.penMatchRequestBatcher.getBatches()).isLessThan(25);
+  }
+
+  @Test
+  public void testRequest_givenReplyWithoutTheStudent_shouldFailOnlyThatRequest() throws Exception {
+    final var droppedSagaID = UUID.randomUUID();
+    this.stubResponder.drop(droppedSagaID);
+
+    final var dropped = this.penMatchRequestBatcher.request(this.createPenMatchEvent(droppedSagaID));
+    final var matched = this.penMatchRequestBatcher.request(this.createPenMatchEvent(UUID.randomUUID()));
+
+    assertThat(matched.get(5, TimeUnit.SECONDS).getEventOutcome()).isEqualTo(EventOutcome.PEN_MATCH_PROCESSED);
+    assertThatThrownBy(() -> dropped.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasMessageContaining(droppedSagaID.toString());
+    assertThat(this.stubResponder.getBatchSizes()).containsExactly(2);
+  }
+
+  @Test
+  public void testRequest_givenBatchingNotEnabled_shouldNotStartTheSenderAndFailTheRequest() throws Exception {
+    final long senders = this.countSenderThreads();
+    final var applicationProperties = new ApplicationProperties();
+    applicationProperties.setPenMatchBatchEnabled(false);
+    applicationProperties.setPenMatchBatchMaxSize(10);
+    applicationProperties.setPenMatchBatchLingerMillis(50);
+    final var disabledBatcher = new PenMatchRequestBatcher(this.messagePublisher, applicationProperties);
+
+    assertThat(this.countSenderThreads()).isEqualTo(senders);
+    assertThatThrownBy(() -> disabledBatcher.request(this.createPenMatchEvent(UUID.randomUUID())).get(5, TimeUnit.SECONDS))
+      .isInstanceOf(ExecutionException.class).hasMessageContaining("not running");
+    verify(this.messagePublisher, never()).requestMessage(any(), any());
+    disabledBatcher.close();
+  }
+
+  private long countSenderThreads() {
+    return Thread.getAllStackTraces().keySet().stream().filter(thread -> thread.getName().startsWith("pen-match-batcher")).count();
+  }
+
+  private Event createPenMatchEvent(final UUID sagaID) {
+    return Event.builder().sagaId(sagaID).eventType(EventType.PROCESS_PEN_MATCH).replyTo("PEN_REQUEST_BATCH_STUDENT_PROCESSING_TOPIC").eventPayload("{}").build();
+  }
+}
@@ -0,0 +1,72 @@
+package ca.bc.gov.educ.penreg.api.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubscriberDispatchStageTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @After
+  public void after() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  public void testDispatch_givenFullStage_shouldWaitForAFreeSlot() throws InterruptedException {
+    final var stage = new SubscriberDispatchStage("TEST_TOPIC", 2, this.executor, this.meterRegistry);
+    final var release = new CountDownLatch(1);
+    final Runnable blockedHandler = () -> {
+      try {
+        release.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+    stage.dispatch(blockedHandler);
+    stage.dispatch(blockedHandler);
+    assertThat(stage.getDepth()).isEqualTo(2);
+    assertThat(this.meterRegistry.get("penreg.subscriber.queue.depth").tag("topic", "TEST_TOPIC").gauge().value()).isEqualTo(2);
+
+    final var handled = new CountDownLatch(1);
+    final var dispatcher = new Thread(() -> {
+      try {
+        stage.dispatch(handled::countDown);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    dispatcher.start();
+    assertThat(handled.await(200, TimeUnit.MILLISECONDS)).isFalse();
+    assertThat(dispatcher.isAlive()).isTrue();
+
+    release.countDown();
+    assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+    dispatcher.join(5000);
+    assertThat(this.meterRegistry.get("penreg.subscriber.dispatcher.wait").tag("topic", "TEST_TOPIC").timer().count()).isEqualTo(3);
+    assertThat(this.meterRegistry.get("penreg.subscriber.dispatcher.wait").tag("topic", "TEST_TOPIC").timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(100);
+  }
+
+  @Test
+  public void testDispatch_givenHandlerThrows_shouldFreeTheSlot() throws InterruptedException {
+    final var stage = new SubscriberDispatchStage("TEST_TOPIC", 1, this.executor, this.meterRegistry);
+    stage.dispatch(() -> {
+      throw new IllegalStateException("test");
+    });
+    final var handled = new CountDownLatch(1);
+    stage.dispatch(handled::countDown);
+
+    assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(this.meterRegistry.get("penreg.subscriber.queue.wait").tag("topic", "TEST_TOPIC").timer().count()).isEqualTo(2);
+  }
+}
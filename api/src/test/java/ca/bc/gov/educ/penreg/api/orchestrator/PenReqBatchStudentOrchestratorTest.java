@@ -8,15 +8,20 @@ import ca.bc.gov.educ.penreg.api.messaging.MessagePublisher;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchRepository;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchStudentRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaEventRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
 import ca.bc.gov.educ.penreg.api.rest.RestUtils;
+import ca.bc.gov.educ.penreg.api.service.SagaPayloadService;
 import ca.bc.gov.educ.penreg.api.service.SagaService;
 import ca.bc.gov.educ.penreg.api.struct.*;
 import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import ca.bc.gov.educ.penreg.api.util.LobCompressionUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.val;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,15 +29,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static ca.bc.gov.educ.penreg.api.constants.EventType.PROCESS_PEN_MATCH;
 import static ca.bc.gov.educ.penreg.api.constants.EventType.VALIDATE_STUDENT_DEMOGRAPHICS;
@@ -41,10 +51,12 @@ import static ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStudentStatusCo
 import static ca.bc.gov.educ.penreg.api.constants.SagaEnum.PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA;
 import static ca.bc.gov.educ.penreg.api.constants.SagaStatusEnum.COMPLETED;
 import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.PEN_MATCH_API_TOPIC;
+import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.PEN_REQUEST_BATCH_STUDENT_PROCESSING_TOPIC;
 import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.PEN_SERVICES_API_TOPIC;
 import static ca.bc.gov.educ.penreg.api.constants.StudentHistoryActivityCode.REQ_MATCH;
 import static ca.bc.gov.educ.penreg.api.constants.StudentHistoryActivityCode.REQ_NEW;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -110,6 +122,15 @@ public class PenReqBatchStudentOrchestratorTest extends BaseOrchestratorTest {
   @Autowired
   RestTemplate restTemplate;
 
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ApplicationProperties applicationProperties;
+
+  @Autowired
+  private SagaPayloadService sagaPayloadService;
+
   @Before
   public void setUp() throws Exception {
     MockitoAnnotations.openMocks(this);
@@ -231,6 +252,92 @@ public class PenReqBatchStudentOrchestratorTest extends BaseOrchestratorTest {
     assertThat(sagaStates.get(0).getSagaEventOutcome()).isEqualTo(EventOutcome.VALIDATION_SUCCESS_WITH_ONLY_WARNING.toString());
   }
 
+  @Test
+  public void testReplaySaga_givenSagaWithTwoSteps_shouldNumberTheStepsAndExecuteTheEventAfterTheLastStep() throws InterruptedException, TimeoutException, IOException {
+    this.orchestrator.handleEvent(Event.builder()
+        .eventType(EventType.INITIATED)
+        .eventOutcome(EventOutcome.INITIATE_SUCCESS)
+        .sagaId(this.saga.getSagaId())
+        .build());
+    this.orchestrator.handleEvent(Event.builder()
+        .eventType(VALIDATE_STUDENT_DEMOGRAPHICS)
+        .eventOutcome(EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING)
+        .sagaId(this.saga.getSagaId())
+        .build());
+    final var sagaStates = this.sagaService.findAllSagaStates(this.saga);
+    assertThat(sagaStates).extracting(SagaEvent::getSagaEventState, SagaEvent::getSagaStepNumber)
+        .containsExactlyInAnyOrder(tuple(EventType.INITIATED.toString(), 1), tuple(VALIDATE_STUDENT_DEMOGRAPHICS.toString(), 2));
+    assertThat(this.sagaService.findNextSagaStepNumber(this.saga)).isEqualTo(3);
+    final var sagaFromDB = this.sagaService.findSagaById(this.saga.getSagaId()).orElseThrow();
+    assertThat(sagaFromDB.getLastSagaEventID()).isEqualTo(sagaStates.stream().filter(sagaEvent -> sagaEvent.getSagaStepNumber() == 2).findFirst().orElseThrow().getSagaEventId());
+    assertThat(sagaFromDB.getLastSagaEventState()).isEqualTo(VALIDATE_STUDENT_DEMOGRAPHICS.toString());
+    assertThat(sagaFromDB.getLastSagaEventOutcome()).isEqualTo(EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING.toString());
+    assertThat(this.sagaService.findNextSagaStepNumber(sagaFromDB)).isEqualTo(3);
+
+    clearInvocations(this.messagePublisher);
+    this.orchestrator.replaySaga(sagaFromDB);
+    verify(this.messagePublisher, times(1)).dispatchMessage(eq(PEN_MATCH_API_TOPIC.toString()), this.eventCaptor.capture());
+    final var newEvent = JsonUtil.getJsonObjectFromString(Event.class, new String(this.eventCaptor.getValue()));
+    assertThat(newEvent.getEventType()).isEqualTo(PROCESS_PEN_MATCH);
+    assertThat(newEvent.getSagaId()).isEqualTo(this.saga.getSagaId());
+    assertThat(newEvent.getReplyTo()).isEqualTo(PEN_REQUEST_BATCH_STUDENT_PROCESSING_TOPIC.toString());
+    assertThat(this.sagaService.findAllSagaStates(this.saga)).hasSize(2);
+  }
+
+  @Test
+  public void testHandleEvent_givenSagaPayloadStoredBeforeTheCompression_shouldReadThePlainPayload() throws InterruptedException, TimeoutException, IOException {
+    final String payload = JsonUtil.getJsonStringFromObject(this.sagaData);
+    final byte[] storedPayload = this.jdbcTemplate.queryForObject("SELECT PAYLOAD FROM PEN_REQUEST_BATCH_SAGA WHERE SAGA_ID = ?", byte[].class, this.sagaIdBytes());
+    assertThat(LobCompressionUtil.isCompressed(storedPayload)).isTrue();
+    assertThat(storedPayload.length).isLessThan(payload.getBytes(StandardCharsets.UTF_8).length);
+
+    this.jdbcTemplate.update("UPDATE PEN_REQUEST_BATCH_SAGA SET PAYLOAD = ? WHERE SAGA_ID = ?", payload.getBytes(StandardCharsets.UTF_8), this.sagaIdBytes());
+    assertThat(this.sagaService.findSagaById(this.saga.getSagaId()).orElseThrow().getPayload()).isEqualTo(payload);
+    this.orchestrator.handleEvent(Event.builder()
+        .eventType(EventType.INITIATED)
+        .eventOutcome(EventOutcome.INITIATE_SUCCESS)
+        .sagaId(this.saga.getSagaId())
+        .build());
+    assertThat(this.sagaService.findSagaById(this.saga.getSagaId()).orElseThrow().getSagaState()).isEqualTo(VALIDATE_STUDENT_DEMOGRAPHICS.toString());
+  }
+
+  @Test
+  public void testHandleEvent_givenCompressionOff_shouldWritePlainJsonAndReadTheCompressedRows() throws InterruptedException, TimeoutException, IOException {
+    final byte[] compressedPayload = this.jdbcTemplate.queryForObject("SELECT PAYLOAD FROM PEN_REQUEST_BATCH_SAGA WHERE SAGA_ID = ?", byte[].class, this.sagaIdBytes());
+    assertThat(LobCompressionUtil.isCompressed(compressedPayload)).isTrue(); // written while the compression was on.
+    this.applicationProperties.setLobCompressionEnabled(false);
+    try {
+      this.orchestrator.handleEvent(Event.builder()
+          .eventType(EventType.INITIATED)
+          .eventOutcome(EventOutcome.INITIATE_SUCCESS)
+          .sagaId(this.saga.getSagaId())
+          .build());
+      final byte[] storedPayload = this.jdbcTemplate.queryForObject("SELECT PAYLOAD FROM PEN_REQUEST_BATCH_SAGA WHERE SAGA_ID = ?", byte[].class, this.sagaIdBytes());
+      assertThat(LobCompressionUtil.isCompressed(storedPayload)).isFalse();
+      final var sagaFromDB = this.sagaService.findSagaById(this.saga.getSagaId()).orElseThrow();
+      assertThat(sagaFromDB.getSagaState()).isEqualTo(VALIDATE_STUDENT_DEMOGRAPHICS.toString());
+      assertThat(new String(storedPayload, StandardCharsets.UTF_8)).isEqualTo(sagaFromDB.getPayload());
+
+      final var newSaga = this.sagaService.createSagaRecordInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), "Test", sagaFromDB.getPayload(), null, null);
+      final byte[] newSagaPayload = this.jdbcTemplate.queryForObject("SELECT PAYLOAD FROM PEN_REQUEST_BATCH_SAGA WHERE SAGA_ID = ?", byte[].class,
+          ByteBuffer.allocate(16).putLong(newSaga.getSagaId().getMostSignificantBits()).putLong(newSaga.getSagaId().getLeastSignificantBits()).array());
+      assertThat(new String(newSagaPayload, StandardCharsets.UTF_8)).isEqualTo(sagaFromDB.getPayload());
+
+      final List<String> section = IntStream.range(0, 100).mapToObj(i -> "student " + i).collect(Collectors.toList());
+      final String payloadDigest = this.sagaPayloadService.storeIfLarge(section).orElseThrow();
+      final byte[] storedSection = this.jdbcTemplate.queryForObject("SELECT PAYLOAD FROM PEN_REQUEST_BATCH_SAGA_PAYLOAD WHERE PAYLOAD_DIGEST = ?", byte[].class, payloadDigest);
+      assertThat(LobCompressionUtil.isCompressed(storedSection)).isFalse();
+      assertThat(this.sagaPayloadService.load(payloadDigest, new TypeReference<List<String>>() {
+      })).isEqualTo(section);
+    } finally {
+      this.applicationProperties.setLobCompressionEnabled(true);
+    }
+  }
+
+  private byte[] sagaIdBytes() {
+    return ByteBuffer.allocate(16).putLong(this.saga.getSagaId().getMostSignificantBits()).putLong(this.saga.getSagaId().getLeastSignificantBits()).array();
+  }
+
   @Test
   public void testHandleEvent_givenValidSagaDataAndEvenTypeAndValidationWithError_shouldExecuteNextEventMARK_SAGA_COMPLETE() throws InterruptedException, TimeoutException, IOException {
     final var event = Event.builder()
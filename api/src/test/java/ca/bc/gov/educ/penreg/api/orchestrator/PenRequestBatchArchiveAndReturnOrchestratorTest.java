@@ -5,10 +5,13 @@ import ca.bc.gov.educ.penreg.api.mappers.v1.PenRequestBatchMapper;
 import ca.bc.gov.educ.penreg.api.mappers.v1.PenRequestBatchStudentMapper;
 import ca.bc.gov.educ.penreg.api.messaging.MessagePublisher;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
 import ca.bc.gov.educ.penreg.api.model.v1.Saga;
 import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchRepository;
+import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchStudentRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaEventRepository;
+import ca.bc.gov.educ.penreg.api.repository.SagaPayloadRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
 import ca.bc.gov.educ.penreg.api.rest.RestUtils;
 import ca.bc.gov.educ.penreg.api.service.PenRequestBatchService;
@@ -27,6 +30,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
@@ -47,6 +51,11 @@ public class PenRequestBatchArchiveAndReturnOrchestratorTest extends BaseOrchest
    */
   @Autowired
   SagaEventRepository sagaEventRepository;
+  /**
+   * The Saga payload repository.
+   */
+  @Autowired
+  SagaPayloadRepository sagaPayloadRepository;
   /**
    * The Event captor.
    */
@@ -446,6 +455,54 @@ public class PenRequestBatchArchiveAndReturnOrchestratorTest extends BaseOrchest
     assertThat(payload.getPenRequestBatch()).isNotNull();
   }
 
+  @Test
+  public void testHandleEvent_givenBatchWithStudentsLargerThanTheInlineThreshold_shouldStoreStudentsApartFromTheSaga() throws IOException, InterruptedException, TimeoutException {
+    when(this.restUtils.getStudentRegistrationContactList(anyString())).thenReturn(
+        Collections.singletonList(SchoolContact.builder().email("pen@email.com").firstName("Joe").lastName("Blow").build()));
+    this.saga = penRequestBatchTestUtils.createSaga("19337120", "12345679", PenRequestBatchStudentStatusCodes.SYS_NEW_PEN.getCode(), TEST_PEN);
+    final var batch = this.penRequestBatchRepository.findById(this.saga.get(0).getPenRequestBatchID()).orElseThrow();
+    final List<String> studentIDs = new ArrayList<>();
+    final List<PenRequestBatchStudentEntity> students = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      final var student = new PenRequestBatchStudentEntity();
+      student.setPenRequestBatchStudentStatusCode(PenRequestBatchStudentStatusCodes.SYS_NEW_PEN.getCode());
+      student.setAssignedPEN("12345678" + i);
+      student.setStudentID(UUID.randomUUID());
+      studentIDs.add(student.getStudentID().toString());
+      student.setLegalLastName("SURNAME" + i);
+      student.setDob("19650101");
+      student.setGenderCode("M");
+      student.setLocalID("2034567" + i);
+      student.setGradeCode("01");
+      student.setCreateUser("TEST");
+      student.setUpdateUser("TEST");
+      student.setCreateDate(LocalDateTime.now());
+      student.setUpdateDate(LocalDateTime.now());
+      student.setPenRequestBatchEntity(batch);
+      students.add(student);
+    }
+    this.penRequestBatchStudentRepository.saveAll(students);
+    final var event = Event.builder()
+      .eventType(EventType.INITIATED)
+      .eventOutcome(EventOutcome.INITIATE_SUCCESS)
+      .sagaId(this.saga.get(0).getSagaId())
+      .build();
+    this.orchestrator.handleEvent(event);
+    final var sagaFromDB = this.sagaService.findSagaById(this.saga.get(0).getSagaId());
+    assertThat(sagaFromDB).isPresent();
+    assertThat(sagaFromDB.get().getSagaState()).isEqualTo(GET_STUDENTS.toString());
+    final PenRequestBatchArchiveAndReturnSagaData payload = JsonUtil.getJsonObjectFromString(PenRequestBatchArchiveAndReturnSagaData.class, sagaFromDB.get().getPayload());
+    assertThat(payload.getPenRequestBatchStudents()).isNull();
+    assertThat(payload.getPenRequestBatchStudentsDigest()).hasSize(64);
+    assertThat(this.sagaPayloadRepository.existsById(payload.getPenRequestBatchStudentsDigest())).isTrue();
+    assertThat(payload.getStudentRegistrationContacts()).hasSize(1);
+    assertThat(payload.getPenRequestBatch()).isNotNull();
+    verify(this.messagePublisher, atLeastOnce()).dispatchMessage(eq(SagaTopicsEnum.STUDENT_API_TOPIC.toString()), this.eventCaptor.capture());
+    final var getStudentsEvent = JsonUtil.getJsonObjectFromString(Event.class, new String(this.eventCaptor.getValue()));
+    assertThat(getStudentsEvent.getEventType()).isEqualTo(GET_STUDENTS);
+    assertThat(getStudentsEvent.getEventPayload()).contains(studentIDs);
+  }
+
 
   @Test
   public void testHandleEvent_givenSTUDENTS_FOUNDEventAndCorrectSagaAndEventData_shouldBeMarkedARCHIVE_PEN_REQUEST_BATCH() throws IOException, InterruptedException, TimeoutException {
@@ -607,6 +664,8 @@ public class PenRequestBatchArchiveAndReturnOrchestratorTest extends BaseOrchest
 
   @Autowired
   private PenRequestBatchRepository penRequestBatchRepository;
+  @Autowired
+  private PenRequestBatchStudentRepository penRequestBatchStudentRepository;
 
   @Test
   public void testSendhasStudentRegistrationContactEmail_givenEventAndSagaDataNoStudentRegistrationContactEmail_shouldBeMarkedNOTIFY_PEN_REQUEST_BATCH_ARCHIVE_HAS_NO_SCHOOL_CONTACT() throws InterruptedException, TimeoutException, IOException {
@@ -276,4 +276,17 @@ public class PenRequestBatchRepostReportsOrchestratorTest extends BaseOrchestrat
     assertThat(penWebBlobsDB.size()).isEqualTo(2);
   }
 
+  @Test
+  public void testIsSagaDataCacheable_givenSectionStoredApartIsLoaded_shouldNotCacheTheSagaData() {
+    final var sagaData = PenRequestBatchRepostReportsFilesSagaData.builder().penRequestBatchID(UUID.randomUUID())
+      .penRequestBatchStudentsDigest("digest").build();
+    assertThat(this.orchestrator.isSagaDataCacheable(sagaData)).isTrue();
+
+    sagaData.setPenRequestBatchStudents(List.of(PenRequestBatchStudent.builder().legalLastName("SURNAME").build()));
+    assertThat(this.orchestrator.isSagaDataCacheable(sagaData)).isFalse();
+
+    sagaData.setPenRequestBatchStudentsDigest(null);
+    assertThat(this.orchestrator.isSagaDataCacheable(sagaData)).isTrue();
+  }
+
 }
@@ -0,0 +1,99 @@
+package ca.bc.gov.educ.penreg.api.orchestrator.base;
+
+import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.struct.Event;
+import ca.bc.gov.educ.penreg.api.struct.PenRequestBatchStudentSagaData;
+import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+import static ca.bc.gov.educ.penreg.api.constants.EventOutcome.*;
+import static ca.bc.gov.educ.penreg.api.constants.EventType.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BaseOrchestratorSagaDataCacheTest {
+
+  private final BaseOrchestrator<PenRequestBatchStudentSagaData> orchestrator = new BaseOrchestrator<>(null, null, PenRequestBatchStudentSagaData.class, "TEST_SAGA", "TEST_TOPIC") {
+    @Override
+    public void populateStepsToExecuteMap() {
+      this.stepBuilder()
+        .begin(VALIDATE_STUDENT_DEMOGRAPHICS, (event, saga, sagaData) -> { // saves the changed saga data.
+          sagaData.setLocalID("validated");
+          saga.setPayload(JsonUtil.getJsonStringFromObject(sagaData));
+        })
+        .step(VALIDATE_STUDENT_DEMOGRAPHICS, VALIDATION_SUCCESS_NO_ERROR_WARNING, PROCESS_PEN_MATCH, (event, saga, sagaData) -> sagaData.setLocalID("not saved"))
+        .step(PROCESS_PEN_MATCH, PEN_MATCH_PROCESSED, PROCESS_PEN_MATCH_RESULTS, (event, saga, sagaData) -> {
+          sagaData.setLocalID("failed");
+          saga.setPayload(JsonUtil.getJsonStringFromObject(sagaData));
+          throw new IOException("step failed");
+        });
+    }
+  };
+
+  private Saga saga;
+
+  @Before
+  public void setUp() throws Exception {
+    final var sagaData = new PenRequestBatchStudentSagaData();
+    sagaData.setLegalFirstName("JACK");
+    this.saga = Saga.builder().sagaId(UUID.randomUUID()).payload(JsonUtil.getJsonStringFromObject(sagaData)).build();
+  }
+
+  @Test
+  public void testGetSagaData_givenStepSavedTheSagaData_shouldReturnTheSameSagaData() throws InterruptedException, TimeoutException, IOException {
+    final var sagaData = this.orchestrator.getSagaData(this.saga);
+    this.invokeNextEvent(INITIATED, INITIATE_SUCCESS, sagaData);
+
+    assertThat(this.orchestrator.getSagaData(this.saga)).isSameAs(sagaData).extracting(PenRequestBatchStudentSagaData::getLocalID).isEqualTo("validated");
+  }
+
+  @Test
+  public void testGetSagaData_givenStepDidNotSaveTheSagaData_shouldDeserializeThePayload() throws InterruptedException, TimeoutException, IOException {
+    final var sagaData = this.orchestrator.getSagaData(this.saga);
+    this.invokeNextEvent(INITIATED, INITIATE_SUCCESS, sagaData);
+    final var validatedSagaData = this.orchestrator.getSagaData(this.saga);
+    this.invokeNextEvent(VALIDATE_STUDENT_DEMOGRAPHICS, VALIDATION_SUCCESS_NO_ERROR_WARNING, validatedSagaData);
+
+    assertThat(this.orchestrator.getSagaData(this.saga)).isNotSameAs(validatedSagaData).extracting(PenRequestBatchStudentSagaData::getLocalID).isEqualTo("validated");
+  }
+
+  @Test
+  public void testGetSagaData_givenStepFailed_shouldDeserializeThePayload() throws InterruptedException, TimeoutException, IOException {
+    this.saga.setSagaState(PROCESS_PEN_MATCH.toString());
+    final var sagaData = this.orchestrator.getSagaData(this.saga);
+
+    assertThatThrownBy(() -> this.invokeNextEvent(PROCESS_PEN_MATCH, PEN_MATCH_PROCESSED, sagaData)).isInstanceOf(IOException.class);
+    assertThat(this.orchestrator.getSagaData(this.saga)).isNotSameAs(sagaData);
+  }
+
+  @Test
+  public void testGetSagaData_givenSagaDataTakenByAnotherMessage_shouldDeserializeThePayload() throws InterruptedException, TimeoutException, IOException {
+    final var sagaData = this.orchestrator.getSagaData(this.saga);
+    this.invokeNextEvent(INITIATED, INITIATE_SUCCESS, sagaData);
+
+    assertThat(this.orchestrator.getSagaData(this.saga)).isSameAs(sagaData);
+    assertThat(this.orchestrator.getSagaData(this.saga)).isNotSameAs(sagaData).isEqualTo(sagaData);
+  }
+
+  @Test
+  public void testGetSagaData_givenSagaMovedOnByAnotherStep_shouldDeserializeThePayload() throws InterruptedException, TimeoutException, IOException {
+    final var sagaData = this.orchestrator.getSagaData(this.saga);
+    this.invokeNextEvent(INITIATED, INITIATE_SUCCESS, sagaData);
+    final var sagaFromOtherPod = Saga.builder().sagaId(this.saga.getSagaId()).payload(this.saga.getPayload()).lastSagaStepNumber(2).build();
+
+    assertThat(this.orchestrator.getSagaData(sagaFromOtherPod)).isNotSameAs(sagaData).extracting(PenRequestBatchStudentSagaData::getLocalID).isEqualTo("validated");
+  }
+
+  private void invokeNextEvent(final EventType eventType, final EventOutcome eventOutcome,
+                               final PenRequestBatchStudentSagaData sagaData) throws InterruptedException, TimeoutException, IOException {
+    final var sagaEventState = this.orchestrator.findNextSagaEventState(eventType, eventOutcome, sagaData).orElseThrow();
+    this.orchestrator.invokeNextEvent(Event.builder().eventType(eventType).eventOutcome(eventOutcome).build(), this.saga, sagaData, sagaEventState);
+  }
+}
@@ -0,0 +1,43 @@
+package ca.bc.gov.educ.penreg.api.orchestrator.base;
+
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.orchestrator.PenReqBatchStudentOrchestrator;
+import ca.bc.gov.educ.penreg.api.struct.PenRequestBatchStudentSagaData;
+import org.junit.Test;
+
+import static ca.bc.gov.educ.penreg.api.constants.EventOutcome.*;
+import static ca.bc.gov.educ.penreg.api.constants.EventType.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BaseOrchestratorTransitionTableTest {
+
+  private final PenReqBatchStudentOrchestrator orchestrator = new PenReqBatchStudentOrchestrator(null, null, null, null, null);
+
+  private final PenRequestBatchStudentSagaData sagaData = new PenRequestBatchStudentSagaData();
+
+  @Test
+  public void testFindNextSagaEventState_givenRegisteredEventAndOutcome_shouldReturnTheNextEvent() {
+    assertThat(this.orchestrator.findNextSagaEventState(INITIATED, INITIATE_SUCCESS, this.sagaData)).get()
+      .extracting(SagaEventState::getNextEventType).isEqualTo(VALIDATE_STUDENT_DEMOGRAPHICS);
+    assertThat(this.orchestrator.findNextSagaEventState(VALIDATE_STUDENT_DEMOGRAPHICS, VALIDATION_SUCCESS_WITH_ONLY_WARNING, this.sagaData)).get()
+      .extracting(SagaEventState::getNextEventType).isEqualTo(PROCESS_PEN_MATCH);
+    assertThat(this.orchestrator.findNextSagaEventState(VALIDATE_STUDENT_DEMOGRAPHICS, VALIDATION_SUCCESS_WITH_ERROR, this.sagaData)).get()
+      .extracting(SagaEventState::getNextEventType).isEqualTo(MARK_SAGA_COMPLETE);
+  }
+
+  @Test
+  public void testFindNextSagaEventState_givenOutcomeNotRegisteredForTheEvent_shouldReturnEmpty() {
+    assertThat(this.orchestrator.findNextSagaEventState(VALIDATE_STUDENT_DEMOGRAPHICS, PEN_MATCH_PROCESSED, this.sagaData)).isEmpty();
+    assertThat(this.orchestrator.findNextSagaEventState(GET_STUDENT, STUDENT_FOUND, this.sagaData)).isEmpty();
+    assertThat(this.orchestrator.findNextSagaEventState(PROCESS_PEN_MATCH, null, this.sagaData)).isEmpty();
+  }
+
+  @Test
+  public void testIsNotProcessedEvent_givenEventBeforeTheSagaState_shouldReturnFalse() {
+    final var saga = new Saga();
+    saga.setSagaState(PROCESS_PEN_MATCH.toString());
+    assertThat(this.orchestrator.isNotProcessedEvent(VALIDATE_STUDENT_DEMOGRAPHICS, saga)).isFalse();
+    assertThat(this.orchestrator.isNotProcessedEvent(PROCESS_PEN_MATCH, saga)).isTrue();
+    assertThat(this.orchestrator.isNotProcessedEvent(PROCESS_PEN_MATCH_RESULTS, saga)).isTrue();
+  }
+}
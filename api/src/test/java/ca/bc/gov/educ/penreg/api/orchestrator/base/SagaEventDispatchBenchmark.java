@@ -0,0 +1,71 @@
+package ca.bc.gov.educ.penreg.api.orchestrator.base;
+
+import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.orchestrator.PenReqBatchStudentOrchestrator;
+import ca.bc.gov.educ.penreg.api.struct.PenRequestBatchStudentSagaData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedList;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static ca.bc.gov.educ.penreg.api.constants.EventOutcome.PEN_MATCH_PROCESSED;
+import static ca.bc.gov.educ.penreg.api.constants.EventType.PROCESS_PEN_MATCH;
+
+/**
+ * Compares finding the next step of a saga event, and checking that the event was not processed already, through the
+ * transition table of {@link BaseOrchestrator} with scanning the steps as registered, which is how it was done before.
+ * This is the work {@link BaseOrchestrator#handleEvent} does for every message apart from the database and messaging.
+ * Run it with `mvn test-compile` and then the main method, with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SagaEventDispatchBenchmark {
+
+  private PenReqBatchStudentOrchestrator orchestrator;
+
+  private PenRequestBatchStudentSagaData sagaData;
+
+  private Saga saga;
+
+  @Setup(Level.Trial)
+  public void createOrchestrator() {
+    this.orchestrator = new PenReqBatchStudentOrchestrator(null, null, null, null, null);
+    this.sagaData = new PenRequestBatchStudentSagaData();
+    this.saga = new Saga();
+    this.saga.setSagaState(PROCESS_PEN_MATCH.toString());
+  }
+
+  @Benchmark
+  public boolean transitionTable() {
+    final Optional<SagaEventState<PenRequestBatchStudentSagaData>> sagaEventState = this.orchestrator.findNextSagaEventState(PROCESS_PEN_MATCH, PEN_MATCH_PROCESSED, this.sagaData);
+    return sagaEventState.isPresent() && this.orchestrator.isNotProcessedEvent(PROCESS_PEN_MATCH, this.saga);
+  }
+
+  @Benchmark
+  public boolean registeredStepsScan() {
+    final Optional<SagaEventState<PenRequestBatchStudentSagaData>> sagaEventState = this.scanNextSagaEventState(PROCESS_PEN_MATCH, PEN_MATCH_PROCESSED);
+    final var events = new LinkedList<>(this.orchestrator.nextStepsToExecute.keySet());
+    return sagaEventState.isPresent() && events.indexOf(PROCESS_PEN_MATCH) >= events.indexOf(EventType.valueOf(this.saga.getSagaState()));
+  }
+
+  private Optional<SagaEventState<PenRequestBatchStudentSagaData>> scanNextSagaEventState(final EventType currentEvent, final EventOutcome eventOutcome) {
+    final var sagaEventStates = this.orchestrator.nextStepsToExecute.get(currentEvent);
+    return sagaEventStates == null ? Optional.empty() : sagaEventStates.stream().filter(el ->
+        el.getCurrentEventOutcome() == eventOutcome && el.nextStepPredicate.test(this.sagaData)
+    ).findFirst();
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SagaEventDispatchBenchmark.class.getSimpleName()).build()).run();
+  }
+}
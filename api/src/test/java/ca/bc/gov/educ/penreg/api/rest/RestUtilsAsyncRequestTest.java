@@ -0,0 +1,98 @@
+package ca.bc.gov.educ.penreg.api.rest;
+
+import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.messaging.MessagePublisher;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.struct.Event;
+import ca.bc.gov.educ.penreg.api.struct.Student;
+import ca.bc.gov.educ.penreg.api.support.NatsMessageImpl;
+import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.nats.client.Message;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.PEN_MATCH_API_TOPIC;
+import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.STUDENT_API_TOPIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RestUtilsAsyncRequestTest {
+
+  private final MessagePublisher messagePublisher = mock(MessagePublisher.class);
+
+  private RestUtils restUtils;
+
+  @Before
+  public void before() {
+    this.restUtils = new RestUtils(new ApplicationProperties(), mock(WebClient.class), this.messagePublisher);
+  }
+
+  @Test
+  public void testRequestEvent_givenManyRequestsInFlight_shouldCompleteEachWithItsOwnReply() throws Exception {
+    final List<CompletableFuture<Message>> replies = new ArrayList<>();
+    when(this.messagePublisher.requestMessage(eq(PEN_MATCH_API_TOPIC.toString()), any())).thenAnswer(invocation -> {
+      final CompletableFuture<Message> reply = new CompletableFuture<>();
+      replies.add(reply);
+      return reply;
+    });
+    final List<CompletableFuture<Event>> responses = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      responses.add(this.restUtils.requestEventResponseFromMatchAPIAsync(Event.builder().eventType(EventType.PROCESS_PEN_MATCH).eventPayload(String.valueOf(i)).build(), Duration.ofSeconds(30)));
+    }
+    assertThat(responses).noneMatch(CompletableFuture::isDone);
+
+    for (int i = 2; i >= 0; i--) {
+      replies.get(i).complete(this.createMessage(Event.builder().eventType(EventType.PROCESS_PEN_MATCH).eventOutcome(EventOutcome.PEN_MATCH_PROCESSED).eventPayload(String.valueOf(i)).build()));
+    }
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(responses.get(i).get().getEventPayload()).isEqualTo(String.valueOf(i));
+    }
+  }
+
+  @Test
+  public void testRequestEvent_givenNoReplyInTime_shouldCompleteWithATimeout() {
+    when(this.messagePublisher.requestMessage(eq(STUDENT_API_TOPIC.toString()), any())).thenReturn(new CompletableFuture<>());
+
+    final var response = this.restUtils.requestEvent(STUDENT_API_TOPIC, Event.builder().eventType(EventType.GET_STUDENT).eventPayload("123456789").build(), Duration.ofMillis(50));
+
+    assertThatThrownBy(response::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(TimeoutException.class);
+  }
+
+  @Test
+  public void testGetStudentByPEN_givenRequestFailed_shouldReturnEmpty() {
+    when(this.messagePublisher.requestMessage(eq(STUDENT_API_TOPIC.toString()), any())).thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+    assertThat(this.restUtils.getStudentByPEN("123456789")).isEmpty();
+  }
+
+  @Test
+  public void testGetStudentsByStudentIDs_givenStudentsFound_shouldReturnThem() throws Exception {
+    final var student = Student.builder().studentID(UUID.randomUUID().toString()).pen("123456789").build();
+    final var reply = Event.builder().eventType(EventType.GET_STUDENTS).eventOutcome(EventOutcome.STUDENTS_FOUND).eventPayload(JsonUtil.getJsonStringFromObject(List.of(student))).build();
+    when(this.messagePublisher.requestMessage(eq(STUDENT_API_TOPIC.toString()), any())).thenReturn(CompletableFuture.completedFuture(this.createMessage(reply)));
+
+    final var students = this.restUtils.getStudentsByStudentIDs(List.of(UUID.fromString(student.getStudentID())));
+
+    assertThat(students).extracting(Student::getPen).containsExactly("123456789");
+  }
+
+  private Message createMessage(final Event event) throws JsonProcessingException {
+    return NatsMessageImpl.builder().data(JsonUtil.getJsonStringFromObject(event).getBytes()).build();
+  }
+}
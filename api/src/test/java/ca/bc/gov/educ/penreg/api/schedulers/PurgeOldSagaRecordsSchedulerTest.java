@@ -5,13 +5,16 @@ import ca.bc.gov.educ.penreg.api.constants.EventStatus;
 import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEvent;
 import ca.bc.gov.educ.penreg.api.model.v1.Saga;
 import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
+import ca.bc.gov.educ.penreg.api.model.v1.SagaPayloadEntity;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchEventRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaEventRepository;
+import ca.bc.gov.educ.penreg.api.repository.SagaPayloadRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDateTime;
 
@@ -29,14 +32,30 @@ public class PurgeOldSagaRecordsSchedulerTest extends BasePenRegAPITest {
   @Autowired
   PenRequestBatchEventRepository penRequestBatchEventRepository;
 
+  @Autowired
+  SagaPayloadRepository sagaPayloadRepository;
+
   @Autowired
   PurgeOldSagaRecordsScheduler purgeOldSagaRecordsScheduler;
 
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  private Integer deleteChunkSize;
+
   @Before
   public void setup() {
     this.sagaEventRepository.deleteAll();
     this.penRequestBatchEventRepository.deleteAll();
     this.repository.deleteAll();
+    this.sagaPayloadRepository.deleteAll();
+    this.deleteChunkSize = this.purgeOldSagaRecordsScheduler.getDeleteChunkSize();
+    this.jdbcTemplate.update("UPDATE PEN_REQUEST_BATCH_SHEDLOCK SET LOCK_UNTIL = LOCKED_AT WHERE NAME = 'PurgeOldSagaRecordsLock'"); // it is held for at least an hour.
+  }
+
+  @After
+  public void after() {
+    this.purgeOldSagaRecordsScheduler.setDeleteChunkSize(this.deleteChunkSize);
   }
 
   @Test
@@ -74,6 +93,45 @@ public class PurgeOldSagaRecordsSchedulerTest extends BasePenRegAPITest {
     assertThat(servicesEvents).hasSize(1);
   }
 
+  @Test
+  public void pollSagaTableAndPurgeOldRecords_givenMoreOldRecordsThanAChunk_shouldDeleteThemAll() {
+    final var payload = "{\"createUser\": \"test\", \"updateUser\": \"test\"}";
+    final var yesterday = LocalDateTime.now().minusDays(1);
+    for (int i = 0; i < 3; i++) {
+      final var saga = this.repository.save(this.getSaga(payload, yesterday));
+      this.sagaEventRepository.save(this.getSagaEvent(saga, payload));
+      this.penRequestBatchEventRepository.save(this.getPenRequestBatchEvent(saga, payload, yesterday));
+    }
+    final var sagaToday = this.repository.save(this.getSaga(payload, LocalDateTime.now()));
+    this.sagaEventRepository.save(this.getSagaEvent(sagaToday, payload));
+
+    this.purgeOldSagaRecordsScheduler.setSagaRecordStaleInDays(1);
+    this.purgeOldSagaRecordsScheduler.setDeleteChunkSize(2);
+    this.purgeOldSagaRecordsScheduler.purgeOldRecords();
+
+    assertThat(this.repository.findAll()).extracting(Saga::getSagaId).containsExactly(sagaToday.getSagaId());
+    assertThat(this.sagaEventRepository.findAll()).hasSize(1);
+    assertThat(this.penRequestBatchEventRepository.findAll()).isEmpty();
+  }
+
+  @Test
+  public void pollSagaTableAndPurgeOldRecords_givenChunkSizeNotPositive_shouldDeleteTheOldPayloadsInChunksOfOneRow() {
+    final var yesterday = LocalDateTime.now().minusDays(1);
+    for (int i = 0; i < 3; i++) {
+      this.sagaPayloadRepository.save(this.getSagaPayload("old" + i, yesterday));
+    }
+    this.sagaPayloadRepository.save(this.getSagaPayload("new", LocalDateTime.now()));
+
+    this.purgeOldSagaRecordsScheduler.setSagaRecordStaleInDays(1);
+    this.purgeOldSagaRecordsScheduler.setDeleteChunkSize(0);
+    this.purgeOldSagaRecordsScheduler.purgeOldRecords();
+
+    assertThat(this.sagaPayloadRepository.findAll()).extracting(SagaPayloadEntity::getPayloadDigest).containsExactly("new");
+  }
+
+  private SagaPayloadEntity getSagaPayload(final String payloadDigest, final LocalDateTime updateDateTime) {
+    return SagaPayloadEntity.builder().payloadDigest(payloadDigest).payload("{}".getBytes()).createDate(updateDateTime).updateDate(updateDateTime).build();
+  }
 
   private Saga getSaga(final String payload, final LocalDateTime createDateTime) {
     return Saga
@@ -2,6 +2,9 @@ package ca.bc.gov.educ.penreg.api.service;
 
 import ca.bc.gov.educ.penreg.api.BasePenRegAPITest;
 import ca.bc.gov.educ.penreg.api.messaging.MessagePublisher;
+import ca.bc.gov.educ.penreg.api.messaging.MessageSubscriber;
+import ca.bc.gov.educ.penreg.api.messaging.SubscriberDispatchStage;
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
 import ca.bc.gov.educ.penreg.api.orchestrator.PenReqBatchStudentOrchestrator;
 import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchEventRepository;
@@ -11,6 +14,11 @@ import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
 import ca.bc.gov.educ.penreg.api.struct.Event;
 import ca.bc.gov.educ.penreg.api.support.PenRequestBatchTestUtils;
 import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.nats.client.Connection;
+import io.nats.client.JetStreamApiException;
+import io.nats.client.Message;
+import io.nats.client.impl.NatsJetStreamMetaData;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -20,11 +28,13 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeoutException;
 
 import static ca.bc.gov.educ.penreg.api.constants.EventOutcome.PEN_REQUEST_BATCH_STUDENT_UPDATED;
 import static ca.bc.gov.educ.penreg.api.constants.EventOutcome.PEN_REQUEST_BATCH_UPDATED;
+import static ca.bc.gov.educ.penreg.api.constants.EventOutcome.READ_FROM_TOPIC_SUCCESS;
 import static ca.bc.gov.educ.penreg.api.constants.EventType.*;
 import static ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStatusCodes.*;
 import static ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStudentStatusCodes.FIXABLE;
@@ -32,6 +42,7 @@ import static ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStudentStatusCo
 import static ca.bc.gov.educ.penreg.api.constants.SagaEnum.PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA;
 import static ca.bc.gov.educ.penreg.api.constants.SagaTopicsEnum.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 /**
@@ -98,7 +109,7 @@ public class EventHandlerServiceTest extends BasePenRegAPITest {
    *
    */
   @Test
-  public void testHandleEvent_givenDuplicateEventTypeREAD_FROM_TOPIC_shouldNotStartPenRequestBatchStudentSaga() {
+  public void testHandleEvent_givenDuplicateEventTypeREAD_FROM_TOPIC_shouldNotStartPenRequestBatchStudentSaga() throws InterruptedException, IOException, TimeoutException {
     final var payload = this.dummyPenRequestBatchStudentSagaDataJson();
     this.sagaService.createSagaRecordInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), "Test", payload,
         UUID.fromString(this.penRequestBatchStudentID), UUID.fromString(this.penRequestBatchID));
@@ -107,12 +118,36 @@ public class EventHandlerServiceTest extends BasePenRegAPITest {
     verifyNoMoreInteractions(this.penReqBatchStudentOrchestrator);
   }
 
+  /**
+   * Test handle READ_STUDENTS_FROM_TOPIC event with a student which already has a saga.
+   *
+   */
+  @Test
+  public void testHandleEvent_givenEventTypeREAD_STUDENTS_FROM_TOPIC_shouldStartSagasOfStudentsWithoutSaga() throws InterruptedException, IOException, TimeoutException {
+    this.sagaService.createSagaRecordInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), "Test", this.dummyPenRequestBatchStudentSagaDataJson(),
+        UUID.fromString(this.penRequestBatchStudentID), UUID.fromString(this.penRequestBatchID));
+    final var studentWithSaga = this.dummyPenRequestBatchStudentSagaDataJson();
+    this.penRequestBatchStudentID = UUID.randomUUID().toString();
+    final var student = this.dummyPenRequestBatchStudentSagaDataJson();
+    this.penRequestBatchStudentID = UUID.randomUUID().toString();
+    final var otherStudent = this.dummyPenRequestBatchStudentSagaDataJson();
+    final var payload = "[" + studentWithSaga + "," + student + "," + otherStudent + "," + student + "]";
+    final var event = new Event(READ_STUDENTS_FROM_TOPIC, READ_FROM_TOPIC_SUCCESS, null, null, payload);
+    this.eventHandlerService.handleEvent(event);
+    verify(this.penReqBatchStudentOrchestrator, times(2)).startSaga(any());
+    final var sagas = this.repository.findAll();
+    assertThat(sagas).hasSize(3);
+    assertThat(sagas).extracting(Saga::getPenRequestBatchStudentID).doesNotHaveDuplicates()
+        .contains(UUID.fromString(this.penRequestBatchStudentID));
+    assertThat(sagas).allMatch(saga -> saga.getPayload().contains(saga.getPenRequestBatchStudentID().toString()));
+  }
+
   /**
    * Test handle UPDATE_PEN_REQUEST_BATCH_STUDENT event.
    *
    */
   @Test
-  public void testHandleEvent_givenEventTypeUPDATE_PEN_REQUEST_BATCH_STUDENT_shouldUpdatePrbStudentAndSendEvent() throws IOException {
+  public void testHandleEvent_givenEventTypeUPDATE_PEN_REQUEST_BATCH_STUDENT_shouldUpdatePrbStudentAndSendEvent() throws InterruptedException, IOException, TimeoutException {
     final var sagaID = UUID.randomUUID();
     final var batchList = PenRequestBatchTestUtils.createBatchStudents(this.penRequestBatchRepository, "mock_pen_req_batch_archived.json",
         "mock_pen_req_batch_student_archived.json", 1);
@@ -142,7 +177,7 @@ public class EventHandlerServiceTest extends BasePenRegAPITest {
    *
    */
   @Test
-  public void testHandleEvent_givenEventTypeUPDATE_PEN_REQUEST_BATCH_STUDENT_and_FailedToSendEvent_shouldUpdatePrbStudent() throws IOException {
+  public void testHandleEvent_givenEventTypeUPDATE_PEN_REQUEST_BATCH_STUDENT_and_FailedToSendEvent_shouldUpdatePrbStudent() throws InterruptedException, IOException, TimeoutException {
     final var sagaID = UUID.randomUUID();
     final var batchList = PenRequestBatchTestUtils.createBatchStudents(this.penRequestBatchRepository, "mock_pen_req_batch_archived.json",
         "mock_pen_req_batch_student_archived.json", 1);
@@ -153,10 +188,41 @@ public class EventHandlerServiceTest extends BasePenRegAPITest {
     final var event = new Event(UPDATE_PEN_REQUEST_BATCH_STUDENT, PEN_REQUEST_BATCH_STUDENT_UPDATED, sagaID, PEN_REQUEST_BATCH_NEW_PEN_PROCESSING_TOPIC.toString(), payload);
     doThrow(new RuntimeException("Test")).when(this.messagePublisher).dispatchMessage(anyString(), any());
 
-    this.eventHandlerService.handleEvent(event);
+    assertThatThrownBy(() -> this.eventHandlerService.handleEvent(event)).hasMessage("Test");
 
     final var penRequestBatch = this.penRequestBatchRepository.findById(UUID.fromString(this.penRequestBatchID));
     assertThat(penRequestBatch.orElseThrow().getNewPenCount()).isEqualTo(3);
+
+    doNothing().when(this.messagePublisher).dispatchMessage(anyString(), any());
+    this.eventHandlerService.handleEvent(event); // the redelivered message.
+    verify(this.messagePublisher, times(2)).dispatchMessage(eq(PEN_REQUEST_BATCH_NEW_PEN_PROCESSING_TOPIC.toString()), any());
+    assertThat(this.penRequestBatchRepository.findById(UUID.fromString(this.penRequestBatchID)).orElseThrow().getNewPenCount()).isEqualTo(3);
+  }
+
+  /**
+   * Test a READ_FROM_TOPIC event consumed from JetStream whose saga could not be created.
+   *
+   */
+  @Test
+  public void testHandleEvent_givenSagaCreationFails_shouldLeaveTheJetStreamMessageUnacknowledged() throws InterruptedException, IOException, TimeoutException, JetStreamApiException {
+    final var payload = this.dummyPenRequestBatchStudentSagaDataJson();
+    final var event = new Event(READ_FROM_TOPIC, READ_FROM_TOPIC_SUCCESS, null, null, payload);
+    when(this.penReqBatchStudentOrchestrator.createSaga(any(), any(), any(), any())).thenThrow(new IllegalStateException("Test"));
+    final var applicationProperties = new ApplicationProperties();
+    applicationProperties.setJetStreamEnabled(true);
+    final var meterRegistry = new SimpleMeterRegistry();
+    final var messageSubscriber = new MessageSubscriber(mock(Connection.class), List.of(), Runnable::run, applicationProperties, meterRegistry);
+    final var message = mock(Message.class);
+    when(message.getSubject()).thenReturn(PEN_REQUEST_BATCH_API_TOPIC.toString());
+    when(message.getData()).thenReturn(JsonUtil.getJsonStringFromObject(event).getBytes());
+    when(message.metaData()).thenReturn(mock(NatsJetStreamMetaData.class));
+
+    messageSubscriber.onJetStreamMessage(this.eventHandlerService, new SubscriberDispatchStage(PEN_REQUEST_BATCH_API_TOPIC.toString(), 1, Runnable::run, meterRegistry))
+      .onMessage(message);
+
+    verify(this.penReqBatchStudentOrchestrator).createSaga(any(), any(), any(), any());
+    verify(message, never()).ack();
+    verify(message, never()).term();
   }
 
   /**
@@ -164,7 +230,7 @@ public class EventHandlerServiceTest extends BasePenRegAPITest {
    *
    */
   @Test
-  public void testHandleEvent_givenEventTypeARCHIVE_PEN_REQUEST_BATCH_and_ARCHIVED_Batch_shouldUpdateBatchAndSendEvent() throws IOException {
+  public void testHandleEvent_givenEventTypeARCHIVE_PEN_REQUEST_BATCH_and_ARCHIVED_Batch_shouldUpdateBatchAndSendEvent() throws InterruptedException, IOException, TimeoutException {
     final var sagaID = UUID.randomUUID();
     final var batchList = PenRequestBatchTestUtils.createBatchStudents(this.penRequestBatchRepository, "mock_pen_req_batch_archived.json",
       "mock_pen_req_batch_student_archived.json", 1);
@@ -192,7 +258,7 @@ public class EventHandlerServiceTest extends BasePenRegAPITest {
    *
    */
   @Test
-  public void testHandleEvent_givenEventTypeARCHIVE_PEN_REQUEST_BATCH_and_UNARCHIVED_Batch_shouldUpdateBatchAndSendEvent() throws IOException {
+  public void testHandleEvent_givenEventTypeARCHIVE_PEN_REQUEST_BATCH_and_UNARCHIVED_Batch_shouldUpdateBatchAndSendEvent() throws InterruptedException, IOException, TimeoutException {
     final var sagaID = UUID.randomUUID();
     final var batchList = PenRequestBatchTestUtils.createBatchStudents(this.penRequestBatchRepository, "mock_pen_req_batch_unarchived.json",
       "mock_pen_req_batch_student_archived.json", 1);
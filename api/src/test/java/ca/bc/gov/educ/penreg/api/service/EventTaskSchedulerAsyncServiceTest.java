@@ -2,6 +2,8 @@ package ca.bc.gov.educ.penreg.api.service;
 
 import ca.bc.gov.educ.penreg.api.BasePenRegAPITest;
 import ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStatusCodes;
+import ca.bc.gov.educ.penreg.api.constants.SagaStatusEnum;
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchHistoryRepository;
 import ca.bc.gov.educ.penreg.api.repository.PenRequestBatchRepository;
 import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
@@ -11,6 +13,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 
 import static ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStatusCodes.REPEATS_CHECKED;
 import static ca.bc.gov.educ.penreg.api.constants.SagaEnum.PEN_REQUEST_BATCH_ARCHIVE_AND_RETURN_SAGA;
@@ -79,4 +82,39 @@ public class EventTaskSchedulerAsyncServiceTest extends BasePenRegAPITest {
     var saga = this.sagaRepository.findByPenRequestBatchIDAndSagaName(batch.get().getPenRequestBatchID(), PEN_REQUEST_BATCH_ARCHIVE_AND_RETURN_SAGA.toString());
     assertThat(saga).isNotEmpty().size().isEqualTo(1);
   }
+
+  @Test
+  public void testFindAndProcessUncompletedSagas_givenStuckSaga_shouldClaimItUntilTheLeaseExpires() {
+    final var stuckSaga = this.sagaRepository.save(this.createSaga(LocalDateTime.now().minusMinutes(10)));
+    final var recentSaga = this.sagaRepository.save(this.createSaga(LocalDateTime.now()));
+
+    this.eventTaskSchedulerAsyncService.findAndProcessUncompletedSagas();
+    var claimedSaga = this.sagaRepository.findById(stuckSaga.getSagaId()).orElseThrow();
+    assertThat(claimedSaga.getRetryCount()).isEqualTo(1);
+    assertThat(claimedSaga.getReplayLeaseExpiryDate()).isBetween(LocalDateTime.now().plusMinutes(4), LocalDateTime.now().plusMinutes(5));
+    assertThat(this.sagaRepository.findById(recentSaga.getSagaId()).orElseThrow().getRetryCount()).isNull();
+
+    this.eventTaskSchedulerAsyncService.findAndProcessUncompletedSagas(); // the lease has not expired.
+    assertThat(this.sagaRepository.findById(stuckSaga.getSagaId()).orElseThrow().getRetryCount()).isEqualTo(1);
+
+    claimedSaga.setReplayLeaseExpiryDate(LocalDateTime.now().minusMinutes(1));
+    this.sagaRepository.save(claimedSaga);
+    this.eventTaskSchedulerAsyncService.findAndProcessUncompletedSagas();
+    claimedSaga = this.sagaRepository.findById(stuckSaga.getSagaId()).orElseThrow();
+    assertThat(claimedSaga.getRetryCount()).isEqualTo(2);
+    assertThat(claimedSaga.getReplayLeaseExpiryDate()).isBetween(LocalDateTime.now().plusMinutes(9), LocalDateTime.now().plusMinutes(10));
+  }
+
+  private Saga createSaga(final LocalDateTime updateDate) {
+    return Saga.builder()
+      .sagaName("TEST_SAGA")
+      .sagaState("INITIATED")
+      .payload("{}")
+      .status(SagaStatusEnum.STARTED.toString())
+      .createUser("TEST")
+      .updateUser("TEST")
+      .createDate(updateDate)
+      .updateDate(updateDate)
+      .build();
+  }
 }
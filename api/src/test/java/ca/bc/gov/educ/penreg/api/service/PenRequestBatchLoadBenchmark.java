@@ -0,0 +1,128 @@
+package ca.bc.gov.educ.penreg.api.service;
+
+import ca.bc.gov.educ.penreg.api.PenRegBatchApiApplication;
+import ca.bc.gov.educ.penreg.api.constants.PenRequestBatchProcessTypeCodes;
+import ca.bc.gov.educ.penreg.api.constants.PenRequestBatchTypeCode;
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchEntity;
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
+import ca.bc.gov.educ.penreg.api.support.TestRedisConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static ca.bc.gov.educ.penreg.api.constants.PenRequestBatchStatusCodes.LOADED;
+
+/**
+ * Compares writing the student requests of a loaded batch file through the hibernate cascade with the jdbc batch
+ * inserts of {@link PenRequestBatchService#saveLoadedPenRequestBatch(PenRequestBatchEntity)}, against the H2 database of
+ * the tests. The score is in student rows per second. Run it with `mvn test-compile` and then the main method, with the
+ * test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(PenRequestBatchLoadBenchmark.STUDENTS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PenRequestBatchLoadBenchmark {
+
+  /**
+   * The number of students in the file, the size of a large PSI file.
+   */
+  static final int STUDENTS = 10_000;
+
+  private ConfigurableApplicationContext context;
+
+  private PenRequestBatchService penRequestBatchService;
+
+  private TransactionTemplate transactionTemplate;
+
+  private JdbcTemplate jdbcTemplate;
+
+  private PenRequestBatchEntity penRequestBatchEntity;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    this.context = new SpringApplicationBuilder(TestRedisConfiguration.class, PenRegBatchApiApplication.class).profiles("test").run();
+    this.penRequestBatchService = this.context.getBean(PenRequestBatchService.class);
+    this.transactionTemplate = this.context.getBean(TransactionTemplate.class);
+    this.jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    this.context.close();
+  }
+
+  @Setup(Level.Invocation)
+  public void createBatch() {
+    this.penRequestBatchEntity = new PenRequestBatchEntity();
+    this.penRequestBatchEntity.setPenRequestBatchStatusCode(LOADED.getCode());
+    this.penRequestBatchEntity.setSubmissionNumber("T1234567");
+    this.penRequestBatchEntity.setPenRequestBatchTypeCode(PenRequestBatchTypeCode.SCHOOL.getCode());
+    this.penRequestBatchEntity.setSchoolGroupCode("PSI");
+    this.penRequestBatchEntity.setFileName("benchmark");
+    this.penRequestBatchEntity.setFileType("PEN");
+    this.penRequestBatchEntity.setMincode("10200030");
+    this.penRequestBatchEntity.setMinistryPRBSourceCode("PEN_WEB");
+    this.penRequestBatchEntity.setSourceApplication("PENWEB");
+    this.penRequestBatchEntity.setPenRequestBatchProcessTypeCode(PenRequestBatchProcessTypeCodes.FLAT_FILE.getCode());
+    this.penRequestBatchEntity.setInsertDate(LocalDateTime.now());
+    this.penRequestBatchEntity.setExtractDate(LocalDateTime.now());
+    this.penRequestBatchEntity.setSourceStudentCount((long) STUDENTS);
+    this.penRequestBatchEntity.setStudentCount((long) STUDENTS);
+    this.penRequestBatchEntity.setCreateUser("BENCHMARK");
+    this.penRequestBatchEntity.setUpdateUser("BENCHMARK");
+    this.penRequestBatchEntity.setCreateDate(LocalDateTime.now());
+    this.penRequestBatchEntity.setUpdateDate(LocalDateTime.now());
+    for (int recordNumber = 1; recordNumber <= STUDENTS; recordNumber++) {
+      final var student = new PenRequestBatchStudentEntity();
+      student.setPenRequestBatchEntity(this.penRequestBatchEntity);
+      student.setPenRequestBatchStudentStatusCode("LOADED");
+      student.setRecordNumber(recordNumber);
+      student.setLocalID(String.valueOf(100000 + recordNumber));
+      student.setLegalLastName("SURNAME" + recordNumber);
+      student.setLegalFirstName("GIVEN");
+      student.setLegalMiddleNames("MIDDLE");
+      student.setDob("20000101");
+      student.setGenderCode("F");
+      student.setGradeCode("12");
+      student.setPostalCode("V8N1H8");
+      student.setCreateUser("BENCHMARK");
+      student.setUpdateUser("BENCHMARK");
+      student.setCreateDate(LocalDateTime.now());
+      student.setUpdateDate(LocalDateTime.now());
+      this.penRequestBatchEntity.getPenRequestBatchStudentEntities().add(student);
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteBatch() {
+    this.jdbcTemplate.update("DELETE FROM PEN_REQUEST_BATCH_STUDENT");
+    this.jdbcTemplate.update("DELETE FROM PEN_REQUEST_BATCH_HISTORY");
+    this.jdbcTemplate.update("DELETE FROM PEN_REQUEST_BATCH");
+  }
+
+  @Benchmark
+  public void hibernateCascade() {
+    this.transactionTemplate.executeWithoutResult(status -> this.penRequestBatchService.savePenRequestBatch(this.penRequestBatchEntity));
+  }
+
+  @Benchmark
+  public void jdbcBatchInsert() {
+    this.transactionTemplate.executeWithoutResult(status -> this.penRequestBatchService.saveLoadedPenRequestBatch(this.penRequestBatchEntity));
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PenRequestBatchLoadBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -27,6 +27,7 @@ import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -136,6 +137,35 @@ public class PenRequestBatchServiceTest extends BasePenRegAPITest {
     assertThat(result.getLoadFailCount()).isEqualTo(6L);
   }
 
+  @Test
+  @Transactional
+  public void testSaveLoadedPenRequestBatch_givenBatchWithStudents_shouldInsertAllStudents() throws IOException {
+    final List<PenRequestBatch> batches = new ObjectMapper().readValue(new File(
+      Objects.requireNonNull(this.getClass().getClassLoader().getResource("mock_pen_req_batch_ids.json")).getFile()), new TypeReference<>() {
+    });
+    final PenRequestBatchEntity batch = PenRequestBatchTestUtils.populateAuditColumns(PenRequestBatchMapper.mapper.toModel(batches.get(0)));
+    final List<PenRequestBatchStudentEntity> students = new ObjectMapper().readValue(new File(
+      Objects.requireNonNull(this.getClass().getClassLoader().getResource("mock_pen_req_batch_student_ids.json")).getFile()), new TypeReference<>() {
+    });
+    int recordNumber = 1;
+    for (final var student : students) {
+      PenRequestBatchTestUtils.populateAuditColumns(student).setRecordNumber(recordNumber++);
+      student.setPenRequestBatchEntity(batch);
+      batch.getPenRequestBatchStudentEntities().add(student);
+    }
+
+    final var savedBatch = this.prbService.saveLoadedPenRequestBatch(batch);
+
+    assertThat(savedBatch.getPenRequestBatchID()).isNotNull();
+    assertThat(savedBatch.getPenRequestBatchStudentEntities()).hasSize(8).allSatisfy(student -> assertThat(student.getPenRequestBatchStudentID()).isNotNull());
+    final var studentsFromDB = this.prbStudentRepository.findAllByPenRequestBatchEntity(this.prbRepository.findById(savedBatch.getPenRequestBatchID()).orElseThrow());
+    assertThat(studentsFromDB).hasSize(8);
+    final Function<PenRequestBatchStudentEntity, List<Object>> columns = student -> Arrays.asList(student.getPenRequestBatchStudentID(), student.getRecordNumber(),
+      student.getPenRequestBatchStudentStatusCode(), student.getLocalID(), student.getSubmittedPen(), student.getLegalLastName(), student.getLegalFirstName(),
+      student.getLegalMiddleNames(), student.getDob(), student.getGenderCode(), student.getGradeCode(), student.getPostalCode(), student.getAssignedPEN(), student.getStudentID());
+    assertThat(studentsFromDB.stream().map(columns).collect(toList())).containsExactlyInAnyOrderElementsOf(savedBatch.getPenRequestBatchStudentEntities().stream().map(columns).collect(toList()));
+  }
+
   @Test
   @Transactional
   public void testUnArchivedStatus_givenDataInDB_shouldBeUpdatedToReArchivedStatus() throws IOException {
@@ -0,0 +1,130 @@
+package ca.bc.gov.educ.penreg.api.service;
+
+import ca.bc.gov.educ.penreg.api.PenRegBatchApiApplication;
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
+import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
+import ca.bc.gov.educ.penreg.api.support.TestRedisConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static ca.bc.gov.educ.penreg.api.constants.SagaEnum.PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA;
+
+/**
+ * Compares writing the steps of sagas processed by many threads at the same time through the {@link SagaJournal}
+ * against a transaction per step, against the H2 database of the tests. The score is in saga steps per second, the
+ * commits counter in commits per second, the score over the commits is the steps per commit. H2 keeps the rows in
+ * memory, so a commit costs much less than the log flush and the round trip it costs on oracle. Run it with `mvn test-compile` and
+ * then the main method, with the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SagaJournalBenchmark {
+
+  @Param({"false", "true"})
+  public boolean journal;
+
+  private ConfigurableApplicationContext context;
+
+  private SagaService sagaService;
+
+  private SagaJournal sagaJournal;
+
+  private SagaRepository sagaRepository;
+
+  private TransactionTemplate transactionTemplate;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    this.context = new SpringApplicationBuilder(TestRedisConfiguration.class, PenRegBatchApiApplication.class).profiles("test").run();
+    this.sagaService = this.context.getBean(SagaService.class);
+    this.sagaJournal = this.context.getBean(SagaJournal.class);
+    this.sagaRepository = this.context.getBean(SagaRepository.class);
+    this.transactionTemplate = new TransactionTemplate(this.context.getBean(PlatformTransactionManager.class));
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    final var jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+    jdbcTemplate.update("DELETE FROM PEN_REQUEST_BATCH_SAGA_EVENT_STATES");
+    jdbcTemplate.update("DELETE FROM PEN_REQUEST_BATCH_SAGA");
+    this.context.close();
+  }
+
+  /**
+   * The saga a benchmark thread runs, each invocation is its next step.
+   */
+  @State(Scope.Thread)
+  public static class SagaState {
+    private Saga saga;
+
+    private int stepNumber;
+
+    @Setup(Level.Trial)
+    public void createSaga(final SagaJournalBenchmark benchmark) {
+      this.saga = benchmark.sagaService.createSagaRecordInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), "BENCHMARK", "{}", null, null);
+    }
+  }
+
+  /**
+   * The commits of the iteration. The journal commits the steps of all the threads together, so its commits are
+   * reported by the first thread alone, the counters of the threads are summed.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class CommitCounter {
+    public long commits;
+
+    private boolean journalReporter;
+
+    private long startCommits;
+
+    @Setup(Level.Iteration)
+    public void reset(final SagaJournalBenchmark benchmark, final ThreadParams threadParams) {
+      this.commits = 0;
+      this.journalReporter = threadParams.getThreadIndex() == 0;
+      this.startCommits = benchmark.sagaJournal.getCommits();
+    }
+  }
+
+  @Benchmark
+  public void writeSagaStep(final SagaState sagaState, final CommitCounter commitCounter) {
+    final var saga = sagaState.saga;
+    final var sagaEvent = SagaEvent.builder().saga(saga).sagaEventState("BENCHMARK").sagaEventOutcome(String.valueOf(sagaState.stepNumber))
+      .sagaStepNumber(++sagaState.stepNumber).sagaEventResponse("{}")
+      .createUser("BENCHMARK").createDate(LocalDateTime.now()).updateUser("BENCHMARK").updateDate(LocalDateTime.now()).build();
+    if (this.journal) {
+      this.sagaService.appendSagaEvent(saga, sagaEvent).join();
+      if (commitCounter.journalReporter) {
+        commitCounter.commits = this.sagaJournal.getCommits() - commitCounter.startCommits;
+      }
+    } else {
+      saga.setUpdateDate(LocalDateTime.now());
+      this.transactionTemplate.executeWithoutResult(status -> this.sagaRepository.recordSagaEvents(List.of(sagaEvent)));
+      commitCounter.commits++;
+    }
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SagaJournalBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,160 @@
+package ca.bc.gov.educ.penreg.api.service;
+
+import ca.bc.gov.educ.penreg.api.BasePenRegAPITest;
+import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.model.v1.Saga;
+import ca.bc.gov.educ.penreg.api.model.v1.SagaEvent;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import ca.bc.gov.educ.penreg.api.repository.SagaRepository;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static ca.bc.gov.educ.penreg.api.constants.SagaEnum.PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SagaJournalTest extends BasePenRegAPITest {
+
+  @Autowired
+  private SagaService sagaService;
+
+  @Autowired
+  private SagaJournal sagaJournal;
+
+  @Test
+  public void testAppend_givenStepsOfSeveralSagas_shouldWriteThemTogetherInOrder() {
+    final List<Saga> sagas = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      sagas.add(this.sagaService.createSagaRecordInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), "Test", "{}", null, null));
+    }
+    final long commits = this.sagaJournal.getCommits();
+    final List<CompletableFuture<Void>> committed = new ArrayList<>();
+    for (final Saga saga : sagas) {
+      committed.add(this.sagaService.appendSagaEvent(saga, this.createSagaEvent(saga, EventType.INITIATED, EventOutcome.INITIATE_SUCCESS, 1)));
+      committed.add(this.sagaService.appendSagaEvent(saga, this.createSagaEvent(saga, EventType.VALIDATE_STUDENT_DEMOGRAPHICS, EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING, 2)));
+    }
+    CompletableFuture.allOf(committed.toArray(new CompletableFuture[0])).join();
+
+    assertThat(this.sagaJournal.getCommits() - commits).isLessThan(committed.size());
+    for (final Saga saga : sagas) {
+      assertThat(this.sagaService.findAllSagaStates(saga)).extracting(SagaEvent::getSagaEventState, SagaEvent::getSagaStepNumber)
+        .containsExactlyInAnyOrder(tuple(EventType.INITIATED.toString(), 1), tuple(EventType.VALIDATE_STUDENT_DEMOGRAPHICS.toString(), 2));
+      final var sagaFromDB = this.sagaService.findSagaById(saga.getSagaId()).orElseThrow();
+      assertThat(sagaFromDB.getSagaState()).isEqualTo(EventType.VALIDATE_STUDENT_DEMOGRAPHICS.toString());
+      assertThat(sagaFromDB.getLastSagaStepNumber()).isEqualTo(2);
+      assertThat(sagaFromDB.getLastSagaEventID()).isEqualTo(saga.getLastSagaEventID());
+    }
+  }
+
+  @Test
+  public void testAppend_givenReplayedStep_shouldNotRecordItAgain() {
+    final Saga saga = this.sagaService.createSagaRecordInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), "Test", "{}", null, null);
+    this.sagaService.updateAttachedSagaWithEvents(saga, this.createSagaEvent(saga, EventType.INITIATED, EventOutcome.INITIATE_SUCCESS, 1));
+    final var sagaEventID = saga.getLastSagaEventID();
+
+    this.sagaService.updateAttachedSagaWithEvents(saga, this.createSagaEvent(saga, EventType.INITIATED, EventOutcome.INITIATE_SUCCESS, 2));
+
+    assertThat(this.sagaService.findAllSagaStates(saga)).hasSize(1);
+    final var sagaFromDB = this.sagaService.findSagaById(saga.getSagaId()).orElseThrow();
+    assertThat(sagaFromDB.getLastSagaEventID()).isEqualTo(sagaEventID);
+    assertThat(sagaFromDB.getLastSagaStepNumber()).isEqualTo(1);
+  }
+
+  @Test
+  public void testAppend_givenStepDeliveredTwice_shouldRecordItOnce() {
+    final Saga saga = this.sagaService.createSagaRecordInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), "Test", "{}", null, null);
+    this.sagaService.updateAttachedSagaWithEvents(saga, this.createSagaEvent(saga, EventType.INITIATED, EventOutcome.INITIATE_SUCCESS, 1));
+    final var sagaEventID = saga.getLastSagaEventID();
+
+    final var duplicateSagaEvent = this.createSagaEvent(saga, EventType.INITIATED, EventOutcome.INITIATE_SUCCESS, 1);
+    this.sagaService.updateAttachedSagaWithEvents(saga, duplicateSagaEvent);
+
+    assertThat(duplicateSagaEvent.getSagaEventId()).isNull();
+    assertThat(this.sagaService.findAllSagaStates(saga)).extracting(SagaEvent::getSagaEventId).containsExactly(sagaEventID);
+    assertThat(this.sagaService.findSagaById(saga.getSagaId()).orElseThrow().getLastSagaEventID()).isEqualTo(sagaEventID);
+  }
+
+  @Test
+  public void testAppend_givenStepRolledBack_shouldKeepTheCheckpointOfTheLastCommittedStep() {
+    final Saga saga = this.sagaService.createSagaRecordInDB(PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA.toString(), "Test", "{}", null, null);
+    this.sagaService.updateAttachedSagaWithEvents(saga, this.createSagaEvent(saga, EventType.INITIATED, EventOutcome.INITIATE_SUCCESS, 1));
+    final var sagaEventID = saga.getLastSagaEventID();
+
+    final var sagaEvent = this.createSagaEvent(saga, EventType.VALIDATE_STUDENT_DEMOGRAPHICS, EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING, 2);
+    saga.setSagaState("X".repeat(300)); // the event is merged, the update of the saga fails.
+
+    assertThatThrownBy(() -> this.sagaService.appendSagaEvent(saga, sagaEvent).join()).isInstanceOf(CompletionException.class);
+    assertThat(sagaEvent.getSagaEventId()).isNull();
+    assertThat(saga.getLastSagaEventID()).isEqualTo(sagaEventID);
+    assertThat(saga.getLastSagaEventState()).isEqualTo(EventType.INITIATED.toString());
+    assertThat(saga.getLastSagaEventOutcome()).isEqualTo(EventOutcome.INITIATE_SUCCESS.toString());
+    assertThat(saga.getLastSagaStepNumber()).isEqualTo(1);
+    assertThat(this.sagaService.findAllSagaStates(saga)).extracting(SagaEvent::getSagaEventId).containsExactly(sagaEventID);
+  }
+
+  @Test
+  public void testAppend_givenWriterStalled_shouldTimeOutOnlyTheStepsItDidNotTake() throws InterruptedException {
+    final var sagaRepository = mock(SagaRepository.class);
+    final var transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    final var writing = new CountDownLatch(1);
+    final var lockReleased = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      writing.countDown();
+      lockReleased.await(); // a row lock held longer than the timeout.
+      return null;
+    }).when(sagaRepository).recordSagaEvents(any());
+    final var applicationProperties = new ApplicationProperties();
+    applicationProperties.setSagaJournalMaxBatchSize(1);
+    applicationProperties.setSagaJournalLingerMillis(0);
+    applicationProperties.setSagaJournalTimeoutSeconds(1);
+    final var journal = new SagaJournal(sagaRepository, transactionManager, applicationProperties);
+    final var saga = Saga.builder().build();
+    final var takenSagaEvent = this.createSagaEvent(saga, EventType.INITIATED, EventOutcome.INITIATE_SUCCESS, 1);
+    final var queuedSagaEvent = this.createSagaEvent(saga, EventType.VALIDATE_STUDENT_DEMOGRAPHICS, EventOutcome.VALIDATION_SUCCESS_NO_ERROR_WARNING, 2);
+
+    final var taken = journal.append(takenSagaEvent);
+    assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+    final var queued = journal.append(queuedSagaEvent);
+
+    assertThatThrownBy(queued::join).hasCauseInstanceOf(TimeoutException.class);
+    assertThat(taken).isNotDone();
+    lockReleased.countDown();
+    taken.join();
+    journal.close();
+    verify(sagaRepository).recordSagaEvents(List.of(takenSagaEvent));
+  }
+
+  private SagaEvent createSagaEvent(final Saga saga, final EventType eventType, final EventOutcome eventOutcome, final int sagaStepNumber) {
+    saga.setSagaState(eventType.toString());
+    return SagaEvent.builder()
+      .createDate(LocalDateTime.now())
+      .createUser("Test")
+      .updateDate(LocalDateTime.now())
+      .updateUser("Test")
+      .saga(saga)
+      .sagaEventOutcome(eventOutcome.toString())
+      .sagaEventState(eventType.toString())
+      .sagaStepNumber(sagaStepNumber)
+      .sagaEventResponse("{}")
+      .build();
+  }
+}
@@ -0,0 +1,86 @@
+package ca.bc.gov.educ.penreg.api.support;
+
+import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.struct.Event;
+import ca.bc.gov.educ.penreg.api.struct.PenMatchRecord;
+import ca.bc.gov.educ.penreg.api.struct.PenMatchResult;
+import ca.bc.gov.educ.penreg.api.util.JsonUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.nats.client.Message;
+import lombok.Getter;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Stands in for the pen match api when the pen match requests are sent in batches, answers the requests of
+ * {@link ca.bc.gov.educ.penreg.api.messaging.MessagePublisher#requestMessage(String, byte[])}. Each student of a
+ * {@code PROCESS_PEN_MATCH_BATCH} event is matched to a pen derived from its saga id, the reply arrives after the given
+ * delay, like the round trip to the api. The students of the sagas given to {@link #drop(UUID)} are left out of the reply.
+ */
+public class PenMatchBatchStubResponder implements Answer<CompletableFuture<Message>> {
+
+  private final long delayMillis;
+
+  /**
+   * The number of students of each batch received.
+   */
+  @Getter
+  private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+  private final Set<UUID> dropped = ConcurrentHashMap.newKeySet();
+
+  public PenMatchBatchStubResponder(final long delayMillis) {
+    this.delayMillis = delayMillis;
+  }
+
+  /**
+   * Leave the student of the saga out of the reply to its batch.
+   *
+   * @param sagaID the saga id
+   */
+  public void drop(final UUID sagaID) {
+    this.dropped.add(sagaID);
+  }
+
+  /**
+   * The pen the stub matches the student of the saga to.
+   *
+   * @param sagaID the saga id
+   * @return the pen
+   */
+  public static String matchingPEN(final UUID sagaID) {
+    return String.valueOf(100000000 + Math.floorMod(sagaID.hashCode(), 899999999));
+  }
+
+  @Override
+  public CompletableFuture<Message> answer(final InvocationOnMock invocation) throws Throwable {
+    final Event batchEvent = JsonUtil.getEventFromByteArray(invocation.getArgument(1));
+    final List<Event> penMatchEvents = JsonUtil.mapper.readValue(batchEvent.getEventPayload(), new TypeReference<>() {
+    });
+    this.batchSizes.add(penMatchEvents.size());
+    final List<Event> replies = penMatchEvents.stream().filter(penMatchEvent -> !this.dropped.contains(penMatchEvent.getSagaId()))
+      .map(this::match).collect(Collectors.toList());
+    final var replyEvent = Event.builder().sagaId(batchEvent.getSagaId()).eventType(EventType.PROCESS_PEN_MATCH_BATCH)
+      .eventOutcome(EventOutcome.PEN_MATCH_BATCH_PROCESSED).eventPayload(JsonUtil.getJsonStringFromObject(replies)).build();
+    final Message message = NatsMessageImpl.builder().data(JsonUtil.getJsonStringFromObject(replyEvent).getBytes(StandardCharsets.UTF_8)).build();
+    return CompletableFuture.supplyAsync(() -> message, CompletableFuture.delayedExecutor(this.delayMillis, TimeUnit.MILLISECONDS));
+  }
+
+  private Event match(final Event penMatchEvent) {
+    final var penMatchResult = PenMatchResult.builder().penStatus("AA")
+      .matchingRecords(List.of(PenMatchRecord.builder().matchingPEN(matchingPEN(penMatchEvent.getSagaId())).studentID(UUID.randomUUID().toString()).build())).build();
+    return Event.builder().sagaId(penMatchEvent.getSagaId()).eventType(EventType.PROCESS_PEN_MATCH).eventOutcome(EventOutcome.PEN_MATCH_PROCESSED)
+      .eventPayload(JsonUtil.getJsonString(penMatchResult).orElseThrow()).build();
+  }
+}
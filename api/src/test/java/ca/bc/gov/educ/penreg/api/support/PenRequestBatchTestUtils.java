@@ -2,8 +2,10 @@ package ca.bc.gov.educ.penreg.api.support;
 
 import ca.bc.gov.educ.penreg.api.batch.exception.FileUnProcessableException;
 import ca.bc.gov.educ.penreg.api.batch.mappers.PenRequestBatchFileMapper;
+import ca.bc.gov.educ.penreg.api.batch.parser.PenRequestBatchFileParser;
 import ca.bc.gov.educ.penreg.api.batch.processor.PenRegBatchProcessor;
 import ca.bc.gov.educ.penreg.api.batch.struct.BatchFile;
+import ca.bc.gov.educ.penreg.api.batch.struct.ParsedBatchFile;
 import ca.bc.gov.educ.penreg.api.constants.*;
 import ca.bc.gov.educ.penreg.api.mappers.v1.PenRequestBatchHistoryMapper;
 import ca.bc.gov.educ.penreg.api.mappers.v1.PenRequestBatchMapper;
@@ -19,8 +21,6 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.val;
-import net.sf.flatpack.DataSet;
-import net.sf.flatpack.DefaultParserFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.util.Pair;
@@ -81,9 +81,18 @@ public class PenRequestBatchTestUtils {
   @Autowired
   private PenWebBlobRepository penWebBlobRepository;
 
+  /**
+   * The Pen web blob claim repository.
+   */
+  @Autowired
+  private PenWebBlobClaimRepository penWebBlobClaimRepository;
+
   @Autowired
   private PenRegBatchProcessor penRegBatchProcessor;
 
+  @Autowired
+  private PenRequestBatchFileParser penRequestBatchFileParser;
+
   @Autowired
   private SagaService sagaService;
 
@@ -280,15 +289,14 @@ public class PenRequestBatchTestUtils {
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   public String createBatchStudentsFromFile(final String blobFileName, final String studentStatusCode, final String mincode) throws java.io.IOException,
     FileUnProcessableException {
-    try (final Reader mapperReader = new FileReader(Objects.requireNonNull(this.getClass().getClassLoader().getResource("mapper.xml")).getFile())) {
-      final File file = new File(Objects.requireNonNull(this.getClass().getClassLoader().getResource(blobFileName)).getFile());
-      final byte[] bFile = Files.readAllBytes(file.toPath());
-      final Optional<Reader> batchFileReaderOptional = Optional.of(new InputStreamReader(new ByteArrayInputStream(bFile)));
-      final DataSet ds = DefaultParserFactory.getInstance().newFixedLengthParser(mapperReader, batchFileReaderOptional.get()).setStoreRawDataToDataError(true).setStoreRawDataToDataSet(true).setNullEmptyStrings(true).parse();
+    final File file = new File(Objects.requireNonNull(this.getClass().getClassLoader().getResource(blobFileName)).getFile());
+    final byte[] bFile = Files.readAllBytes(file.toPath());
+    try (final Reader batchFileReader = new InputStreamReader(new ByteArrayInputStream(bFile))) {
+      final ParsedBatchFile parsedBatchFile = this.penRequestBatchFileParser.parse(batchFileReader);
       final var randomNum = (new Random().nextLong() * (MAX - MIN + 1) + MIN);
 
       final BatchFile batchFile = new BatchFile();
-      this.penRegBatchProcessor.populateBatchFile(UUID.randomUUID().toString(), ds, batchFile);
+      this.penRegBatchProcessor.populateBatchFile(UUID.randomUUID().toString(), parsedBatchFile, batchFile);
 
       assertThat(batchFile.getBatchFileHeader()).isNotNull();
       final String submissionNumber = ("T" + randomNum).substring(0, 8);
@@ -326,6 +334,7 @@ public class PenRequestBatchTestUtils {
     this.studentRepository.deleteAll();
     this.penRequestBatchHistoryRepository.deleteAll();
     this.penWebBlobRepository.deleteAll();
+    this.penWebBlobClaimRepository.deleteAll();
     this.repository.deleteAll();
 
   }
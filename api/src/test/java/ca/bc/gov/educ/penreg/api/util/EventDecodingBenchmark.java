@@ -0,0 +1,60 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.struct.Event;
+import ca.bc.gov.educ.penreg.api.struct.PenMatchRecord;
+import ca.bc.gov.educ.penreg.api.struct.PenMatchResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding the event of a NATS message, the pen match result of a student saga, from a string built out of the
+ * bytes of the message, as the subscriber used to, against the bytes themselves through the event reader of
+ * {@link JsonUtil}. The score is in events per second. Run it with `mvn test-compile` and then the main method, with the
+ * test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventDecodingBenchmark {
+
+  private byte[] message;
+
+  @Setup(Level.Trial)
+  public void createMessage() throws JsonProcessingException {
+    final var penMatchResult = PenMatchResult.builder().penStatus("F1").penStatusMessage("BENCHMARK").matchingRecords(new ArrayList<>()).build();
+    for (int i = 0; i < 10; i++) {
+      penMatchResult.getMatchingRecords().add(PenMatchRecord.builder().matchingPEN(String.valueOf(120164440 + i)).studentID(UUID.randomUUID().toString()).build());
+    }
+    final var event = Event.builder().sagaId(UUID.randomUUID()).eventType(EventType.PROCESS_PEN_MATCH).eventOutcome(EventOutcome.PEN_MATCH_PROCESSED)
+      .replyTo("PEN_REQUEST_BATCH_STUDENT_PROCESSING_SAGA_TOPIC").eventPayload(JsonUtil.getJsonStringFromObject(penMatchResult)).build();
+    this.message = JsonUtil.getJsonStringFromObject(event).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Event decodeFromString() throws JsonProcessingException {
+    return JsonUtil.getJsonObjectFromString(Event.class, new String(this.message));
+  }
+
+  @Benchmark
+  public Event decodeFromBytes() throws IOException {
+    return JsonUtil.getEventFromByteArray(this.message);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(EventDecodingBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,27 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import ca.bc.gov.educ.penreg.api.constants.EventOutcome;
+import ca.bc.gov.educ.penreg.api.constants.EventType;
+import ca.bc.gov.educ.penreg.api.struct.Event;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonUtilTest {
+
+  @Test
+  public void testGetEventFromByteArray_givenUtf8Message_shouldKeepThePayloadAsAJsonString() throws IOException {
+    final var event = Event.builder().sagaId(UUID.randomUUID()).eventType(EventType.PROCESS_PEN_MATCH).eventOutcome(EventOutcome.PEN_MATCH_PROCESSED)
+      .eventPayload("{\"penStatus\":\"F1\",\"legalLastName\":\"SÉGUIN\"}").build();
+    final byte[] message = JsonUtil.getJsonStringFromObject(event).getBytes(StandardCharsets.UTF_8);
+
+    final var decoded = JsonUtil.getEventFromByteArray(message);
+
+    assertThat(decoded).isEqualTo(event);
+    assertThat(decoded.getEventPayload()).isEqualTo("{\"penStatus\":\"F1\",\"legalLastName\":\"SÉGUIN\"}");
+  }
+}
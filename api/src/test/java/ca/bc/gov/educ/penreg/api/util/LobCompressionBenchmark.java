@@ -0,0 +1,152 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import ca.bc.gov.educ.penreg.api.PenRegBatchApiApplication;
+import ca.bc.gov.educ.penreg.api.struct.PenMatchRecord;
+import ca.bc.gov.educ.penreg.api.struct.PenMatchResult;
+import ca.bc.gov.educ.penreg.api.struct.PenRequestBatchStudentSagaData;
+import ca.bc.gov.educ.penreg.api.support.TestRedisConfiguration;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing the LOBs of a student saga, its payload and the response of each of its steps, as plain json and
+ * compressed by {@link LobCompressionUtil}, against the H2 database of the tests, and the encoding of the LOBs alone.
+ * The score is in sagas per second, the lobBytesPerSaga counter is the bytes stored per saga. H2 keeps the rows in
+ * memory, so the writes show the cpu the compression costs but not the redo and the I/O it saves on oracle. Run it with
+ * `mvn test-compile` and then the main method, with the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LobCompressionBenchmark {
+
+  /**
+   * The number of steps of a student saga which found a match.
+   */
+  private static final int STEPS = 6;
+
+  private static final String INSERT_SAGA_SQL = "INSERT INTO PEN_REQUEST_BATCH_SAGA (SAGA_ID, SAGA_NAME, SAGA_STATE, PAYLOAD, STATUS," +
+    " CREATE_USER, CREATE_DATE, UPDATE_USER, UPDATE_DATE) VALUES (?, 'BENCHMARK', 'INITIATED', ?, 'STARTED', 'BENCHMARK', ?, 'BENCHMARK', ?)";
+
+  private static final String INSERT_SAGA_EVENT_SQL = "INSERT INTO PEN_REQUEST_BATCH_SAGA_EVENT_STATES (SAGA_EVENT_ID, SAGA_ID, SAGA_EVENT_STATE," +
+    " SAGA_EVENT_OUTCOME, SAGA_STEP_NUMBER, SAGA_EVENT_RESPONSE, CREATE_USER, CREATE_DATE, UPDATE_USER, UPDATE_DATE)" +
+    " VALUES (?, ?, 'BENCHMARK', 'BENCHMARK', ?, ?, 'BENCHMARK', ?, 'BENCHMARK', ?)";
+
+  @Param({"false", "true"})
+  public boolean compressed;
+
+  private ConfigurableApplicationContext context;
+
+  private TransactionTemplate transactionTemplate;
+
+  private JdbcTemplate jdbcTemplate;
+
+  private byte[] sagaPayload;
+
+  private byte[] sagaEventResponse;
+
+  @Setup(Level.Trial)
+  public void startApplication() throws JsonProcessingException {
+    this.context = new SpringApplicationBuilder(TestRedisConfiguration.class, PenRegBatchApiApplication.class).profiles("test").run();
+    this.transactionTemplate = this.context.getBean(TransactionTemplate.class);
+    this.jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+    final var penMatchResult = PenMatchResult.builder().penStatus("F1").penStatusMessage("BENCHMARK").matchingRecords(new ArrayList<>()).build();
+    for (int i = 0; i < 10; i++) {
+      penMatchResult.getMatchingRecords().add(PenMatchRecord.builder().matchingPEN(String.valueOf(120164440 + i)).studentID(UUID.randomUUID().toString()).build());
+    }
+    final var sagaData = PenRequestBatchStudentSagaData.builder().penRequestBatchStudentID(UUID.randomUUID()).penRequestBatchID(UUID.randomUUID())
+      .penRequestBatchStudentStatusCode("LOADED").mincode("10200030").localID("100001").submittedPen("120164447")
+      .legalFirstName("GIVEN").legalMiddleNames("MIDDLE").legalLastName("SURNAME").usualFirstName("GIVEN").usualLastName("SURNAME")
+      .dob("20000101").genderCode("F").gradeCode("12").postalCode("V8N1H8").createUser("BENCHMARK").updateUser("BENCHMARK")
+      .penMatchResult(penMatchResult).build();
+    this.sagaPayload = JsonUtil.getJsonStringFromObject(sagaData).getBytes(StandardCharsets.UTF_8);
+    this.sagaEventResponse = JsonUtil.getJsonStringFromObject(penMatchResult).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    this.jdbcTemplate.update("DELETE FROM PEN_REQUEST_BATCH_SAGA_EVENT_STATES");
+    this.jdbcTemplate.update("DELETE FROM PEN_REQUEST_BATCH_SAGA");
+    this.context.close();
+  }
+
+  /**
+   * The LOB bytes written by the iteration.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class LobBytesCounter {
+    private long sagas;
+
+    private long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      this.sagas = 0;
+      this.bytes = 0;
+    }
+
+    public long lobBytesPerSaga() {
+      return this.sagas == 0 ? 0 : this.bytes / this.sagas;
+    }
+  }
+
+  @Benchmark
+  public void writeSaga(final LobBytesCounter lobBytesCounter) {
+    this.transactionTemplate.executeWithoutResult(status -> {
+      final byte[] sagaId = this.toBytes(UUID.randomUUID());
+      final var now = new Timestamp(System.currentTimeMillis());
+      final byte[] payload = this.encode(this.sagaPayload);
+      long bytes = payload.length;
+      this.jdbcTemplate.update(INSERT_SAGA_SQL, sagaId, payload, now, now);
+      final List<Object[]> sagaEvents = new ArrayList<>(STEPS);
+      for (int step = 1; step <= STEPS; step++) {
+        final byte[] sagaEventResponse = this.encode(this.sagaEventResponse);
+        bytes += sagaEventResponse.length;
+        sagaEvents.add(new Object[]{this.toBytes(UUID.randomUUID()), sagaId, step, sagaEventResponse, now, now});
+      }
+      this.jdbcTemplate.batchUpdate(INSERT_SAGA_EVENT_SQL, sagaEvents);
+      lobBytesCounter.sagas++;
+      lobBytesCounter.bytes += bytes;
+    });
+  }
+
+  @Benchmark
+  public int encodeSaga() {
+    int bytes = this.encode(this.sagaPayload).length;
+    for (int step = 1; step <= STEPS; step++) {
+      bytes += this.encode(this.sagaEventResponse).length;
+    }
+    return bytes;
+  }
+
+  private byte[] encode(final byte[] json) {
+    return this.compressed ? LobCompressionUtil.compress(json) : json;
+  }
+
+  private byte[] toBytes(final UUID uuid) {
+    return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(LobCompressionBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,80 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import ca.bc.gov.educ.penreg.api.model.v1.CompressedLobConverter;
+import ca.bc.gov.educ.penreg.api.properties.ApplicationProperties;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LobCompressionUtilTest {
+
+  @Test
+  public void testCompress_givenJson_shouldBeSmallerAndDecompressToTheSameJson() {
+    final byte[] json = this.createJson(100);
+    final byte[] compressed = LobCompressionUtil.compress(json);
+
+    assertThat(LobCompressionUtil.isCompressed(compressed)).isTrue();
+    assertThat(compressed.length).isLessThan(json.length / 4);
+    assertThat(LobCompressionUtil.decompress(compressed)).isEqualTo(json);
+  }
+
+  @Test
+  public void testCompress_givenSmallJson_shouldStoreItAsItIs() {
+    final byte[] json = "[]".getBytes(StandardCharsets.UTF_8);
+
+    assertThat(LobCompressionUtil.compress(json)).isSameAs(json);
+    assertThat(LobCompressionUtil.compress(null)).isNull();
+  }
+
+  @Test
+  public void testDecompress_givenJsonStoredBeforeTheCompression_shouldReturnItAsItIs() {
+    final byte[] json = this.createJson(100);
+
+    assertThat(LobCompressionUtil.isCompressed(json)).isFalse();
+    assertThat(LobCompressionUtil.decompress(json)).isSameAs(json);
+    assertThat(LobCompressionUtil.decompress(new byte[0])).isEmpty();
+    assertThat(LobCompressionUtil.decompress(null)).isNull();
+  }
+
+  @Test
+  public void testCompressedLobConverter_givenCompressionOff_shouldWritePlainJsonAndReadBothFormats() {
+    final var applicationProperties = new ApplicationProperties();
+    applicationProperties.setLobCompressionEnabled(false);
+    final var converter = new CompressedLobConverter(applicationProperties);
+    final byte[] json = this.createJson(100);
+
+    assertThat(converter.convertToDatabaseColumn(json)).isSameAs(json);
+    assertThat(converter.convertToEntityAttribute(json)).isSameAs(json);
+    assertThat(converter.convertToEntityAttribute(LobCompressionUtil.compress(json))).isEqualTo(json);
+  }
+
+  @Test
+  public void testCompress_givenManyValuesOnManyThreads_shouldDecompressEachToItsJson() throws Exception {
+    final var executor = Executors.newFixedThreadPool(4);
+    final List<Future<Boolean>> roundTrips = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      final byte[] json = this.createJson(i + 10);
+      roundTrips.add(executor.submit(() -> Arrays.equals(LobCompressionUtil.decompress(LobCompressionUtil.compress(json)), json)));
+    }
+    for (final Future<Boolean> roundTrip : roundTrips) {
+      assertThat(roundTrip.get()).isTrue();
+    }
+    executor.shutdown();
+  }
+
+  private byte[] createJson(final int students) {
+    final StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < students; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"legalLastName\":\"SURNAME").append(i)
+        .append("\",\"legalFirstName\":\"GIVEN\",\"dob\":\"20000101\",\"genderCode\":\"M\",\"penRequestBatchStudentStatusCode\":\"LOADED\"}");
+    }
+    return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,44 @@
+package ca.bc.gov.educ.penreg.api.util;
+
+import ca.bc.gov.educ.penreg.api.model.v1.PenRequestBatchStudentEntity;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepeatCheckFingerprintUtilTest {
+
+  @Test
+  public void testFingerprint_givenRequestWithSameFields_shouldBeTheSame() {
+    final var request = this.createRequest("SMITH", "JOHN", null);
+    final var repeatRequest = this.createRequest("SMITH", "JOHN", "");
+    repeatRequest.setAssignedPEN("123456789");
+
+    assertThat(RepeatCheckFingerprintUtil.fingerprint(request)).hasSize(64).isEqualTo(RepeatCheckFingerprintUtil.fingerprint(repeatRequest));
+  }
+
+  @Test
+  public void testFingerprint_givenFieldsWhichOnlyMatchOnceConcatenated_shouldBeDifferent() {
+    assertThat(RepeatCheckFingerprintUtil.fingerprint(this.createRequest("SMITH", "JOHN", null)))
+      .isNotEqualTo(RepeatCheckFingerprintUtil.fingerprint(this.createRequest("SMIT", "HJOHN", null)))
+      .isNotEqualTo(RepeatCheckFingerprintUtil.fingerprint(this.createRequest("SMITH", "JOHN", "null")));
+  }
+
+  @Test
+  public void testFingerprint_givenRequest_shouldBeTheHashTheMigrationComputes() {
+    // SHA-256 of -1:-1:4:JOHN-1:5:SMITH-1:-1:-1:8:200001011:M2:126:V8N1H8
+    assertThat(RepeatCheckFingerprintUtil.fingerprint(this.createRequest("SMITH", "JOHN", null)))
+      .isEqualTo("c9b3a26d34411ae0039269c0eb6c7ce682715fe27a65a9d4cf827363e854881f");
+  }
+
+  private PenRequestBatchStudentEntity createRequest(final String legalLastName, final String legalFirstName, final String legalMiddleNames) {
+    final var request = new PenRequestBatchStudentEntity();
+    request.setLegalLastName(legalLastName);
+    request.setLegalFirstName(legalFirstName);
+    request.setLegalMiddleNames(legalMiddleNames);
+    request.setDob("20000101");
+    request.setGenderCode("M");
+    request.setGradeCode("12");
+    request.setPostalCode("V8N1H8");
+    return request;
+  }
+}
@@ -200,8 +200,33 @@ PARSER_CONFIG="
 
 THREADS_MIN_SUBSCRIBER=4
 THREADS_MAX_SUBSCRIBER=6
+THREADS_SUBSCRIBER_QUEUE_DEPTH=200
+NATS_SUBSCRIBER_PENDING_LIMIT_MESSAGES=10000
+NATS_SUBSCRIBER_PENDING_LIMIT_BYTES=67108864
 SAGAS_MAX_PENDING=100
 SAGAS_MAX_PARALLEL=100
+SAGAS_STUDENT_PROCESSING_CHUNK_SIZE=20
+SAGAS_REPLAY_LEASE_MINUTES=5
+SAGAS_REPLAY_LEASE_MAX_MINUTES=60
+SAGAS_REPLAY_JETSTREAM_AFTER_MINUTES=30
+NATS_JETSTREAM_ENABLED=false
+NATS_JETSTREAM_STREAM_NAME=PEN_REG_BATCH_API_EVENTS
+NATS_JETSTREAM_FETCH_BATCH_SIZE=20
+NATS_JETSTREAM_ACK_WAIT_SECONDS=120
+NATS_JETSTREAM_MAX_DELIVER=10
+SAGAS_PAYLOAD_SECTION_MAX_INLINE_BYTES=65536
+LOB_COMPRESSION_ENABLED=false
+SAGAS_JOURNAL_MAX_BATCH_SIZE=100
+SAGAS_JOURNAL_LINGER_MILLIS=2
+SAGAS_JOURNAL_TIMEOUT_SECONDS=20
+PEN_MATCH_BATCH_ENABLED=false
+PEN_MATCH_BATCH_MAX_SIZE=50
+PEN_MATCH_BATCH_LINGER_MILLIS=5
+PURGE_RECORDS_SAGA_PARTITIONED=false
+PURGE_RECORDS_SAGA_DELETE_CHUNK_SIZE=10000
+THREADS_PEN_WEB_BLOB_EXTRACTOR=4
+PEN_WEB_BLOB_CLAIM_LEASE_MINUTES=5
+PEN_REQUEST_BATCH_STUDENT_INSERT_BATCH_SIZE=500
 
 SOFT_DELETED_RETENTION_DAYS=365
 SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PENWEB_PEN_WEB_BLOBS_CRON="-"
@@ -237,7 +262,7 @@ fi
 
 echo
 echo Creating config map "$APP_NAME"-config-map
-oc create -n "$OPENSHIFT_NAMESPACE"-"$envValue" configmap "$APP_NAME"-config-map --from-literal=TZ=$TZVALUE --from-literal=JDBC_URL="$DB_JDBC_CONNECT_STRING" --from-literal=ORACLE_USERNAME="$DB_USER" --from-literal=ORACLE_PASSWORD="$DB_PWD" --from-literal=SPRING_SECURITY_LOG_LEVEL=INFO --from-literal=SPRING_WEB_LOG_LEVEL=INFO --from-literal=APP_LOG_LEVEL=INFO --from-literal=SPRING_BOOT_AUTOCONFIG_LOG_LEVEL=INFO --from-literal=SPRING_SHOW_REQUEST_DETAILS=false --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PEN_WEB_BLOBS_CRON="$SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PEN_WEB_BLOBS_CRON" --from-literal=INSTITUTE_API_URL="http://institute-api-master.$COMMON_NAMESPACE-$envValue.svc.cluster.local:8080/api/v1/institute"  --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PENWEB_PEN_WEB_BLOBS_CRON="$SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PENWEB_PEN_WEB_BLOBS_CRON" --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PEN_WEB_BLOBS_CRON_LOCK_AT_LEAST_FOR="540s" --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PEN_WEB_BLOBS_CRON_LOCK_AT_MOST_FOR="580s" --from-literal=NATS_URL="$NATS_URL" --from-literal=NATS_CLUSTER="$NATS_CLUSTER" --from-literal=SPRING_JPA_SHOW_SQL="false" --from-literal=SCHEDULED_JOBS_EXTRACT_UNCOMPLETED_SAGAS_CRON="$SCHEDULED_JOBS_EXTRACT_UNCOMPLETED_SAGAS_CRON" --from-literal=SCHEDULED_JOBS_EXTRACT_UNCOMPLETED_SAGAS_CRON_LOCK_AT_LEAST_FOR="55s" --from-literal=SCHEDULED_JOBS_EXTRACT_UNCOMPLETED_SAGAS_CRON_LOCK_AT_MOST_FOR="57s" --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_STUDENTS_CRON="$SCHEDULED_JOBS_EXTRACT_UNPROCESSED_STUDENTS_CRON" --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_STUDENTS_CRON_LOCK_AT_LEAST_FOR="8s" --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_STUDENTS_CRON_LOCK_AT_MOST_FOR="8s" --from-literal=CLIENT_ID="pen-reg-batch-api-service" --from-literal=CLIENT_SECRET="$PRB_APIServiceClientSecret" --from-literal=STUDENT_API_URL="http://student-api-master.$COMMON_NAMESPACE-$envValue.svc.cluster.local:8080/api/v1/student" --from-literal=TOKEN_URL="https://$SOAM_KC/auth/realms/$SOAM_KC_REALM_ID/protocol/openid-connect/token" --from-literal=URL_REDIS="redis.$OPENSHIFT_NAMESPACE-$envValue.svc.cluster.local:6379" --from-literal=REPEAT_TIME_WINDOW_K12=0 --from-literal=REPEAT_TIME_WINDOW_PSI=0 --from-literal=SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE=16 --from-literal=SPRING_DATASOURCE_HIKARI_MINIMUM_IDLE=16 --from-literal=PEN_SERVICES_API_URL="http://pen-services-api-master.$OPENSHIFT_NAMESPACE-$envValue.svc.cluster.local:8080" --from-literal=HIBERNATE_SQL_PARAM_LOG_LEVEL=INFO --from-literal=PURGE_RECORDS_SAGA_AFTER_DAYS=365 --from-literal=SCHEDULED_JOBS_PURGE_OLD_SAGA_RECORDS_CRON="$SCHEDULED_JOBS_PURGE_OLD_SAGA_RECORDS_CRON" --from-literal=SOFT_DELETED_RETENTION_DAYS="$SOFT_DELETED_RETENTION_DAYS" --from-literal=SCHEDULED_JOBS_PURGE_SOFT_DELETED_RECORDS_CRON="$SCHEDULED_JOBS_PURGE_SOFT_DELETED_RECORDS_CRON" --from-literal=NATS_MAX_RECONNECT=60 --from-literal=HOLD_BATCHES_EQUAL_OR_LARGER_THAN=2500 --from-literal=DATA_MANAGEMENT_UNIT_EMAIL="$DATA_MANAGEMENT_UNIT_EMAIL" --from-literal=TOKEN_ISSUER_URL="https://$SOAM_KC/auth/realms/$SOAM_KC_REALM_ID" --from-literal=DATA_MANAGEMENT_UNIT_MAILING_ADDRESS="Ministry of Education and Child Care, Data Collection Unit PO Box 9886, Stn. Prov. Govt, Victoria BC, V8W 9T6" --from-literal=DATA_MANAGEMENT_UNIT_TELEPHONE="(250)356-8020" --from-literal=DATA_MANAGEMENT_UNIT_FACSIMILE="(250)953-0450" --from-literal=SCHEDULED_JOBS_MARK_PROCESSED_BATCHES_ACTIVE_CRON="$SCHEDULED_JOBS_MARK_PROCESSED_BATCHES_ACTIVE_CRON" --from-literal=SCHEDULED_JOBS_MARK_PROCESSED_BATCHES_ACTIVE_CRON_LOCK_AT_LEAST_FOR="50s" --from-literal=SCHEDULED_JOBS_MARK_PROCESSED_BATCHES_ACTIVE_LOCK_AT_MOST_FOR="55s" --from-literal=SCHEDULED_JOBS_PROCESS_LOADED_BATCHES_FOR_REPEATS_CRON="$SCHEDULED_JOBS_PROCESS_LOADED_BATCHES_FOR_REPEATS_CRON" --from-literal=SCHEDULED_JOBS_PROCESS_LOADED_BATCHES_FOR_REPEATS_CRON_LOCK_AT_LEAST_FOR="100s" --from-literal=SCHEDULED_JOBS_PROCESS_LOADED_BATCHES_FOR_REPEATS_CRON_LOCK_AT_MOST_FOR="110s" --from-literal=SKIP_VALIDATION_FOR_DISTRICT_CODES="102,104" --from-literal=STUDENT_THRESHOLD_GENERATE_PDF="500" --from-literal=THREADS_MIN_SUBSCRIBER="$THREADS_MIN_SUBSCRIBER" --from-literal=THREADS_MAX_SUBSCRIBER="$THREADS_MAX_SUBSCRIBER" --from-literal=SAGAS_MAX_PENDING="$SAGAS_MAX_PENDING" --from-literal=SAGAS_MAX_PARALLEL="$SAGAS_MAX_PARALLEL" --dry-run -o yaml | oc apply -f -
+oc create -n "$OPENSHIFT_NAMESPACE"-"$envValue" configmap "$APP_NAME"-config-map --from-literal=TZ=$TZVALUE --from-literal=JDBC_URL="$DB_JDBC_CONNECT_STRING" --from-literal=ORACLE_USERNAME="$DB_USER" --from-literal=ORACLE_PASSWORD="$DB_PWD" --from-literal=SPRING_SECURITY_LOG_LEVEL=INFO --from-literal=SPRING_WEB_LOG_LEVEL=INFO --from-literal=APP_LOG_LEVEL=INFO --from-literal=SPRING_BOOT_AUTOCONFIG_LOG_LEVEL=INFO --from-literal=SPRING_SHOW_REQUEST_DETAILS=false --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PEN_WEB_BLOBS_CRON="$SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PEN_WEB_BLOBS_CRON" --from-literal=INSTITUTE_API_URL="http://institute-api-master.$COMMON_NAMESPACE-$envValue.svc.cluster.local:8080/api/v1/institute"  --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PENWEB_PEN_WEB_BLOBS_CRON="$SCHEDULED_JOBS_EXTRACT_UNPROCESSED_PENWEB_PEN_WEB_BLOBS_CRON" --from-literal=PEN_WEB_BLOB_CLAIM_LEASE_MINUTES="$PEN_WEB_BLOB_CLAIM_LEASE_MINUTES" --from-literal=PEN_REQUEST_BATCH_STUDENT_INSERT_BATCH_SIZE="$PEN_REQUEST_BATCH_STUDENT_INSERT_BATCH_SIZE" --from-literal=NATS_URL="$NATS_URL" --from-literal=NATS_CLUSTER="$NATS_CLUSTER" --from-literal=SPRING_JPA_SHOW_SQL="false" --from-literal=SCHEDULED_JOBS_EXTRACT_UNCOMPLETED_SAGAS_CRON="$SCHEDULED_JOBS_EXTRACT_UNCOMPLETED_SAGAS_CRON" --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_STUDENTS_CRON="$SCHEDULED_JOBS_EXTRACT_UNPROCESSED_STUDENTS_CRON" --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_STUDENTS_CRON_LOCK_AT_LEAST_FOR="8s" --from-literal=SCHEDULED_JOBS_EXTRACT_UNPROCESSED_STUDENTS_CRON_LOCK_AT_MOST_FOR="8s" --from-literal=CLIENT_ID="pen-reg-batch-api-service" --from-literal=CLIENT_SECRET="$PRB_APIServiceClientSecret" --from-literal=STUDENT_API_URL="http://student-api-master.$COMMON_NAMESPACE-$envValue.svc.cluster.local:8080/api/v1/student" --from-literal=TOKEN_URL="https://$SOAM_KC/auth/realms/$SOAM_KC_REALM_ID/protocol/openid-connect/token" --from-literal=URL_REDIS="redis.$OPENSHIFT_NAMESPACE-$envValue.svc.cluster.local:6379" --from-literal=REPEAT_TIME_WINDOW_K12=0 --from-literal=REPEAT_TIME_WINDOW_PSI=0 --from-literal=SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE=16 --from-literal=SPRING_DATASOURCE_HIKARI_MINIMUM_IDLE=16 --from-literal=PEN_SERVICES_API_URL="http://pen-services-api-master.$OPENSHIFT_NAMESPACE-$envValue.svc.cluster.local:8080" --from-literal=HIBERNATE_SQL_PARAM_LOG_LEVEL=INFO --from-literal=PURGE_RECORDS_SAGA_AFTER_DAYS=365 --from-literal=PURGE_RECORDS_SAGA_PARTITIONED="$PURGE_RECORDS_SAGA_PARTITIONED" --from-literal=PURGE_RECORDS_SAGA_DELETE_CHUNK_SIZE="$PURGE_RECORDS_SAGA_DELETE_CHUNK_SIZE" --from-literal=SCHEDULED_JOBS_PURGE_OLD_SAGA_RECORDS_CRON="$SCHEDULED_JOBS_PURGE_OLD_SAGA_RECORDS_CRON" --from-literal=SOFT_DELETED_RETENTION_DAYS="$SOFT_DELETED_RETENTION_DAYS" --from-literal=SCHEDULED_JOBS_PURGE_SOFT_DELETED_RECORDS_CRON="$SCHEDULED_JOBS_PURGE_SOFT_DELETED_RECORDS_CRON" --from-literal=NATS_MAX_RECONNECT=60 --from-literal=HOLD_BATCHES_EQUAL_OR_LARGER_THAN=2500 --from-literal=DATA_MANAGEMENT_UNIT_EMAIL="$DATA_MANAGEMENT_UNIT_EMAIL" --from-literal=TOKEN_ISSUER_URL="https://$SOAM_KC/auth/realms/$SOAM_KC_REALM_ID" --from-literal=DATA_MANAGEMENT_UNIT_MAILING_ADDRESS="Ministry of Education and Child Care, Data Collection Unit PO Box 9886, Stn. Prov. Govt, Victoria BC, V8W 9T6" --from-literal=DATA_MANAGEMENT_UNIT_TELEPHONE="(250)356-8020" --from-literal=DATA_MANAGEMENT_UNIT_FACSIMILE="(250)953-0450" --from-literal=SCHEDULED_JOBS_MARK_PROCESSED_BATCHES_ACTIVE_CRON="$SCHEDULED_JOBS_MARK_PROCESSED_BATCHES_ACTIVE_CRON" --from-literal=SCHEDULED_JOBS_MARK_PROCESSED_BATCHES_ACTIVE_CRON_LOCK_AT_LEAST_FOR="50s" --from-literal=SCHEDULED_JOBS_MARK_PROCESSED_BATCHES_ACTIVE_LOCK_AT_MOST_FOR="55s" --from-literal=SCHEDULED_JOBS_PROCESS_LOADED_BATCHES_FOR_REPEATS_CRON="$SCHEDULED_JOBS_PROCESS_LOADED_BATCHES_FOR_REPEATS_CRON" --from-literal=SCHEDULED_JOBS_PROCESS_LOADED_BATCHES_FOR_REPEATS_CRON_LOCK_AT_LEAST_FOR="100s" --from-literal=SCHEDULED_JOBS_PROCESS_LOADED_BATCHES_FOR_REPEATS_CRON_LOCK_AT_MOST_FOR="110s" --from-literal=SKIP_VALIDATION_FOR_DISTRICT_CODES="102,104" --from-literal=STUDENT_THRESHOLD_GENERATE_PDF="500" --from-literal=THREADS_MIN_SUBSCRIBER="$THREADS_MIN_SUBSCRIBER" --from-literal=THREADS_MAX_SUBSCRIBER="$THREADS_MAX_SUBSCRIBER" --from-literal=THREADS_SUBSCRIBER_QUEUE_DEPTH="$THREADS_SUBSCRIBER_QUEUE_DEPTH" --from-literal=NATS_SUBSCRIBER_PENDING_LIMIT_MESSAGES="$NATS_SUBSCRIBER_PENDING_LIMIT_MESSAGES" --from-literal=NATS_SUBSCRIBER_PENDING_LIMIT_BYTES="$NATS_SUBSCRIBER_PENDING_LIMIT_BYTES" --from-literal=SAGAS_MAX_PENDING="$SAGAS_MAX_PENDING" --from-literal=SAGAS_MAX_PARALLEL="$SAGAS_MAX_PARALLEL" --from-literal=SAGAS_STUDENT_PROCESSING_CHUNK_SIZE="$SAGAS_STUDENT_PROCESSING_CHUNK_SIZE" --from-literal=SAGAS_REPLAY_LEASE_MINUTES="$SAGAS_REPLAY_LEASE_MINUTES" --from-literal=SAGAS_REPLAY_LEASE_MAX_MINUTES="$SAGAS_REPLAY_LEASE_MAX_MINUTES" --from-literal=SAGAS_REPLAY_JETSTREAM_AFTER_MINUTES="$SAGAS_REPLAY_JETSTREAM_AFTER_MINUTES" --from-literal=NATS_JETSTREAM_ENABLED="$NATS_JETSTREAM_ENABLED" --from-literal=NATS_JETSTREAM_STREAM_NAME="$NATS_JETSTREAM_STREAM_NAME" --from-literal=NATS_JETSTREAM_FETCH_BATCH_SIZE="$NATS_JETSTREAM_FETCH_BATCH_SIZE" --from-literal=NATS_JETSTREAM_ACK_WAIT_SECONDS="$NATS_JETSTREAM_ACK_WAIT_SECONDS" --from-literal=NATS_JETSTREAM_MAX_DELIVER="$NATS_JETSTREAM_MAX_DELIVER" --from-literal=SAGAS_PAYLOAD_SECTION_MAX_INLINE_BYTES="$SAGAS_PAYLOAD_SECTION_MAX_INLINE_BYTES" --from-literal=LOB_COMPRESSION_ENABLED="$LOB_COMPRESSION_ENABLED" --from-literal=SAGAS_JOURNAL_MAX_BATCH_SIZE="$SAGAS_JOURNAL_MAX_BATCH_SIZE" --from-literal=SAGAS_JOURNAL_LINGER_MILLIS="$SAGAS_JOURNAL_LINGER_MILLIS" --from-literal=SAGAS_JOURNAL_TIMEOUT_SECONDS="$SAGAS_JOURNAL_TIMEOUT_SECONDS" --from-literal=PEN_MATCH_BATCH_ENABLED="$PEN_MATCH_BATCH_ENABLED" --from-literal=PEN_MATCH_BATCH_MAX_SIZE="$PEN_MATCH_BATCH_MAX_SIZE" --from-literal=PEN_MATCH_BATCH_LINGER_MILLIS="$PEN_MATCH_BATCH_LINGER_MILLIS" --from-literal=THREADS_PEN_WEB_BLOB_EXTRACTOR="$THREADS_PEN_WEB_BLOB_EXTRACTOR" --dry-run -o yaml | oc apply -f -
 
 echo
 echo Setting environment variables for $APP_NAME-$SOAM_KC_REALM_ID application
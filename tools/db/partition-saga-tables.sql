@@ -0,0 +1,16 @@
+-- Partitions the saga event tables by month of create date, so that the purge of old saga records drops the expired
+-- partitions instead of deleting their rows. Run it once as the schema owner, then set PURGE_RECORDS_SAGA_PARTITIONED
+-- to true in the config map. It needs Oracle 12.2 or later with the partitioning option, the tables are converted
+-- online. The rows created before 2020 stay in the first partition, which the purge truncates as it can not be dropped.
+-- It is not a flyway migration, a deployment without partitioning keeps purging in chunks of deletes.
+-- PEN_REQUEST_BATCH_SAGA is not partitioned, the saga events reference it, so the sagas are always deleted in chunks.
+
+ALTER TABLE PEN_REQUEST_BATCH_SAGA_EVENT_STATES
+    MODIFY PARTITION BY RANGE (CREATE_DATE) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION PRB_SAGA_EVENT_P2019 VALUES LESS THAN (DATE '2020-01-01'))
+    ONLINE UPDATE INDEXES;
+
+ALTER TABLE PEN_REQUEST_BATCH_EVENT
+    MODIFY PARTITION BY RANGE (CREATE_DATE) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION PRB_EVENT_P2019 VALUES LESS THAN (DATE '2020-01-01'))
+    ONLINE UPDATE INDEXES;